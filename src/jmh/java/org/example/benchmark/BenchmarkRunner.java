@@ -0,0 +1,1336 @@
+package org.example.benchmark;
+
+import org.example.catalog.CatalogPage;
+import org.example.catalog.CatalogSort;
+import org.example.catalog.ColumnarCatalog;
+import org.example.catalog.ProductAutocomplete;
+import org.example.catalog.ProductCatalog;
+import org.example.catalog.SearchHit;
+import org.example.importer.CatalogImporter;
+import org.example.importer.ImportReport;
+import org.example.model.Money;
+import org.example.model.order.Cart;
+import org.example.model.order.CartItem;
+import org.example.model.order.Order;
+import org.example.model.order.User;
+import org.example.model.product.Product;
+import org.example.output.AsyncRingBufferSink;
+import org.example.output.ConsoleSink;
+import org.example.output.NoOpSink;
+import org.example.output.Output;
+import org.example.output.OutputSink;
+import org.example.patterns.strategy.CreditCardStrategy;
+import org.example.patterns.strategy.PaymentResult;
+import org.example.patterns.strategy.PaymentStrategy;
+import org.example.patterns.strategy.SimulatedPaymentGateway;
+import org.example.persistence.CatalogStore;
+import org.example.service.BatchCheckout;
+import org.example.service.OrderEventDispatcher;
+import org.example.service.OrderIdGenerator;
+import org.example.service.OrderRepository;
+import org.example.service.PaymentIdempotencyStore;
+import org.example.service.StockHold;
+import org.example.service.StockReservations;
+import org.example.persistence.MappedCatalog;
+import org.example.persistence.MappedCatalogWriter;
+import org.example.persistence.OrderStore;
+import org.example.patterns.factory.FactoryRegistry;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark Runner para medir el rendimiento de los componentes principales.
+ * 
+ * Mediciones simples con System.nanoTime(): cada caso incluye una fase de
+ * calentamiento y reporta el costo promedio por operacion. Vive junto a
+ * los benchmarks JMH, fuera del jar de produccion:
+ * {@code mvn -Pjmh compile exec:java -Dexec.mainClass=org.example.benchmark.BenchmarkRunner}
+ */
+public class BenchmarkRunner {
+
+    private static final int[] CATALOG_SIZES = {1_000, 100_000, 1_000_000};
+
+    /** Evita que el JIT elimine el trabajo medido */
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        System.out.println("╔════════════════════════════════════════════════════════╗");
+        System.out.println("║     SHOPTECH - BENCHMARK RUNNER                        ║");
+        System.out.println("╚════════════════════════════════════════════════════════╝\n");
+
+        benchmark1_ProductLookup();
+        benchmark2_FlashSale();
+        benchmark3_CartOutput();
+        benchmark4_CatalogJournal();
+        benchmark5_MappedCatalog();
+        benchmark6_CatalogImport();
+        benchmark7_ProductSearch();
+        benchmark8_Autocomplete();
+        benchmark9_CatalogPagination();
+        benchmark10_ColumnarCatalog();
+        benchmark11_StockReservations();
+        benchmark12_OrderIds();
+        benchmark13_OrderRepository();
+        benchmark14_OrderJournal();
+        benchmark15_BatchCheckout();
+        benchmark16_IdempotencyKeys();
+        benchmark17_AsyncPayments();
+    }
+
+    // ======================= BENCHMARKS =======================
+
+    /**
+     * Benchmark 1: Busqueda de productos por ID (indice vs recorrido lineal)
+     */
+    private static void benchmark1_ProductLookup() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 1: Product lookup by ID");
+
+        for (int size : CATALOG_SIZES) {
+            ProductCatalog catalog = buildCatalog(size);
+            List<Product> products = catalog.getAllProducts();
+            String[] ids = randomIds(size, 1_000_000);
+
+            // Calentamiento
+            lookupIndexed(catalog, ids);
+            double indexedNanos = (double) lookupIndexed(catalog, ids) / ids.length;
+
+            // El recorrido lineal es O(n): se limita el numero de busquedas
+            String[] scanIds = randomIds(size, Math.max(100, 20_000_000 / size));
+            lookupLinear(products, scanIds);
+            double linearNanos = (double) lookupLinear(products, scanIds) / scanIds.length;
+
+            report(String.format("%,d products - indexed", size), indexedNanos);
+            report(String.format("%,d products - linear scan", size), linearNanos);
+        }
+    }
+
+    /**
+     * Benchmark 2: Flash sale - 64 hilos compiten por el stock de un solo SKU
+     */
+    private static void benchmark2_FlashSale() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 2: Flash sale (64 threads, one SKU)");
+
+        final int threads = 64;
+        final int initialStock = 5_000_000;
+        FactoryRegistry registry = new FactoryRegistry();
+
+        for (int quantity : new int[] {1, 3}) {
+            Product product = registry.createProduct("ELECTRONICS", "FLASH-001", "Flash Deal", 99.0,
+                    initialStock, "Deals");
+            LongAdder unitsSold = new LongAdder();
+            LongAdder rejected = new LongAdder();
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(threads);
+            for (int t = 0; t < threads; t++) {
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                        while (product.getStock() >= quantity) {
+                            if (product.tryDecrement(quantity)) {
+                                unitsSold.add(quantity);
+                            } else {
+                                rejected.increment();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            long elapsed = System.nanoTime() - begin;
+            pool.shutdown();
+
+            long reservations = unitsSold.sum() / quantity;
+            boolean consistent = unitsSold.sum() + product.getStock() == initialStock && product.getStock() >= 0;
+            report("tryDecrement(" + quantity + ") - per reservation", (double) elapsed / reservations);
+            System.out.printf("   %-40s %,14d reservations/s%n", "throughput",
+                    (long) (reservations / (elapsed / 1e9)));
+            System.out.printf("   %-40s %14s%n", "sold + remaining == initial stock", consistent);
+            System.out.printf("   %-40s %,14d%n", "late rejections", rejected.sum());
+        }
+    }
+
+    /**
+     * Benchmark 3: Alta y baja en el carrito con cada destino de salida
+     */
+    private static void benchmark3_CartOutput() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 3: Cart add/remove with each output sink");
+
+        final int operations = 200_000;
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream(), true);
+        Product product = new FactoryRegistry().createProduct("ELECTRONICS", "OUT-001", "Output Item", 10.0,
+                operations, "Test");
+
+        AsyncRingBufferSink async = new AsyncRingBufferSink(8192, discard, discard);
+        OutputSink[] sinks = {new ConsoleSink(discard, discard), async, NoOpSink.INSTANCE};
+        String[] labels = {"console (synchronized println)", "async ring buffer", "no-op"};
+
+        OutputSink previous = Output.getSink();
+        try {
+            for (int s = 0; s < sinks.length; s++) {
+                Output.setSink(sinks[s]);
+                Cart cart = new Cart();
+                // Calentamiento
+                addAndRemove(cart, product, operations / 10);
+                long start = System.nanoTime();
+                addAndRemove(cart, product, operations);
+                Output.flush();
+                report(labels[s], (double) (System.nanoTime() - start) / operations);
+            }
+        } finally {
+            Output.setSink(previous);
+            async.close();
+        }
+    }
+
+    /**
+     * Benchmark 4: Journal del catalogo - escrituras con group commit y
+     * tiempo de reinicio con 1M de SKUs
+     */
+    private static void benchmark4_CatalogJournal() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 4: Catalog journal (group commit + restart)");
+
+        OutputSink previous = Output.setSink(NoOpSink.INSTANCE);
+        FactoryRegistry registry = new FactoryRegistry();
+        try {
+            // Escrituras durables: con mas hilos, cada fsync cubre mas registros
+            for (int threads : new int[] {1, 4, 16, 64}) {
+                Path dir = Files.createTempDirectory("shoptech-bench");
+                try (CatalogStore store = CatalogStore.open(dir, registry, true, 0)) {
+                    store.addProduct(registry.createProduct("ELECTRONICS", "J-001", "Journal Item", 10.0,
+                            Integer.MAX_VALUE, "Bench"));
+                    Product product = store.getCatalog().getProduct("J-001");
+                    final int perThread = 2_000 / threads * 4;
+                    long elapsed = runConcurrently(threads, () -> {
+                        for (int i = 0; i < perThread; i++) {
+                            product.tryDecrement(1);
+                        }
+                    });
+                    System.out.printf("   %-40s %,14d records/s%n", "fsync per commit, " + threads + " threads",
+                            (long) (threads * (double) perThread / (elapsed / 1e9)));
+                } finally {
+                    deleteRecursively(dir);
+                }
+            }
+
+            // Sin esperar el fsync: el hilo de sincronizacion escribe lotes de fondo
+            Path asyncDir = Files.createTempDirectory("shoptech-bench");
+            try (CatalogStore store = CatalogStore.open(asyncDir, registry, false, 0)) {
+                store.addProduct(registry.createProduct("ELECTRONICS", "J-001", "Journal Item", 10.0,
+                        Integer.MAX_VALUE, "Bench"));
+                Product product = store.getCatalog().getProduct("J-001");
+                final int records = 500_000;
+                long elapsed = runConcurrently(1, () -> {
+                    for (int i = 0; i < records; i++) {
+                        product.tryDecrement(1);
+                    }
+                });
+                System.out.printf("   %-40s %,14d records/s%n", "batched fsync (async), 1 thread",
+                        (long) (records / (elapsed / 1e9)));
+            } finally {
+                deleteRecursively(asyncDir);
+            }
+
+            // Reinicio con 1M de SKUs: snapshot + cola vs reproducir solo el journal
+            final int skus = 1_000_000;
+            final int tail = 100_000;
+            Path dir = Files.createTempDirectory("shoptech-bench");
+            try {
+                try (CatalogStore store = CatalogStore.open(dir, registry, false, 0)) {
+                    for (int i = 0; i < skus; i++) {
+                        store.addProduct(registry.createProduct(i % 2 == 0 ? "ELECTRONICS" : "CLOTHING",
+                                "SKU-" + i, "Product " + i, 10.0 + (i % 1000), 100, "Category " + (i % 50)));
+                    }
+                }
+
+                long journalOnly = timeRestart(dir, registry);
+                System.out.printf("   %-40s %,14d ms%n", "restart 1M SKUs - journal only", journalOnly);
+
+                try (CatalogStore store = CatalogStore.open(dir, registry, false, 0)) {
+                    store.snapshot();
+                    Random random = new Random(42);
+                    for (int i = 0; i < tail; i++) {
+                        store.getCatalog().getProduct("SKU-" + random.nextInt(skus)).tryDecrement(1);
+                    }
+                }
+                long withSnapshot = timeRestart(dir, registry);
+                System.out.printf("   %-40s %,14d ms%n", "restart 1M SKUs - snapshot + 100k tail", withSnapshot);
+
+                // Referencia: solo construir los indices en memoria, sin leer disco
+                long begin = System.nanoTime();
+                sink = buildCatalog(skus);
+                System.out.printf("   %-40s %,14d ms%n", "in-memory build 1M SKUs (no disk)",
+                        (System.nanoTime() - begin) / 1_000_000);
+            } finally {
+                deleteRecursively(dir);
+            }
+        } catch (IOException e) {
+            System.out.println("   Journal benchmark failed: " + e.getMessage());
+        } finally {
+            Output.setSink(previous);
+        }
+    }
+
+    /**
+     * Benchmark 5: Abrir un catalogo de 2M de productos mapeado en memoria
+     */
+    private static void benchmark5_MappedCatalog() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 5: Memory-mapped catalog (2M products)");
+
+        final int size = 2_000_000;
+        FactoryRegistry registry = new FactoryRegistry();
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("shoptech-bench");
+            Path file = dir.resolve("catalog.bin");
+            List<Product> products = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                products.add(registry.createProduct(i % 2 == 0 ? "ELECTRONICS" : "CLOTHING", "SKU-" + i,
+                        "Product " + i, 10.0 + (i % 1000), 100, "Category " + (i % 50)));
+            }
+            long begin = System.nanoTime();
+            MappedCatalogWriter.write(file, products);
+            System.out.printf("   %-40s %,14d ms (%,d MB)%n", "write", (System.nanoTime() - begin) / 1_000_000,
+                    Files.size(file) >> 20);
+            products = null;
+
+            begin = System.nanoTime();
+            MappedCatalog mapped = MappedCatalog.open(file, registry);
+            System.out.printf("   %-40s %,14.2f ms%n", "open", (System.nanoTime() - begin) / 1e6);
+
+            String[] ids = randomIds(size, 200_000);
+            begin = System.nanoTime();
+            for (String id : ids) {
+                sink = mapped.getProduct(id);
+            }
+            report("first lookup (binary search + create)", (double) (System.nanoTime() - begin) / ids.length);
+
+            begin = System.nanoTime();
+            for (String id : ids) {
+                sink = mapped.getProduct(id);
+            }
+            report("repeat lookup (already created)", (double) (System.nanoTime() - begin) / ids.length);
+            System.out.printf("   %-40s %,14d%n", "products created", mapped.materializedCount());
+        } catch (IOException e) {
+            System.out.println("   Mapped catalog benchmark failed: " + e.getMessage());
+        } finally {
+            if (dir != null) {
+                deleteRecursively(dir);
+            }
+        }
+    }
+
+    /**
+     * Benchmark 6: Importar un feed CSV de 1M de filas
+     */
+    private static void benchmark6_CatalogImport() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 6: Streaming CSV import (1M rows, 1% invalid)");
+
+        final int rows = 1_000_000;
+        FactoryRegistry registry = new FactoryRegistry();
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("shoptech-bench");
+            Path feed = dir.resolve("feed.csv");
+            try (BufferedWriter writer = Files.newBufferedWriter(feed, StandardCharsets.UTF_8)) {
+                writer.write("type,id,name,price,stock,category");
+                writer.newLine();
+                for (int i = 0; i < rows; i++) {
+                    String price = i % 100 == 0 ? "n/a" : (10 + i % 1000) + ".99";
+                    writer.write((i % 2 == 0 ? "ELECTRONICS" : "CLOTHING") + ",SKU-" + i + ",\"Product " + i
+                            + ", rev B\"," + price + "," + (i % 500) + ",Category " + (i % 50));
+                    writer.newLine();
+                }
+            }
+            System.out.printf("   %-40s %,14d MB%n", "feed size", Files.size(feed) >> 20);
+
+            int cores = Runtime.getRuntime().availableProcessors();
+            for (int workers : IntStream.of(1, cores).distinct().toArray()) {
+                LongAdder inserted = new LongAdder();
+                ImportReport parseOnly = new CatalogImporter(registry, batch -> {
+                    inserted.add(batch.size());
+                    return List.of();
+                }, workers, 4096).importFile(feed, dir.resolve("feed.rejects"));
+                System.out.printf("   %-40s %,14.0f rows/s%n", "parse only, " + workers + " worker(s)",
+                        parseOnly.rowsPerSecond());
+            }
+
+            ProductCatalog catalog = new ProductCatalog();
+            ImportReport report = new CatalogImporter(registry, batch -> {
+                for (Product product : batch) {
+                    catalog.addProduct(product);
+                }
+                return List.of();
+            }, cores, 4096).importFile(feed, dir.resolve("feed.rejects"));
+            System.out.printf("   %-40s %,14.0f rows/s%n", "into ProductCatalog", report.rowsPerSecond());
+            System.out.println("   " + report);
+        } catch (IOException e) {
+            System.out.println("   Import benchmark failed: " + e.getMessage());
+        } finally {
+            if (dir != null) {
+                deleteRecursively(dir);
+            }
+        }
+    }
+
+    /**
+     * Benchmark 7: Latencia de busqueda de texto sobre 1M de productos
+     */
+    private static void benchmark7_ProductSearch() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 7: Full-text search latency (1M products, top 10)");
+
+        final int size = 1_000_000;
+        FactoryRegistry registry = new FactoryRegistry();
+        Random random = new Random(7);
+        // Vocabulario con frecuencias tipo Zipf: pocas palabras muy comunes, muchas raras
+        String[] vocabulary = new String[5_000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = i < 10 ? new String[] {"pro", "max", "gaming", "wireless", "black", "laptop", "phone",
+                    "case", "cable", "ultra"}[i] : "w" + Integer.toString(i, 36);
+        }
+        String[] categories = {"Computers", "Smartphones", "Monitors", "Audio", "Apparel", "Outerwear", "Shoes"};
+
+        long begin = System.nanoTime();
+        ProductCatalog catalog = new ProductCatalog();
+        for (int i = 0; i < size; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int w = 0; w < 3 + random.nextInt(4); w++) {
+                int rank = (int) Math.min(vocabulary.length - 1, Math.floor(Math.pow(vocabulary.length, random.nextDouble())) - 1);
+                name.append(vocabulary[rank]).append(' ');
+            }
+            catalog.addProduct(registry.createProduct(i % 3 == 0 ? "CLOTHING" : "ELECTRONICS", "SKU-" + i,
+                    name.toString().trim(), 5.0 + (i % 2000), 10, categories[i % categories.length]));
+        }
+        System.out.printf("   %-40s %,14d ms%n", "build catalog + index", (System.nanoTime() - begin) / 1_000_000);
+
+        String[][] workloads = {
+                {"common term (~20% of catalog)", "pro"},
+                {"category term (~14%)", "smartphones"},
+                {"rare term", "w1a", "w2k", "w3f", "w9z"},
+                {"AND of two terms", "gaming laptop", "wireless case", "black w1b"},
+                {"OR of alternatives", "laptop OR phone", "pro max | w2c", "w11 OR w12 OR w13"},
+        };
+        for (String[] workload : workloads) {
+            String[] queries = Arrays.copyOfRange(workload, 1, workload.length);
+            for (int i = 0; i < 2_000; i++) {
+                sink = catalog.search(queries[i % queries.length], 10);
+            }
+            long[] latencies = new long[10_000];
+            int hits = 0;
+            for (int i = 0; i < latencies.length; i++) {
+                long start = System.nanoTime();
+                List<SearchHit> result = catalog.search(queries[i % queries.length], 10);
+                latencies[i] = System.nanoTime() - start;
+                hits += result.size();
+            }
+            Arrays.sort(latencies);
+            System.out.printf("   %-32s p50 %,8.1f us  p99 %,8.1f us  max %,9.1f us  (%d hits/query)%n",
+                    workload[0], latencies[latencies.length / 2] / 1e3, latencies[latencies.length * 99 / 100] / 1e3,
+                    latencies[latencies.length - 1] / 1e3, hits / latencies.length);
+        }
+    }
+
+    /**
+     * BENCHMARK 8: Autocompletado por prefijo, latencia y memoria frente a
+     * llaves {@code String}
+     */
+    private static void benchmark8_Autocomplete() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 8: Prefix autocomplete (1M product names, top 10)");
+
+        final int size = 1_000_000;
+        FactoryRegistry registry = new FactoryRegistry();
+        Random random = new Random(8);
+        String[] vocabulary = new String[5_000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = i < 10 ? new String[] {"pro", "max", "gaming", "wireless", "black", "laptop", "phone",
+                    "case", "cable", "ultra"}[i] : "w" + Integer.toString(i, 36);
+        }
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int w = 0; w < 3 + random.nextInt(4); w++) {
+                int rank = (int) Math.min(vocabulary.length - 1, Math.floor(Math.pow(vocabulary.length, random.nextDouble())) - 1);
+                name.append(vocabulary[rank]).append(' ');
+            }
+            products.add(registry.createProduct("ELECTRONICS", "SKU-" + i, name.toString().trim(), 10.0,
+                    random.nextInt(1_000), "General"));
+        }
+
+        // Alternativa con llaves String: las mismas llaves (el nombre desde cada palabra) en un TreeMap
+        long before = usedHeap();
+        NavigableMap<String, Product> stringKeys = new TreeMap<>();
+        for (int i = 0; i < size; i++) {
+            String name = products.get(i).getName();
+            stringKeys.put(name + '\0' + i, products.get(i));
+            for (int at = name.indexOf(' '); at >= 0; at = name.indexOf(' ', at + 1)) {
+                stringKeys.put(name.substring(at + 1) + '\0' + i, products.get(i));
+            }
+        }
+        long treeMapBytes = usedHeap() - before;
+        int keys = stringKeys.size();
+        stringKeys = null;
+
+        before = usedHeap();
+        List<String> names = new ArrayList<>(size);
+        for (Product product : products) {
+            names.add(String.valueOf(product.getName().toCharArray()));
+        }
+        long namesBytes = usedHeap() - before;
+        names = null;
+
+        before = usedHeap();
+        long begin = System.nanoTime();
+        ProductAutocomplete autocomplete = new ProductAutocomplete();
+        for (Product product : products) {
+            autocomplete.add(product);
+        }
+        long buildMillis = (System.nanoTime() - begin) / 1_000_000;
+        long trieBytes = usedHeap() - before;
+
+        System.out.printf("   %-40s %,14d ms%n", "build index", buildMillis);
+        System.out.printf("   %-40s %,14d MB  (%,d keys, %,d nodes)%n", "trie (name from each word)",
+                trieBytes >> 20, keys, autocomplete.nodeCount());
+        System.out.printf("   %-40s %,14d MB%n", "TreeMap<String> with the same keys", treeMapBytes >> 20);
+        System.out.printf("   %-40s %,14d MB%n", "full names only, one String each", namesBytes >> 20);
+
+        for (int length : new int[] {1, 2, 3, 5}) {
+            String[] prefixes = new String[1_000];
+            for (int i = 0; i < prefixes.length; i++) {
+                String name = products.get(random.nextInt(size)).getName();
+                prefixes[i] = name.substring(0, Math.min(length, name.length()));
+            }
+            for (int i = 0; i < 20_000; i++) {
+                sink = autocomplete.suggest(prefixes[i % prefixes.length], 10);
+            }
+            long[] latencies = new long[20_000];
+            for (int i = 0; i < latencies.length; i++) {
+                long start = System.nanoTime();
+                sink = autocomplete.suggest(prefixes[i % prefixes.length], 10);
+                latencies[i] = System.nanoTime() - start;
+            }
+            Arrays.sort(latencies);
+            System.out.printf("   %-32s p50 %,8.1f us  p99 %,8.1f us  max %,9.1f us%n",
+                    "prefix of " + length + " char(s)", latencies[latencies.length / 2] / 1e3,
+                    latencies[latencies.length * 99 / 100] / 1e3, latencies[latencies.length - 1] / 1e3);
+        }
+    }
+
+    /**
+     * BENCHMARK 9: Paginacion con cursor frente a imprimir todo el catalogo
+     */
+    private static void benchmark9_CatalogPagination() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 9: Catalog pagination (1M products, pages of 20)");
+
+        final int size = 1_000_000;
+        FactoryRegistry registry = new FactoryRegistry();
+        Random random = new Random(9);
+        ProductCatalog catalog = new ProductCatalog();
+        for (int i = 0; i < size; i++) {
+            catalog.addProduct(registry.createProduct("ELECTRONICS", "SKU-" + random.nextInt(size) + "-" + i,
+                    "Product " + Integer.toString(random.nextInt(), 36), 1 + random.nextInt(2_000), 10, "General"));
+        }
+
+        // Vista anterior: formatear todos los productos de una vez
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        long begin = System.nanoTime();
+        for (Product product : catalog.getAllProducts()) {
+            discard.printf("%-12s %-30s $%-11.2f %-10d %-15s%n", product.getId(), product.getName(),
+                    product.getPrice(), product.getStock(), product.getCategory());
+        }
+        System.out.printf("   %-40s %,14d ms%n", "print whole catalog (previous view)",
+                (System.nanoTime() - begin) / 1_000_000);
+
+        for (CatalogSort sort : CatalogSort.values()) {
+            // Recorrido completo; el cursor de la mitad sirve para medir una pagina profunda
+            begin = System.nanoTime();
+            String middle = null;
+            String cursor = null;
+            int pages = 0;
+            do {
+                CatalogPage page = catalog.getPage(sort, cursor, 1_000);
+                cursor = page.nextCursor();
+                if (++pages == size / 2_000) {
+                    middle = cursor;
+                }
+            } while (cursor != null);
+            long traversalMillis = (System.nanoTime() - begin) / 1_000_000;
+
+            long[] first = pageLatencies(catalog, sort, null);
+            long[] deep = pageLatencies(catalog, sort, middle);
+            System.out.printf("   %-8s first page p50 %,6.1f us p99 %,6.1f us | middle page p50 %,6.1f us"
+                    + " p99 %,6.1f us | full walk %,d ms%n", sort, first[first.length / 2] / 1e3,
+                    first[first.length * 99 / 100] / 1e3, deep[deep.length / 2] / 1e3,
+                    deep[deep.length * 99 / 100] / 1e3, traversalMillis);
+        }
+    }
+
+    private static long[] pageLatencies(ProductCatalog catalog, CatalogSort sort, String cursor) {
+        for (int i = 0; i < 20_000; i++) {
+            sink = catalog.getPage(sort, cursor, 20);
+        }
+        long[] latencies = new long[20_000];
+        for (int i = 0; i < latencies.length; i++) {
+            long start = System.nanoTime();
+            sink = catalog.getPage(sort, cursor, 20);
+            latencies[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    /**
+     * Benchmark 10: Catalogo columnar fuera del heap vs objetos en el heap
+     * (ArrayList con indice por ID): heap usado y pausas de GC con el
+     * catalogo vivo.
+     */
+    private static void benchmark10_ColumnarCatalog() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 10: Off-heap columnar catalog vs heap objects (5M products)");
+
+        // Cada almacen se mide en su propio metodo: al volver ya no queda vivo
+        measureColumnar(5_000_000);
+        measureHeapObjects(5_000_000);
+    }
+
+    private static void measureHeapObjects(int size) {
+        long baseline = usedHeap();
+        List<Product> list = new ArrayList<>();
+        Map<String, Product> byId = new HashMap<>();
+        long begin = System.nanoTime();
+        for (Product product : syntheticProducts(size)) {
+            list.add(product);
+            byId.put(product.getId(), product);
+        }
+        long buildMillis = (System.nanoTime() - begin) / 1_000_000;
+        System.out.printf("   %-40s %,14d ms | heap %,6d MB%n", "heap objects: build", buildMillis,
+                (usedHeap() - baseline) >> 20);
+        printGcCost("heap objects", size, byId::get);
+        sink = list.size();
+    }
+
+    private static void measureColumnar(int size) {
+        long baseline = usedHeap();
+        ColumnarCatalog columnar = new ColumnarCatalog();
+        long begin = System.nanoTime();
+        for (Product product : syntheticProducts(size)) {
+            columnar.addProduct(product);
+        }
+        long buildMillis = (System.nanoTime() - begin) / 1_000_000;
+        System.out.printf("   %-40s %,14d ms | heap %,6d MB | off-heap %,6d MB%n", "columnar: build", buildMillis,
+                (usedHeap() - baseline) >> 20, columnar.offHeapBytes() >> 20);
+        printGcCost("columnar", size, columnar::getProduct);
+
+        begin = System.nanoTime();
+        sink = columnar.findByCategoryAndPriceRange("Audio", 100, 110);
+        System.out.printf("   %-40s %,14d ms%n", "columnar: category + price scan",
+                (System.nanoTime() - begin) / 1_000_000);
+    }
+
+    /** Productos sinteticos creados al recorrerlos (no se guardan en una lista) */
+    private static Iterable<Product> syntheticProducts(int size) {
+        FactoryRegistry registry = new FactoryRegistry();
+        String[] categories = {"Computers", "Smartphones", "Monitors", "Apparel", "Shoes", "Audio"};
+        Random random = new Random(10);
+        return () -> IntStream.range(0, size).mapToObj(i -> registry.createProduct("ELECTRONICS", "SKU-" + i,
+                "Product " + Integer.toString(random.nextInt(), 36), random.nextInt(200_000) / 100.0, 100,
+                categories[i % categories.length])).iterator();
+    }
+
+    /**
+     * Mide una recoleccion completa con el catalogo vivo y las recolecciones
+     * que provoca una carga de consultas y ventas.
+     */
+    private static void printGcCost(String label, int size, Function<String, Product> lookup) {
+        long begin = System.nanoTime();
+        System.gc();
+        long fullGcMillis = (System.nanoTime() - begin) / 1_000_000;
+
+        long[] before = gcTotals();
+        Random random = new Random(42);
+        begin = System.nanoTime();
+        for (int i = 0; i < 2_000_000; i++) {
+            Product product = lookup.apply("SKU-" + random.nextInt(size));
+            if (!product.tryDecrement(1)) {
+                product.incrementStock(100);
+            }
+            sink = product.getUnitPrice();
+        }
+        long workloadMillis = (System.nanoTime() - begin) / 1_000_000;
+        long[] after = gcTotals();
+        System.out.printf("   %-40s %,14d ms | 2M lookups+sales %,6d ms, %,4d GCs, %,6d ms in GC%n",
+                label + ": full GC", fullGcMillis, workloadMillis, after[0] - before[0], after[1] - before[1]);
+    }
+
+    /** @return Recolecciones y milisegundos de GC acumulados */
+    private static long[] gcTotals() {
+        long[] totals = new long[2];
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            totals[0] += Math.max(0, gc.getCollectionCount());
+            totals[1] += Math.max(0, gc.getCollectionTime());
+        }
+        return totals;
+    }
+
+    /**
+     * Benchmark 11: Reservas con vencimiento: rueda de tiempo vs una tarea
+     * programada por reserva (ScheduledExecutorService)
+     */
+    private static void benchmark11_StockReservations() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 11: Stock reservations (2M outstanding holds, TTL 3 s)");
+
+        final int holds = 2_000_000;
+        Product product = new FactoryRegistry().createProduct("ELECTRONICS", "RSV", "Cable", 5.0, holds, "General");
+
+        long baseline = usedHeap();
+        StockReservations reservations = new StockReservations(Duration.ofSeconds(3), Duration.ofMillis(10), 512);
+        List<StockHold> committed = new ArrayList<>();
+        long begin = System.nanoTime();
+        for (int i = 0; i < holds; i++) {
+            StockHold hold = reservations.reserve(product, 1);
+            if (i % 4 == 0) {
+                committed.add(hold);
+            }
+        }
+        long reserveNanos = System.nanoTime() - begin;
+        StockHold.commitAll(committed);
+        committed = null;
+        long heap = usedHeap() - baseline;
+        long deadline = begin + Duration.ofSeconds(3).toNanos() + reserveNanos;
+        while (reservations.pendingHolds() > 0) {
+            LockSupport.parkNanos(1_000_000);
+        }
+        long lagMillis = Math.max(0, System.nanoTime() - deadline) / 1_000_000;
+        reservations.shutdown();
+        System.out.printf("   %-40s %,10.0f ns/hold | %,4d bytes/hold | last expired %,d ms after deadline%n",
+                "timer wheel", (double) reserveNanos / holds, heap / holds, lagMillis);
+        System.out.printf("   %-40s %,14d units (expected %,d)%n", "stock after expiry", product.getStock(),
+                holds - holds / 4);
+
+        // Alternativa: una tarea programada por reserva (cola de prioridad O(log n))
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        baseline = usedHeap();
+        begin = System.nanoTime();
+        for (int i = 0; i < holds; i++) {
+            scheduler.schedule(() -> sink = product, 3, TimeUnit.SECONDS);
+        }
+        reserveNanos = System.nanoTime() - begin;
+        heap = usedHeap() - baseline;
+        scheduler.shutdownNow();
+        System.out.printf("   %-40s %,10.0f ns/hold | %,4d bytes/hold%n", "scheduled task per hold",
+                (double) reserveNanos / holds, heap / holds);
+    }
+
+    /**
+     * Benchmark 12: IDs de orden Snowflake (1 y 8 hilos) vs
+     * "ORD-" + System.currentTimeMillis()
+     */
+    private static void benchmark12_OrderIds() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 12: Order IDs (Snowflake generator)");
+
+        final int ids = 10_000_000;
+        OrderIdGenerator generator = new OrderIdGenerator(1);
+        for (int i = 0; i < 1_000_000; i++) {
+            sink = generator.nextId();
+        }
+
+        long begin = System.nanoTime();
+        long last = 0;
+        for (int i = 0; i < ids; i++) {
+            last = generator.nextId();
+        }
+        long nanos = System.nanoTime() - begin;
+        sink = last;
+        System.out.printf("   %-40s %,14.0f ids/s%n", "nextId (1 thread)", ids * 1e9 / nanos);
+
+        final int threads = 8;
+        nanos = runConcurrently(threads, () -> {
+            long id = 0;
+            for (int i = 0; i < ids / threads; i++) {
+                id = generator.nextId();
+            }
+            sink = id;
+        });
+        System.out.printf("   %-40s %,14.0f ids/s%n", "nextId (" + threads + " threads)", ids * 1e9 / nanos);
+
+        begin = System.nanoTime();
+        for (int i = 0; i < ids / 10; i++) {
+            sink = generator.nextOrderId();
+        }
+        report("nextOrderId (text form)", (double) (System.nanoTime() - begin) / (ids / 10));
+
+        // IDs por milisegundo: cada repetido seria una orden sobrescrita
+        Map<String, Integer> legacy = new HashMap<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            legacy.merge("ORD-" + System.currentTimeMillis(), 1, Integer::sum);
+        }
+        long drift = OrderIdGenerator.timestampOf(generator.nextId()).toEpochMilli() - System.currentTimeMillis();
+        System.out.printf("   %-40s %,14d duplicates of 1,000,000%n", "\"ORD-\" + currentTimeMillis",
+                1_000_000 - legacy.size());
+        System.out.printf("   %-40s %,14d ms ahead of the clock%n", "generator after the burst", Math.max(0, drift));
+    }
+
+    /**
+     * Benchmark 13: Repositorio de ordenes (memoria por orden y consultas
+     * indexadas vs recorrido completo)
+     */
+    private static void benchmark13_OrderRepository() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 13: Order repository (1M orders, 10k users, 24 h)");
+
+        final int count = 1_000_000;
+        OrderEventDispatcher dispatcher = new OrderEventDispatcher(4, 1 << 16);
+        Product product = new FactoryRegistry().createProduct("ELECTRONICS", "REPO", "Cable", 5.0, 1, "General");
+        List<User> users = new ArrayList<>();
+        for (int u = 0; u < 10_000; u++) {
+            users.add(new User(u, "User " + u, "u" + u + "@shoptech.com", "Calle " + u));
+        }
+        Instant now = Instant.now();
+        Random random = new Random(13);
+
+        long baseline = usedHeap();
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = users.get(random.nextInt(users.size()));
+            Order order = new Order.OrderBuilder().setOrderId(OrderIdGenerator.format(i)).setUser(user)
+                    .setItems(List.of(product)).setEventDispatcher(dispatcher)
+                    .setCreatedAt(now.minusMillis(random.nextInt(86_400_000)))
+                    .setPaymentMethod(amount -> true).build();
+            order.unsubscribe(user);
+            orders.add(order);
+        }
+        long orderBytes = usedHeap() - baseline;
+
+        baseline = usedHeap();
+        OrderRepository repository = new OrderRepository();
+        long begin = System.nanoTime();
+        for (Order order : orders) {
+            repository.save(order);
+        }
+        long saveNanos = System.nanoTime() - begin;
+        long indexBytes = usedHeap() - baseline;
+        for (int i = 0; i < count; i += 3) {
+            orders.get(i).processPayment();
+        }
+        dispatcher.drain(60, TimeUnit.SECONDS);
+        dispatcher.shutdown();
+
+        System.out.printf("   %-40s %,10.0f ns/order%n", "save", (double) saveNanos / count);
+        System.out.printf("   %-40s %,10d bytes/order | 10M orders: %,d MB%n", "Order objects",
+                orderBytes / count, orderBytes * 10 / (1 << 20));
+        System.out.printf("   %-40s %,10d bytes/order | 10M orders: %,d MB%n", "repository indexes",
+                indexBytes / count, indexBytes * 10 / (1 << 20));
+
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(15));
+        for (int i = 0; i < 5; i++) {
+            sink = repository.findByStatusCreatedBefore(Order.Status.PENDING, cutoff);
+        }
+        begin = System.nanoTime();
+        List<Order> stale = repository.findByStatusCreatedBefore(Order.Status.PENDING, cutoff);
+        long indexed = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        List<Order> scanned = new ArrayList<>();
+        for (Order order : orders) {
+            if (order.getOrderStatus() == Order.Status.PENDING && order.getCreatedAt().isBefore(cutoff)) {
+                scanned.add(order);
+            }
+        }
+        scanned.sort(Comparator.comparing(Order::getCreatedAt));
+        long scan = System.nanoTime() - begin;
+        System.out.printf("   %-40s %,10.1f ms (%,d orders) | full scan %,.1f ms%n", "PENDING older than 15 min",
+                indexed / 1e6, stale.size(), scan / 1e6);
+
+        // Resultado chico: el costo sigue al resultado, no al total de ordenes
+        Instant oldest = now.minus(Duration.ofHours(24)).plus(Duration.ofMinutes(10));
+        begin = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            stale = repository.findByStatusCreatedBefore(Order.Status.PENDING, oldest);
+        }
+        System.out.printf("   %-40s %,10.1f us (%,d orders)%n", "PENDING in the first 10 min",
+                (System.nanoTime() - begin) / 100 / 1e3, stale.size());
+
+        final int queries = 100_000;
+        begin = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            sink = repository.findRecentByUser(random.nextInt(users.size()), 20);
+        }
+        report("last 20 orders for a user", (double) (System.nanoTime() - begin) / queries);
+        begin = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            int userId = random.nextInt(users.size());
+            List<Order> mine = new ArrayList<>();
+            for (Order order : orders) {
+                if (order.getUser().getId() == userId) {
+                    mine.add(order);
+                }
+            }
+            mine.sort(Comparator.comparing(Order::getCreatedAt).reversed());
+            sink = mine.subList(0, Math.min(20, mine.size()));
+        }
+        report("last 20 orders for a user (full scan)", (double) (System.nanoTime() - begin) / 10);
+        sink = scanned;
+    }
+
+    /**
+     * Benchmark 14: Journal de ordenes (reconstruccion con 1 y 4
+     * particiones, y con snapshot)
+     */
+    private static void benchmark14_OrderJournal() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 14: Order journal replay (400k orders, ~1M events)");
+
+        OutputSink previous = Output.setSink(NoOpSink.INSTANCE);
+        Path single = null;
+        Path partitioned = null;
+        try {
+            single = Files.createTempDirectory("shoptech-bench");
+            partitioned = Files.createTempDirectory("shoptech-bench");
+            Map<String, Product> products = new HashMap<>();
+            FactoryRegistry registry = new FactoryRegistry();
+            for (int i = 0; i < 100; i++) {
+                products.put("OJ-" + i, registry.createProduct("ELECTRONICS", "OJ-" + i, "Item " + i,
+                        5.0 + i, 1_000_000, "General"));
+            }
+            long events = writeOrderJournal(single, 1, products);
+            writeOrderJournal(partitioned, 4, products);
+
+            for (int round = 0; round < 2; round++) {
+                replayOrders(single, 1, products);
+                replayOrders(partitioned, 4, products);
+            }
+            OrderStore.ReplayStats one = replayOrders(single, 1, products);
+            OrderStore.ReplayStats four = replayOrders(partitioned, 4, products);
+            System.out.printf("   %-40s %,14d events%n", "journal", events);
+            System.out.printf("   %-40s %,14.0f events/s (%,d ms)%n", "replay - 1 partition",
+                    one.eventsPerSecond(), one.nanos() / 1_000_000);
+            System.out.printf("   %-40s %,14.0f events/s (%,d ms)%n", "replay - 4 partitions",
+                    four.eventsPerSecond(), four.nanos() / 1_000_000);
+
+            try (OrderStore store = OrderStore.open(partitioned, 4, new OrderRepository(), products::get, false, 0)) {
+                store.snapshot();
+            }
+            OrderStore.ReplayStats snapshot = replayOrders(partitioned, 4, products);
+            System.out.printf("   %-40s %,14d ms (%,d orders, %,d events)%n", "restart - 4 partitions + snapshot",
+                    snapshot.nanos() / 1_000_000, snapshot.snapshotOrders(), snapshot.journalEvents());
+        } catch (IOException e) {
+            System.out.println("   Order journal benchmark failed: " + e.getMessage());
+        } finally {
+            Output.setSink(previous);
+            if (single != null) {
+                deleteRecursively(single);
+            }
+            if (partitioned != null) {
+                deleteRecursively(partitioned);
+            }
+        }
+    }
+
+    /** Escribe 400k ordenes y sus transiciones; devuelve los eventos escritos */
+    private static long writeOrderJournal(Path dir, int partitions, Map<String, Product> products) {
+        OrderEventDispatcher dispatcher = new OrderEventDispatcher(4, 1 << 16);
+        List<User> users = new ArrayList<>();
+        for (int u = 0; u < 10_000; u++) {
+            users.add(new User(u, "User " + u, "u" + u + "@shoptech.com", "Calle " + u));
+        }
+        Random random = new Random(14);
+        long events = 0;
+        try (OrderStore store = OrderStore.open(dir, partitions, new OrderRepository(), products::get, false, 0)) {
+            for (int i = 0; i < 400_000; i++) {
+                User user = users.get(random.nextInt(users.size()));
+                Order order = new Order.OrderBuilder().setOrderId(OrderIdGenerator.format(i)).setUser(user)
+                        .setItems(List.of(products.get("OJ-" + random.nextInt(100)),
+                                products.get("OJ-" + random.nextInt(100))))
+                        .setEventDispatcher(dispatcher).setPaymentMethod(amount -> true).build();
+                order.unsubscribe(user);
+                store.save(order);
+                events++;
+                if (i % 4 != 0) {
+                    order.processPayment();
+                    order.setStatus(Order.Status.SHIPPED);
+                    events += 2;
+                }
+            }
+        }
+        dispatcher.drain(60, TimeUnit.SECONDS);
+        dispatcher.shutdown();
+        return events;
+    }
+
+    private static OrderStore.ReplayStats replayOrders(Path dir, int partitions, Map<String, Product> products) {
+        try (OrderStore store = OrderStore.open(dir, partitions, new OrderRepository(), products::get, false, 0)) {
+            return store.getReplayStats();
+        }
+    }
+
+    /**
+     * Benchmark 15: Checkout en lote vs una orden a la vez (lotes de 1k
+     * ordenes sobre un catalogo con journal)
+     */
+    private static void benchmark15_BatchCheckout() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 15: Batch checkout (1k orders x 3 lines, 50 SKUs, journaled stock)");
+
+        OutputSink previous = Output.setSink(NoOpSink.INSTANCE);
+        OrderEventDispatcher dispatcher = new OrderEventDispatcher(4, 1 << 16);
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("shoptech-bench");
+            FactoryRegistry registry = new FactoryRegistry();
+            try (CatalogStore store = CatalogStore.open(dir, registry, false, 0)) {
+                List<Product> products = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    Product product = registry.createProduct("ELECTRONICS", "BATCH-" + i, "Item " + i, 10.0 + i,
+                            Integer.MAX_VALUE / 2, "General");
+                    store.addProduct(product);
+                    products.add(product);
+                }
+                User buyer = new User(15, "Empresa", "compras@empresa.com", "Parque Industrial 1");
+                Random random = new Random(15);
+                List<BatchCheckout.Request> batch = new ArrayList<>();
+                for (int i = 0; i < 1_000; i++) {
+                    batch.add(new BatchCheckout.Request(buyer, List.of(
+                            new CartItem(products.get(random.nextInt(50)), 1 + random.nextInt(3)),
+                            new CartItem(products.get(random.nextInt(50)), 1 + random.nextInt(3)),
+                            new CartItem(products.get(random.nextInt(50)), 1 + random.nextInt(3))),
+                            amount -> true, null));
+                }
+                OrderIdGenerator ids = new OrderIdGenerator(15);
+                BatchCheckout checkout = new BatchCheckout(ids, dispatcher);
+
+                final int rounds = 50;
+                long loopNanos = 0;
+                long batchNanos = 0;
+                for (int round = 0; round < rounds * 2; round++) {
+                    long begin = System.nanoTime();
+                    for (BatchCheckout.Request request : batch) {
+                        sink = checkoutOne(request, ids, dispatcher);
+                    }
+                    long loop = System.nanoTime() - begin;
+                    dispatcher.drain(60, TimeUnit.SECONDS);
+                    begin = System.nanoTime();
+                    sink = checkout.checkout(batch);
+                    long batched = System.nanoTime() - begin;
+                    dispatcher.drain(60, TimeUnit.SECONDS);
+                    if (round >= rounds) {
+                        loopNanos += loop;
+                        batchNanos += batched;
+                    }
+                }
+                report("per-order loop (1k orders)", (double) loopNanos / rounds);
+                report("batch checkout (1k orders)", (double) batchNanos / rounds);
+                System.out.printf("   %-40s %,14.1fx%n", "speedup", (double) loopNanos / batchNanos);
+            }
+        } catch (IOException e) {
+            System.out.println("   Batch checkout benchmark failed: " + e.getMessage());
+        } finally {
+            Output.setSink(previous);
+            dispatcher.shutdown();
+            if (dir != null) {
+                deleteRecursively(dir);
+            }
+        }
+    }
+
+    /** Checkout de una orden como lo haria un cliente: stock por linea, build y pago */
+    private static Order checkoutOne(BatchCheckout.Request request, OrderIdGenerator ids,
+            OrderEventDispatcher dispatcher) {
+        for (CartItem line : request.lines()) {
+            line.getProduct().tryDecrement(line.getQuantity());
+        }
+        Order order = new Order.OrderBuilder().setOrderId(ids.nextOrderId()).setUser(request.user())
+                .setLineItems(request.lines()).setPaymentMethod(request.paymentMethod())
+                .setEventDispatcher(dispatcher).build();
+        order.processPayment();
+        return order;
+    }
+
+    /**
+     * Benchmark 16: Claves de idempotencia (claves nuevas por segundo,
+     * reintentos y memoria acotada)
+     */
+    private static void benchmark16_IdempotencyKeys() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 16: Idempotency keys (1M keys max, 10 min TTL)");
+
+        final int maxKeys = 1_000_000;
+        final int keys = 3_000_000;
+        final int threads = 4;
+        String[] names = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            names[i] = "pay-" + i;
+        }
+        fillIdempotencyStore(new PaymentIdempotencyStore(Duration.ofMinutes(10), maxKeys), names, 500_000);
+
+        PaymentIdempotencyStore store = new PaymentIdempotencyStore(Duration.ofMinutes(10), maxKeys);
+        long baseline = usedHeap();
+        long nanos = fillIdempotencyStore(store, names, maxKeys);
+        long full = usedHeap() - baseline;
+        System.out.printf("   %-40s %,14.0f keys/s%n", "new keys (1 thread)", maxKeys * 1e9 / nanos);
+
+        // Con el registro lleno cada clave nueva saca a la mas antigua
+        nanos = runConcurrently(threads, new Runnable() {
+            private final AtomicInteger next = new AtomicInteger(maxKeys);
+
+            @Override
+            public void run() {
+                int i;
+                while ((i = next.getAndIncrement()) < keys) {
+                    store.execute(names[i], "ORD", () -> true);
+                }
+            }
+        });
+        System.out.printf("   %-40s %,14.0f keys/s%n", "new keys, full store (" + threads + " threads)",
+                (keys - maxKeys) * 1e9 / nanos);
+
+        Random random = new Random(16);
+        final int retries = 1_000_000;
+        long begin = System.nanoTime();
+        for (int i = 0; i < retries; i++) {
+            sink = store.execute(names[keys - 1 - random.nextInt(maxKeys / 2)], "ORD", () -> false);
+        }
+        report("retry (stored outcome)", (double) (System.nanoTime() - begin) / retries);
+
+        long after = usedHeap() - baseline;
+        System.out.printf("   %-40s %,14d keys | %,d bytes/key%n", "after 3M keys", store.size(),
+                full / maxKeys);
+        System.out.printf("   %-40s %,14d MB (full) | %,d MB (after 3M)%n", "heap", full >> 20, after >> 20);
+        sink = names;
+    }
+
+    /**
+     * Benchmark 17: Pagos sincronos vs asincronos contra un gateway con
+     * 20 ms de latencia
+     */
+    private static void benchmark17_AsyncPayments() {
+        System.out.println("─".repeat(60));
+        System.out.println("BENCHMARK 17: Payments through a 20 ms gateway (sync threads vs async in-flight)");
+
+        OutputSink previous = Output.setSink(NoOpSink.INSTANCE);
+        OrderEventDispatcher dispatcher = new OrderEventDispatcher(4, 1 << 16);
+        try {
+            SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(Duration.ofMillis(20),
+                    Money.of(1_000_000));
+            PaymentStrategy card = new CreditCardStrategy("1234567890123456", "Bench", "12/30", gateway);
+            User user = new User(17, "Bench", "bench@shoptech.com", "Calle 17");
+            Product product = new FactoryRegistry().createProduct("ELECTRONICS", "PAY", "Cable", 5.0, 1, "General");
+            Function<Integer, List<Order>> orders = count -> {
+                List<Order> list = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    Order order = new Order.OrderBuilder().setOrderId("ORD-PAY-" + i).setUser(user)
+                            .setItems(List.of(product)).setPaymentMethod(card).setEventDispatcher(dispatcher)
+                            .build();
+                    order.unsubscribe(user);
+                    list.add(order);
+                }
+                return list;
+            };
+
+            // Sincrono: cada hilo espera la latencia de cada pago
+            for (int threads : new int[] { 1, 8, 32 }) {
+                List<Order> batch = orders.apply(threads * 25);
+                AtomicInteger next = new AtomicInteger();
+                long nanos = runConcurrently(threads, () -> {
+                    int i;
+                    while ((i = next.getAndIncrement()) < batch.size()) {
+                        batch.get(i).processPayment();
+                    }
+                });
+                System.out.printf("   %-40s %,14.0f payments/s%n", "sync, " + threads + " threads",
+                        batch.size() * 1e9 / nanos);
+            }
+
+            // Asincrono: un solo hilo mantiene N pagos en vuelo
+            for (int inFlight : new int[] { 1, 8, 32, 256, 1_024 }) {
+                List<Order> batch = orders.apply(Math.max(inFlight * 25, 100));
+                Semaphore window = new Semaphore(inFlight);
+                long begin = System.nanoTime();
+                List<CompletableFuture<PaymentResult>> results = new ArrayList<>(batch.size());
+                for (Order order : batch) {
+                    window.acquireUninterruptibly();
+                    CompletableFuture<PaymentResult> result = order.processPaymentAsync();
+                    result.whenComplete((r, e) -> window.release());
+                    results.add(result);
+                }
+                CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).join();
+                long nanos = System.nanoTime() - begin;
+                System.out.printf("   %-40s %,14.0f payments/s%n", "async, 1 thread, " + inFlight + " in flight",
+                        batch.size() * 1e9 / nanos);
+            }
+            dispatcher.drain(60, TimeUnit.SECONDS);
+        } finally {
+            Output.setSink(previous);
+            dispatcher.shutdown();
+        }
+    }
+
+    /** Registra las primeras {@code count} claves; devuelve los nanosegundos */
+    private static long fillIdempotencyStore(PaymentIdempotencyStore store, String[] names, int count) {
+        long begin = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            store.execute(names[i], "ORD", () -> true);
+        }
+        return System.nanoTime() - begin;
+    }
+
+    /** Heap en uso tras pedir una recoleccion completa */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // ======================= HELPERS =======================
+
+    /** @return Milisegundos para abrir el catalogo */
+    private static long timeRestart(Path dir, FactoryRegistry registry) {
+        long begin = System.nanoTime();
+        try (CatalogStore store = CatalogStore.open(dir, registry, false, 0)) {
+            sink = store.getCatalog();
+        }
+        return (System.nanoTime() - begin) / 1_000_000;
+    }
+
+    private static long runConcurrently(int threads, Runnable task) {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    task.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.shutdown();
+        return System.nanoTime() - begin;
+    }
+
+    private static void deleteRecursively(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        } catch (IOException e) {
+            // Directorio temporal: el sistema lo limpiara
+        }
+    }
+
+    private static void addAndRemove(Cart cart, Product product, int operations) {
+        for (int i = 0; i < operations; i++) {
+            cart.addProduct(product);
+            cart.removeOne(product.getSku());
+        }
+    }
+
+    private static ProductCatalog buildCatalog(int size) {
+        FactoryRegistry registry = new FactoryRegistry();
+        ProductCatalog catalog = new ProductCatalog();
+        for (int i = 0; i < size; i++) {
+            catalog.addProduct(registry.createProduct(i % 2 == 0 ? "ELECTRONICS" : "CLOTHING",
+                    "SKU-" + i, "Product " + i, 10.0 + (i % 1000), 100, "Category " + (i % 50)));
+        }
+        return catalog;
+    }
+
+    private static String[] randomIds(int catalogSize, int count) {
+        Random random = new Random(42);
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = "SKU-" + random.nextInt(catalogSize);
+        }
+        return ids;
+    }
+
+    private static long lookupIndexed(ProductCatalog catalog, String[] ids) {
+        long start = System.nanoTime();
+        for (String id : ids) {
+            sink = catalog.getProduct(id);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long lookupLinear(List<Product> products, String[] ids) {
+        long start = System.nanoTime();
+        for (String id : ids) {
+            Product found = null;
+            for (Product product : products) {
+                if (product.getId().equals(id)) {
+                    found = product;
+                    break;
+                }
+            }
+            sink = found;
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String label, double nanosPerOp) {
+        System.out.printf("   %-40s %,14.1f ns/op%n", label, nanosPerOp);
+    }
+}
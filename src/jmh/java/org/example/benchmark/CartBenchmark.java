@@ -0,0 +1,81 @@
+package org.example.benchmark;
+
+import org.example.model.Money;
+import org.example.model.order.Cart;
+import org.example.model.product.Product;
+import org.example.patterns.factory.FactoryRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH de las operaciones del carrito.
+ * 
+ * <p>
+ * El carrito contiene {@code cartSize} lineas. {@link #addProduct} agrega
+ * una unidad y la retira enseguida para que el carrito y el stock no
+ * crezcan durante la medicion; {@link #getTotal} debe ser O(1) sin
+ * importar el tamano.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dshoptech.output=none")
+public class CartBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int cartSize;
+
+    private Product[] products;
+    private Cart cart;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void createProducts() {
+        FactoryRegistry registry = new FactoryRegistry();
+        products = new Product[cartSize];
+        for (int i = 0; i < cartSize; i++) {
+            products[i] = registry.createProduct("ELECTRONICS", "CART-" + i, "Item " + i, 19.99 + i, 1_000_000,
+                    "Bench");
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void fillCart() {
+        cart = new Cart();
+        for (Product product : products) {
+            cart.addProduct(product);
+        }
+    }
+
+    @Benchmark
+    public int addProduct() {
+        Product product = products[next++ % cartSize];
+        cart.addProduct(product);
+        cart.removeOne(product.getSku());
+        return cart.getTotalItems();
+    }
+
+    @Benchmark
+    public Money getTotal() {
+        return cart.getTotal();
+    }
+}
@@ -0,0 +1,70 @@
+package org.example.benchmark;
+
+import org.example.model.Money;
+import org.example.model.product.Product;
+import org.example.patterns.decorator.GiftWrapDecorator;
+import org.example.patterns.decorator.WarrantyDecorator;
+import org.example.patterns.factory.FactoryRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH de las cadenas de decoradores.
+ * 
+ * <p>
+ * {@code depth} es el numero de servicios envueltos alrededor del producto
+ * base (alternando garantia y envoltura de regalo). Cada llamada recorre
+ * la cadena completa, asi que el costo deberia crecer de forma lineal.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dshoptech.output=none")
+public class DecoratorBenchmark {
+
+    @Param({"0", "1", "2", "4"})
+    public int depth;
+
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        product = new FactoryRegistry().createProduct("ELECTRONICS", "DEC-001", "Laptop", 1500.0, 10, "Bench");
+        for (int i = 0; i < depth; i++) {
+            product = i % 2 == 0 ? new WarrantyDecorator(product) : new GiftWrapDecorator(product);
+        }
+    }
+
+    @Benchmark
+    public Money getUnitPrice() {
+        return product.getUnitPrice();
+    }
+
+    @Benchmark
+    public String getSku() {
+        return product.getSku();
+    }
+
+    @Benchmark
+    public String getDetails() {
+        return product.getDetails();
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.benchmark;
+
+import org.example.model.order.Cart;
+import org.example.model.order.CartItem;
+import org.example.model.order.Order;
+import org.example.model.order.User;
+import org.example.model.product.Product;
+import org.example.patterns.factory.FactoryRegistry;
+import org.example.service.OrderEventDispatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmark JMH de la construccion de ordenes y la notificacion de
+ * cambios de estado.
+ * 
+ * <p>
+ * Cada estado tiene sus propios parametros, asi {@link #build} solo se
+ * mide por tamano de carrito y {@link #setStatus} solo por numero de
+ * observadores. {@code setStatus} encola el evento; la entrega a los
+ * observadores corre en los carriles del despachador.
+ * </p>
+ * 
+ * <p>
+ * La tabla de transiciones no tiene ciclos que {@code setStatus} pueda
+ * recorrer, asi que cada invocacion recibe una orden nueva en PENDING
+ * ({@link Level#Invocation}, fuera de la medicion) y la cancela.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dshoptech.output=none")
+public class OrderBenchmark {
+
+    /**
+     * Lineas de carrito listas para construir una orden.
+     */
+    @State(Scope.Thread)
+    public static class CartLines {
+
+        @Param({"1", "10", "100"})
+        public int cartSize;
+
+        User user;
+        List<CartItem> lines;
+
+        @Setup
+        public void setUp() {
+            FactoryRegistry registry = new FactoryRegistry();
+            Cart cart = new Cart();
+            for (int i = 0; i < cartSize; i++) {
+                cart.addProduct(registry.createProduct("CLOTHING", "ORD-" + i, "Item " + i, 9.99 + i, 10, "Bench"),
+                        1 + i % 3);
+            }
+            user = new User(1, "Bench User", "bench@test.com", "123 Bench St");
+            lines = cart.getLineItems();
+        }
+    }
+
+    /**
+     * Orden con {@code observers} observadores suscritos.
+     */
+    @State(Scope.Thread)
+    public static class SubscribedOrder {
+
+        @Param({"0", "1", "10"})
+        public int observers;
+
+        final LongAdder delivered = new LongAdder();
+        OrderEventDispatcher dispatcher;
+        User user;
+        List<Product> items;
+        Order order;
+
+        @Setup
+        public void setUp() {
+            dispatcher = new OrderEventDispatcher(4, 1024);
+            FactoryRegistry registry = new FactoryRegistry();
+            user = new User(1, "Bench User", "bench@test.com", "123 Bench St");
+            items = List.of(registry.createProduct("ELECTRONICS", "OBS-001", "Item", 10.0, 1, "Bench"));
+        }
+
+        /** Orden nueva en PENDING (sin stock propio: cancelarla no toca el inventario) */
+        @Setup(Level.Invocation)
+        public void newOrder() {
+            order = new Order.OrderBuilder()
+                    .setOrderId("ORD-BENCH")
+                    .setUser(user)
+                    .setItems(items)
+                    .setEventDispatcher(dispatcher)
+                    .build();
+            order.unsubscribe(user);
+            for (int i = 0; i < observers; i++) {
+                order.subscribe((o, event) -> delivered.increment());
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            dispatcher.shutdown();
+            dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Benchmark
+    public Order build(CartLines state) {
+        return new Order.OrderBuilder()
+                .setOrderId("ORD-BENCH")
+                .setUser(state.user)
+                .setLineItems(state.lines)
+                .build();
+    }
+
+    @Benchmark
+    public Order.Status setStatus(SubscribedOrder state) {
+        state.order.setStatus(Order.Status.CANCELED);
+        return state.order.getOrderStatus();
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.benchmark;
+
+import org.example.model.Money;
+import org.example.patterns.strategy.CreditCardStrategy;
+import org.example.patterns.strategy.PayPalStrategy;
+import org.example.patterns.strategy.PaymentStrategy;
+import org.example.patterns.strategy.PointsStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH de cada {@link PaymentStrategy}.
+ * 
+ * <p>
+ * Se paga 1 centavo por llamada: con puntos equivale a 1 punto, asi el
+ * saldo reiniciado en cada iteracion no se agota durante la medicion y
+ * siempre se mide el camino de pago exitoso.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dshoptech.output=none")
+public class PaymentBenchmark {
+
+    private static final Money AMOUNT = Money.ofCents(1);
+
+    private PaymentStrategy creditCard;
+    private PaymentStrategy payPal;
+    private PaymentStrategy points;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        creditCard = new CreditCardStrategy("1234567812345678", "Bench User", "12/30");
+        payPal = new PayPalStrategy("bench@test.com");
+    }
+
+    @Setup(Level.Iteration)
+    public void resetPoints() {
+        points = new PointsStrategy(Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public boolean creditCard() {
+        return creditCard.pay(AMOUNT);
+    }
+
+    @Benchmark
+    public boolean payPal() {
+        return payPal.pay(AMOUNT);
+    }
+
+    @Benchmark
+    public boolean points() {
+        return points.pay(AMOUNT);
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.benchmark;
+
+import org.example.config.StoreDatabase;
+import org.example.model.product.Product;
+import org.example.patterns.factory.FactoryRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH de la busqueda de productos por ID en {@link StoreDatabase}.
+ * 
+ * <p>
+ * El catalogo se llena hasta {@code catalogSize} productos antes de medir;
+ * cada fork es una JVM nueva, asi que cada tamano parte de un catalogo
+ * limpio.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dshoptech.output=none")
+public class StoreDatabaseBenchmark {
+
+    /** Numero de IDs consultados en ciclo (potencia de 2) */
+    private static final int LOOKUPS = 4096;
+
+    @Param({"1000", "100000", "1000000"})
+    public int catalogSize;
+
+    private StoreDatabase database;
+    private String[] ids;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        database = StoreDatabase.INSTANCE;
+        FactoryRegistry registry = database.getFactoryRegistry();
+        for (int i = database.getAllProducts().size(); i < catalogSize; i++) {
+            database.addProduct(registry.createProduct(i % 2 == 0 ? "ELECTRONICS" : "CLOTHING",
+                    "BENCH-" + i, "Product " + i, 10.0 + (i % 1000), 100, "Category " + (i % 50)));
+        }
+
+        Random random = new Random(42);
+        ids = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            ids[i] = "BENCH-" + random.nextInt(catalogSize);
+        }
+    }
+
+    @Benchmark
+    public Product getProduct() {
+        return database.getProduct(ids[next++ & (LOOKUPS - 1)]);
+    }
+
+    @Benchmark
+    public Product getMissingProduct() {
+        return database.getProduct("MISSING-" + (next++ & (LOOKUPS - 1)));
+    }
+}
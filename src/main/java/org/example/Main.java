@@ -1,9 +1,17 @@
 package org.example;
+import org.example.catalog.CatalogPage;
+import org.example.catalog.CatalogSort;
+import org.example.catalog.SearchHit;
+import org.example.config.ConfigurationManager;
 import org.example.config.StoreDatabase;
+import org.example.importer.CatalogImporter;
+import org.example.importer.ImportReport;
 import org.example.model.order.Cart;
+import org.example.model.order.CartItem;
 import org.example.model.order.Order;
 import org.example.model.order.User;
 import org.example.model.product.Product;
+import org.example.output.Output;
 import org.example.patterns.adapter.AccountingAdapter;
 import org.example.patterns.adapter.AccountingService;
 import org.example.patterns.adapter.LegacyAccountingSystem;
@@ -15,15 +23,24 @@ import org.example.patterns.factory.ElectronicsFactory;
 import org.example.patterns.factory.FactoryRegistry;
 import org.example.patterns.strategy.CreditCardStrategy;
 import org.example.patterns.strategy.PayPalStrategy;
+import org.example.patterns.strategy.PaymentResult;
 import org.example.patterns.strategy.PaymentStrategy;
 import org.example.patterns.strategy.PointsStrategy;
-
+import org.example.patterns.strategy.SimulatedPaymentGateway;
+import org.example.persistence.OrderStore;
+import org.example.service.OrderEventDispatcher;
+import org.example.service.OrderIdGenerator;
+import org.example.service.OrderRepository;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
 
 /**
  * ShopTech - E-Commerce Console Application
- *
+ * 
  * Esta aplicación demuestra la implementación de 7 patrones de diseño:
  * 1. Singleton - StoreDatabase
  * 2. Factory Method - ProductFactory y FactoryRegistry
@@ -34,12 +51,16 @@ import java.util.Scanner;
  * 7. Adapter - AccountingAdapter para sistema legacy
  */
 public class Main {
+    /** Productos por página en el catálogo */
+    private static final int CATALOG_PAGE_SIZE = 20;
+
     private static Scanner scanner = new Scanner(System.in);
     private static StoreDatabase store;
     private static FactoryRegistry factoryRegistry;
     private static Cart cart;
     private static User currentUser;
     private static Order currentOrder;
+    private static OrderStore orderStore;
     private static LegacyAccountingSystem legacySystem;
     private static AccountingService accountingService;
 
@@ -86,26 +107,80 @@ public class Main {
         // 3. Crear productos iniciales usando Factory Method
         loadInitialProducts();
 
-        // 4. Inicializar usuario de prueba (Observer)
+        // 4. Historial de órdenes durable (si hay directorio configurado)
+        orderStore = openOrderStore();
+
+        // 5. Inicializar usuario de prueba (Observer)
         currentUser = new User(1, "Juan Pérez", "juan@shoptech.com", "Calle Principal 123, Culiacán");
 
-        // 5. Inicializar carrito vacío
+        // 6. Inicializar carrito vacío
         cart = new Cart();
 
-        // 6. Adapter - Inicializar sistema de contabilidad legacy
+        // 7. Adapter - Inicializar sistema de contabilidad legacy
         legacySystem = new LegacyAccountingSystem();
         accountingService = new AccountingAdapter(legacySystem);
 
         System.out.println(" Sistema inicializado correctamente");
         System.out.println(" " + store.getAllProducts().size() + " productos cargados");
         System.out.println(" Usuario: " + currentUser.getName());
+        if(orderStore != null) {
+            OrderStore.ReplayStats replay = orderStore.getReplayStats();
+            System.out.printf(" %,d órdenes restauradas (%,d eventos en %d ms)%n",
+                    replay.orders(), replay.journalEvents(), replay.nanos() / 1_000_000);
+        }
         pauseForUser();
     }
 
     /**
-     * Carga productos iniciales usando el Factory Method pattern
+     * Abre el historial de órdenes con {@code -Dshoptech.orders.dir} o
+     * {@code orders.data.dir}; sin directorio las órdenes solo viven en memoria.
+     */
+    private static OrderStore openOrderStore() {
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        String dataDir = System.getProperty("shoptech.orders.dir", config.getConfig("orders.data.dir"));
+        if(dataDir == null || dataDir.isBlank()) {
+            return null;
+        }
+        OrderStore orders = OrderStore.open(Path.of(dataDir),
+                Integer.parseInt(config.getConfig("orders.journal.partitions")),
+                OrderRepository.getInstance(), store::getProduct,
+                !"async".equalsIgnoreCase(config.getConfig("orders.journal.sync")),
+                Long.parseLong(config.getConfig("orders.snapshot.every")));
+        Runtime.getRuntime().addShutdownHook(new Thread(orders::close, "order-store-shutdown"));
+        return orders;
+    }
+
+    /** Guarda la orden en el historial (durable si está configurado) */
+    private static void saveOrder(Order order) {
+        if(orderStore != null) {
+            orderStore.save(order);
+        } else {
+            OrderRepository.getInstance().save(order);
+        }
+    }
+
+    /**
+     * Confirma el stock reservado por el checkout. Si el inventario no se
+     * pudo guardar, la orden sigue siendo válida: solo se avisa.
+     */
+    private static void commitInventory() {
+        try {
+            store.commitInventory();
+        } catch(RuntimeException e) {
+            System.out.println("  El inventario no se pudo guardar en disco: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Carga productos iniciales usando el Factory Method pattern.
+     * Con {@code -Dshoptech.import.file=feed.csv} los importa desde el archivo.
      */
     private static void loadInitialProducts() {
+        String importFile = System.getProperty("shoptech.import.file");
+        if (importFile != null && !importFile.isBlank()) {
+            importProducts(Path.of(importFile));
+            return;
+        }
         try {
             // Electronics
             Product laptop = factoryRegistry.createProduct("ELECTRONICS",
@@ -137,6 +212,23 @@ public class Main {
         }
     }
 
+    /**
+     * Importa productos desde un archivo CSV o JSON Lines. Las filas
+     * invalidas se guardan junto al archivo con extension .rejects.
+     */
+    private static void importProducts(Path file) {
+        try {
+            Path rejects = file.resolveSibling(file.getFileName() + ".rejects");
+            ImportReport report = new CatalogImporter(store).importFile(file, rejects);
+            Output.info("Import " + file + ": " + report);
+            if (report.rejected() > 0) {
+                System.err.println(" " + report.rejected() + " filas rechazadas, ver " + rejects);
+            }
+        } catch (RuntimeException e) {
+            System.err.println(" Error importando productos: " + e.getMessage());
+        }
+    }
+
     /**
      * Muestra el menú principal
      */
@@ -152,9 +244,12 @@ public class Main {
         System.out.println("  6.  Seleccionar método de pago (Strategy)");
         System.out.println("  7.  Procesar pago");
         System.out.println("  8.  Ver estado de orden");
-        System.out.println("  9.  Salir");
+        System.out.println(store.hasSearchIndexes()
+                ? "  9.  Buscar productos"
+                : "  9.  Buscar productos (no disponible: catálogo fuera del heap)");
+        System.out.println("  0.  Salir");
         System.out.println("─".repeat(56));
-        System.out.print("Selecciona una opción [1-9]: ");
+        System.out.print("Selecciona una opción [0-9]: ");
     }
 
     /**
@@ -188,9 +283,12 @@ public class Main {
                     viewOrderStatus();
                     break;
                 case 9:
+                    searchProducts();
+                    break;
+                case 0:
                     return false;
                 default:
-                    System.out.println(" Opción inválida. Por favor selecciona 1-9.");
+                    System.out.println(" Opción inválida. Por favor selecciona 0-9.");
             }
         } catch(Exception e) {
             System.out.println(" Error: " + e.getMessage());
@@ -199,38 +297,62 @@ public class Main {
     }
 
     /**
-     * OPCIÓN 1: Ver catálogo completo de productos
+     * OPCIÓN 1: Ver catálogo de productos, por páginas
      * Demuestra: Singleton (acceso a StoreDatabase)
      */
     private static void viewCatalog() {
         System.out.println("\n╔════════════════════════════════════════════════════════════════════════════╗");
         System.out.println("  ║                           CATÁLOGO DE PRODUCTOS                            ║");
         System.out.println("  ╚════════════════════════════════════════════════════════════════════════════╝");
+        CatalogSort sort = CatalogSort.ID;
+        if(store.hasSearchIndexes()) {
+            System.out.print("Ordenar por: 1. ID  2. Precio  3. Nombre: ");
+            int sortChoice = getIntInput();
+            scanner.nextLine();
+            sort = switch(sortChoice) {
+                case 2 -> CatalogSort.PRICE;
+                case 3 -> CatalogSort.NAME;
+                default -> CatalogSort.ID;
+            };
+        } else {
+            System.out.println(" Catálogo fuera del heap: los productos se muestran ordenados por ID");
+        }
 
-        List<Product> products = store.getAllProducts();
-
-        if(products.isEmpty()) {
+        CatalogPage page = store.getPage(sort, null, CATALOG_PAGE_SIZE);
+        if(page.products().isEmpty()) {
             System.out.println("📦 No hay productos disponibles en este momento");
             pauseForUser();
             return;
         }
 
-        System.out.printf("%-12s %-30s %-12s %-10s %-15s%n",
-                "ID", "Nombre", "Precio", "Stock", "Categoría");
-        System.out.println("─".repeat(80));
+        int pageNumber = 1;
+        while(true) {
+            System.out.printf("%-12s %-30s %-12s %-10s %-15s%n",
+                    "ID", "Nombre", "Precio", "Stock", "Categoría");
+            System.out.println("─".repeat(80));
 
-        for(Product product : products) {
-            System.out.printf("%-12s %-30s $%-11.2f %-10d %-15s%n",
-                    product.getId(),
-                    truncate(product.getName(), 30),
-                    product.getPrice(),
-                    product.getStock(),
-                    product.getCategory());
-        }
+            for(Product product : page.products()) {
+                System.out.printf("%-12s %-30s $%-11.2f %-10d %-15s%n",
+                        product.getId(),
+                        truncate(product.getName(), 30),
+                        product.getPrice(),
+                        product.getStock(),
+                        product.getCategory());
+            }
 
-        System.out.println("─".repeat(80));
-        System.out.println("Total de productos: " + products.size());
-        pauseForUser();
+            System.out.println("─".repeat(80));
+            if(!page.hasNext()) {
+                System.out.println("Página " + pageNumber + " (última)");
+                pauseForUser();
+                return;
+            }
+            System.out.print("Página " + pageNumber + " - [Enter] siguiente, 0 para volver: ");
+            if(scanner.nextLine().trim().equals("0")) {
+                return;
+            }
+            page = store.getPage(sort, page.nextCursor(), CATALOG_PAGE_SIZE);
+            pageNumber++;
+        }
     }
 
     /**
@@ -272,8 +394,13 @@ public class Main {
             return;
         }
 
-        Product selectedProduct = products.get(choice - 1);
+        addSelectedToCart(products.get(choice - 1));
+    }
 
+    /**
+     * Pide la cantidad y agrega el producto seleccionado al carrito.
+     */
+    private static void addSelectedToCart(Product selectedProduct) {
         System.out.print("Cantidad a agregar: ");
         int quantity = getIntInput();
         scanner.nextLine();
@@ -290,16 +417,62 @@ public class Main {
             return;
         }
 
-        // Agregar al carrito (múltiples unidades)
-        for(int i = 0; i < quantity; i++) {
-            cart.addProduct(selectedProduct);
-        }
+        // Agregar al carrito (todas las unidades en una sola reserva)
+        cart.addProduct(selectedProduct, quantity);
 
         System.out.println( quantity + "x " + selectedProduct.getName() + " agregado(s) al carrito");
         System.out.println(" Total en carrito: $" + cart.getTotal());
         pauseForUser();
     }
 
+    /**
+     * OPCIÓN 9: Buscar productos por texto
+     * Demuestra: indice invertido del catalogo (StoreDatabase.search)
+     */
+    private static void searchProducts() {
+        System.out.println("\n╔════════════════════════════════════════════════════════╗");
+        System.out.println("  ║                  BUSCAR PRODUCTOS                      ║");
+        System.out.println("  ╚════════════════════════════════════════════════════════╝");
+        if(!store.hasSearchIndexes()) {
+            System.out.println(" La búsqueda no está disponible con el catálogo fuera del heap.");
+            System.out.println(" Usa la opción 1 para ver el catálogo por páginas.");
+            pauseForUser();
+            return;
+        }
+        System.out.print("Buscar (ej: laptop gaming, jeans OR jacket): ");
+        String query = scanner.nextLine();
+
+        List<Product> found = new ArrayList<>();
+        for(SearchHit hit : store.search(query, 10)) {
+            found.add(hit.product());
+        }
+        if(found.isEmpty()) {
+            // Sin coincidencias de palabras completas: se sugiere por prefijo
+            found = store.suggest(query, 10);
+            if(found.isEmpty()) {
+                System.out.println(" Sin resultados para \"" + query.trim() + "\"");
+                pauseForUser();
+                return;
+            }
+            System.out.println(" Sugerencias para \"" + query.trim() + "\":");
+        }
+
+        for(int i = 0; i < found.size(); i++) {
+            Product p = found.get(i);
+            System.out.printf("%2d. %-30s $%-8.2f (Stock: %d) [%s]%n",
+                    i+1, truncate(p.getName(), 30), p.getPrice(), p.getStock(), p.getCategory());
+        }
+
+        System.out.print("\nNúmero para agregar al carrito (0 para volver): ");
+        int choice = getIntInput();
+        scanner.nextLine();
+
+        if(choice < 1 || choice > found.size()) {
+            return;
+        }
+        addSelectedToCart(found.get(choice - 1));
+    }
+
     /**
      * OPCIÓN 3: Ver contenido del carrito
      */
@@ -308,7 +481,7 @@ public class Main {
         System.out.println("  ║                    TU CARRITO                          ║");
         System.out.println("  ╚════════════════════════════════════════════════════════╝");
 
-        List<Product> items = cart.getItems();
+        List<CartItem> items = cart.getLineItems();
 
         if(items.isEmpty()) {
             System.out.println("🛒 Tu carrito está vacío");
@@ -317,19 +490,18 @@ public class Main {
             return;
         }
 
-        System.out.printf("%-35s %15s%n", "Producto", "Precio");
-        System.out.println("─".repeat(52));
+        System.out.printf("%-35s %5s %15s%n", "Producto", "Cant.", "Subtotal");
+        System.out.println("─".repeat(58));
 
-        for(int i = 0; i < items.size(); i++) {
-            Product item = items.get(i);
-            System.out.printf("%-35s $%14.2f%n",
-                    truncate(item.getName(), 35), item.getPrice());
+        for(CartItem item : items) {
+            System.out.printf("%-35s %5d $%14.2f%n",
+                    truncate(item.getProduct().getName(), 35), item.getQuantity(), item.getSubtotal().toDouble());
         }
 
-        System.out.println("─".repeat(52));
-        System.out.printf("%-35s $%14.2f%n", "TOTAL:", cart.getTotal());
-        System.out.println("═".repeat(52));
-        System.out.println("Total de items: " + items.size());
+        System.out.println("─".repeat(58));
+        System.out.printf("%-41s $%14.2f%n", "TOTAL:", cart.getTotal().toDouble());
+        System.out.println("═".repeat(58));
+        System.out.println("Total de items: " + cart.getTotalItems());
         pauseForUser();
     }
 
@@ -342,7 +514,7 @@ public class Main {
         System.out.println("  ║           SERVICIOS ADICIONALES (Decorator)            ║");
         System.out.println("  ╚════════════════════════════════════════════════════════╝");
 
-        List<Product> items = cart.getItems();
+        List<CartItem> items = cart.getLineItems();
 
         if(items.isEmpty()) {
             System.out.println("🛒 Tu carrito está vacío");
@@ -354,9 +526,9 @@ public class Main {
         // Mostrar productos en el carrito
         System.out.println("\nProductos en tu carrito:");
         for(int i = 0; i < items.size(); i++) {
-            Product p = items.get(i);
-            System.out.printf("%2d. %-35s $%.2f%n",
-                    i+1, truncate(p.getName(), 35), p.getPrice());
+            CartItem item = items.get(i);
+            System.out.printf("%2d. %-35s %3dx $%.2f%n",
+                    i+1, truncate(item.getProduct().getName(), 35), item.getQuantity(), item.getUnitPrice().toDouble());
         }
 
         System.out.print("\nSelecciona el producto a mejorar (0 para cancelar): ");
@@ -374,7 +546,8 @@ public class Main {
             return;
         }
 
-        Product selectedProduct = items.get(choice - 1);
+        CartItem selectedItem = items.get(choice - 1);
+        Product selectedProduct = selectedItem.getProduct();
 
         System.out.println("\n╔════════════════════════════════════════════════════════╗");
         System.out.println("  ║              SERVICIOS DISPONIBLES                     ║");
@@ -412,9 +585,9 @@ public class Main {
                 return;
         }
 
-        // Reemplazar producto en el carrito
-        cart.removeProduct(selectedProduct.getId());
-        cart.addProduct(decoratedProduct);
+        // Reemplazar la línea en el carrito (el servicio aplica a todas sus unidades)
+        cart.removeLine(selectedProduct.getSku());
+        cart.addProduct(decoratedProduct, selectedItem.getQuantity());
 
         System.out.println("\n " + serviceName + " aplicado correctamente");
         System.out.println("Precio original: $" + selectedProduct.getPrice());
@@ -432,7 +605,7 @@ public class Main {
         System.out.println("  ║                    CHECKOUT (Builder)                  ║");
         System.out.println("  ╚════════════════════════════════════════════════════════╝");
 
-        if(cart.getItems().isEmpty()) {
+        if(cart.isEmpty()) {
             System.out.println(" Tu carrito está vacío");
             System.out.println("\n Agrega productos antes de hacer checkout (opción 2)");
             pauseForUser();
@@ -447,11 +620,11 @@ public class Main {
             return;
         }
 
-        // Generar ID único de orden
-        String orderId = "ORD-" + System.currentTimeMillis();
+        // Generar ID único de orden (no se repite aunque dos órdenes se creen en el mismo ms)
+        String orderId = OrderIdGenerator.getInstance().nextOrderId();
 
         System.out.println("\n Resumen de tu compra:");
-        System.out.println("Items: " + cart.getItems().size());
+        System.out.println("Items: " + cart.getTotalItems());
         System.out.println("Total: $" + cart.getTotal());
 
         // Preguntar por nota de regalo (opcional)
@@ -468,7 +641,7 @@ public class Main {
         Order.OrderBuilder builder = new Order.OrderBuilder()
                 .setOrderId(orderId)
                 .setUser(currentUser)
-                .setItems(cart.getItems());
+                .setLineItems(cart.getLineItems());
 
         if(giftNote != null && !giftNote.trim().isEmpty()) {
             builder.setGiftNote(giftNote);
@@ -476,6 +649,10 @@ public class Main {
 
         try {
             currentOrder = builder.build();
+            // Las reservas del carrito ahora son de la orden: se empieza un carrito nuevo
+            cart = new Cart();
+            saveOrder(currentOrder);
+            commitInventory();
 
             System.out.println("\n╔════════════════════════════════════════════════════════╗");
             System.out.println("  ║            ORDEN CREADA EXITOSAMENTE                   ║");
@@ -491,6 +668,7 @@ public class Main {
                 System.out.println("Nota: " + giftNote);
             }
 
+            System.out.println("\n🛒 Carrito vaciado: sus unidades quedan apartadas para la orden");
             System.out.println("\n️  Siguiente paso: Selecciona un método de pago (opción 6)");
 
         } catch(IllegalStateException e) {
@@ -551,7 +729,8 @@ public class Main {
                     System.out.print("Fecha de expiración (MM/YY): ");
                     String expDate = scanner.nextLine();
 
-                    strategy = new CreditCardStrategy(cardNumber, cardHolder, expDate);
+                    strategy = new CreditCardStrategy(cardNumber, cardHolder, expDate,
+                            SimulatedPaymentGateway.getInstance());
                     System.out.println(" Tarjeta configurada: ****" + cardNumber.substring(12));
                     break;
 
@@ -561,7 +740,7 @@ public class Main {
                     System.out.print("Email de PayPal: ");
                     String email = scanner.nextLine();
 
-                    strategy = new PayPalStrategy(email);
+                    strategy = new PayPalStrategy(email, SimulatedPaymentGateway.getInstance());
                     System.out.println(" PayPal configurado: " + email);
                     break;
 
@@ -569,7 +748,7 @@ public class Main {
                     System.out.println("\n PUNTOS DE RECOMPENSA");
                     System.out.println("─".repeat(40));
                     System.out.println("Monto a pagar: $" + currentOrder.getTotalAmount());
-                    int pointsNeeded = (int)(currentOrder.getTotalAmount() * 100);
+                    long pointsNeeded = currentOrder.getTotal().getCents();
                     System.out.println("Puntos necesarios: " + pointsNeeded);
                     System.out.print("Puntos disponibles: ");
                     int points = getIntInput();
@@ -585,14 +764,8 @@ public class Main {
                     return;
             }
 
-            // Reconstruir orden con el método de pago seleccionado
-            currentOrder = new Order.OrderBuilder()
-                    .setOrderId(currentOrder.getOrderId())
-                    .setUser(currentOrder.getUser())
-                    .setItems(currentOrder.getItems())
-                    .setPaymentMethod(strategy)
-                    .setGiftNote(currentOrder.getGiftNote())
-                    .build();
+            // La misma orden conserva el stock reservado y su registro
+            currentOrder.setPaymentMethod(strategy);
 
             System.out.println("\n Método de pago configurado correctamente");
             System.out.println("\n️  Siguiente paso: Procesar pago (opción 7)");
@@ -644,21 +817,32 @@ public class Main {
 
         try {
             // STRATEGY PATTERN + OBSERVER PATTERN
-            // processPayment() usa la estrategia y notifica a observers
-            currentOrder.processPayment();
+            // processPaymentAsync() usa la estrategia y notifica a observers; aqui se espera la respuesta
+            PaymentResult result = currentOrder.processPaymentAsync().join();
+            if (!result.isApproved()) {
+                System.out.println("═".repeat(56));
+                System.out.println("\n PAGO RECHAZADO (" + result.reason() + ")");
+                System.out.println("Motivo: " + result.message());
+                System.out.println("\n Verifica tu método de pago e intenta nuevamente");
+                pauseForUser();
+                return;
+            }
+            // Las notificaciones son asincronas: esperar su entrega para no mezclarlas con el menú
+            OrderEventDispatcher.getInstance().drain(5, TimeUnit.SECONDS);
+            Output.flush();
 
             System.out.println("═".repeat(56));
             System.out.println("\n ¡PAGO PROCESADO EXITOSAMENTE!");
             System.out.println("Estado de la orden: " + currentOrder.getOrderStatus());
+            if(orderStore != null && orderStore.getFailure() != null) {
+                System.out.println("  El historial de órdenes no pudo registrar el pago: "
+                        + orderStore.getFailure().getMessage());
+            }
 
             // ADAPTER PATTERN - Registrar en sistema de contabilidad legacy
             System.out.println("\n Registrando venta en sistema de contabilidad...");
             accountingService.logSale(currentOrder);
 
-            // Limpiar carrito después de compra exitosa
-            cart.clear();
-            System.out.println("\n🛒 Carrito vaciado");
-
             System.out.println("\n╔════════════════════════════════════════════════════════╗");
             System.out.println("  ║             ¡GRACIAS POR TU COMPRA!                    ║");
             System.out.println("  ╚════════════════════════════════════════════════════════╝");
@@ -702,11 +886,13 @@ public class Main {
         System.out.println("Email: " + currentOrder.getUser().getEmail());
         System.out.println("Dirección: " + currentOrder.getUser().getShippingAddress());
 
-        System.out.println("\n PRODUCTOS (" + currentOrder.getItems().size() + " items)");
+        List<CartItem> orderItems = currentOrder.getLineItems();
+        int units = orderItems.stream().mapToInt(CartItem::getQuantity).sum();
+        System.out.println("\n PRODUCTOS (" + units + " items)");
         System.out.println("─".repeat(56));
-        for(Product item : currentOrder.getItems()) {
-            System.out.printf("  • %-35s $%.2f%n",
-                    truncate(item.getName(), 35), item.getPrice());
+        for(CartItem item : orderItems) {
+            System.out.printf("  • %3dx %-30s $%.2f%n",
+                    item.getQuantity(), truncate(item.getProduct().getName(), 30), item.getSubtotal().toDouble());
         }
 
         if(currentOrder.getGiftNote() != null) {
@@ -721,6 +907,16 @@ public class Main {
             System.out.println("Configurado: ");
         }
 
+        List<Order> history = OrderRepository.getInstance().findRecentByUser(currentUser.getId(), 5);
+        if(history.size() > 1) {
+            System.out.println("\n ÚLTIMAS ÓRDENES");
+            System.out.println("─".repeat(56));
+            for(Order order : history) {
+                System.out.printf("  %s %-22s %-10s $%.2f%n", getStatusEmoji(order.getOrderStatus()),
+                        order.getOrderId(), order.getOrderStatus(), order.getTotalAmount());
+            }
+        }
+
         pauseForUser();
     }
 
@@ -766,6 +962,7 @@ public class Main {
     private static String getStatusEmoji(Order.Status status) {
         switch(status) {
             case PENDING: return "⏳";
+            case PROCESSING: return "💳";
             case PAID: return "✅";
             case SHIPPED: return "🚚";
             case DELIVERED: return "📦";
@@ -0,0 +1,106 @@
+package org.example.catalog;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lista de solo-agregado con lecturas sin bloqueo.
+ * 
+ * <p>
+ * Los escritores se serializan con un lock (la operacion es O(1)
+ * amortizado). Los lectores obtienen con {@link #snapshot()} una vista
+ * inmutable de los elementos publicados hasta ese momento, sin bloquear
+ * y sin riesgo de {@link java.util.ConcurrentModificationException}.
+ * </p>
+ * 
+ * <p>
+ * Publicacion segura: el escritor guarda el elemento (y, si crece, el
+ * arreglo nuevo) antes de incrementar {@code size}, que es volatile.
+ * Un lector que lee {@code size} y despues {@code elements} ve un
+ * arreglo que contiene al menos esos {@code size} elementos.
+ * </p>
+ * 
+ * @param <E> Tipo de los elementos
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+class AppendOnlyList<E> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    private volatile Object[] elements = new Object[INITIAL_CAPACITY];
+
+    private volatile int size;
+
+    /**
+     * Agrega un elemento al final de la lista.
+     * 
+     * @param element Elemento a agregar
+     */
+    void add(E element) {
+        appendLock.lock();
+        try {
+            Object[] current = elements;
+            int index = size;
+            if (index == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                elements = current;
+            }
+            current[index] = element;
+            size = index + 1;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * @return Numero de elementos publicados
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Obtiene una vista inmutable de los elementos publicados hasta ahora.
+     * Costo O(1): no copia el arreglo.
+     * 
+     * @return Vista de solo lectura
+     */
+    List<E> snapshot() {
+        int currentSize = size;
+        return new Snapshot<>(elements, currentSize);
+    }
+
+    /**
+     * Vista de solo lectura sobre un prefijo del arreglo.
+     */
+    private static final class Snapshot<E> extends AbstractList<E> implements RandomAccess {
+        private final Object[] elements;
+        private final int size;
+
+        Snapshot(Object[] elements, int size) {
+            this.elements = elements;
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return (E) elements[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
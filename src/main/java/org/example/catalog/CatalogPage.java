@@ -0,0 +1,26 @@
+package org.example.catalog;
+
+import org.example.model.product.Product;
+
+import java.util.List;
+
+/**
+ * Pagina de productos del catalogo.
+ * 
+ * @param products   Productos de la pagina, en el orden pedido
+ * @param nextCursor Cursor para pedir la pagina siguiente, o null si esta
+ *                   es la ultima
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see ProductCatalog#getPage(CatalogSort, String, int)
+ */
+public record CatalogPage(List<Product> products, String nextCursor) {
+
+    /**
+     * @return true si hay mas productos despues de esta pagina
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.catalog;
+
+/**
+ * Orden de las paginas del catalogo.
+ * 
+ * <p>
+ * Todos los ordenes desempatan por ID, asi cada producto tiene una
+ * posicion unica y un cursor indica sin ambiguedad donde continuar.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see ProductCatalog#getPage(CatalogSort, String, int)
+ */
+public enum CatalogSort {
+
+    /** Por ID */
+    ID,
+
+    /** Por precio (menor primero) y luego por ID */
+    PRICE,
+
+    /** Por nombre y luego por ID */
+    NAME
+}
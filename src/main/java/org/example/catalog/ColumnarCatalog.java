@@ -0,0 +1,693 @@
+package org.example.catalog;
+
+import org.example.model.Money;
+import org.example.model.product.Product;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Catalogo columnar fuera del heap (Foreign Memory API).
+ * 
+ * <p>
+ * Cada {@link Product} del {@link ProductCatalog} es un objeto en el heap
+ * con sus strings, su {@link Money} y su lista de listeners: con decenas
+ * de millones de productos el recolector recorre cientos de millones de
+ * referencias en cada ciclo completo. Este catalogo guarda los datos en
+ * columnas de {@link MemorySegment} que el recolector no recorre, y
+ * entrega vistas ligeras ({@code ColumnarProduct}) creadas al consultar.
+ * </p>
+ * 
+ * <h2>Columnas:</h2>
+ * <ul>
+ * <li><b>Precio:</b> centavos (long)</li>
+ * <li><b>Stock:</b> int, actualizado con compare-and-set sobre el segmento</li>
+ * <li><b>Categoria y tipo:</b> codigos de diccionario (int y byte)</li>
+ * <li><b>ID y nombre:</b> referencias a un monticulo de strings UTF-8,
+ * tambien fuera del heap</li>
+ * <li><b>Hash del ID:</b> para el indice y para descartar sin comparar bytes</li>
+ * </ul>
+ * 
+ * <p>
+ * Las filas se agrupan en bloques de {@value #CHUNK_ROWS}. Al crecer se
+ * agrega un bloque nuevo y nunca se copian los existentes: un
+ * compare-and-set de stock concurrente con un alta no se pierde.
+ * </p>
+ * 
+ * <h2>Busqueda por ID:</h2>
+ * <p>
+ * Tabla hash de direccionamiento abierto, tambien fuera del heap, con el
+ * numero de fila de cada ID (O(1)). Al crecer se construye una tabla
+ * nueva y se publica; los lectores que aun usan la anterior siguen viendo
+ * una tabla valida.
+ * </p>
+ * 
+ * <h2>Concurrencia:</h2>
+ * <p>
+ * Un escritor a la vez (bajo un lock) y lectores sin bloqueo, con la
+ * misma publicacion que {@link AppendOnlyList}: la fila se escribe antes
+ * de incrementar {@code size}, que es volatile. La memoria la libera el
+ * recolector cuando el catalogo deja de usarse ({@link Arena#ofAuto()}).
+ * </p>
+ * 
+ * <h2>Vistas:</h2>
+ * <p>
+ * Cada consulta crea vistas nuevas: dos vistas de la misma fila son
+ * {@code equals} y comparten precio y stock, pero los listeners se
+ * registran en la vista y solo reciben los cambios hechos a traves de
+ * ella. Las listas de categoria y rango de precio, y las paginas por ID,
+ * se obtienen recorriendo las columnas; no hay indices secundarios en el
+ * heap, por eso no hay busqueda por texto ni paginas por precio o nombre.
+ * </p>
+ * 
+ * <h2>Ejemplo de Uso:</h2>
+ * 
+ * <pre>{@code
+ * ColumnarCatalog catalog = new ColumnarCatalog();
+ * catalog.addProduct(laptop);
+ * Product view = catalog.getProduct("E001");
+ * view.tryDecrement(1); // actualiza la columna de stock
+ * }</pre>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see ProductCatalog
+ */
+public final class ColumnarCatalog {
+
+    /** Filas por bloque de columnas */
+    public static final int CHUNK_ROWS = 1 << 16;
+
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+
+    /** Bytes por bloque del monticulo de strings */
+    private static final int STRING_CHUNK_BYTES = 1 << 20;
+
+    /** Referencia de un string null */
+    private static final long NULL_REF = -1;
+
+    /** Codigo de una categoria null */
+    private static final int NO_CATEGORY = -1;
+
+    private static final int INITIAL_INDEX_SLOTS = 1 << 10;
+
+    private static final VarHandle INT_HANDLE = ValueLayout.JAVA_INT.varHandle();
+    private static final VarHandle LONG_HANDLE = ValueLayout.JAVA_LONG.varHandle();
+
+    private final Arena arena = Arena.ofAuto();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Chunk[] chunks = new Chunk[8];
+
+    private volatile MemorySegment[] stringChunks = new MemorySegment[8];
+
+    /** Tabla de IDs: fila + 1 por slot, 0 si esta vacio */
+    private volatile MemorySegment idIndex;
+
+    private volatile int size;
+
+    /** Bytes fuera del heap reservados hasta ahora */
+    private volatile long offHeapBytes;
+
+    /** Bloques de strings en uso y posicion en el ultimo (solo escritor) */
+    private int stringChunkCount;
+    private int stringOffset;
+
+    private final AppendOnlyList<String> categoryNames = new AppendOnlyList<>();
+    private final Map<String, Integer> categoryCodes = new ConcurrentHashMap<>();
+
+    private final AppendOnlyList<String> typeNames = new AppendOnlyList<>();
+    private final Map<String, Integer> typeCodes = new ConcurrentHashMap<>();
+
+    /**
+     * Crea un catalogo vacio.
+     */
+    public ColumnarCatalog() {
+        idIndex = allocate((long) INITIAL_INDEX_SLOTS * Integer.BYTES, Integer.BYTES);
+    }
+
+    /**
+     * Agrega un producto al catalogo copiando sus datos a las columnas. El
+     * objeto original no se conserva: los cambios posteriores se hacen a
+     * traves de las vistas de {@link #getProduct(String)}.
+     * 
+     * @param product El producto a agregar
+     * @throws IllegalArgumentException si el producto o su ID son null/vacios,
+     *                                  o si ya existe un producto con el mismo ID
+     */
+    public void addProduct(Product product) {
+        if (product == null) {
+            throw new IllegalArgumentException("Product cannot be null");
+        }
+        String id = product.getId();
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("Product ID cannot be null or empty");
+        }
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        writeLock.lock();
+        try {
+            if (findRow(key, hash) >= 0) {
+                throw new IllegalArgumentException("Duplicate product ID: " + id);
+            }
+            append(product, key, hash);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Agrega un lote de productos tomando el lock una sola vez.
+     * 
+     * @param products Productos a agregar
+     * @return Productos rechazados porque su ID ya existia
+     * @throws IllegalArgumentException si algun producto o ID es null/vacio
+     */
+    public List<Product> addProducts(List<Product> products) {
+        List<Product> duplicates = new ArrayList<>();
+        writeLock.lock();
+        try {
+            for (Product product : products) {
+                String id = product == null ? null : product.getId();
+                if (id == null || id.isEmpty()) {
+                    throw new IllegalArgumentException("Product ID cannot be null or empty");
+                }
+                byte[] key = id.getBytes(StandardCharsets.UTF_8);
+                int hash = hash(key);
+                if (findRow(key, hash) >= 0) {
+                    duplicates.add(product);
+                } else {
+                    append(product, key, hash);
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        return duplicates;
+    }
+
+    /**
+     * Busca un producto por su ID en O(1).
+     * 
+     * @param id Identificador unico del producto
+     * @return Vista del producto o null si no existe
+     */
+    public Product getProduct(String id) {
+        if (id == null) {
+            return null;
+        }
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int row = findRow(key, hash(key));
+        return row < 0 ? null : new ColumnarProduct(this, row);
+    }
+
+    /**
+     * Verifica si existe un producto con el ID indicado.
+     * 
+     * @param id Identificador a verificar
+     * @return true si el ID ya esta registrado
+     */
+    public boolean containsProduct(String id) {
+        if (id == null) {
+            return false;
+        }
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        return findRow(key, hash(key)) >= 0;
+    }
+
+    /**
+     * Obtiene todos los productos en orden de insercion. Crear la lista
+     * cuesta O(1); cada vista se crea al pedirla.
+     * 
+     * @return Vista inmutable de los productos publicados hasta ahora
+     */
+    public List<Product> getAllProducts() {
+        return new RowList(size);
+    }
+
+    /**
+     * Obtiene los productos de una categoria, ordenados por precio.
+     * 
+     * @param category Categoria a consultar
+     * @return Lista de productos de la categoria
+     */
+    public List<Product> findByCategory(String category) {
+        Integer code = category == null ? null : categoryCodes.get(category);
+        if (code == null) {
+            return new ArrayList<>();
+        }
+        return scan(code, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Obtiene los productos con precio en el rango [minPrice, maxPrice].
+     * 
+     * @param minPrice Precio minimo (inclusivo)
+     * @param maxPrice Precio maximo (inclusivo)
+     * @return Lista de productos ordenados por precio
+     * @throws IllegalArgumentException si minPrice es mayor que maxPrice
+     */
+    public List<Product> findByPriceRange(double minPrice, double maxPrice) {
+        validateRange(minPrice, maxPrice);
+        return scan(null, toCents(minPrice), toCents(maxPrice));
+    }
+
+    /**
+     * Obtiene los productos de una categoria con precio en el rango
+     * [minPrice, maxPrice].
+     * 
+     * @param category Categoria a consultar
+     * @param minPrice Precio minimo (inclusivo)
+     * @param maxPrice Precio maximo (inclusivo)
+     * @return Lista de productos ordenados por precio
+     * @throws IllegalArgumentException si minPrice es mayor que maxPrice
+     */
+    public List<Product> findByCategoryAndPriceRange(String category, double minPrice, double maxPrice) {
+        validateRange(minPrice, maxPrice);
+        Integer code = category == null ? null : categoryCodes.get(category);
+        if (code == null) {
+            return new ArrayList<>();
+        }
+        return scan(code, toCents(minPrice), toCents(maxPrice));
+    }
+
+    /**
+     * Obtiene una pagina del inventario ordenada por ID. Para recorrerlo
+     * completo se pide la primera pagina con cursor null y luego se pasa el
+     * {@link CatalogPage#nextCursor()} de cada pagina.
+     * 
+     * <p>
+     * Sin indice ordenado, cada pagina recorre la columna de IDs y conserva
+     * en un monticulo los {@code pageSize + 1} menores despues del cursor:
+     * O(n log pageSize) por pagina y memoria acotada por {@code pageSize}.
+     * </p>
+     * 
+     * @param cursor   Cursor de la pagina anterior, o null para la primera
+     * @param pageSize Productos por pagina (1 a
+     *                 {@value ProductCatalog#MAX_PAGE_SIZE})
+     * @return Pagina de vistas ordenadas por ID
+     * @throws IllegalArgumentException si el tamano esta fuera de rango o el
+     *                                  cursor no es valido
+     * @see ProductCatalog#getPage(CatalogSort, String, int)
+     */
+    public CatalogPage getPage(String cursor, int pageSize) {
+        if (pageSize <= 0 || pageSize > ProductCatalog.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                    "Page size must be between 1 and " + ProductCatalog.MAX_PAGE_SIZE + ": " + pageSize);
+        }
+        String after = cursor == null ? null : decodeCursor(cursor);
+        int limit = size;
+        // Monticulo de maximos: la cabeza es el mayor de los que se conservan
+        PriorityQueue<IdRow> smallest = new PriorityQueue<>(pageSize + 2,
+                Comparator.comparing(IdRow::id).reversed());
+        for (int row = 0; row < limit; row++) {
+            String id = idOf(row);
+            if (after != null && id.compareTo(after) <= 0) {
+                continue;
+            }
+            if (smallest.size() <= pageSize) {
+                smallest.add(new IdRow(id, row));
+            } else if (id.compareTo(smallest.peek().id()) < 0) {
+                smallest.poll();
+                smallest.add(new IdRow(id, row));
+            }
+        }
+        // El elemento extra solo indica que hay pagina siguiente
+        boolean hasNext = smallest.size() > pageSize;
+        if (hasNext) {
+            smallest.poll();
+        }
+        Product[] page = new Product[smallest.size()];
+        String last = hasNext ? smallest.peek().id() : null;
+        for (int i = page.length - 1; i >= 0; i--) {
+            page[i] = new ColumnarProduct(this, smallest.poll().row());
+        }
+        return new CatalogPage(Arrays.asList(page), last == null ? null : encodeCursor(last));
+    }
+
+    /**
+     * @return Numero de productos
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Bytes reservados fuera del heap (columnas, strings e indice)
+     */
+    public long offHeapBytes() {
+        return offHeapBytes;
+    }
+
+    // ==================== ACCESO POR FILA (vistas) ====================
+
+    String idOf(int row) {
+        return readString(chunk(row).ids.getAtIndex(ValueLayout.JAVA_LONG, row & CHUNK_MASK));
+    }
+
+    String nameOf(int row) {
+        return readString(chunk(row).names.getAtIndex(ValueLayout.JAVA_LONG, row & CHUNK_MASK));
+    }
+
+    String categoryOf(int row) {
+        int code = chunk(row).categories.getAtIndex(ValueLayout.JAVA_INT, row & CHUNK_MASK);
+        return code == NO_CATEGORY ? null : categoryNames.snapshot().get(code);
+    }
+
+    String typeOf(int row) {
+        int code = chunk(row).types.get(ValueLayout.JAVA_BYTE, row & CHUNK_MASK);
+        return typeNames.snapshot().get(code);
+    }
+
+    long priceOf(int row) {
+        return (long) LONG_HANDLE.getVolatile(chunk(row).prices, (long) (row & CHUNK_MASK) * Long.BYTES);
+    }
+
+    void setPrice(int row, long cents) {
+        LONG_HANDLE.setVolatile(chunk(row).prices, (long) (row & CHUNK_MASK) * Long.BYTES, cents);
+    }
+
+    int stockOf(int row) {
+        return (int) INT_HANDLE.getVolatile(chunk(row).stocks, (long) (row & CHUNK_MASK) * Integer.BYTES);
+    }
+
+    void addStock(int row, int quantity) {
+        INT_HANDLE.getAndAdd(chunk(row).stocks, (long) (row & CHUNK_MASK) * Integer.BYTES, quantity);
+    }
+
+    /**
+     * Resta unidades con compare-and-set, igual que {@link Product#tryDecrement}.
+     * 
+     * @return true si habia stock suficiente
+     */
+    boolean tryTakeStock(int row, int quantity) {
+        MemorySegment stocks = chunk(row).stocks;
+        long offset = (long) (row & CHUNK_MASK) * Integer.BYTES;
+        int current;
+        do {
+            current = (int) INT_HANDLE.getVolatile(stocks, offset);
+            if (current < quantity) {
+                return false;
+            }
+        } while (!INT_HANDLE.compareAndSet(stocks, offset, current, current - quantity));
+        return true;
+    }
+
+    // ==================== ESCRITURA ====================
+
+    /** Escribe una fila nueva y la publica. Requiere el lock de escritura. */
+    private void append(Product product, byte[] key, int hash) {
+        int row = size;
+        Chunk chunk = chunkForAppend(row);
+        int slot = row & CHUNK_MASK;
+        chunk.prices.setAtIndex(ValueLayout.JAVA_LONG, slot, product.getUnitPrice().getCents());
+        chunk.stocks.setAtIndex(ValueLayout.JAVA_INT, slot, product.getStock());
+        chunk.categories.setAtIndex(ValueLayout.JAVA_INT, slot, product.getCategory() == null
+                ? NO_CATEGORY : code(product.getCategory(), categoryNames, categoryCodes, Integer.MAX_VALUE));
+        chunk.types.set(ValueLayout.JAVA_BYTE, slot, (byte) code(product.getType(), typeNames, typeCodes, Byte.MAX_VALUE));
+        chunk.ids.setAtIndex(ValueLayout.JAVA_LONG, slot, writeString(key));
+        chunk.names.setAtIndex(ValueLayout.JAVA_LONG, slot, product.getName() == null
+                ? NULL_REF : writeString(product.getName().getBytes(StandardCharsets.UTF_8)));
+        chunk.idHashes.setAtIndex(ValueLayout.JAVA_INT, slot, hash);
+
+        MemorySegment index = idIndex;
+        if ((long) (row + 1) * 2 > index.byteSize() / Integer.BYTES) {
+            index = rehash(index, row);
+        }
+        insert(index, hash, row);
+        idIndex = index;
+        size = row + 1;
+    }
+
+    private Chunk chunkForAppend(int row) {
+        int chunkIndex = row >>> CHUNK_SHIFT;
+        Chunk[] current = chunks;
+        if (chunkIndex == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        if (current[chunkIndex] == null) {
+            current[chunkIndex] = new Chunk(
+                    allocate((long) CHUNK_ROWS * Long.BYTES, Long.BYTES),
+                    allocate((long) CHUNK_ROWS * Integer.BYTES, Integer.BYTES),
+                    allocate((long) CHUNK_ROWS * Integer.BYTES, Integer.BYTES),
+                    allocate(CHUNK_ROWS, 1),
+                    allocate((long) CHUNK_ROWS * Long.BYTES, Long.BYTES),
+                    allocate((long) CHUNK_ROWS * Long.BYTES, Long.BYTES),
+                    allocate((long) CHUNK_ROWS * Integer.BYTES, Integer.BYTES));
+            chunks = current;
+        }
+        return current[chunkIndex];
+    }
+
+    /** Obtiene (o asigna) el codigo de diccionario de un string. */
+    private static int code(String value, AppendOnlyList<String> names, Map<String, Integer> codes, int maxCode) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = names.size();
+            if (code > maxCode) {
+                throw new IllegalStateException("Too many distinct values: " + value);
+            }
+            names.add(value);
+            codes.put(value, code);
+        }
+        return code;
+    }
+
+    /**
+     * Copia un string al monticulo de strings.
+     * 
+     * @return Referencia: bloque (23 bits), posicion (20 bits) y longitud (20 bits)
+     */
+    private long writeString(byte[] bytes) {
+        if (bytes.length >= STRING_CHUNK_BYTES) {
+            throw new IllegalArgumentException("Product text too long: " + bytes.length + " bytes");
+        }
+        // >= deja al menos un byte libre: la posicion siempre cabe en 20 bits
+        if (stringChunkCount == 0 || stringOffset + bytes.length >= STRING_CHUNK_BYTES) {
+            MemorySegment[] current = stringChunks;
+            if (stringChunkCount == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[stringChunkCount++] = allocate(STRING_CHUNK_BYTES, 1);
+            stringChunks = current;
+            stringOffset = 0;
+        }
+        int chunk = stringChunkCount - 1;
+        MemorySegment.copy(bytes, 0, stringChunks[chunk], ValueLayout.JAVA_BYTE, stringOffset, bytes.length);
+        long ref = ((long) chunk << 40) | ((long) stringOffset << 20) | bytes.length;
+        stringOffset += bytes.length;
+        return ref;
+    }
+
+    private String readString(long ref) {
+        if (ref == NULL_REF) {
+            return null;
+        }
+        MemorySegment chunk = stringChunks[(int) (ref >>> 40)];
+        byte[] bytes = chunk.asSlice((ref >>> 20) & 0xFFFFF, ref & 0xFFFFF).toArray(ValueLayout.JAVA_BYTE);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private MemorySegment allocate(long bytes, long alignment) {
+        MemorySegment segment = arena.allocate(bytes, alignment);
+        offHeapBytes += bytes;
+        return segment;
+    }
+
+    // ==================== INDICE DE IDS ====================
+
+    /**
+     * Busca la fila de un ID. Los lectores no bloquean: una entrada cuya
+     * fila aun no se publica se ignora.
+     * 
+     * @return Fila, o -1 si no existe
+     */
+    private int findRow(byte[] key, int hash) {
+        MemorySegment index = idIndex;
+        long mask = index.byteSize() / Integer.BYTES - 1;
+        for (long slot = hash & mask;; slot = (slot + 1) & mask) {
+            int entry = index.getAtIndex(ValueLayout.JAVA_INT, slot);
+            if (entry == 0) {
+                return -1;
+            }
+            int row = entry - 1;
+            if (row < size && hashOf(row) == hash && idEquals(row, key)) {
+                return row;
+            }
+        }
+    }
+
+    private static void insert(MemorySegment index, int hash, int row) {
+        long mask = index.byteSize() / Integer.BYTES - 1;
+        long slot = hash & mask;
+        while (index.getAtIndex(ValueLayout.JAVA_INT, slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index.setAtIndex(ValueLayout.JAVA_INT, slot, row + 1);
+    }
+
+    /** Construye una tabla del doble de slots con las filas [0, rows). */
+    private MemorySegment rehash(MemorySegment index, int rows) {
+        MemorySegment larger = allocate(index.byteSize() * 2, Integer.BYTES);
+        for (int row = 0; row < rows; row++) {
+            insert(larger, hashOf(row), row);
+        }
+        offHeapBytes -= index.byteSize();
+        return larger;
+    }
+
+    private int hashOf(int row) {
+        return chunk(row).idHashes.getAtIndex(ValueLayout.JAVA_INT, row & CHUNK_MASK);
+    }
+
+    private boolean idEquals(int row, byte[] key) {
+        long ref = chunk(row).ids.getAtIndex(ValueLayout.JAVA_LONG, row & CHUNK_MASK);
+        if ((ref & 0xFFFFF) != key.length) {
+            return false;
+        }
+        MemorySegment chunk = stringChunks[(int) (ref >>> 40)];
+        long offset = (ref >>> 20) & 0xFFFFF;
+        for (int i = 0; i < key.length; i++) {
+            if (chunk.get(ValueLayout.JAVA_BYTE, offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(byte[] key) {
+        int h = 0;
+        for (byte b : key) {
+            h = 31 * h + b;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    // ==================== CONSULTAS ====================
+
+    /**
+     * Recorre las columnas de categoria y precio.
+     * 
+     * @param category Codigo de categoria, o null para todas
+     * @return Vistas ordenadas por precio y luego por ID
+     */
+    private List<Product> scan(Integer category, long minCents, long maxCents) {
+        int limit = size;
+        Chunk[] current = chunks;
+        List<Match> matches = new ArrayList<>();
+        for (int base = 0; base < limit; base += CHUNK_ROWS) {
+            Chunk chunk = current[base >>> CHUNK_SHIFT];
+            int end = Math.min(CHUNK_ROWS, limit - base);
+            for (int slot = 0; slot < end; slot++) {
+                if (category != null && chunk.categories.getAtIndex(ValueLayout.JAVA_INT, slot) != category) {
+                    continue;
+                }
+                long cents = chunk.prices.getAtIndex(ValueLayout.JAVA_LONG, slot);
+                if (cents >= minCents && cents <= maxCents) {
+                    matches.add(new Match(base + slot, cents));
+                }
+            }
+        }
+        // Se ordena por el precio leido en el recorrido: un cambio de precio
+        // concurrente no rompe el orden
+        matches.sort(Comparator.comparingLong(Match::cents).thenComparing(match -> idOf(match.row())));
+        List<Product> views = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            views.add(new ColumnarProduct(this, match.row()));
+        }
+        return views;
+    }
+
+    /** Cursor opaco (Base64 URL) con el ultimo ID entregado */
+    private static String encodeCursor(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+        }
+    }
+
+    private Chunk chunk(int row) {
+        return chunks[row >>> CHUNK_SHIFT];
+    }
+
+    private static void validateRange(double minPrice, double maxPrice) {
+        if (minPrice > maxPrice) {
+            throw new IllegalArgumentException("Min price cannot be greater than max price");
+        }
+    }
+
+    /**
+     * Convierte un limite de rango a centavos; los limites fuera del rango
+     * de {@link Money} se saturan.
+     */
+    private static long toCents(double price) {
+        if (price >= Long.MAX_VALUE / 100.0) {
+            return Long.MAX_VALUE;
+        }
+        if (price <= Long.MIN_VALUE / 100.0) {
+            return Long.MIN_VALUE;
+        }
+        return Money.of(price).getCents();
+    }
+
+    /** Fila que cumple una consulta y su precio al recorrerla */
+    private record Match(int row, long cents) {
+    }
+
+    /** ID de una fila candidata a la pagina */
+    private record IdRow(String id, int row) {
+    }
+
+    /**
+     * Segmentos de un bloque de {@value #CHUNK_ROWS} filas, uno por columna.
+     */
+    private record Chunk(MemorySegment prices, MemorySegment stocks, MemorySegment categories,
+            MemorySegment types, MemorySegment ids, MemorySegment names, MemorySegment idHashes) {
+    }
+
+    /**
+     * Vista de solo lectura sobre las primeras {@code size} filas.
+     */
+    private final class RowList extends AbstractList<Product> implements RandomAccess {
+        private final int size;
+
+        RowList(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public Product get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return new ColumnarProduct(ColumnarCatalog.this, index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.catalog;
+
+import org.example.model.Money;
+import org.example.model.product.Product;
+
+import java.util.Locale;
+
+/**
+ * Vista ligera (flyweight) de una fila del {@link ColumnarCatalog}.
+ * 
+ * <p>
+ * Solo guarda el catalogo y el numero de fila: el precio y el stock se
+ * leen y escriben en las columnas fuera del heap, de modo que todas las
+ * vistas de una fila ven los mismos valores. El ID y el nombre se
+ * decodifican la primera vez que se piden.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+final class ColumnarProduct extends Product {
+
+    private final ColumnarCatalog catalog;
+    private final int row;
+
+    private String id;
+    private String name;
+
+    ColumnarProduct(ColumnarCatalog catalog, int row) {
+        super(null, null, Money.ZERO, 0, null);
+        this.catalog = catalog;
+        this.row = row;
+    }
+
+    @Override
+    public String getId() {
+        if (id == null) {
+            id = catalog.idOf(row);
+        }
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        if (name == null) {
+            name = catalog.nameOf(row);
+        }
+        return name;
+    }
+
+    @Override
+    public String getCategory() {
+        return catalog.categoryOf(row);
+    }
+
+    @Override
+    public String getType() {
+        return catalog.typeOf(row);
+    }
+
+    /**
+     * @return Detalle con el mismo formato que las clases concretas
+     *         (ej: "Electronics [ID: x, Name: x, Price: $x]")
+     */
+    @Override
+    public String getDetails() {
+        String type = getType();
+        String label = type.isEmpty() ? type
+                : type.charAt(0) + type.substring(1).toLowerCase(Locale.ROOT);
+        return label + " [ID: " + getId() + ", Name: " + getName() + ", Price: $" + getPrice() + "]";
+    }
+
+    @Override
+    public int getStock() {
+        return catalog.stockOf(row);
+    }
+
+    @Override
+    public Money getUnitPrice() {
+        return Money.ofCents(catalog.priceOf(row));
+    }
+
+    @Override
+    public void incrementStock(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+        catalog.addStock(row, quantity);
+        notifyStockChanged(quantity);
+    }
+
+    @Override
+    public boolean tryDecrement(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+        if (!catalog.tryTakeStock(row, quantity)) {
+            return false;
+        }
+        notifyStockChanged(-quantity);
+        return true;
+    }
+
+    @Override
+    public boolean tryHold(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+        if (!catalog.tryTakeStock(row, quantity)) {
+            return false;
+        }
+        notifyStockHeld(quantity);
+        return true;
+    }
+
+    @Override
+    public void releaseHold(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+        catalog.addStock(row, quantity);
+        notifyStockHeld(-quantity);
+    }
+
+    @Override
+    public synchronized void setPrice(Money price) {
+        if (price == null) {
+            throw new IllegalArgumentException("Price cannot be null");
+        }
+        Money oldPrice = getUnitPrice();
+        catalog.setPrice(row, price.getCents());
+        notifyPriceChanged(oldPrice, price);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ColumnarProduct other && other.catalog == catalog && other.row == row;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(catalog) + row;
+    }
+}
@@ -0,0 +1,387 @@
+package org.example.catalog;
+
+import java.util.Arrays;
+
+/**
+ * Lista de apariciones (posting list) comprimida de un termino del
+ * {@link ProductSearchIndex}.
+ * 
+ * <p>
+ * Cada aparicion guarda (documento, frecuencia, longitud del documento).
+ * Los documentos llegan en orden creciente, asi que se guarda la diferencia
+ * con el anterior y los tres valores se codifican como varint: una
+ * aparicion tipica ocupa 3 bytes en lugar de 12. Guardar la longitud en la
+ * aparicion permite puntuar sin visitar el documento.
+ * </p>
+ * 
+ * <h2>Bloques:</h2>
+ * <p>
+ * Las apariciones se agrupan en bloques de {@value #BLOCK_SIZE}. Por bloque
+ * se guarda su posicion en bytes, su ultimo documento y hasta
+ * {@value #IMPACTS} "impactos": los pares (frecuencia, longitud) no
+ * dominados del bloque. Con eso un {@link Cursor} salta bloques completos
+ * al buscar un documento ({@link Cursor#advance}) y la busqueda calcula
+ * la relevancia maxima de un bloque ({@link Cursor#blockMaxScore}) para
+ * descartarlo sin decodificarlo.
+ * </p>
+ * 
+ * <h2>Concurrencia:</h2>
+ * <p>
+ * Un solo escritor (bajo el lock del indice) y lectores sin bloqueo, con
+ * la misma publicacion que {@link AppendOnlyList}: los bytes y los
+ * metadatos se escriben antes de incrementar {@code size}, que es
+ * volatile.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+final class PostingList {
+
+    /** Apariciones por bloque */
+    static final int BLOCK_SIZE = 128;
+
+    /** Pares (frecuencia, longitud) guardados por bloque */
+    private static final int IMPACTS = 4;
+
+    /** Enteros por bloque: offset, ultimo documento y los pares de impacto */
+    private static final int META = 2 + 2 * IMPACTS;
+
+    private volatile byte[] data = new byte[8];
+
+    private volatile int[] blocks = new int[META];
+
+    private volatile int size;
+
+    /** Bytes usados (solo escritor) */
+    private int length;
+
+    /** Ultimo documento agregado (solo escritor) */
+    private int lastDoc = -1;
+
+    /**
+     * Agrega una aparicion. Requiere el lock de escritura del indice.
+     * 
+     * @param doc       Documento (mayor que el ultimo agregado)
+     * @param freq      Frecuencia ponderada del termino en el documento
+     * @param docLength Longitud del documento en terminos
+     */
+    void add(int doc, int freq, int docLength) {
+        int index = size;
+        int block = index / BLOCK_SIZE;
+        int[] meta = blocks;
+        int base = block * META;
+        if (index % BLOCK_SIZE == 0) {
+            if (base + META > meta.length) {
+                meta = Arrays.copyOf(meta, meta.length * 2);
+            }
+            meta[base] = length;
+            Arrays.fill(meta, base + 2, base + META, 0);
+        }
+        meta[base + 1] = doc;
+        addImpact(meta, base, freq, docLength);
+
+        byte[] bytes = data;
+        if (length + 15 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 15));
+        }
+        length = writeVarint(bytes, writeVarint(bytes, writeVarint(bytes, length, doc - lastDoc), freq), docLength);
+        lastDoc = doc;
+
+        data = bytes;
+        blocks = meta;
+        size = index + 1;
+    }
+
+    /**
+     * Agrega (frecuencia, longitud) a los impactos del bloque: se conservan
+     * solo los pares no dominados (ningun otro tiene mas frecuencia y menos
+     * longitud). Si no caben, el nuevo par se funde con el de longitud mas
+     * cercana en (frecuencia maxima, longitud minima), que sigue siendo una
+     * cota superior.
+     */
+    private static void addImpact(int[] meta, int base, int freq, int docLength) {
+        int end = base + META;
+        int target = -1;
+        for (int slot = base + 2; slot < end; slot += 2) {
+            if (meta[slot] == 0) {
+                target = target < 0 ? slot : target;
+            } else if (meta[slot] >= freq && meta[slot + 1] <= docLength) {
+                return;
+            }
+        }
+        for (int slot = base + 2; slot < end && target < 0; slot += 2) {
+            if (meta[slot] <= freq && meta[slot + 1] >= docLength) {
+                target = slot;
+            }
+        }
+        if (target < 0) {
+            target = base + 2;
+            for (int slot = base + 4; slot < end; slot += 2) {
+                if (Math.abs(meta[slot + 1] - docLength) < Math.abs(meta[target + 1] - docLength)) {
+                    target = slot;
+                }
+            }
+            freq = Math.max(freq, meta[target]);
+            docLength = Math.min(docLength, meta[target + 1]);
+        }
+        // El par nuevo se publica antes de borrar los que domina: un lector
+        // concurrente siempre ve una cota valida
+        meta[target + 1] = docLength;
+        meta[target] = freq;
+        for (int slot = base + 2; slot < end; slot += 2) {
+            if (slot != target && meta[slot] != 0 && meta[slot] <= freq && meta[slot + 1] >= docLength) {
+                meta[slot] = 0;
+            }
+        }
+    }
+
+    /**
+     * @return Numero de documentos con el termino
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Crea un cursor sobre las apariciones publicadas hasta ahora.
+     * 
+     * @return Cursor posicionado antes de la primera aparicion
+     */
+    Cursor cursor() {
+        int currentSize = size;
+        return new Cursor(currentSize, data, blocks);
+    }
+
+    /**
+     * Relevancia de un termino segun su frecuencia y la longitud del documento.
+     */
+    @FunctionalInterface
+    interface ImpactScorer {
+        double score(int freq, int docLength);
+    }
+
+    private static int writeVarint(byte[] bytes, int pos, int value) {
+        while ((value & ~0x7F) != 0) {
+            bytes[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[pos++] = (byte) value;
+        return pos;
+    }
+
+    /**
+     * Recorrido de una posting list en orden de documento.
+     */
+    static final class Cursor {
+
+        /** Documento que indica que el cursor se agoto */
+        static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+        private final int size;
+        private final byte[] data;
+        private final int[] blocks;
+
+        private int index = -1;
+        private int pos;
+        private int doc = -1;
+        private int freq;
+        private int docLength;
+
+        private Cursor(int size, byte[] data, int[] blocks) {
+            this.size = size;
+            this.data = data;
+            this.blocks = blocks;
+        }
+
+        /**
+         * @return Documento actual ({@link #NO_MORE_DOCS} si se agoto)
+         */
+        int doc() {
+            return doc;
+        }
+
+        /**
+         * @return Frecuencia del termino en el documento actual
+         */
+        int freq() {
+            return freq;
+        }
+
+        /**
+         * @return Longitud del documento actual
+         */
+        int docLength() {
+            return docLength;
+        }
+
+        /**
+         * @return Numero de apariciones del cursor
+         */
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return Numero de bloques
+         */
+        int blockCount() {
+            return (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        }
+
+        /**
+         * Calcula la relevancia maxima de cualquier documento del bloque.
+         * 
+         * @param block  Bloque
+         * @param scorer Relevancia de un par (frecuencia, longitud), creciente
+         *               en la frecuencia y decreciente en la longitud
+         * @return Cota superior de la relevancia del bloque
+         */
+        double blockMaxScore(int block, ImpactScorer scorer) {
+            double max = 0;
+            for (int slot = block * META + 2; slot < (block + 1) * META; slot += 2) {
+                if (blocks[slot] != 0) {
+                    max = Math.max(max, scorer.score(blocks[slot], blocks[slot + 1]));
+                }
+            }
+            return max;
+        }
+
+        /**
+         * Calcula la relevancia maxima de los documentos en [from, to].
+         * 
+         * @param from   Primer documento del rango
+         * @param to     Ultimo documento del rango
+         * @param scorer Relevancia de un par (frecuencia, longitud)
+         * @return Cota superior (0 si ningun bloque cubre el rango)
+         */
+        double maxScoreInRange(int from, int to, ImpactScorer scorer) {
+            int count = blockCount();
+            int low = 0;
+            int high = count;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (blocks[mid * META + 1] < from) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            double max = 0;
+            for (int block = low; block < count && blockBase(block) < to; block++) {
+                max = Math.max(max, blockMaxScore(block, scorer));
+            }
+            return max;
+        }
+
+        /**
+         * @return Documento anterior al primero del bloque (-1 para el primero)
+         */
+        int blockBase(int block) {
+            return block == 0 ? -1 : blocks[(block - 1) * META + 1];
+        }
+
+        /**
+         * @return Ultimo documento del bloque
+         */
+        int blockLastDoc(int block) {
+            return blocks[block * META + 1];
+        }
+
+        /**
+         * @return Indice de la ultima aparicion del bloque, exclusivo
+         */
+        int blockEnd(int block) {
+            return Math.min(size, (block + 1) * BLOCK_SIZE);
+        }
+
+        /**
+         * @return Indice de la aparicion actual
+         */
+        int index() {
+            return index;
+        }
+
+        /**
+         * Posiciona el cursor justo antes de la primera aparicion del bloque.
+         */
+        void seekBlock(int block) {
+            index = block * BLOCK_SIZE - 1;
+            pos = blocks[block * META];
+            doc = blockBase(block);
+        }
+
+        /**
+         * Avanza a la siguiente aparicion.
+         * 
+         * @return Documento siguiente o {@link #NO_MORE_DOCS}
+         */
+        int next() {
+            if (++index >= size) {
+                index = size;
+                return doc = NO_MORE_DOCS;
+            }
+            doc += readVarint();
+            freq = readVarint();
+            docLength = readVarint();
+            return doc;
+        }
+
+        /**
+         * Avanza hasta el primer documento mayor o igual a {@code target},
+         * saltando los bloques cuyo ultimo documento es menor.
+         * 
+         * @param target Documento buscado
+         * @return Primer documento mayor o igual, o {@link #NO_MORE_DOCS}
+         */
+        int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            int block = Math.max(0, index) / BLOCK_SIZE;
+            int count = blockCount();
+            if (block < count && blocks[block * META + 1] < target) {
+                // Busqueda exponencial y luego binaria sobre el ultimo documento de cada bloque
+                int low = block + 1;
+                int step = 1;
+                int high = low;
+                while (high < count && blocks[high * META + 1] < target) {
+                    low = high + 1;
+                    high += step;
+                    step <<= 1;
+                }
+                high = Math.min(high, count);
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (blocks[mid * META + 1] < target) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                if (low >= count) {
+                    index = size;
+                    return doc = NO_MORE_DOCS;
+                }
+                seekBlock(low);
+            }
+            while (next() < target) {
+                // Decodifica dentro del bloque
+            }
+            return doc;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,611 @@
+package org.example.catalog;
+
+import org.example.model.Money;
+import org.example.model.product.Product;
+import org.example.model.product.ProductChangeListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Indice de prefijos sobre los nombres de producto para autocompletar.
+ * 
+ * <p>
+ * Es un trie compacto (radix tree) sobre las llaves normalizadas de cada
+ * nombre ({@link SearchTokenizer#normalizeKey}). Se indexa el nombre desde
+ * cada palabra, asi "lap" sugiere tanto "Laptop Pro" como "Gaming Laptop".
+ * Las sugerencias se ordenan por stock actual (mayor primero) y luego por
+ * nombre.
+ * </p>
+ * 
+ * <h2>Memoria:</h2>
+ * <p>
+ * No hay un objeto por nodo ni un {@code String} por llave: los nodos son
+ * posiciones en arreglos paralelos y las etiquetas son rangos de un unico
+ * arreglo de caracteres. Cada prefijo comun se guarda una sola vez y un
+ * nodo nuevo solo copia el sufijo que no comparte con otra llave. Los hijos
+ * de un nodo ocupan un bloque contiguo ordenado por su primer caracter, asi
+ * que bajar un nivel es una busqueda binaria sobre una o dos lineas de
+ * cache en lugar de recorrer una lista de hermanos.
+ * </p>
+ * 
+ * <h2>Top-k:</h2>
+ * <p>
+ * Un nodo con mas de {@value #CANDIDATES} llaves debajo guarda sus
+ * {@value #CANDIDATES} candidatos con mas stock, asi una consulta no
+ * recorre el subarbol de un prefijo corto: baja por el prefijo y ordena a
+ * lo sumo {@value #CANDIDATES} productos. Los nodos mas pequenos se
+ * recorren completos. Un alta o un aumento de stock ofrece el producto a
+ * los candidatos de su camino; una venta no toca el indice. Si un
+ * candidato pierde stock, otro producto podria merecer su lugar: por eso
+ * se guardan mas candidatos ({@value #CANDIDATES}) que sugerencias
+ * pedidas normalmente, y la posicion final usa el stock del momento.
+ * </p>
+ * 
+ * <h2>Concurrencia:</h2>
+ * <p>
+ * Protegido por un {@link ReentrantReadWriteLock}: las consultas comparten
+ * el lock de lectura y las altas toman el de escritura.
+ * </p>
+ * 
+ * <p>
+ * {@link ProductCatalog} mantiene una instancia sobre todo el catalogo;
+ * la clase es publica para indexar tambien otras colecciones de productos.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see ProductCatalog#suggest(String, int)
+ */
+public final class ProductAutocomplete implements ProductChangeListener {
+
+    /** Candidatos guardados por nodo y maximo de sugerencias por consulta */
+    public static final int CANDIDATES = 32;
+
+    private static final int NONE = -1;
+
+    /** Orden de las sugerencias: mas stock primero, luego por nombre */
+    private static final Comparator<Ranked> BY_STOCK = Comparator.comparingInt(Ranked::stock).reversed()
+            .thenComparing(ranked -> ranked.product().getName(), Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Caracteres de todas las etiquetas */
+    private char[] chars = new char[1024];
+    private int charCount;
+
+    // Nodos como arreglos paralelos; el nodo 0 es la raiz (etiqueta vacia)
+    private int[] labelStart = new int[256];
+    private int[] labelLength = new int[256];
+    private int[] childBlock = new int[256];
+    private int[] childCount = new int[256];
+    /** Llaves en el subarbol, saturado en CANDIDATES + 1 */
+    private byte[] subtreeKeys = new byte[256];
+    /** Productos cuya llave termina en el nodo: null, un Product o un Product[] */
+    private Object[] values = new Object[256];
+    private int nodeCount;
+
+    // Bloques de hijos: primer caracter y nodo de cada hijo. Un bloque tiene
+    // capacidad potencia de 2; al crecer, el anterior pasa a la lista libre
+    // de su tamano (enlazada por slotNodes) y lo reutiliza otro nodo
+    private char[] slotChars = new char[1024];
+    private int[] slotNodes = new int[1024];
+    private int slotCount;
+    private final int[] freeBlocks = new int[Integer.SIZE];
+
+    // Candidatos de los nodos con mas de CANDIDATES llaves: tabla hash
+    // abierta por nodo, sin objetos Integer (se consulta en cada nivel)
+    private int[] cachedNodes = new int[64];
+    private Candidates[] cachedCandidates = new Candidates[64];
+    private int cachedCount;
+
+    /** Nodos recorridos por la operacion en curso (solo escritor) */
+    private int[] path = new int[64];
+
+    public ProductAutocomplete() {
+        Arrays.fill(freeBlocks, NONE);
+        newNode(0, 0);
+    }
+
+    /**
+     * Indexa el nombre de un producto. Para que los reabastecimientos
+     * cambien el orden, el indice debe registrarse tambien como listener
+     * del producto ({@link Product#addChangeListener}).
+     * 
+     * @param product Producto a indexar
+     */
+    public void add(Product product) {
+        List<String> keys = keysOf(product.getName());
+        lock.writeLock().lock();
+        try {
+            for (String key : keys) {
+                insert(key, product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sugiere productos cuyo nombre contiene una palabra que empieza con el
+     * prefijo (las palabras del prefijo deben aparecer seguidas).
+     * 
+     * @param prefix Texto escrito hasta ahora
+     * @param k      Maximo de sugerencias
+     * @return Productos con mas stock primero (vacia si el prefijo no tiene letras)
+     * @throws IllegalArgumentException si k no esta entre 1 y {@value #CANDIDATES}
+     */
+    public List<Product> suggest(String prefix, int k) {
+        if (k <= 0 || k > CANDIDATES) {
+            throw new IllegalArgumentException("Suggestion limit must be between 1 and " + CANDIDATES + ": " + k);
+        }
+        String key = SearchTokenizer.normalizeKey(prefix);
+        if (key.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Product> found;
+        lock.readLock().lock();
+        try {
+            int node = find(key);
+            if (node == NONE) {
+                return new ArrayList<>();
+            }
+            Candidates cached = candidatesOf(node);
+            found = cached != null ? cached.toList() : collect(node);
+        } finally {
+            lock.readLock().unlock();
+        }
+        // El stock cambia mientras se ordena: se ordena una copia de su valor
+        List<Ranked> ranked = new ArrayList<>(found.size());
+        for (Product product : found) {
+            ranked.add(new Ranked(product, product.getStock()));
+        }
+        ranked.sort(BY_STOCK);
+        List<Product> suggestions = new ArrayList<>(Math.min(k, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < k; i++) {
+            suggestions.add(ranked.get(i).product());
+        }
+        return suggestions;
+    }
+
+    /**
+     * @return Numero de nodos del trie
+     */
+    public int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return nodeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void onPriceChanged(Product product, Money oldPrice, Money newPrice) {
+        // El precio no afecta las sugerencias
+    }
+
+    /**
+     * Un aumento de stock puede hacer que el producto merezca un lugar entre
+     * los candidatos de sus prefijos; una venta no cambia el indice.
+     */
+    @Override
+    public void onStockChanged(Product product, int delta) {
+        if (delta <= 0) {
+            return;
+        }
+        List<String> keys = keysOf(product.getName());
+        lock.writeLock().lock();
+        try {
+            for (String key : keys) {
+                int depth = walk(key);
+                // Los nodos con candidatos estan arriba: las llaves solo decrecen al bajar
+                for (int i = 0; i < depth && subtreeKeys[path[i]] > CANDIDATES; i++) {
+                    candidatesOf(path[i]).offer(product);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** El nombre desde cada una de sus palabras */
+    private static List<String> keysOf(String name) {
+        String key = SearchTokenizer.normalizeKey(name);
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> keys = new ArrayList<>();
+        keys.add(key);
+        for (int i = key.indexOf(' '); i >= 0; i = key.indexOf(' ', i + 1)) {
+            keys.add(key.substring(i + 1));
+        }
+        return keys;
+    }
+
+    // ==================== ESCRITURA ====================
+
+    private void insert(String key, Product product) {
+        int depth = 0;
+        int node = 0;
+        int pos = 0;
+        path[depth++] = node;
+        while (pos < key.length()) {
+            char ch = key.charAt(pos);
+            int slot = findSlot(node, ch);
+            if (slot < 0) {
+                int leaf = newNode(appendChars(key, pos), key.length() - pos);
+                addChild(node, -slot - 1, ch, leaf);
+                node = leaf;
+                pos = key.length();
+            } else {
+                int child = slotNodes[childBlock[node] + slot];
+                int common = commonLength(child, key, pos);
+                if (common < labelLength[child]) {
+                    child = split(node, slot, child, common);
+                }
+                node = child;
+                pos += common;
+            }
+            path = ensure(path, depth + 1);
+            path[depth++] = node;
+        }
+        values[node] = append(values[node], product);
+
+        for (int i = 0; i < depth; i++) {
+            int current = path[i];
+            if (subtreeKeys[current] > CANDIDATES) {
+                candidatesOf(current).offer(product);
+            } else if (++subtreeKeys[current] > CANDIDATES) {
+                Candidates built = new Candidates();
+                for (Product candidate : collect(current)) {
+                    built.offer(candidate);
+                }
+                putCandidates(current, built);
+            }
+        }
+    }
+
+    /** Agrega un producto a los valores de un nodo */
+    private static Object append(Object value, Product product) {
+        if (value == null) {
+            return product;
+        }
+        if (value instanceof Product single) {
+            return new Product[] {single, product, null};
+        }
+        // Los huecos quedan al final del arreglo
+        Product[] bucket = (Product[]) value;
+        int size = bucketSize(bucket);
+        if (size == bucket.length) {
+            bucket = Arrays.copyOf(bucket, size + (size >> 1));
+        }
+        bucket[size] = product;
+        return bucket;
+    }
+
+    private static int bucketSize(Product[] bucket) {
+        int low = 0;
+        int high = bucket.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (bucket[mid] != null) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Parte un nodo despues de {@code common} caracteres de su etiqueta: el
+     * nodo nuevo toma el prefijo y ocupa su lugar en el padre.
+     */
+    private int split(int parent, int slot, int child, int common) {
+        int middle = newNode(labelStart[child], common);
+        labelStart[child] += common;
+        labelLength[child] -= common;
+        addChild(middle, 0, chars[labelStart[child]], child);
+        slotNodes[childBlock[parent] + slot] = middle;
+        subtreeKeys[middle] = subtreeKeys[child];
+        Candidates cached = candidatesOf(child);
+        if (cached != null) {
+            putCandidates(middle, cached.copy());
+        }
+        return middle;
+    }
+
+    /**
+     * Inserta un hijo en la posicion {@code index} del bloque del padre,
+     * moviendo el bloque a uno del doble de capacidad si esta lleno.
+     */
+    private void addChild(int parent, int index, char first, int child) {
+        int count = childCount[parent];
+        int block = childBlock[parent];
+        int capacity = capacityOf(count);
+        if (count == capacity) {
+            int grown = allocateBlock(capacityOf(count + 1));
+            System.arraycopy(slotChars, block, slotChars, grown, index);
+            System.arraycopy(slotNodes, block, slotNodes, grown, index);
+            System.arraycopy(slotChars, block + index, slotChars, grown + index + 1, count - index);
+            System.arraycopy(slotNodes, block + index, slotNodes, grown + index + 1, count - index);
+            if (count > 0) {
+                freeBlock(block, capacity);
+            }
+            block = grown;
+            childBlock[parent] = block;
+        } else {
+            System.arraycopy(slotChars, block + index, slotChars, block + index + 1, count - index);
+            System.arraycopy(slotNodes, block + index, slotNodes, block + index + 1, count - index);
+        }
+        slotChars[block + index] = first;
+        slotNodes[block + index] = child;
+        childCount[parent] = count + 1;
+    }
+
+    /** Capacidad del bloque para un numero de hijos: 0, 1, 2, 4, 8... */
+    private static int capacityOf(int count) {
+        return count <= 1 ? count : Integer.highestOneBit(count - 1) << 1;
+    }
+
+    private int allocateBlock(int capacity) {
+        int sizeClass = Integer.numberOfTrailingZeros(capacity);
+        int block = freeBlocks[sizeClass];
+        if (block != NONE) {
+            freeBlocks[sizeClass] = slotNodes[block];
+            return block;
+        }
+        if (slotCount + capacity > slotNodes.length) {
+            int grown = Math.max(slotNodes.length + (slotNodes.length >> 1), slotCount + capacity);
+            slotChars = Arrays.copyOf(slotChars, grown);
+            slotNodes = Arrays.copyOf(slotNodes, grown);
+        }
+        block = slotCount;
+        slotCount += capacity;
+        return block;
+    }
+
+    private void freeBlock(int block, int capacity) {
+        int sizeClass = Integer.numberOfTrailingZeros(capacity);
+        slotNodes[block] = freeBlocks[sizeClass];
+        freeBlocks[sizeClass] = block;
+    }
+
+    private int newNode(int start, int length) {
+        int node = nodeCount++;
+        if (node == labelStart.length) {
+            int capacity = node + (node >> 1);
+            labelStart = Arrays.copyOf(labelStart, capacity);
+            labelLength = Arrays.copyOf(labelLength, capacity);
+            childBlock = Arrays.copyOf(childBlock, capacity);
+            childCount = Arrays.copyOf(childCount, capacity);
+            subtreeKeys = Arrays.copyOf(subtreeKeys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        labelStart[node] = start;
+        labelLength[node] = length;
+        return node;
+    }
+
+    private Candidates candidatesOf(int node) {
+        int mask = cachedNodes.length - 1;
+        for (int slot = hash(node) & mask; cachedCandidates[slot] != null; slot = (slot + 1) & mask) {
+            if (cachedNodes[slot] == node) {
+                return cachedCandidates[slot];
+            }
+        }
+        return null;
+    }
+
+    /** Registra los candidatos de un nodo que aun no los tiene */
+    private void putCandidates(int node, Candidates cached) {
+        if (++cachedCount * 2 > cachedNodes.length) {
+            int[] oldNodes = cachedNodes;
+            Candidates[] oldCandidates = cachedCandidates;
+            cachedNodes = new int[oldNodes.length * 2];
+            cachedCandidates = new Candidates[oldNodes.length * 2];
+            for (int i = 0; i < oldNodes.length; i++) {
+                if (oldCandidates[i] != null) {
+                    place(oldNodes[i], oldCandidates[i]);
+                }
+            }
+        }
+        place(node, cached);
+    }
+
+    private void place(int node, Candidates cached) {
+        int mask = cachedNodes.length - 1;
+        int slot = hash(node) & mask;
+        while (cachedCandidates[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        cachedNodes[slot] = node;
+        cachedCandidates[slot] = cached;
+    }
+
+    private static int hash(int node) {
+        return node * 0x9E3779B9 >>> 7;
+    }
+
+    private int appendChars(String key, int from) {
+        int length = key.length() - from;
+        if (charCount + length > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length + (chars.length >> 1), charCount + length));
+        }
+        key.getChars(from, key.length(), chars, charCount);
+        int start = charCount;
+        charCount += length;
+        return start;
+    }
+
+    private static int[] ensure(int[] array, int capacity) {
+        return capacity <= array.length ? array : Arrays.copyOf(array, array.length * 2);
+    }
+
+    // ==================== LECTURA ====================
+
+    /**
+     * Baja por el prefijo.
+     * 
+     * @return Nodo cuyo subarbol contiene las llaves con el prefijo, o
+     *         {@link #NONE}
+     */
+    private int find(String key) {
+        int node = 0;
+        int pos = 0;
+        while (pos < key.length()) {
+            int slot = findSlot(node, key.charAt(pos));
+            if (slot < 0) {
+                return NONE;
+            }
+            int child = slotNodes[childBlock[node] + slot];
+            int common = commonLength(child, key, pos);
+            if (common < labelLength[child] && pos + common < key.length()) {
+                return NONE;
+            }
+            node = child;
+            pos += common;
+        }
+        return node;
+    }
+
+    /**
+     * Recorre el camino de una llave ya indexada dejando sus nodos en
+     * {@link #path}.
+     * 
+     * @return Numero de nodos del camino
+     */
+    private int walk(String key) {
+        int depth = 0;
+        int node = 0;
+        int pos = 0;
+        path[depth++] = node;
+        while (pos < key.length()) {
+            int slot = findSlot(node, key.charAt(pos));
+            if (slot < 0) {
+                break;
+            }
+            int child = slotNodes[childBlock[node] + slot];
+            node = child;
+            pos += labelLength[child];
+            path = ensure(path, depth + 1);
+            path[depth++] = node;
+        }
+        return depth;
+    }
+
+    /**
+     * Busca el hijo cuya etiqueta empieza con un caracter.
+     * 
+     * @return Posicion en el bloque del padre, o {@code -(insercion) - 1}
+     */
+    private int findSlot(int node, char ch) {
+        int block = childBlock[node];
+        int index = Arrays.binarySearch(slotChars, block, block + childCount[node], ch);
+        return index >= 0 ? index - block : index + block;
+    }
+
+    private int commonLength(int node, String key, int pos) {
+        int start = labelStart[node];
+        int max = Math.min(labelLength[node], key.length() - pos);
+        int common = 1;
+        while (common < max && chars[start + common] == key.charAt(pos + common)) {
+            common++;
+        }
+        return common;
+    }
+
+    /** Productos distintos de todas las llaves del subarbol */
+    private List<Product> collect(int node) {
+        Map<Product, Boolean> seen = new IdentityHashMap<>();
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = node;
+        while (top > 0) {
+            int current = stack[--top];
+            Object value = values[current];
+            if (value instanceof Product single) {
+                seen.put(single, Boolean.TRUE);
+            } else if (value != null) {
+                for (Product product : (Product[]) value) {
+                    if (product != null) {
+                        seen.put(product, Boolean.TRUE);
+                    }
+                }
+            }
+            int block = childBlock[current];
+            for (int i = 0; i < childCount[current]; i++) {
+                stack = ensure(stack, top + 1);
+                stack[top++] = slotNodes[block + i];
+            }
+        }
+        return new ArrayList<>(seen.keySet());
+    }
+
+    /**
+     * Los {@value #CANDIDATES} productos con mas stock de un nodo grande.
+     * 
+     * <p>
+     * Guarda el stock del candidato mas debil la ultima vez que se reviso
+     * el arreglo: la mayoria de las ofertas se descartan con una sola
+     * comparacion en lugar de leer el stock de todos los candidatos.
+     * </p>
+     */
+    private static final class Candidates {
+
+        private final Product[] products = new Product[CANDIDATES];
+        private int count;
+        private int floor;
+
+        void offer(Product product) {
+            int stock = product.getStock();
+            if (count == products.length && stock <= floor) {
+                return;
+            }
+            int weakest = NONE;
+            for (int i = 0; i < count; i++) {
+                if (products[i] == product) {
+                    return;
+                }
+                if (weakest == NONE || products[i].getStock() < products[weakest].getStock()) {
+                    weakest = i;
+                }
+            }
+            if (count < products.length) {
+                products[count++] = product;
+            } else if (stock > products[weakest].getStock()) {
+                products[weakest] = product;
+            }
+            if (count == products.length) {
+                floor = Integer.MAX_VALUE;
+                for (Product candidate : products) {
+                    floor = Math.min(floor, candidate.getStock());
+                }
+            }
+        }
+
+        List<Product> toList() {
+            return new ArrayList<>(Arrays.asList(products).subList(0, count));
+        }
+
+        Candidates copy() {
+            Candidates copy = new Candidates();
+            System.arraycopy(products, 0, copy.products, 0, count);
+            copy.count = count;
+            copy.floor = floor;
+            return copy;
+        }
+    }
+
+    /** Producto con el stock leido al ordenar */
+    private record Ranked(Product product, int stock) {
+    }
+}
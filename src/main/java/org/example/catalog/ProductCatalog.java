@@ -0,0 +1,476 @@
+package org.example.catalog;
+
+import org.example.model.Money;
+import org.example.model.product.Product;
+import org.example.model.product.ProductChangeListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * Catalogo indexado de productos.
+ * 
+ * <p>
+ * Mantiene los productos en orden de insercion y, en paralelo, un indice
+ * primario por ID que permite buscar un producto en O(1) sin recorrer
+ * la lista completa.
+ * </p>
+ * 
+ * <p>
+ * Ademas mantiene indices secundarios ordenados por precio (global y por
+ * categoria), de modo que una consulta por rango de precio cuesta
+ * O(log n + k), donde k es el numero de resultados. Los indices se
+ * actualizan automaticamente cuando se llama a {@link Product#setPrice}.
+ * </p>
+ * 
+ * <p>
+ * Tambien mantiene un indice invertido de texto ({@link ProductSearchIndex})
+ * para {@link #search(String, int)} y un indice de prefijos sobre los
+ * nombres ({@link ProductAutocomplete}) para {@link #suggest(String, int)},
+ * ambos actualizados en cada alta.
+ * </p>
+ * 
+ * <p>
+ * Los indices ordenados por ID, precio y nombre permiten recorrer el
+ * catalogo por paginas con {@link #getPage(CatalogSort, String, int)}: cada
+ * pagina continua despues de la llave del ultimo producto de la anterior,
+ * asi que cuesta O(log n + tamano de pagina) sin importar su profundidad.
+ * </p>
+ * 
+ * <h2>Concurrencia:</h2>
+ * <p>
+ * El catalogo es seguro para multiples hilos. Las lecturas no bloquean:
+ * el indice primario es un {@link ConcurrentHashMap}, los indices de
+ * precio son {@link ConcurrentSkipListMap} y {@link #getAllProducts()}
+ * devuelve una vista inmutable de los productos publicados hasta ese
+ * momento. Las inserciones detectan duplicados de forma atomica con
+ * {@code putIfAbsent}.
+ * </p>
+ * 
+ * <h2>Politica de IDs duplicados:</h2>
+ * <p>
+ * El ID es la llave primaria del catalogo. Agregar un producto cuyo ID
+ * ya existe se rechaza con {@link IllegalArgumentException} y el catalogo
+ * queda sin cambios.
+ * </p>
+ * 
+ * <h2>Ejemplo de Uso:</h2>
+ * 
+ * <pre>{@code
+ * ProductCatalog catalog = new ProductCatalog();
+ * catalog.addProduct(laptop);
+ * Product found = catalog.getProduct("LAP-001");
+ * List<Product> phones = catalog.findByCategoryAndPriceRange("Smartphones", 500, 1500);
+ * }</pre>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see org.example.config.StoreDatabase
+ */
+public class ProductCatalog {
+
+    /** Maximo de productos por pagina de {@link #getPage} */
+    public static final int MAX_PAGE_SIZE = 1_000;
+
+    /** Productos en orden de insercion */
+    private final AppendOnlyList<Product> products = new AppendOnlyList<>();
+
+    /** Indice primario: ID -> producto */
+    private final Map<String, Product> productsById = new ConcurrentHashMap<>();
+
+    /** Indice secundario: precio -> producto */
+    private final NavigableMap<PriceKey, Product> productsByPrice = new ConcurrentSkipListMap<>();
+
+    /** Indice secundario: ID -> producto, en orden de ID (para paginar) */
+    private final NavigableMap<String, Product> productsByIdOrder = new ConcurrentSkipListMap<>();
+
+    /** Indice secundario: nombre -> producto (para paginar) */
+    private final NavigableMap<NameKey, Product> productsByName = new ConcurrentSkipListMap<>();
+
+    /** Indice secundario: categoria -> productos ordenados por precio */
+    private final Map<String, NavigableMap<PriceKey, Product>> productsByCategory = new ConcurrentHashMap<>();
+
+    /** Indice de texto completo sobre nombre, categoria y detalle */
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+
+    /** Indice de prefijos sobre los nombres, ordenado por stock */
+    private final ProductAutocomplete autocomplete = new ProductAutocomplete();
+
+    /** Mantiene los indices de precio al dia cuando un producto cambia */
+    private final ProductChangeListener priceIndexUpdater = this::reindexPrice;
+
+    /**
+     * Agrega un producto al catalogo.
+     * 
+     * @param product El producto a agregar
+     * @throws IllegalArgumentException si el producto o su ID son null/vacios,
+     *                                  o si ya existe un producto con el mismo ID
+     */
+    public void addProduct(Product product) {
+        if (!tryAddProduct(product)) {
+            throw new IllegalArgumentException("Duplicate product ID: " + product.getId());
+        }
+    }
+
+    /**
+     * Agrega un producto si su ID no existe. La verificacion y el alta son
+     * una sola operacion atomica: entre dos altas concurrentes del mismo ID,
+     * exactamente una devuelve true.
+     * 
+     * @param product El producto a agregar
+     * @return true si se agrego, false si ya existia un producto con el mismo ID
+     * @throws IllegalArgumentException si el producto o su ID son null/vacios
+     */
+    public boolean tryAddProduct(Product product) {
+        if (product == null) {
+            throw new IllegalArgumentException("Product cannot be null");
+        }
+
+        String id = product.getId();
+        if (id == null || id.isEmpty()) {
+            throw new IllegalArgumentException("Product ID cannot be null or empty");
+        }
+
+        if (productsById.putIfAbsent(id, product) != null) {
+            return false;
+        }
+        products.add(product);
+        productsByIdOrder.put(id, product);
+        productsByName.put(new NameKey(product.getName() == null ? "" : product.getName(), id), product);
+
+        // setPrice() sincroniza sobre el producto: indexar y suscribirse bajo el
+        // mismo monitor evita perder un cambio de precio concurrente
+        synchronized (product) {
+            PriceKey key = new PriceKey(product.getUnitPrice().getCents(), id);
+            productsByPrice.put(key, product);
+            if (product.getCategory() != null) {
+                productsByCategory.computeIfAbsent(product.getCategory(), c -> new ConcurrentSkipListMap<>())
+                        .put(key, product);
+            }
+            product.addChangeListener(priceIndexUpdater);
+        }
+        searchIndex.index(product);
+        autocomplete.add(product);
+        product.addChangeListener(autocomplete);
+        return true;
+    }
+
+    /**
+     * Busca un producto por su ID en O(1).
+     * 
+     * @param id Identificador unico del producto
+     * @return El producto encontrado o null si no existe
+     */
+    public Product getProduct(String id) {
+        if (id == null) {
+            return null;
+        }
+        return productsById.get(id);
+    }
+
+    /**
+     * Verifica si existe un producto con el ID indicado.
+     * 
+     * @param id Identificador a verificar
+     * @return true si el ID ya esta registrado
+     */
+    public boolean containsProduct(String id) {
+        return id != null && productsById.containsKey(id);
+    }
+
+    /**
+     * Obtiene todos los productos en orden de insercion.
+     * 
+     * <p>
+     * La vista es de solo lectura y no cambia si se agregan productos
+     * despues de obtenerla. Crearla cuesta O(1).
+     * </p>
+     * 
+     * @return Vista inmutable de los productos del catalogo
+     */
+    public List<Product> getAllProducts() {
+        return products.snapshot();
+    }
+
+    /**
+     * Obtiene una pagina del catalogo.
+     * 
+     * <p>
+     * El cursor guarda el orden y la llave del ultimo producto entregado,
+     * no una posicion: los productos agregados mientras se recorre no
+     * desplazan las paginas siguientes, ningun producto se repite y todo
+     * producto que existia al pedir la primera pagina aparece exactamente
+     * una vez. Un producto agregado despues del cursor aparece en una
+     * pagina posterior. La excepcion es un cambio de precio durante un
+     * recorrido por {@link CatalogSort#PRICE}, que mueve el producto.
+     * </p>
+     * 
+     * @param sort     Orden de las paginas
+     * @param cursor   Cursor de {@link CatalogPage#nextCursor()}, o null para
+     *                 la primera pagina
+     * @param pageSize Productos por pagina (1 a {@value #MAX_PAGE_SIZE})
+     * @return Pagina con los productos y el cursor de la siguiente
+     * @throws IllegalArgumentException si el orden es null, el tamano esta
+     *                                  fuera de rango o el cursor no es valido
+     *                                  para ese orden
+     */
+    public CatalogPage getPage(CatalogSort sort, String cursor, int pageSize) {
+        if (sort == null) {
+            throw new IllegalArgumentException("Sort cannot be null");
+        }
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ": " + pageSize);
+        }
+        PageCursor after = cursor == null ? null : PageCursor.decode(cursor, sort);
+        return switch (sort) {
+            case ID -> pageOf(productsByIdOrder, after == null ? null : after.id(), pageSize,
+                    id -> new PageCursor(sort, id, 0, null));
+            case PRICE -> pageOf(productsByPrice,
+                    after == null ? null : new PriceKey(after.priceCents(), after.id()), pageSize,
+                    key -> new PageCursor(sort, key.id(), key.priceCents(), null));
+            case NAME -> pageOf(productsByName, after == null ? null : new NameKey(after.name(), after.id()),
+                    pageSize, key -> new PageCursor(sort, key.id(), 0, key.name()));
+        };
+    }
+
+    /**
+     * Obtiene los productos de una categoria, ordenados por precio.
+     * 
+     * @param category Categoria a consultar
+     * @return Lista de productos (vacia si la categoria no existe)
+     */
+    public List<Product> findByCategory(String category) {
+        NavigableMap<PriceKey, Product> index = productsByCategory.get(category);
+        if (index == null) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(index.values());
+    }
+
+    /**
+     * Obtiene los productos cuyo precio esta en el rango [minPrice, maxPrice],
+     * ordenados por precio.
+     * 
+     * @param minPrice Precio minimo (inclusivo)
+     * @param maxPrice Precio maximo (inclusivo)
+     * @return Lista de productos en el rango
+     * @throws IllegalArgumentException si minPrice es mayor que maxPrice
+     */
+    public List<Product> findByPriceRange(double minPrice, double maxPrice) {
+        return rangeOf(productsByPrice, minPrice, maxPrice);
+    }
+
+    /**
+     * Obtiene los productos de una categoria cuyo precio esta en el rango
+     * [minPrice, maxPrice], ordenados por precio.
+     * 
+     * @param category Categoria a consultar
+     * @param minPrice Precio minimo (inclusivo)
+     * @param maxPrice Precio maximo (inclusivo)
+     * @return Lista de productos en el rango
+     * @throws IllegalArgumentException si minPrice es mayor que maxPrice
+     */
+    public List<Product> findByCategoryAndPriceRange(String category, double minPrice, double maxPrice) {
+        NavigableMap<PriceKey, Product> index = productsByCategory.get(category);
+        if (index == null) {
+            validateRange(minPrice, maxPrice);
+            return new ArrayList<>();
+        }
+        return rangeOf(index, minPrice, maxPrice);
+    }
+
+    /**
+     * Busca productos por texto en nombre, categoria y detalle.
+     * 
+     * @param query Terminos a buscar (todos deben aparecer); las alternativas
+     *              se separan con {@code OR}
+     * @param limit Maximo de resultados
+     * @return Productos mas relevantes primero
+     * @throws IllegalArgumentException si limit es menor o igual a 0
+     * @see ProductSearchIndex
+     */
+    public List<SearchHit> search(String query, int limit) {
+        return searchIndex.search(query, limit);
+    }
+
+    /**
+     * Sugiere productos mientras el usuario escribe: nombres con una palabra
+     * que empieza con el prefijo.
+     * 
+     * @param prefix Texto escrito hasta ahora
+     * @param limit  Maximo de sugerencias (a lo sumo
+     *               {@value ProductAutocomplete#CANDIDATES})
+     * @return Productos con mas stock primero
+     * @throws IllegalArgumentException si limit esta fuera de rango
+     * @see ProductAutocomplete
+     */
+    public List<Product> suggest(String prefix, int limit) {
+        return autocomplete.suggest(prefix, limit);
+    }
+
+    /**
+     * @return Categorias registradas en el catalogo
+     */
+    public Set<String> getCategories() {
+        return new HashSet<>(productsByCategory.keySet());
+    }
+
+    /**
+     * @return Numero de productos en el catalogo
+     */
+    public int size() {
+        return products.size();
+    }
+
+    // ==================== INDICES SECUNDARIOS ====================
+
+    /**
+     * Toma hasta {@code pageSize} productos despues de una llave. Lee uno
+     * mas para saber si hay pagina siguiente.
+     */
+    private static <K> CatalogPage pageOf(NavigableMap<K, Product> index, K after, int pageSize,
+            Function<K, PageCursor> cursorOf) {
+        NavigableMap<K, Product> view = after == null ? index : index.tailMap(after, false);
+        List<Product> page = new ArrayList<>(pageSize);
+        K last = null;
+        for (Map.Entry<K, Product> entry : view.entrySet()) {
+            if (page.size() == pageSize) {
+                return new CatalogPage(page, cursorOf.apply(last).encode());
+            }
+            page.add(entry.getValue());
+            last = entry.getKey();
+        }
+        return new CatalogPage(page, null);
+    }
+
+    /**
+     * Reubica un producto en los indices de precio tras un cambio de precio.
+     * Inserta la llave nueva antes de quitar la anterior para que un lector
+     * concurrente nunca deje de ver el producto.
+     */
+    private void reindexPrice(Product product, Money oldPrice, Money newPrice) {
+        if (oldPrice.equals(newPrice) || productsById.get(product.getId()) != product) {
+            return;
+        }
+
+        PriceKey oldKey = new PriceKey(oldPrice.getCents(), product.getId());
+        PriceKey newKey = new PriceKey(newPrice.getCents(), product.getId());
+
+        productsByPrice.put(newKey, product);
+        productsByPrice.remove(oldKey);
+
+        NavigableMap<PriceKey, Product> categoryIndex = productsByCategory.get(product.getCategory());
+        if (categoryIndex != null) {
+            categoryIndex.put(newKey, product);
+            categoryIndex.remove(oldKey);
+        }
+    }
+
+    private static List<Product> rangeOf(NavigableMap<PriceKey, Product> index, double minPrice, double maxPrice) {
+        validateRange(minPrice, maxPrice);
+        // "" es el menor ID posible, asi que (max + 1 centavo, "") excluye solo precios > max
+        PriceKey from = new PriceKey(toCents(minPrice), "");
+        PriceKey to = new PriceKey(toCents(maxPrice) + 1, "");
+        return new ArrayList<>(index.subMap(from, true, to, false).values());
+    }
+
+    private static void validateRange(double minPrice, double maxPrice) {
+        if (minPrice > maxPrice) {
+            throw new IllegalArgumentException("Min price cannot be greater than max price");
+        }
+    }
+
+    /**
+     * Convierte un limite de rango a centavos; los limites fuera del rango
+     * de {@link Money} se saturan.
+     */
+    private static long toCents(double price) {
+        if (price >= Long.MAX_VALUE / 100.0) {
+            return Long.MAX_VALUE - 1;
+        }
+        if (price <= Long.MIN_VALUE / 100.0) {
+            return Long.MIN_VALUE;
+        }
+        return Money.of(price).getCents();
+    }
+
+    /**
+     * Llave del indice de nombres: ordena por nombre sin distinguir
+     * mayusculas y desempata por nombre exacto y por ID.
+     */
+    private record NameKey(String name, String id) implements Comparable<NameKey> {
+        @Override
+        public int compareTo(NameKey other) {
+            int byName = String.CASE_INSENSITIVE_ORDER.compare(name, other.name);
+            if (byName == 0) {
+                byName = name.compareTo(other.name);
+            }
+            return byName != 0 ? byName : id.compareTo(other.id);
+        }
+    }
+
+    /**
+     * Posicion de un recorrido por paginas: el orden y la llave del ultimo
+     * producto entregado. Se codifica en Base64 (URL) para que el cliente
+     * lo trate como un valor opaco.
+     */
+    private record PageCursor(CatalogSort sort, String id, long priceCents, String name) {
+
+        String encode() {
+            StringBuilder text = new StringBuilder(sort.name()).append(':').append(id.length()).append(':')
+                    .append(id);
+            if (sort == CatalogSort.PRICE) {
+                text.append(priceCents);
+            } else if (sort == CatalogSort.NAME) {
+                text.append(name);
+            }
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(text.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        static PageCursor decode(String cursor, CatalogSort expected) {
+            PageCursor decoded;
+            try {
+                String text = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sortEnd = text.indexOf(':');
+                int lengthEnd = text.indexOf(':', sortEnd + 1);
+                CatalogSort sort = CatalogSort.valueOf(text.substring(0, sortEnd));
+                int idEnd = lengthEnd + 1 + Integer.parseInt(text.substring(sortEnd + 1, lengthEnd));
+                String id = text.substring(lengthEnd + 1, idEnd);
+                String rest = text.substring(idEnd);
+                decoded = switch (sort) {
+                    case ID -> new PageCursor(sort, id, 0, null);
+                    case PRICE -> new PageCursor(sort, id, Long.parseLong(rest), null);
+                    case NAME -> new PageCursor(sort, id, 0, rest);
+                };
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+            }
+            if (decoded.sort() != expected) {
+                throw new IllegalArgumentException("Cursor belongs to sort " + decoded.sort() + ", not " + expected);
+            }
+            return decoded;
+        }
+    }
+
+    /**
+     * Llave del indice de precios: ordena por precio (centavos) y desempata por ID.
+     */
+    private record PriceKey(long priceCents, String id) implements Comparable<PriceKey> {
+        @Override
+        public int compareTo(PriceKey other) {
+            int byPrice = Long.compare(priceCents, other.priceCents);
+            return byPrice != 0 ? byPrice : id.compareTo(other.id);
+        }
+    }
+}
@@ -0,0 +1,383 @@
+package org.example.catalog;
+
+import org.example.model.product.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Indice invertido de texto completo sobre los productos.
+ * 
+ * <p>
+ * Indexa el nombre, la categoria y el detalle ({@link Product#getDetails()})
+ * de cada producto. Del detalle se omiten los terminos solo numericos (el
+ * precio, que cambia, y el consecutivo del ID, unico por producto, que
+ * llenaria el diccionario de listas de un solo documento). Cada termino apunta a una {@link PostingList}
+ * comprimida con los documentos que lo contienen. Un termino en el nombre
+ * pesa {@value #NAME_WEIGHT}, en la categoria {@value #CATEGORY_WEIGHT} y
+ * en el detalle {@value #DETAILS_WEIGHT}.
+ * </p>
+ * 
+ * <h2>Consultas:</h2>
+ * <ul>
+ * <li>{@code "gaming laptop"}: productos con todos los terminos (AND).</li>
+ * <li>{@code "laptop OR tablet"}: productos con cualquiera de las
+ * alternativas; {@code |} equivale a {@code OR}. Cada alternativa puede
+ * tener varios terminos y un producto recibe la relevancia de la mejor
+ * alternativa que cumple.</li>
+ * </ul>
+ * 
+ * <h2>Relevancia:</h2>
+ * <p>
+ * Los resultados se ordenan por BM25 (frecuencia ponderada del termino,
+ * rareza del termino en el catalogo y longitud del producto); a igual
+ * relevancia gana el producto agregado primero. La busqueda recorre la
+ * lista del termino mas raro y salta los bloques cuya relevancia maxima
+ * posible no alcanza al peor resultado del top-k, asi que un termino que
+ * aparece en medio catalogo no obliga a puntuar medio catalogo.
+ * </p>
+ * 
+ * <h2>Actualizaciones:</h2>
+ * <p>
+ * {@link #index(Product)} es incremental: solo agrega las apariciones del
+ * producto al final de cada lista. Las escrituras se serializan con un
+ * lock; las busquedas no bloquean.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see ProductCatalog#search(String, int)
+ */
+final class ProductSearchIndex {
+
+    /** Peso de un termino del nombre */
+    static final int NAME_WEIGHT = 3;
+
+    /** Peso de un termino de la categoria */
+    static final int CATEGORY_WEIGHT = 2;
+
+    /** Peso de un termino del detalle */
+    static final int DETAILS_WEIGHT = 1;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /** Diccionario: termino -> apariciones */
+    private final Map<String, PostingList> postings = new ConcurrentHashMap<>();
+
+    /** Productos en orden de alta; el ID de documento es su posicion */
+    private final AppendOnlyList<Product> documents = new AppendOnlyList<>();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /** Suma de longitudes de los documentos */
+    private volatile long totalLength;
+
+    /**
+     * Agrega un producto al indice. El llamador garantiza que cada producto
+     * se indexa una sola vez (el catalogo rechaza IDs duplicados).
+     * 
+     * @param product Producto a indexar
+     * @throws IllegalArgumentException si el producto es null
+     */
+    void index(Product product) {
+        if (product == null) {
+            throw new IllegalArgumentException("Product cannot be null");
+        }
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = Math.max(1, addTerms(frequencies, product.getName(), NAME_WEIGHT, false)
+                + addTerms(frequencies, product.getCategory(), CATEGORY_WEIGHT, false)
+                + addTerms(frequencies, product.getDetails(), DETAILS_WEIGHT, true));
+
+        writeLock.lock();
+        try {
+            int doc = documents.size();
+            documents.add(product);
+            for (Map.Entry<String, Integer> term : frequencies.entrySet()) {
+                postings.computeIfAbsent(term.getKey(), t -> new PostingList()).add(doc, term.getValue(), length);
+            }
+            totalLength += length;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Busca productos y devuelve los mas relevantes.
+     * 
+     * @param query Consulta (terminos separados por espacios, alternativas con OR)
+     * @param limit Maximo de resultados
+     * @return Resultados ordenados de mayor a menor relevancia
+     * @throws IllegalArgumentException si limit es menor o igual a 0
+     */
+    List<SearchHit> search(String query, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be greater than zero");
+        }
+        List<List<String>> alternatives = parse(query);
+        if (alternatives.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // Los cursores se toman antes que los documentos: todo documento
+        // referenciado por una aparicion visible ya esta publicado
+        List<PostingList.Cursor[]> cursors = new ArrayList<>(alternatives.size());
+        for (List<String> terms : alternatives) {
+            PostingList.Cursor[] group = new PostingList.Cursor[terms.size()];
+            for (int i = 0; i < group.length; i++) {
+                PostingList list = postings.get(terms.get(i));
+                if (list == null) {
+                    group = null;
+                    break;
+                }
+                group[i] = list.cursor();
+            }
+            if (group != null) {
+                cursors.add(group);
+            }
+        }
+        List<Product> docs = documents.snapshot();
+        int count = docs.size();
+        double averageLength = count == 0 ? 1 : Math.max(1.0, (double) totalLength / count);
+
+        TopHits top = new TopHits(limit, cursors.size() > 1);
+        for (PostingList.Cursor[] group : cursors) {
+            searchGroup(group, count, averageLength, top);
+        }
+        return top.toList(docs);
+    }
+
+    /**
+     * @return Numero de terminos distintos en el diccionario
+     */
+    int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * @return Numero de productos indexados
+     */
+    int size() {
+        return documents.size();
+    }
+
+    // ==================== EVALUACION ====================
+
+    /**
+     * Evalua una alternativa (AND de terminos) guiada por el termino mas raro.
+     * 
+     * <p>
+     * Antes de decodificar un bloque del termino guia se suma la relevancia
+     * maxima de ese bloque y la de los bloques de los demas terminos que
+     * cubren el mismo rango de documentos; si no alcanza al top-k, el bloque
+     * se salta completo.
+     * </p>
+     */
+    private static void searchGroup(PostingList.Cursor[] cursors, int documents, double averageLength,
+            TopHits top) {
+        Arrays.sort(cursors, Comparator.comparingInt(PostingList.Cursor::size));
+        PostingList.ImpactScorer[] scorers = new PostingList.ImpactScorer[cursors.length];
+        for (int i = 0; i < cursors.length; i++) {
+            double idf = idf(documents, cursors[i].size());
+            scorers[i] = (freq, length) -> bm25(idf, freq, length, averageLength);
+        }
+
+        PostingList.Cursor lead = cursors[0];
+        for (int block = 0; block < lead.blockCount(); block++) {
+            int first = lead.blockBase(block) + 1;
+            // Relevancia maxima que pueden aportar los demas terminos en este rango
+            double othersBound = 0;
+            if (top.isFull()) {
+                int last = lead.blockLastDoc(block);
+                double leadBound = lead.blockMaxScore(block, scorers[0]);
+                for (int i = 1; i < cursors.length && !top.couldEnter(leadBound + othersBound, first); i++) {
+                    othersBound += cursors[i].maxScoreInRange(first, last, scorers[i]);
+                }
+                if (!top.couldEnter(leadBound + othersBound, first)) {
+                    continue;
+                }
+                othersBound = 0;
+                for (int i = 1; i < cursors.length; i++) {
+                    othersBound += cursors[i].maxScoreInRange(first, last, scorers[i]);
+                }
+            }
+            lead.seekBlock(block);
+            int end = lead.blockEnd(block);
+            candidates:
+            while (lead.index() + 1 < end) {
+                int doc = lead.next();
+                int length = lead.docLength();
+                double score = scorers[0].score(lead.freq(), length);
+                // Descarta el documento sin avanzar los demas cursores
+                if (top.isFull() && !top.couldEnter(score + othersBound, doc)) {
+                    continue;
+                }
+                for (int i = 1; i < cursors.length; i++) {
+                    if (cursors[i].advance(doc) != doc) {
+                        continue candidates;
+                    }
+                    score += scorers[i].score(cursors[i].freq(), length);
+                }
+                top.offer(doc, score);
+            }
+        }
+    }
+
+    private static double idf(int documents, int withTerm) {
+        return Math.log(1 + (documents - withTerm + 0.5) / (withTerm + 0.5));
+    }
+
+    /** Aporte BM25 de un termino; crece con la frecuencia y decrece con la longitud. */
+    private static double bm25(double idf, int freq, int length, double averageLength) {
+        return idf * freq * (K1 + 1) / (freq + K1 * (1 - B + B * length / averageLength));
+    }
+
+    // ==================== CONSULTA ====================
+
+    /**
+     * Separa la consulta en alternativas de terminos.
+     * 
+     * @return Alternativas no vacias, sin terminos repetidos
+     */
+    static List<List<String>> parse(String query) {
+        List<List<String>> alternatives = new ArrayList<>();
+        if (query == null) {
+            return alternatives;
+        }
+        Set<String> current = new LinkedHashSet<>();
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equals("OR") || word.equals("|")) {
+                if (!current.isEmpty()) {
+                    alternatives.add(new ArrayList<>(current));
+                }
+                current = new LinkedHashSet<>();
+            } else {
+                current.addAll(SearchTokenizer.tokenize(word));
+            }
+        }
+        if (!current.isEmpty()) {
+            alternatives.add(new ArrayList<>(current));
+        }
+        return alternatives;
+    }
+
+    /**
+     * Suma los terminos de un campo a las frecuencias.
+     * 
+     * @param skipNumbers true para ignorar los terminos solo numericos
+     * @return Terminos contados
+     */
+    private static int addTerms(Map<String, Integer> frequencies, String text, int weight, boolean skipNumbers) {
+        int count = 0;
+        for (String term : SearchTokenizer.tokenize(text)) {
+            if (skipNumbers && isNumber(term)) {
+                continue;
+            }
+            frequencies.merge(term, weight, Integer::sum);
+            count++;
+        }
+        return count;
+    }
+
+    private static boolean isNumber(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            if (!Character.isDigit(term.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ==================== ESTRUCTURAS ====================
+
+    /**
+     * Los k mejores documentos vistos. El peor queda en la cima del heap.
+     * Con varias alternativas un documento puede llegar mas de una vez y
+     * se conserva su mejor relevancia.
+     */
+    private static final class TopHits {
+
+        private final int limit;
+        private final PriorityQueue<Hit> heap;
+        private final Map<Integer, Hit> byDoc;
+
+        TopHits(int limit, boolean dedupe) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 1024) + 1, TopHits::worstFirst);
+            this.byDoc = dedupe ? new HashMap<>() : null;
+        }
+
+        /**
+         * Indica si un documento con relevancia {@code bound}, a partir del
+         * documento {@code firstDoc}, podria entrar en el top-k.
+         */
+        boolean isFull() {
+            return heap.size() >= limit;
+        }
+
+        boolean couldEnter(double bound, int firstDoc) {
+            if (heap.size() < limit) {
+                return true;
+            }
+            Hit worst = heap.peek();
+            return bound > worst.score || (bound == worst.score && firstDoc < worst.doc);
+        }
+
+        void offer(int doc, double score) {
+            if (byDoc != null) {
+                Hit existing = byDoc.get(doc);
+                if (existing != null) {
+                    if (score > existing.score) {
+                        heap.remove(existing);
+                        Hit better = new Hit(doc, score);
+                        heap.add(better);
+                        byDoc.put(doc, better);
+                    }
+                    return;
+                }
+            }
+            if (!couldEnter(score, doc)) {
+                return;
+            }
+            Hit hit = new Hit(doc, score);
+            heap.add(hit);
+            if (byDoc != null) {
+                byDoc.put(doc, hit);
+            }
+            if (heap.size() > limit) {
+                Hit removed = heap.poll();
+                if (byDoc != null) {
+                    byDoc.remove(removed.doc);
+                }
+            }
+        }
+
+        List<SearchHit> toList(List<Product> docs) {
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort((a, b) -> worstFirst(b, a));
+            List<SearchHit> results = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                results.add(new SearchHit(docs.get(hit.doc), hit.score));
+            }
+            return results;
+        }
+
+        private static int worstFirst(Hit a, Hit b) {
+            int byScore = Double.compare(a.score, b.score);
+            return byScore != 0 ? byScore : Integer.compare(b.doc, a.doc);
+        }
+
+        private record Hit(int doc, double score) {
+        }
+    }
+}
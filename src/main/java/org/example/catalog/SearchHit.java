@@ -0,0 +1,16 @@
+package org.example.catalog;
+
+import org.example.model.product.Product;
+
+/**
+ * Resultado de una busqueda de productos.
+ * 
+ * @param product Producto encontrado
+ * @param score   Relevancia (BM25); mayor es mas relevante
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see ProductSearchIndex
+ */
+public record SearchHit(Product product, double score) {
+}
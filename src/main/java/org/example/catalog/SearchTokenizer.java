@@ -0,0 +1,104 @@
+package org.example.catalog;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Separa un texto en terminos para el {@link ProductSearchIndex} y normaliza
+ * las llaves del {@link ProductAutocomplete}.
+ * 
+ * <p>
+ * Un termino es una secuencia de letras o digitos, en minusculas y sin
+ * acentos ("Camara Sony" y "cámara sony" producen los mismos terminos).
+ * Se descartan los terminos de una sola letra; los digitos sueltos se
+ * conservan para que "iPad 9" encuentre "9".
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+final class SearchTokenizer {
+
+    private SearchTokenizer() {
+    }
+
+    /**
+     * Obtiene los terminos de un texto, en orden y con repeticiones.
+     * 
+     * @param text Texto a separar (null produce una lista vacia)
+     * @return Terminos normalizados
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = normalize(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean tokenChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                if (i - start > 1 || Character.isDigit(normalized.charAt(start))) {
+                    tokens.add(normalized.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Normaliza un texto como llave de autocompletado: sus palabras, incluidas
+     * las de una sola letra, separadas por un espacio ("  Cámara  Sony-A7 "
+     * produce "camara sony a7").
+     * 
+     * @param text Texto a normalizar (null produce una cadena vacia)
+     * @return Llave normalizada
+     */
+    static String normalizeKey(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String normalized = normalize(text);
+        StringBuilder key = new StringBuilder(normalized.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < normalized.length(); i++) {
+            char ch = normalized.charAt(i);
+            if (!Character.isLetterOrDigit(ch)) {
+                pendingSpace = key.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                key.append(' ');
+                pendingSpace = false;
+            }
+            key.append(ch);
+        }
+        return key.toString();
+    }
+
+    /** Minusculas y sin marcas diacriticas; el texto ASCII evita el Normalizer. */
+    private static String normalize(String text) {
+        boolean ascii = true;
+        for (int i = 0; i < text.length() && ascii; i++) {
+            ascii = text.charAt(i) < 0x80;
+        }
+        if (ascii) {
+            return text.toLowerCase(Locale.ROOT);
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder plain = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char ch = decomposed.charAt(i);
+            if (Character.getType(ch) != Character.NON_SPACING_MARK) {
+                plain.append(Character.toLowerCase(ch));
+            }
+        }
+        return plain.toString();
+    }
+}
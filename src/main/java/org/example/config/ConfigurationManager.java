@@ -37,6 +37,28 @@ public class ConfigurationManager {
         configurations.put("max.cart.items", "50");
         configurations.put("currency", "MXN");
         configurations.put("tax.rate", "0.10");
+        configurations.put("events.lanes", "4");
+        configurations.put("events.queue.capacity", "1024");
+        configurations.put("output.mode", "console");
+        configurations.put("output.level", "INFO");
+        configurations.put("output.buffer.capacity", "8192");
+        configurations.put("catalog.data.dir", "");
+        configurations.put("catalog.journal.sync", "commit");
+        configurations.put("catalog.snapshot.every", "100000");
+        configurations.put("catalog.file", "");
+        configurations.put("catalog.backend", "heap");
+        configurations.put("reservations.ttl.seconds", "900");
+        configurations.put("reservations.tick.millis", "1000");
+        configurations.put("reservations.wheel.size", "1024");
+        configurations.put("orders.node.id", "0");
+        configurations.put("orders.data.dir", "");
+        configurations.put("orders.journal.partitions", "4");
+        configurations.put("orders.journal.sync", "commit");
+        configurations.put("orders.snapshot.every", "100000");
+        configurations.put("payments.idempotency.ttl.seconds", "600");
+        configurations.put("payments.idempotency.max.keys", "1000000");
+        configurations.put("payments.gateway.latency.millis", "200");
+        configurations.put("payments.gateway.limit", "100000");
     }
     
 
@@ -1,9 +1,21 @@
 package org.example.config;
 
+import org.example.catalog.CatalogPage;
+import org.example.catalog.CatalogSort;
+import org.example.catalog.ColumnarCatalog;
+import org.example.catalog.ProductCatalog;
+import org.example.catalog.SearchHit;
 import org.example.model.product.Product;
+import org.example.output.Output;
 import org.example.patterns.factory.FactoryRegistry;
+import org.example.persistence.CatalogStore;
+import org.example.persistence.MappedCatalog;
+import org.example.persistence.MappedCatalogWriter;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Patron Singleton que gestiona el inventario unico de productos.
@@ -14,6 +26,40 @@ import java.util.ArrayList;
  * centralizado y consistente a los productos disponibles.
  * </p>
  * 
+ * <p>
+ * El almacenamiento se delega a un {@link ProductCatalog}, que mantiene
+ * un indice primario por ID. Los IDs son unicos: agregar un producto con
+ * un ID existente lanza {@link IllegalArgumentException}. El inventario es
+ * seguro para acceso concurrente y las lecturas no bloquean.
+ * </p>
+ * 
+ * <p>
+ * Si se configura un directorio de datos ({@code -Dshoptech.data.dir=...}
+ * o {@code catalog.data.dir}), el inventario es durable: las altas y los
+ * cambios de precio y stock se registran en un {@link CatalogStore} y al
+ * reiniciar se restauran en lugar de volver a sembrar los datos de prueba.
+ * </p>
+ * 
+ * <p>
+ * Si se configura un archivo de catalogo ({@code -Dshoptech.catalog.file=...}
+ * o {@code catalog.file}), se usa como catalogo base de solo lectura
+ * ({@link MappedCatalog}): abrirlo toma milisegundos y cada producto se
+ * crea la primera vez que se busca. Las consultas que recorren todo el
+ * inventario (listado, categoria, rango de precio) cargan antes el resto
+ * del archivo.
+ * </p>
+ * 
+ * <p>
+ * Con {@code -Dshoptech.catalog.backend=offheap} (o {@code catalog.backend})
+ * el inventario vive en un {@link ColumnarCatalog}: precios, stock y
+ * categorias en columnas fuera del heap y productos entregados como vistas.
+ * Ese modo no admite persistencia ni catalogo base. Las paginas solo se
+ * ordenan por ID; la busqueda por texto, el autocompletado y las paginas
+ * por precio o nombre (que dependen de indices en el heap) lanzan
+ * {@link UnsupportedOperationException}. {@link #hasSearchIndexes()}
+ * permite ofrecerlas solo cuando estan disponibles.
+ * </p>
+ * 
  * <h2>Patron de Diseno:</h2>
  * <ul>
  * <li><b>Tipo:</b> Singleton (Creational Pattern)</li>
@@ -37,40 +83,222 @@ public enum StoreDatabase {
     /** Instancia unica del inventario (Singleton) */
     INSTANCE;
 
-    private final ArrayList<Product> products = new ArrayList<>();
     private final FactoryRegistry factoryRegistry = new FactoryRegistry();
 
+    /** Persistencia del inventario (null si solo vive en memoria) */
+    private final CatalogStore store = openStore(factoryRegistry);
+
+    private final ProductCatalog catalog = store != null ? store.getCatalog() : new ProductCatalog();
+
+    /** Inventario columnar fuera del heap (null si se usa el catalogo en el heap) */
+    private final ColumnarCatalog columnar = openColumnar(store);
+
+    /** Catalogo base mapeado en memoria (null si no hay archivo) */
+    private final MappedCatalog baseCatalog = openBaseCatalog(factoryRegistry);
+
+    /** Serializa la carga completa del catalogo base */
+    private final ReentrantLock baseLoadLock = new ReentrantLock();
+
+    /** true cuando todo el catalogo base ya esta en el inventario */
+    private volatile boolean baseFullyLoaded = baseCatalog == null;
+
     /**
      * Agrega un producto al inventario.
      * 
      * @param product El producto a agregar
+     * @throws IllegalArgumentException si ya existe un producto con el mismo ID
      */
     public void addProduct(Product product) {
-        products.add(product);
+        if (columnar != null) {
+            columnar.addProduct(product);
+        } else if (store != null) {
+            store.addProduct(product);
+        } else {
+            catalog.addProduct(product);
+        }
     }
 
     /**
-     * Busca un producto por su ID.
+     * Agrega un lote de productos (ej: desde una importacion masiva).
+     * Con persistencia activa, todo el lote se confirma con un solo fsync.
+     * 
+     * @param products Productos a agregar
+     * @return Productos rechazados porque su ID ya existia
+     */
+    public List<Product> addProducts(List<Product> products) {
+        if (columnar != null) {
+            return columnar.addProducts(products);
+        }
+        if (store != null) {
+            return store.addProducts(products);
+        }
+        List<Product> duplicates = new ArrayList<>();
+        for (Product product : products) {
+            // Un alta concurrente del mismo ID cuenta como duplicado, no aborta el lote
+            if (!catalog.tryAddProduct(product)) {
+                duplicates.add(product);
+            }
+        }
+        return duplicates;
+    }
+
+    /**
+     * Busca un producto por su ID usando el indice primario (O(1)).
+     * Si no esta en memoria, se busca en el catalogo base y se carga.
      * 
      * @param id Identificador unico del producto
      * @return El producto encontrado o null si no existe
      */
     public Product getProduct(String id) {
-        for (Product product : products) {
-            if (product.getId().equals(id)) {
-                return product;
-            }
+        if (columnar != null) {
+            return columnar.getProduct(id);
+        }
+        Product product = catalog.getProduct(id);
+        if (product == null && !baseFullyLoaded) {
+            product = loadFromBase(id);
         }
-        return null;
+        return product;
     }
 
     /**
      * Obtiene todos los productos del inventario.
      * 
-     * @return Lista de todos los productos disponibles
+     * @return Vista de solo lectura de los productos disponibles
+     */
+    public List<Product> getAllProducts() {
+        if (columnar != null) {
+            return columnar.getAllProducts();
+        }
+        loadAllFromBase();
+        return catalog.getAllProducts();
+    }
+
+    /**
+     * Obtiene una pagina del inventario. Para recorrerlo completo se pide
+     * la primera pagina con cursor null y luego se pasa el
+     * {@link CatalogPage#nextCursor()} de cada pagina.
+     * 
+     * @param sort     Orden de las paginas
+     * @param cursor   Cursor de la pagina anterior, o null para la primera
+     * @param pageSize Productos por pagina
+     * @return Pagina de productos
+     * @throws UnsupportedOperationException si el catalogo esta fuera del
+     *                                       heap y el orden no es por ID
+     * @see ProductCatalog#getPage(CatalogSort, String, int)
+     * @see ColumnarCatalog#getPage(String, int)
+     */
+    public CatalogPage getPage(CatalogSort sort, String cursor, int pageSize) {
+        if (columnar != null && sort == CatalogSort.ID) {
+            return columnar.getPage(cursor, pageSize);
+        }
+        requireHeapCatalog("Pagination by " + sort);
+        loadAllFromBase();
+        return catalog.getPage(sort, cursor, pageSize);
+    }
+
+    /**
+     * Obtiene los productos de una categoria, ordenados por precio.
+     * 
+     * @param category Categoria a consultar
+     * @return Lista de productos de la categoria
+     */
+    public List<Product> findByCategory(String category) {
+        if (columnar != null) {
+            return columnar.findByCategory(category);
+        }
+        loadAllFromBase();
+        return catalog.findByCategory(category);
+    }
+
+    /**
+     * Obtiene los productos con precio en el rango [minPrice, maxPrice].
+     * 
+     * @param minPrice Precio minimo (inclusivo)
+     * @param maxPrice Precio maximo (inclusivo)
+     * @return Lista de productos ordenados por precio
      */
-    public ArrayList<Product> getAllProducts() {
-        return products;
+    public List<Product> findByPriceRange(double minPrice, double maxPrice) {
+        if (columnar != null) {
+            return columnar.findByPriceRange(minPrice, maxPrice);
+        }
+        loadAllFromBase();
+        return catalog.findByPriceRange(minPrice, maxPrice);
+    }
+
+    /**
+     * Obtiene los productos de una categoria con precio en el rango
+     * [minPrice, maxPrice] (ej: "Smartphones" entre $500 y $1500).
+     * 
+     * @param category Categoria a consultar
+     * @param minPrice Precio minimo (inclusivo)
+     * @param maxPrice Precio maximo (inclusivo)
+     * @return Lista de productos ordenados por precio
+     */
+    public List<Product> findByCategoryAndPriceRange(String category, double minPrice, double maxPrice) {
+        if (columnar != null) {
+            return columnar.findByCategoryAndPriceRange(category, minPrice, maxPrice);
+        }
+        loadAllFromBase();
+        return catalog.findByCategoryAndPriceRange(category, minPrice, maxPrice);
+    }
+
+    /**
+     * Indica si el inventario tiene los indices en el heap que requieren la
+     * busqueda por texto, el autocompletado y las paginas por precio o
+     * nombre.
+     * 
+     * @return false con el catalogo fuera del heap
+     */
+    public boolean hasSearchIndexes() {
+        return columnar == null;
+    }
+
+    /**
+     * Busca productos por texto (nombre, categoria y detalle), los mas
+     * relevantes primero.
+     * 
+     * @param query Terminos a buscar; las alternativas se separan con {@code OR}
+     * @param limit Maximo de resultados
+     * @return Resultados de la busqueda
+     * @throws UnsupportedOperationException si el catalogo esta fuera del
+     *                                       heap
+     * @see ProductCatalog#search(String, int)
+     */
+    public List<SearchHit> search(String query, int limit) {
+        requireHeapCatalog("Text search");
+        loadAllFromBase();
+        return catalog.search(query, limit);
+    }
+
+    /**
+     * Sugiere productos cuyo nombre tiene una palabra que empieza con el
+     * prefijo, los de mas stock primero.
+     * 
+     * @param prefix Texto escrito hasta ahora
+     * @param limit  Maximo de sugerencias
+     * @return Sugerencias para autocompletar
+     * @throws UnsupportedOperationException si el catalogo esta fuera del
+     *                                       heap
+     * @see ProductCatalog#suggest(String, int)
+     */
+    public List<Product> suggest(String prefix, int limit) {
+        requireHeapCatalog("Autocomplete");
+        loadAllFromBase();
+        return catalog.suggest(prefix, limit);
+    }
+
+    /**
+     * Confirma en disco los cambios de stock y precio acumulados (ej: al
+     * terminar un checkout). Sin persistencia no hace nada.
+     * 
+     * @throws IllegalStateException si el journal del inventario fallo
+     * @throws java.io.UncheckedIOException si el fsync fallo
+     * @see CatalogStore#commit()
+     */
+    public void commitInventory() {
+        if (store != null) {
+            store.commit();
+        }
     }
 
     /**
@@ -87,7 +315,15 @@ public enum StoreDatabase {
      * Carga productos de ejemplo para demostracion.
      */
     public void initMockData() {
-        System.out.println("LOG: Inicializando datos de prueba (Seeding)...");
+        if (store != null && catalog.size() > 0) {
+            Output.info("LOG: " + catalog.size() + " productos restaurados desde disco.");
+            return;
+        }
+        if (baseCatalog != null && baseCatalog.size() > 0) {
+            Output.info("LOG: " + baseCatalog.size() + " productos disponibles en el archivo de catalogo.");
+            return;
+        }
+        Output.info("LOG: Inicializando datos de prueba (Seeding)...");
 
         addProduct(factoryRegistry.createProduct("ELECTRONICS", "E001", "Laptop Dell XPS", 1500.00, 10, "Computers"));
         addProduct(factoryRegistry.createProduct("ELECTRONICS", "E002", "iPhone 15 Pro", 1200.00, 25, "Smartphones"));
@@ -95,6 +331,113 @@ public enum StoreDatabase {
         addProduct(factoryRegistry.createProduct("CLOTHING", "C001", "Nike T-Shirt", 25.00, 50, "Apparel"));
         addProduct(factoryRegistry.createProduct("CLOTHING", "C002", "Levi's Jeans", 79.99, 30, "Apparel"));
 
-        System.out.println("LOG: " + products.size() + " productos cargados en memoria.");
+        Output.info("LOG: " + size() + " productos cargados en memoria.");
+    }
+
+    /**
+     * Exporta el inventario completo al formato binario de
+     * {@link MappedCatalog}, para abrirlo despues con {@code catalog.file}.
+     * 
+     * @param file Archivo destino
+     */
+    public void exportCatalog(Path file) {
+        MappedCatalogWriter.write(file, getAllProducts());
+    }
+
+    private int size() {
+        return columnar != null ? columnar.size() : catalog.size();
+    }
+
+    private void requireHeapCatalog(String feature) {
+        if (columnar != null) {
+            throw new UnsupportedOperationException(feature + " is not available with the off-heap catalog backend");
+        }
+    }
+
+    // ==================== CATALOGO BASE ====================
+
+    private Product loadFromBase(String id) {
+        Product base = baseCatalog.getProduct(id);
+        if (base == null) {
+            return null;
+        }
+        // Si otro hilo dio de alta el mismo ID, gana el producto ya registrado
+        addProducts(List.of(base));
+        return catalog.getProduct(id);
+    }
+
+    private void loadAllFromBase() {
+        if (baseFullyLoaded) {
+            return;
+        }
+        baseLoadLock.lock();
+        try {
+            if (baseFullyLoaded) {
+                return;
+            }
+            // Los IDs ya cargados (o dados de alta mientras tanto) se descartan
+            addProducts(baseCatalog.getAllProducts());
+            baseFullyLoaded = true;
+        } finally {
+            baseLoadLock.unlock();
+        }
+    }
+
+    /**
+     * Crea el inventario fuera del heap si esta configurado.
+     * 
+     * @param store Persistencia configurada (debe ser null en ese modo)
+     * @return Catalogo columnar, o null para usar el catalogo en el heap
+     * @throws IllegalStateException si el backend es desconocido o se
+     *                               combina con persistencia o catalogo base
+     */
+    private static ColumnarCatalog openColumnar(CatalogStore store) {
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        String backend = System.getProperty("shoptech.catalog.backend", config.getConfig("catalog.backend"));
+        if (backend == null || backend.isBlank() || "heap".equalsIgnoreCase(backend)) {
+            return null;
+        }
+        if (!"offheap".equalsIgnoreCase(backend)) {
+            throw new IllegalStateException("Unknown catalog backend: " + backend);
+        }
+        String file = System.getProperty("shoptech.catalog.file", config.getConfig("catalog.file"));
+        if (store != null || (file != null && !file.isBlank())) {
+            throw new IllegalStateException("The off-heap catalog backend does not support a data dir or catalog file");
+        }
+        return new ColumnarCatalog();
+    }
+
+    /**
+     * Abre el catalogo base si hay un archivo configurado.
+     * 
+     * @param registry Fabricas para crear los productos
+     * @return Catalogo mapeado, o null si no hay archivo
+     */
+    private static MappedCatalog openBaseCatalog(FactoryRegistry registry) {
+        String file = System.getProperty("shoptech.catalog.file",
+                ConfigurationManager.getInstance().getConfig("catalog.file"));
+        if (file == null || file.isBlank()) {
+            return null;
+        }
+        return MappedCatalog.open(Path.of(file), registry);
+    }
+
+    /**
+     * Abre el inventario durable si hay un directorio de datos configurado.
+     * 
+     * @param registry Fabricas para restaurar los productos
+     * @return Catalogo durable, o null para usar solo memoria
+     */
+    private static CatalogStore openStore(FactoryRegistry registry) {
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        String dataDir = System.getProperty("shoptech.data.dir", config.getConfig("catalog.data.dir"));
+        if (dataDir == null || dataDir.isBlank()) {
+            return null;
+        }
+        CatalogStore store = CatalogStore.open(Path.of(dataDir), registry,
+                !"async".equalsIgnoreCase(config.getConfig("catalog.journal.sync")),
+                Long.parseLong(config.getConfig("catalog.snapshot.every")));
+        Runtime.getRuntime().addShutdownHook(new Thread(store::close, "catalog-store-shutdown"));
+        return store;
     }
 }
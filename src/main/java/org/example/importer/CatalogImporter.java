@@ -0,0 +1,664 @@
+package org.example.importer;
+
+import org.example.config.StoreDatabase;
+import org.example.model.product.Product;
+import org.example.patterns.factory.FactoryRegistry;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Importador masivo del catalogo desde archivos CSV o JSON Lines.
+ * 
+ * <p>
+ * El archivo se procesa en streaming: nunca se carga completo en memoria,
+ * por lo que un feed de varios GB se importa con memoria acotada.
+ * </p>
+ * 
+ * <h2>Pipeline:</h2>
+ * <ol>
+ * <li><b>Lector:</b> un hilo lee lineas y las agrupa en bloques de
+ * {@code chunkSize} lineas.</li>
+ * <li><b>Parseo:</b> un pool de {@code workers} hilos convierte cada bloque
+ * en productos, creando cada uno con la fabrica de su tipo
+ * ({@link FactoryRegistry}).</li>
+ * <li><b>Insercion:</b> el hilo que llama inserta los bloques en el orden del
+ * archivo, un lote por bloque, y escribe las filas invalidas al archivo de
+ * rechazos.</li>
+ * </ol>
+ * 
+ * <p>
+ * Los bloques en vuelo pasan por una cola acotada ({@code workers * 2}):
+ * si la insercion es mas lenta que la lectura, el lector se bloquea. En
+ * memoria nunca hay mas de unos {@code workers * 3 * chunkSize} lineas,
+ * sin importar el tamano del archivo.
+ * </p>
+ * 
+ * <h2>Formatos:</h2>
+ * <ul>
+ * <li><b>CSV</b> ({@code .csv}): la primera linea es la cabecera con las
+ * columnas {@code type,id,name,price,stock,category} en cualquier orden.
+ * Los campos pueden ir entre comillas dobles ({@code ""} escapa una
+ * comilla); no se admiten saltos de linea dentro de un campo.</li>
+ * <li><b>JSON Lines</b> ({@code .jsonl}, {@code .ndjson}): un objeto plano
+ * por linea con las mismas claves.</li>
+ * </ul>
+ * 
+ * <p>
+ * Cada fila rechazada se escribe como {@code linea<TAB>motivo<TAB>fila}.
+ * Las lineas vacias se ignoran.
+ * </p>
+ * 
+ * <h2>Ejemplo de Uso:</h2>
+ * 
+ * <pre>{@code
+ * CatalogImporter importer = new CatalogImporter(StoreDatabase.INSTANCE);
+ * ImportReport report = importer.importFile(Path.of("feed.csv"), Path.of("feed.rejects"));
+ * Output.info("Import: " + report);
+ * }</pre>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+public class CatalogImporter {
+
+    /** Columnas requeridas en cada fila */
+    static final List<String> COLUMNS = List.of("type", "id", "name", "price", "stock", "category");
+
+    private static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    /** Formato del archivo de entrada */
+    public enum Format {
+        CSV, JSONL;
+
+        /**
+         * Determina el formato por la extension del archivo.
+         * 
+         * @param file Archivo de entrada
+         * @return Formato correspondiente
+         * @throws IllegalArgumentException si la extension no es conocida
+         */
+        public static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+                return JSONL;
+            }
+            throw new IllegalArgumentException("Unsupported import file: " + file);
+        }
+    }
+
+    /**
+     * Destino de los lotes importados.
+     */
+    @FunctionalInterface
+    public interface BatchInserter {
+
+        /**
+         * Inserta un lote de productos.
+         * 
+         * @param products Productos a insertar, en el orden del archivo
+         * @return Productos no insertados por ID duplicado
+         */
+        List<Product> insert(List<Product> products);
+    }
+
+    private final FactoryRegistry registry;
+    private final BatchInserter inserter;
+    private final int workers;
+    private final int chunkSize;
+
+    /**
+     * Crea un importador hacia el inventario, con un hilo de parseo por
+     * procesador.
+     * 
+     * @param database Inventario destino
+     */
+    public CatalogImporter(StoreDatabase database) {
+        this(database.getFactoryRegistry(), database::addProducts,
+                Runtime.getRuntime().availableProcessors(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Crea un importador con destino y paralelismo explicitos.
+     * 
+     * @param registry  Fabricas para crear los productos
+     * @param inserter  Destino de los lotes
+     * @param workers   Hilos de parseo
+     * @param chunkSize Lineas por bloque (y por lote de insercion)
+     * @throws IllegalArgumentException si algun argumento es invalido
+     */
+    public CatalogImporter(FactoryRegistry registry, BatchInserter inserter, int workers, int chunkSize) {
+        if (registry == null || inserter == null) {
+            throw new IllegalArgumentException("Registry and inserter cannot be null");
+        }
+        if (workers <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("Workers and chunk size must be greater than zero");
+        }
+        this.registry = registry;
+        this.inserter = inserter;
+        this.workers = workers;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Importa un archivo completo.
+     * 
+     * @param input   Archivo CSV o JSON Lines
+     * @param rejects Archivo donde se escriben las filas rechazadas
+     *                (se crea aunque no haya rechazos)
+     * @return Resumen de la importacion
+     * @throws IllegalArgumentException si el formato no es soportado o la
+     *                                  cabecera CSV no tiene las columnas requeridas
+     * @throws UncheckedIOException     si falla la lectura o la escritura
+     */
+    public ImportReport importFile(Path input, Path rejects) {
+        Format format = Format.of(input);
+        long start = System.nanoTime();
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService parsers = Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "catalog-import-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Thread readerThread = null;
+
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+                BufferedWriter rejectWriter = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8)) {
+            RowParser parser = format == Format.CSV
+                    ? new CsvRowParser(registry, reader.readLine())
+                    : new JsonRowParser(registry);
+            ChunkReader chunkReader = new ChunkReader(reader, format == Format.CSV ? 2 : 1, parser, parsers);
+            readerThread = new Thread(chunkReader, "catalog-import-reader");
+            readerThread.setDaemon(true);
+            readerThread.start();
+
+            long rowsRead = 0;
+            long imported = 0;
+            long rejected = 0;
+            ParsedChunk chunk;
+            while ((chunk = chunkReader.next()) != null) {
+                List<Rejection> chunkRejections = chunk.rejections();
+                if (!chunk.products().isEmpty()) {
+                    List<Product> duplicates = inserter.insert(chunk.products());
+                    imported += chunk.products().size() - duplicates.size();
+                    if (!duplicates.isEmpty()) {
+                        chunkRejections = chunk.withDuplicates(duplicates);
+                    }
+                }
+                for (Rejection rejection : chunkRejections) {
+                    rejectWriter.write(Long.toString(rejection.line()));
+                    rejectWriter.write('\t');
+                    rejectWriter.write(rejection.reason());
+                    rejectWriter.write('\t');
+                    rejectWriter.write(rejection.raw());
+                    rejectWriter.newLine();
+                }
+                rowsRead += chunk.rows();
+                rejected += chunkRejections.size();
+            }
+            return new ImportReport(rowsRead, imported, rejected, Duration.ofNanos(System.nanoTime() - start));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot import catalog file: " + input, e);
+        } finally {
+            if (readerThread != null) {
+                readerThread.interrupt();
+            }
+            parsers.shutdownNow();
+        }
+    }
+
+    // ==================== PIPELINE ====================
+
+    /** Fila invalida con su numero de linea en el archivo */
+    record Rejection(long line, String reason, String raw) {
+    }
+
+    /**
+     * Resultado de parsear un bloque.
+     * 
+     * @param rows         Filas de datos del bloque
+     * @param products     Productos validos, en orden de archivo
+     * @param productLines Linea de cada producto valido
+     * @param rejections   Filas invalidas, en orden de archivo
+     * @param lines        Lineas originales del bloque
+     * @param firstLine    Numero de la primera linea del bloque
+     */
+    record ParsedChunk(int rows, List<Product> products, long[] productLines, List<Rejection> rejections,
+            List<String> lines, long firstLine) {
+
+        /** Agrega los duplicados a los rechazos, manteniendo el orden del archivo. */
+        List<Rejection> withDuplicates(List<Product> duplicates) {
+            Map<Product, Boolean> duplicated = new IdentityHashMap<>();
+            for (Product duplicate : duplicates) {
+                duplicated.put(duplicate, Boolean.TRUE);
+            }
+            List<Rejection> merged = new ArrayList<>(rejections);
+            for (int i = 0; i < products.size(); i++) {
+                if (duplicated.containsKey(products.get(i))) {
+                    long line = productLines[i];
+                    merged.add(new Rejection(line, "Duplicate product ID: " + products.get(i).getId(),
+                            lines.get((int) (line - firstLine))));
+                }
+            }
+            merged.sort(Comparator.comparingLong(Rejection::line));
+            return merged;
+        }
+    }
+
+    /**
+     * Lee el archivo en bloques y los envia al pool de parseo.
+     * 
+     * <p>
+     * Los futuros se encolan en orden de lectura en una cola acotada, asi el
+     * consumidor recibe los bloques en el orden del archivo y el lector se
+     * bloquea cuando hay demasiados bloques en vuelo.
+     * </p>
+     */
+    private final class ChunkReader implements Runnable {
+
+        /** Marca de fin de archivo en la cola */
+        private static final Future<ParsedChunk> END = CompletableFuture.completedFuture(null);
+
+        private final BufferedReader reader;
+        private final long firstLine;
+        private final RowParser parser;
+        private final ExecutorService parsers;
+        private final BlockingQueue<Future<ParsedChunk>> inFlight = new ArrayBlockingQueue<>(workers * 2);
+        private volatile IOException failure;
+
+        ChunkReader(BufferedReader reader, long firstLine, RowParser parser, ExecutorService parsers) {
+            this.reader = reader;
+            this.firstLine = firstLine;
+            this.parser = parser;
+            this.parsers = parsers;
+        }
+
+        @Override
+        public void run() {
+            try {
+                long lineNumber = firstLine;
+                List<String> lines = new ArrayList<>(chunkSize);
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(line);
+                    if (lines.size() == chunkSize) {
+                        submit(lines, lineNumber);
+                        lineNumber += lines.size();
+                        lines = new ArrayList<>(chunkSize);
+                    }
+                }
+                if (!lines.isEmpty()) {
+                    submit(lines, lineNumber);
+                }
+            } catch (IOException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                inFlight.put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void submit(List<String> lines, long first) throws InterruptedException {
+            inFlight.put(parsers.submit(() -> parser.parseChunk(lines, first)));
+        }
+
+        /**
+         * Obtiene el siguiente bloque parseado en orden de archivo.
+         * 
+         * @return Bloque, o null al terminar el archivo
+         * @throws IOException si fallo la lectura
+         */
+        ParsedChunk next() throws IOException {
+            try {
+                ParsedChunk chunk = inFlight.take().get();
+                if (chunk == null && failure != null) {
+                    throw failure;
+                }
+                return chunk;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Catalog import interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw new IllegalStateException("Catalog import failed", e.getCause());
+            }
+        }
+    }
+
+    // ==================== PARSEO ====================
+
+    /**
+     * Convierte lineas en productos. Las implementaciones no guardan estado
+     * mutable y se usan desde varios hilos a la vez.
+     */
+    abstract static class RowParser {
+
+        private final FactoryRegistry registry;
+
+        RowParser(FactoryRegistry registry) {
+            this.registry = registry;
+        }
+
+        /**
+         * Extrae los campos de una linea.
+         * 
+         * @param line Linea no vacia
+         * @return Valores por nombre de columna
+         * @throws IllegalArgumentException si la linea esta mal formada
+         */
+        abstract Map<String, String> fields(String line);
+
+        ParsedChunk parseChunk(List<String> lines, long firstLine) {
+            List<Product> products = new ArrayList<>(lines.size());
+            long[] productLines = new long[lines.size()];
+            List<Rejection> rejections = new ArrayList<>();
+            int rows = 0;
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                if (line.isBlank()) {
+                    continue;
+                }
+                rows++;
+                try {
+                    Product product = toProduct(fields(line));
+                    productLines[products.size()] = firstLine + i;
+                    products.add(product);
+                } catch (IllegalArgumentException e) {
+                    rejections.add(new Rejection(firstLine + i, e.getMessage(), line));
+                }
+            }
+            return new ParsedChunk(rows, products, productLines, rejections, lines, firstLine);
+        }
+
+        private Product toProduct(Map<String, String> fields) {
+            String type = required(fields, "type");
+            if (!registry.hasFactory(type)) {
+                throw new IllegalArgumentException("Unknown product type: " + type);
+            }
+            String id = required(fields, "id");
+            String name = required(fields, "name");
+            String category = required(fields, "category");
+
+            double price;
+            try {
+                price = new BigDecimal(required(fields, "price")).doubleValue();
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid price: " + fields.get("price"));
+            }
+            if (!Double.isFinite(price) || price < 0) {
+                throw new IllegalArgumentException("Price cannot be negative: " + fields.get("price"));
+            }
+
+            int stock;
+            try {
+                stock = Integer.parseInt(required(fields, "stock"));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid stock: " + fields.get("stock"));
+            }
+            if (stock < 0) {
+                throw new IllegalArgumentException("Stock cannot be negative: " + stock);
+            }
+            return registry.createProduct(type, id, name, price, stock, category);
+        }
+
+        private static String required(Map<String, String> fields, String column) {
+            String value = fields.get(column);
+            if (value == null || value.isBlank()) {
+                throw new IllegalArgumentException("Missing field: " + column);
+            }
+            return value.strip();
+        }
+    }
+
+    /** Filas CSV segun la cabecera del archivo. */
+    static final class CsvRowParser extends RowParser {
+
+        /** Posicion de cada columna requerida en la fila */
+        private final int[] positions = new int[COLUMNS.size()];
+
+        CsvRowParser(FactoryRegistry registry, String header) {
+            super(registry);
+            if (header == null) {
+                throw new IllegalArgumentException("CSV file has no header");
+            }
+            List<String> names = split(header);
+            for (int c = 0; c < COLUMNS.size(); c++) {
+                positions[c] = -1;
+                for (int i = 0; i < names.size(); i++) {
+                    if (names.get(i).strip().equalsIgnoreCase(COLUMNS.get(c))) {
+                        positions[c] = i;
+                    }
+                }
+                if (positions[c] < 0) {
+                    throw new IllegalArgumentException("CSV header must contain columns " + COLUMNS
+                            + ", got: " + header);
+                }
+            }
+        }
+
+        @Override
+        Map<String, String> fields(String line) {
+            List<String> values = split(line);
+            Map<String, String> fields = new HashMap<>();
+            for (int c = 0; c < COLUMNS.size(); c++) {
+                if (positions[c] < values.size()) {
+                    fields.put(COLUMNS.get(c), values.get(positions[c]));
+                }
+            }
+            return fields;
+        }
+
+        /**
+         * Separa una linea CSV en campos (RFC 4180 sin saltos de linea
+         * dentro de comillas).
+         */
+        static List<String> split(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char ch = line.charAt(i);
+                if (quoted) {
+                    if (ch != '"') {
+                        value.append(ch);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (ch == '"') {
+                    quoted = true;
+                } else if (ch == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else {
+                    value.append(ch);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            values.add(value.toString());
+            return values;
+        }
+    }
+
+    /** Objetos JSON planos, uno por linea. */
+    static final class JsonRowParser extends RowParser {
+
+        JsonRowParser(FactoryRegistry registry) {
+            super(registry);
+        }
+
+        @Override
+        Map<String, String> fields(String line) {
+            return new FlatJsonReader(line).readObject();
+        }
+    }
+
+    /**
+     * Lector minimo de un objeto JSON plano: claves de texto y valores de
+     * texto, numero, booleano o null. Los objetos y arreglos anidados se
+     * rechazan.
+     */
+    static final class FlatJsonReader {
+
+        private final String text;
+        private int pos;
+
+        FlatJsonReader(String text) {
+            this.text = text;
+        }
+
+        Map<String, String> readObject() {
+            Map<String, String> fields = new HashMap<>();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+            } else {
+                while (true) {
+                    skipWhitespace();
+                    String key = readString();
+                    skipWhitespace();
+                    expect(':');
+                    skipWhitespace();
+                    String value = readValue();
+                    if (value != null) {
+                        fields.put(key, value);
+                    }
+                    skipWhitespace();
+                    char ch = next();
+                    if (ch == '}') {
+                        break;
+                    }
+                    if (ch != ',') {
+                        throw malformed("expected ',' or '}'");
+                    }
+                }
+            }
+            skipWhitespace();
+            if (pos != text.length()) {
+                throw malformed("trailing characters");
+            }
+            return fields;
+        }
+
+        private String readValue() {
+            char ch = peek();
+            if (ch == '"') {
+                return readString();
+            }
+            if (ch == '{' || ch == '[') {
+                throw malformed("nested values are not supported");
+            }
+            int start = pos;
+            while (pos < text.length() && ",} \t".indexOf(text.charAt(pos)) < 0) {
+                pos++;
+            }
+            String literal = text.substring(start, pos);
+            if (literal.isEmpty()) {
+                throw malformed("missing value");
+            }
+            return literal.equals("null") ? null : literal;
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                char ch = next();
+                if (ch == '"') {
+                    return value.toString();
+                }
+                if (ch != '\\') {
+                    value.append(ch);
+                    continue;
+                }
+                char escape = next();
+                switch (escape) {
+                    case '"', '\\', '/' -> value.append(escape);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) {
+                            throw malformed("truncated unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw malformed("invalid unicode escape");
+                        }
+                        pos += 4;
+                    }
+                    default -> throw malformed("invalid escape");
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private char peek() {
+            if (pos >= text.length()) {
+                throw malformed("unexpected end of line");
+            }
+            return text.charAt(pos);
+        }
+
+        private char next() {
+            char ch = peek();
+            pos++;
+            return ch;
+        }
+
+        private void expect(char expected) {
+            if (next() != expected) {
+                throw malformed("expected '" + expected + "'");
+            }
+        }
+
+        private IllegalArgumentException malformed(String detail) {
+            return new IllegalArgumentException("Malformed JSON at column " + (pos + 1) + ": " + detail);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.importer;
+
+import java.time.Duration;
+
+/**
+ * Resultado de una importacion masiva del catalogo.
+ * 
+ * @param rowsRead Filas de datos leidas (sin cabecera ni lineas vacias)
+ * @param imported Productos agregados al inventario
+ * @param rejected Filas enviadas al archivo de rechazos
+ * @param elapsed  Duracion total de la importacion
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see CatalogImporter
+ */
+public record ImportReport(long rowsRead, long imported, long rejected, Duration elapsed) {
+
+    /**
+     * Calcula el rendimiento de la importacion.
+     * 
+     * @return Filas leidas por segundo
+     */
+    public double rowsPerSecond() {
+        long nanos = Math.max(1, elapsed.toNanos());
+        return rowsRead * 1_000_000_000.0 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%,d rows read, %,d imported, %,d rejected in %,d ms (%,.0f rows/s)",
+                rowsRead, imported, rejected, elapsed.toMillis(), rowsPerSecond());
+    }
+}
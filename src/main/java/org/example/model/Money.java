@@ -0,0 +1,137 @@
+package org.example.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Cantidad de dinero exacta en punto fijo.
+ *
+ * <p>
+ * Internamente guarda centavos en un {@code long}, de modo que sumas y
+ * multiplicaciones son exactas (sin errores de redondeo de {@code double})
+ * y cuestan una operacion entera. Las operaciones lanzan
+ * {@link ArithmeticException} en caso de desbordamiento.
+ * </p>
+ *
+ * <h2>Ejemplo de Uso:</h2>
+ *
+ * <pre>{@code
+ * Money price = Money.of(79.99);
+ * Money subtotal = price.times(3);        // 239.97
+ * Money total = subtotal.plus(Money.of(10)); // 249.97
+ * long cents = total.getCents();          // 24997
+ * }</pre>
+ *
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+public final class Money implements Comparable<Money> {
+
+    /** Cero pesos/dolares */
+    public static final Money ZERO = new Money(0);
+
+    /** Cantidad en centavos */
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * Crea una cantidad a partir de centavos.
+     *
+     * @param cents Cantidad en centavos
+     * @return Cantidad de dinero
+     */
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Crea una cantidad a partir de un monto decimal, redondeando al
+     * centavo mas cercano (HALF_UP).
+     *
+     * @param amount Monto en dolares
+     * @return Cantidad de dinero
+     * @throws IllegalArgumentException si el monto no es un numero finito
+     */
+    public static Money of(double amount) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("Amount must be a finite number");
+        }
+        // BigDecimal.valueOf usa la representacion decimal corta: 79.99 -> 7999
+        return ofCents(BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact());
+    }
+
+    // ==================== OPERACIONES ====================
+
+    /**
+     * @param other Cantidad a sumar
+     * @return Suma exacta
+     */
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    /**
+     * @param other Cantidad a restar
+     * @return Diferencia exacta
+     */
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    /**
+     * @param quantity Multiplicador (ej: unidades)
+     * @return Producto exacto
+     */
+    public Money times(long quantity) {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    /** @return true si la cantidad es mayor a cero */
+    public boolean isPositive() {
+        return cents > 0;
+    }
+
+    // ==================== CONVERSIONES ====================
+
+    /** @return Cantidad en centavos */
+    public long getCents() {
+        return cents;
+    }
+
+    /**
+     * Convierte a {@code double} para mostrar o para APIs legacy.
+     * No usar para acumular montos.
+     *
+     * @return Monto en dolares
+     */
+    public double toDouble() {
+        return cents / 100.0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && other.cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    /**
+     * @return Monto con dos decimales (ej: "1234.50")
+     */
+    @Override
+    public String toString() {
+        return BigDecimal.valueOf(cents, 2).toPlainString();
+    }
+}
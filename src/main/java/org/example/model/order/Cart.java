@@ -1,9 +1,18 @@
 package org.example.model.order;
 
+import org.example.model.Money;
 import org.example.model.product.Product;
+import org.example.output.Output;
+import org.example.service.StockHold;
+import org.example.service.StockReservations;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Representa el carrito de compras del usuario.
@@ -13,10 +22,31 @@ import java.util.List;
  * incluyendo operaciones de agregar, remover y calcular totales.
  * </p>
  * 
+ * <p>
+ * El carrito guarda una linea ({@link CartItem}) por SKU con su cantidad,
+ * no una referencia por unidad: agregar 1,000 unidades del mismo producto
+ * ocupa una sola linea y reserva el stock en una sola operacion.
+ * </p>
+ * 
+ * <p>
+ * Las unidades se apartan con una {@link StockHold} por linea que vence
+ * despues del TTL de {@link StockReservations}: si el carrito se abandona,
+ * las unidades vuelven solas al inventario. El checkout
+ * ({@link Order.OrderBuilder#build()}) confirma las reservas. Agregar
+ * unidades a una linea vencida la vuelve a reservar completa.
+ * </p>
+ * 
+ * <p>
+ * El total se mantiene de forma incremental en {@link Money} (centavos
+ * exactos): cada alta o baja ajusta el total en O(1), sin recorrer
+ * el carrito ni acumular errores de redondeo.
+ * </p>
+ * 
  * <h2>Funcionalidades:</h2>
  * <ul>
  * <li>Agregar productos con validacion de stock</li>
- * <li>Remover productos restaurando stock</li>
+ * <li>Remover una unidad, N unidades o la linea completa en O(1),
+ * restaurando exactamente el stock removido</li>
  * <li>Calcular total del carrito</li>
  * <li>Visualizar contenido</li>
  * </ul>
@@ -27,63 +57,151 @@ import java.util.List;
  */
 public class Cart {
 
-    /** Lista de productos en el carrito */
-    List<Product> products = new ArrayList<>();
+    /** Lineas del carrito por SKU, en orden de insercion */
+    Map<String, CartItem> items = new LinkedHashMap<>();
+
+    /** Indice ID de producto -> SKUs en el carrito (incluye variantes decoradas) */
+    Map<String, Set<String>> skusByProductId = new HashMap<>();
+
+    /** Numero total de unidades en el carrito */
+    int totalUnits;
 
     /** Precio total acumulado */
-    double totalPrice;
+    Money totalPrice = Money.ZERO;
+
+    /** Servicio que aparta y vence las unidades */
+    private final StockReservations reservations;
+
+    /**
+     * Crea un carrito que reserva con el servicio compartido.
+     */
+    public Cart() {
+        this(StockReservations.getInstance());
+    }
 
     /**
-     * Agrega un producto al carrito.
+     * Crea un carrito que reserva con el servicio indicado.
+     * 
+     * @param reservations Servicio de reservas
+     * @throws IllegalArgumentException si el servicio es null
+     */
+    public Cart(StockReservations reservations) {
+        if (reservations == null) {
+            throw new IllegalArgumentException("Reservations cannot be null");
+        }
+        this.reservations = reservations;
+    }
+
+    /**
+     * Agrega una unidad de un producto al carrito.
      * Valida stock disponible y decrementa el inventario.
      * 
      * @param product Producto a agregar
      * @throws IllegalArgumentException si el producto no tiene stock
      */
     public void addProduct(Product product) {
-        if (product.getStock() == 0) {
-            throw new IllegalArgumentException("Product is out of stock: " + product.getName());
+        addProduct(product, 1);
+    }
+
+    /**
+     * Agrega varias unidades de un producto al carrito.
+     * 
+     * <p>
+     * Valida la cantidad y reserva el stock en una sola operacion atomica:
+     * si no hay stock suficiente no se reserva ninguna unidad y el carrito
+     * no cambia. Si la reserva de la linea ya vencio, se reservan de nuevo
+     * todas sus unidades.
+     * </p>
+     * 
+     * @param product  Producto a agregar
+     * @param quantity Unidades a agregar
+     * @throws IllegalArgumentException si el producto es null, la cantidad es
+     *                                  menor o igual a 0 o no hay stock suficiente
+     * @throws IllegalStateException    si la linea ya fue confirmada en una orden
+     */
+    public void addProduct(Product product, int quantity) {
+        if (product == null) {
+            throw new IllegalArgumentException("Product cannot be null");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+
+        String sku = product.getSku();
+        CartItem current = items.get(sku);
+        CartItem line;
+        if (current == null) {
+            line = new CartItem(product, quantity, product.getUnitPrice(), reservations.reserve(product, quantity));
+        } else if (current.getHold().extend(quantity)) {
+            line = current.withQuantityDelta(quantity);
+        } else if (current.getHold().getState() == StockHold.State.EXPIRED) {
+            int units = current.getQuantity() + quantity;
+            line = new CartItem(current.getProduct(), units, current.getUnitPrice(),
+                    reservations.reserve(current.getProduct(), units));
+        } else {
+            throw new IllegalStateException("Cart line already checked out: " + sku);
         }
-        System.out.println("Adding product to cart: " + product.getName());
-        System.out.println("Current stock before adding to cart: " + product.getStock());
-        product.decrementStock();
-        totalPrice += product.getPrice();
-        products.add(product);
-        System.out.println("Product added to cart: " + product.getName());
+        items.put(sku, line);
+        skusByProductId.computeIfAbsent(product.getId(), id -> new LinkedHashSet<>()).add(product.getSku());
+        totalUnits += quantity;
+        totalPrice = totalPrice.plus(line.getUnitPrice().times(quantity));
+        Output.info(() -> "Product added to cart: " + quantity + "x " + product.getName());
     }
 
     /**
-     * Obtiene el numero total de items en el carrito.
+     * Obtiene el numero total de unidades en el carrito.
      * 
-     * @return Cantidad de productos en el carrito
+     * @return Cantidad de unidades en el carrito
      */
     public int getTotalItems() {
-        return products.size();
+        return totalUnits;
     }
 
     /**
-     * Obtiene una copia de los items del carrito.
+     * Obtiene las lineas del carrito (una por SKU).
+     * 
+     * @return Lista de lineas (copia defensiva)
+     */
+    public List<CartItem> getLineItems() {
+        return new ArrayList<>(items.values());
+    }
+
+    /**
+     * Obtiene una copia de los items del carrito, una entrada por unidad.
      * 
      * @return Lista de productos (copia defensiva)
      */
     public List<Product> getItems() {
-        return new ArrayList<>(products);
+        List<Product> units = new ArrayList<>(totalUnits);
+        for (CartItem item : items.values()) {
+            for (int i = 0; i < item.getQuantity(); i++) {
+                units.add(item.getProduct());
+            }
+        }
+        return units;
     }
 
     /**
-     * Calcula el total del carrito.
+     * Obtiene el total del carrito en O(1).
      * 
-     * @return Suma de precios de todos los productos
+     * @return Suma de precio por cantidad de cada linea
      */
-    public double getTotal() {
-        return products.stream().mapToDouble(Product::getPrice).sum();
+    public Money getTotal() {
+        return totalPrice;
     }
 
     /**
-     * Vacia el carrito completamente.
+     * Vacia el carrito completamente. Las unidades de las reservas aun
+     * vigentes vuelven al inventario; las confirmadas quedan vendidas.
      */
     public void clear() {
-        products.clear();
+        for (CartItem item : items.values()) {
+            item.getHold().releaseIfHeld();
+        }
+        items.clear();
+        skusByProductId.clear();
+        totalUnits = 0;
+        totalPrice = Money.ZERO;
     }
 
     /**
@@ -92,25 +210,90 @@ public class Cart {
      * @return true si no hay productos, false si hay al menos uno
      */
     public boolean isEmpty() {
-        return products.isEmpty();
+        return items.isEmpty();
     }
 
     /**
      * Remueve un producto del carrito por su ID.
-     * Restaura el stock del producto.
+     * Incluye sus variantes decoradas y restaura el stock de todas las
+     * unidades removidas. Si el producto no esta en el carrito no hace nada.
      * 
      * @param id Identificador del producto a remover
      */
     public void removeProduct(String id) {
-        String temporalProductName = "";
+        Set<String> skus = skusByProductId.get(id);
+        if (skus == null) {
+            return;
+        }
+        for (String sku : new ArrayList<>(skus)) {
+            removeLine(sku);
+        }
+    }
+
+    /**
+     * Remueve una linea completa del carrito por su SKU.
+     * 
+     * @param sku SKU de la linea (el ID para productos sin servicios)
+     * @return Unidades removidas (0 si la linea no existe)
+     */
+    public int removeLine(String sku) {
+        CartItem line = items.get(sku);
+        if (line == null) {
+            return 0;
+        }
+        removeUnits(sku, line.getQuantity());
+        return line.getQuantity();
+    }
+
+    /**
+     * Remueve una unidad de una linea del carrito.
+     * 
+     * @param sku SKU de la linea
+     * @throws IllegalArgumentException si la linea no existe
+     */
+    public void removeOne(String sku) {
+        removeUnits(sku, 1);
+    }
 
-        for (Product product : products) {
-            if (product.getId().equals(id)) {
-                product.incrementStock();
-                products.remove(product);
+    /**
+     * Remueve {@code quantity} unidades de una linea en O(1).
+     * 
+     * <p>
+     * Devuelve al inventario exactamente las unidades removidas en una
+     * sola operacion atomica (nada si la reserva ya vencio, porque la rueda
+     * ya las devolvio). Si se remueven todas, la linea desaparece.
+     * </p>
+     * 
+     * @param sku      SKU de la linea
+     * @param quantity Unidades a remover
+     * @throws IllegalArgumentException si la linea no existe, la cantidad es
+     *                                  menor o igual a 0 o mayor a la de la linea
+     * @throws IllegalStateException    si la linea ya fue confirmada en una orden
+     */
+    public void removeUnits(String sku, int quantity) {
+        CartItem line = items.get(sku);
+        if (line == null) {
+            throw new IllegalArgumentException("Product not in cart: " + sku);
+        }
+        if (quantity <= 0 || quantity > line.getQuantity()) {
+            throw new IllegalArgumentException("Quantity must be between 1 and " + line.getQuantity());
+        }
+        line.getHold().release(quantity);
+
+        if (quantity == line.getQuantity()) {
+            items.remove(sku);
+            Set<String> skus = skusByProductId.get(line.getProduct().getId());
+            skus.remove(sku);
+            if (skus.isEmpty()) {
+                skusByProductId.remove(line.getProduct().getId());
             }
+        } else {
+            items.put(sku, line.withQuantityDelta(-quantity));
         }
-        System.out.println("Product removed from cart: " + temporalProductName);
+
+        totalUnits -= quantity;
+        totalPrice = totalPrice.minus(line.getUnitPrice().times(quantity));
+        Output.info(() -> "Product removed from cart: " + quantity + "x " + line.getProduct().getName());
     }
 
     /**
@@ -119,8 +302,10 @@ public class Cart {
     public void viewCart() {
         System.out.println("Total items: " + getTotalItems());
         System.out.println("Products in cart:");
-        for (Product product : products) {
-            System.out.println("- " + product.getName() + " | Price: $" + product.getPrice());
+        for (CartItem item : items.values()) {
+            String expired = item.getHold().getState() == StockHold.State.EXPIRED ? " (reservation expired)" : "";
+            System.out.println("- " + item.getQuantity() + "x " + item.getProduct().getName()
+                    + " | Price: $" + item.getUnitPrice() + expired);
         }
         System.out.println("Total price: $" + totalPrice);
     }
@@ -0,0 +1,126 @@
+package org.example.model.order;
+
+import org.example.model.Money;
+import org.example.model.product.Product;
+import org.example.service.StockHold;
+
+/**
+ * Linea del carrito: un producto y la cantidad de unidades.
+ * 
+ * <p>
+ * Es inmutable; el {@link Cart} reemplaza la linea cuando cambia la
+ * cantidad. Esto permite compartir lineas con {@link Order} sin copias
+ * defensivas.
+ * </p>
+ * 
+ * <p>
+ * El precio unitario se fija cuando se crea la linea, asi el subtotal y
+ * los totales del carrito no cambian si el precio del catalogo cambia
+ * mientras el producto esta en el carrito.
+ * </p>
+ * 
+ * <p>
+ * Las lineas creadas por el {@link Cart} llevan la {@link StockHold} que
+ * aparta sus unidades; {@link Order.OrderBuilder#build()} la confirma.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see Cart
+ */
+public final class CartItem {
+
+    /** Producto de la linea (puede ser un producto decorado) */
+    private final Product product;
+
+    /** Unidades del producto */
+    private final int quantity;
+
+    /** Precio unitario fijado al crear la linea */
+    private final Money unitPrice;
+
+    /** Reserva de las unidades (null si la linea no viene de un carrito) */
+    private final StockHold hold;
+
+    /**
+     * Crea una linea del carrito con el precio actual del producto.
+     * 
+     * @param product  Producto de la linea
+     * @param quantity Unidades (mayor a 0)
+     * @throws IllegalArgumentException si el producto es null o la cantidad <= 0
+     */
+    public CartItem(Product product, int quantity) {
+        this(product, quantity, product == null ? null : product.getUnitPrice(), null);
+    }
+
+    /**
+     * Crea una linea con un precio unitario ya pactado (ej: al reconstruir
+     * una orden guardada).
+     * 
+     * @param product   Producto de la linea
+     * @param quantity  Unidades (mayor a 0)
+     * @param unitPrice Precio unitario de la linea
+     * @throws IllegalArgumentException si algun parametro es null o la
+     *                                  cantidad <= 0
+     */
+    public CartItem(Product product, int quantity, Money unitPrice) {
+        this(product, quantity, unitPrice, null);
+        if (unitPrice == null) {
+            throw new IllegalArgumentException("Unit price cannot be null");
+        }
+    }
+
+    CartItem(Product product, int quantity, Money unitPrice, StockHold hold) {
+        if (product == null) {
+            throw new IllegalArgumentException("Product cannot be null");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+        this.product = product;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.hold = hold;
+    }
+
+    /** @return Producto de la linea */
+    public Product getProduct() {
+        return product;
+    }
+
+    /** @return Unidades del producto */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    /** @return SKU de la linea */
+    public String getSku() {
+        return product.getSku();
+    }
+
+    /** @return Precio unitario fijado en la linea */
+    public Money getUnitPrice() {
+        return unitPrice;
+    }
+
+    /** @return Reserva de las unidades, o null si la linea no tiene */
+    public StockHold getHold() {
+        return hold;
+    }
+
+    /** @return Precio unitario por cantidad */
+    public Money getSubtotal() {
+        return unitPrice.times(quantity);
+    }
+
+    /**
+     * Crea una nueva linea con la cantidad ajustada.
+     * 
+     * @param delta Unidades a sumar (negativo para restar)
+     * @return Nueva linea con la cantidad resultante
+     */
+    CartItem withQuantityDelta(int delta) {
+        return new CartItem(product, quantity + delta, unitPrice, hold);
+    }
+}
@@ -1,10 +1,28 @@
 package org.example.model.order;
 
+import org.example.model.Money;
 import org.example.model.product.Product;
+import org.example.output.Output;
+import org.example.patterns.strategy.PaymentResult;
 import org.example.patterns.strategy.PaymentStrategy;
+import org.example.service.OrderEventDispatcher;
+import org.example.service.PaymentIdempotencyStore;
+import org.example.service.StockHold;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Representa una orden de compra en el sistema.
@@ -14,21 +32,43 @@ import java.util.List;
  * </p>
  * <ul>
  * <li><b>Builder:</b> Construccion flexible via {@link OrderBuilder}</li>
- * <li><b>Observer:</b> Notifica a usuarios sobre cambios de estado</li>
+ * <li><b>Observer:</b> Notifica a usuarios sobre cambios de estado de forma
+ * asincrona via {@link OrderEventDispatcher}</li>
  * <li><b>Strategy:</b> Metodos de pago intercambiables</li>
  * </ul>
  * 
+ * <h2>Estados:</h2>
+ * <p>
+ * Las transiciones validas estan en la tabla de {@link Status} y se
+ * aplican con compare-and-set sobre el estado, sin locks: si dos hilos
+ * cambian el estado a la vez, solo uno gana y el otro recibe
+ * {@link IllegalStateException}. {@link #processPayment()} pasa primero a
+ * {@link Status#PROCESSING}, asi que de N pagos concurrentes solo uno
+ * llega a cobrar.
+ * </p>
+ * 
+ * <h2>Stock:</h2>
+ * <p>
+ * Una orden que descuenta el stock de sus lineas (reservas de un
+ * {@link Cart} confirmadas en {@link OrderBuilder#build()}, o
+ * {@link OrderBuilder#setStockReserved(boolean)}) lo devuelve al
+ * cancelarse. Una orden sin stock propio (ej: lineas sueltas) no toca el
+ * inventario.
+ * </p>
+ * 
  * <h2>Ejemplo de Uso:</h2>
  * 
  * <pre>{@code
  * Order order = new Order.OrderBuilder()
  *     .setOrderId("ORD-001")
  *     .setUser(user)
- *     .setItems(cartItems)
+ *     .setLineItems(cart.getLineItems())
  *     .setPaymentMethod(new CreditCardStrategy(...))
  *     .build();
  * 
  * order.processPayment();
+ * // o sin bloquear:
+ * order.processPaymentAsync().thenAccept(result -> ...);
  * }</pre>
  * 
  * @author Marco Vinicio Palazuelos Leon
@@ -41,11 +81,28 @@ import java.util.List;
 public class Order {
 
     /**
-     * Estados posibles de una orden.
+     * Estados posibles de una orden y sus transiciones validas.
+     * 
+     * <pre>
+     * PENDING    -&gt; PROCESSING, CANCELED
+     * PROCESSING -&gt; PAID, PENDING (pago rechazado)
+     * PAID       -&gt; SHIPPED
+     * SHIPPED    -&gt; DELIVERED
+     * DELIVERED, CANCELED: finales
+     * </pre>
+     * 
+     * <p>
+     * PAID solo se alcanza cobrando ({@link Order#processPayment()} y
+     * variantes), nunca con {@link Order#setStatus}. Una orden PAID no se
+     * cancela: no hay reembolso en {@link PaymentStrategy}, asi que
+     * cancelarla devolveria el stock quedandose con el cobro.
+     * </p>
      */
     public enum Status {
         /** Orden creada, pendiente de pago */
         PENDING,
+        /** Pago en proceso (lo controla {@link Order#processPayment()}) */
+        PROCESSING,
         /** Pago procesado exitosamente */
         PAID,
         /** Orden enviada al cliente */
@@ -53,13 +110,61 @@ public class Order {
         /** Orden entregada al cliente */
         DELIVERED,
         /** Orden cancelada */
-        CANCELED
+        CANCELED;
+
+        /** Tabla de transiciones: estado origen -> estados destino */
+        private static final Map<Status, Set<Status>> TRANSITIONS = new EnumMap<>(Status.class);
+
+        static {
+            TRANSITIONS.put(PENDING, EnumSet.of(PROCESSING, CANCELED));
+            TRANSITIONS.put(PROCESSING, EnumSet.of(PAID, PENDING));
+            TRANSITIONS.put(PAID, EnumSet.of(SHIPPED));
+            TRANSITIONS.put(SHIPPED, EnumSet.of(DELIVERED));
+            TRANSITIONS.put(DELIVERED, EnumSet.noneOf(Status.class));
+            TRANSITIONS.put(CANCELED, EnumSet.noneOf(Status.class));
+        }
+
+        /**
+         * Verifica si la tabla permite pasar de este estado a otro.
+         * 
+         * @param next Estado destino
+         * @return true si la transicion es valida
+         */
+        public boolean canTransitionTo(Status next) {
+            return next != null && TRANSITIONS.get(this).contains(next);
+        }
+    }
+
+    /** Acceso atomico a {@link #orderStatus} para las transiciones con compare-and-set */
+    private static final VarHandle ORDER_STATUS;
+
+    static {
+        try {
+            ORDER_STATUS = MethodHandles.lookup().findVarHandle(Order.class, "orderStatus", Status.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
     }
 
     // ==================== CAMPOS OBLIGATORIOS ====================
 
     /** Lista de observadores suscritos */
-    List<OrderObserver> observers = new ArrayList<>();
+    List<OrderObserver> observers = new CopyOnWriteArrayList<>();
+
+    private static final OrderChangeListener[] NO_LISTENERS = {};
+
+    /** Evento publicado cuando el pago se procesa */
+    public static final String PAID_EVENT = "Order status changed from " + Status.PENDING + " to " + Status.PAID;
+
+    /**
+     * Listeners notificados en el hilo de cada transicion. Se copia al
+     * registrar: la mayoria de las ordenes no tiene listeners y comparten
+     * el arreglo vacio.
+     */
+    private volatile OrderChangeListener[] changeListeners = NO_LISTENERS;
+
+    /** Entrega los eventos a los observadores sin bloquear a la orden */
+    OrderEventDispatcher eventDispatcher;
 
     /** Identificador unico de la orden */
     String orderId;
@@ -67,14 +172,20 @@ public class Order {
     /** Usuario propietario de la orden */
     User user;
 
-    /** Productos incluidos en la orden */
-    List<Product> items;
+    /** Lineas de la orden (producto y cantidad) */
+    List<CartItem> lineItems;
 
     /** Monto total de la orden */
-    double totalAmount;
+    Money totalAmount;
 
-    /** Estado actual de la orden */
-    Status orderStatus;
+    /** Estado actual de la orden (solo cambia con compare-and-set) */
+    volatile Status orderStatus;
+
+    /** Instante de creacion en milisegundos desde 1970 */
+    long createdAt;
+
+    /** true si la orden desconto el stock de sus lineas y lo devuelve al cancelarse */
+    boolean stockReserved;
 
     // ==================== CAMPOS OPCIONALES ====================
 
@@ -84,6 +195,9 @@ public class Order {
     /** Nota de regalo (opcional) */
     String giftNote;
 
+    /** Claves de idempotencia de los pagos (null = el registro compartido) */
+    PaymentIdempotencyStore idempotencyStore;
+
     // ==================== GETTERS ====================
 
     /** @return ID de la orden */
@@ -91,18 +205,39 @@ public class Order {
         return orderId;
     }
 
+    /** @return Instante de creacion de la orden (precision de ms) */
+    public Instant getCreatedAt() {
+        return Instant.ofEpochMilli(createdAt);
+    }
+
     /** @return Usuario propietario */
     public User getUser() {
         return user;
     }
 
-    /** @return Lista de productos */
+    /** @return Lista de productos, una entrada por unidad */
     public List<Product> getItems() {
-        return items;
+        List<Product> units = new ArrayList<>();
+        for (CartItem item : lineItems) {
+            for (int i = 0; i < item.getQuantity(); i++) {
+                units.add(item.getProduct());
+            }
+        }
+        return units;
+    }
+
+    /** @return Lineas de la orden (producto y cantidad) */
+    public List<CartItem> getLineItems() {
+        return new ArrayList<>(lineItems);
     }
 
-    /** @return Monto total */
+    /** @return Monto total en dolares (para mostrar) */
     public double getTotalAmount() {
+        return totalAmount.toDouble();
+    }
+
+    /** @return Monto total exacto */
+    public Money getTotal() {
         return totalAmount;
     }
 
@@ -121,6 +256,11 @@ public class Order {
         return giftNote;
     }
 
+    /** @return true si la orden desconto el stock de sus lineas */
+    public boolean isStockReserved() {
+        return stockReserved;
+    }
+
     /**
      * Constructor privado - usar OrderBuilder.
      * 
@@ -129,45 +269,217 @@ public class Order {
     private Order(OrderBuilder builder) {
         this.orderId = builder.orderId;
         this.user = builder.user;
-        this.items = new ArrayList<>(builder.items);
+        this.lineItems = new ArrayList<>(builder.lineItems);
         this.totalAmount = builder.totalAmount;
         this.paymentMethod = builder.paymentMethod;
         this.orderStatus = builder.orderStatus;
         this.giftNote = builder.giftNote;
+        this.idempotencyStore = builder.idempotencyStore;
+        this.createdAt = builder.createdAt != null ? builder.createdAt.toEpochMilli() : System.currentTimeMillis();
+        this.stockReserved = builder.stockReserved;
+        this.eventDispatcher = builder.eventDispatcher != null
+                ? builder.eventDispatcher
+                : OrderEventDispatcher.getInstance();
 
         subscribe(builder.user);
     }
 
     // ==================== METODOS DE PAGO ====================
 
+    /**
+     * Cambia el metodo de pago de una orden PENDING (ej: despues de un pago
+     * rechazado). La orden sigue siendo la misma, asi que conserva el stock
+     * que desconto, sus listeners y su registro en el repositorio.
+     * 
+     * <p>
+     * Toma la orden en PROCESSING mientras cambia la estrategia, igual que un
+     * pago: si otro hilo la esta pagando, el cambio falla en lugar de
+     * sustituir la estrategia a mitad del cobro. No notifica a listeners ni
+     * observadores porque el estado no cambia.
+     * </p>
+     * 
+     * @param paymentMethod Nueva estrategia de pago
+     * @throws IllegalArgumentException si la estrategia es null
+     * @throws IllegalStateException    si la orden no esta PENDING
+     */
+    public void setPaymentMethod(PaymentStrategy paymentMethod) {
+        if (paymentMethod == null) {
+            throw new IllegalArgumentException("Payment method cannot be null");
+        }
+        if (!ORDER_STATUS.compareAndSet(this, Status.PENDING, Status.PROCESSING)) {
+            throw new IllegalStateException("Order status is not PENDING");
+        }
+        this.paymentMethod = paymentMethod;
+        orderStatus = Status.PENDING;
+    }
+
     /**
      * Procesa el pago usando la estrategia configurada.
      * 
      * <p>
-     * Implementa el patron Strategy para pagos.
+     * Implementa el patron Strategy para pagos. Antes de cobrar, la orden
+     * pasa de PENDING a PROCESSING con compare-and-set: si varios hilos
+     * intentan pagar la misma orden, solo uno cobra y los demas fallan de
+     * inmediato, sin esperar. Si el pago es rechazado la orden vuelve a
+     * PENDING y se puede reintentar.
      * </p>
      * 
-     * @throws IllegalStateException    si no hay metodo de pago o estado invalido
+     * @throws IllegalStateException    si no hay metodo de pago o la orden no
+     *                                  esta PENDING (o otro hilo ya la esta pagando)
      * @throws IllegalArgumentException si el monto es invalido
      * @throws RuntimeException         si el pago falla
      */
     public void processPayment() {
+        if (!tryProcessPayment()) {
+            throw new RuntimeException("Payment failed for order: " + orderId);
+        }
+        notifyPaid(() -> notifyObservers(PAID_EVENT));
+    }
+
+    /**
+     * Procesa el pago sin bloquear al hilo que lo solicita.
+     * 
+     * <p>
+     * La orden pasa a PROCESSING de inmediato (con compare-and-set, como en
+     * {@link #processPayment()}) y el pago se solicita con
+     * {@link PaymentStrategy#payAsync}. Cuando llega la respuesta, la orden
+     * queda PAID y se notifica a listeners y observadores, o vuelve a
+     * PENDING si el pago fallo. El metodo regresa antes de que el gateway
+     * responda. Una falla al notificar un pago aprobado solo se registra:
+     * el futuro siempre termina con el resultado del pago.
+     * </p>
+     * 
+     * @return Futuro con el resultado del pago; una falla se informa en el
+     *         {@link PaymentResult}, no como excepcion
+     * @throws IllegalStateException    si no hay metodo de pago o la orden no
+     *                                  esta PENDING (o otro hilo ya la esta pagando)
+     * @throws IllegalArgumentException si el monto es invalido
+     */
+    public CompletableFuture<PaymentResult> processPaymentAsync() {
+        beginPayment();
+
+        CompletableFuture<PaymentResult> payment;
+        try {
+            payment = paymentMethod.payAsync(totalAmount);
+        } catch (RuntimeException e) {
+            payment = CompletableFuture.failedFuture(e);
+        }
+        return payment.handle((result, error) -> {
+            PaymentResult outcome = error != null ? PaymentResult.failure(error)
+                    : result != null ? result
+                    : PaymentResult.failure(PaymentResult.Reason.GATEWAY_ERROR, "No payment result");
+            // Solo la respuesta de este pago puede salir de PROCESSING
+            orderStatus = outcome.isApproved() ? Status.PAID : Status.PENDING;
+            if (outcome.isApproved()) {
+                notifyPaid(() -> notifyChangeListeners(Status.PENDING, Status.PAID));
+                notifyPaid(() -> notifyObservers(PAID_EVENT));
+            }
+            return outcome;
+        });
+    }
+
+    /**
+     * Procesa el pago con una clave de idempotencia.
+     * 
+     * <p>
+     * La primera llamada con una clave procesa el pago como
+     * {@link #processPayment()}. Si el cliente reintenta con la misma clave
+     * (ej: despues de un timeout), recibe el mismo resultado sin que la
+     * estrategia de pago se invoque otra vez: regresa si el pago se
+     * proceso o vuelve a lanzar la misma excepcion si fallo. Para
+     * reintentar un pago rechazado se usa una clave nueva. Un intento que
+     * falla antes de cobrar (sin metodo de pago, orden no PENDING) no se
+     * guarda.
+     * </p>
+     * 
+     * @param idempotencyKey Clave generada por el cliente para este intento
+     * @throws IllegalArgumentException si la clave es null o vacia, o ya se
+     *                                  uso para otra orden
+     * @throws IllegalStateException    si no hay metodo de pago o la orden no
+     *                                  esta PENDING en el primer intento
+     * @throws RuntimeException         si el pago falla
+     * @see PaymentIdempotencyStore
+     */
+    public void processPayment(String idempotencyKey) {
+        PaymentIdempotencyStore store = idempotencyStore != null
+                ? idempotencyStore
+                : PaymentIdempotencyStore.getInstance();
+        store.execute(idempotencyKey, orderId, this::beginPayment, () -> {
+            if (!completePayment()) {
+                throw new RuntimeException("Payment failed for order: " + orderId);
+            }
+            notifyPaid(() -> notifyObservers(PAID_EVENT));
+            return true;
+        });
+    }
+
+    /**
+     * Procesa el pago como {@link #processPayment()}, pero devuelve false si
+     * el pago es rechazado y no publica el evento a los observadores (los
+     * listeners de cambios si se notifican). Pensado para procesos en lote
+     * que publican los eventos juntos con {@link #notifyObserversInBatch}.
+     * 
+     * @return true si la orden quedo PAID, false si el pago fue rechazado
+     *         (la orden vuelve a PENDING)
+     * @throws IllegalStateException    si no hay metodo de pago o la orden no
+     *                                  esta PENDING (o otro hilo ya la esta pagando)
+     * @throws IllegalArgumentException si el monto es invalido
+     */
+    public boolean tryProcessPayment() {
+        beginPayment();
+        return completePayment();
+    }
+
+    /**
+     * Valida el pago y pasa la orden de PENDING a PROCESSING. Hasta aqui la
+     * estrategia de pago no se invoco.
+     * 
+     * @throws IllegalStateException    si no hay metodo de pago o la orden no
+     *                                  esta PENDING
+     * @throws IllegalArgumentException si el monto es invalido
+     */
+    private void beginPayment() {
         if (paymentMethod == null)
             throw new IllegalStateException("Payment method not set");
 
-        if (orderStatus != Status.PENDING) {
+        if (!totalAmount.isPositive()) {
+            throw new IllegalArgumentException("Amount must be greater than zero");
+        }
+
+        if (!ORDER_STATUS.compareAndSet(this, Status.PENDING, Status.PROCESSING)) {
             throw new IllegalStateException("Order status is not PENDING");
         }
+    }
 
-        if (totalAmount <= 0) {
-            throw new IllegalArgumentException("Amount must be greater than zero");
+    /**
+     * Cobra una orden en PROCESSING y la deja PAID o de vuelta en PENDING.
+     * 
+     * @return true si la orden quedo PAID
+     */
+    private boolean completePayment() {
+        boolean paid = false;
+        try {
+            paid = paymentMethod.pay(this.totalAmount);
+        } finally {
+            // Solo este hilo puede salir de PROCESSING
+            orderStatus = paid ? Status.PAID : Status.PENDING;
+        }
+        if (paid) {
+            notifyPaid(() -> notifyChangeListeners(Status.PENDING, Status.PAID));
         }
+        return paid;
+    }
 
-        if (paymentMethod.pay(this.totalAmount)) {
-            setStatus(Status.PAID);
-        } else {
-            orderStatus = Status.PENDING;
-            throw new RuntimeException("Payment failed for order: " + orderId);
+    /**
+     * Ejecuta una notificacion de un pago ya cobrado. Si falla (ej: un
+     * listener lanza o el despachador esta detenido) el error se registra:
+     * el pago no se puede deshacer y su resultado no cambia.
+     */
+    private void notifyPaid(Runnable notification) {
+        try {
+            notification.run();
+        } catch (RuntimeException e) {
+            Output.error("Notification failed for paid order " + orderId + ": " + e.getMessage());
         }
     }
 
@@ -175,16 +487,43 @@ public class Order {
 
     /**
      * Cambia el estado de la orden y notifica a los observadores.
+     * La notificacion se encola; este metodo no espera a los observadores.
+     * 
+     * <p>
+     * Solo acepta las transiciones de la tabla de {@link Status}. El estado
+     * PROCESSING lo controla {@link #processPayment()}: no se puede entrar
+     * ni salir de el con este metodo.
+     * </p>
+     * 
+     * <p>
+     * Al pasar a CANCELED (solo desde PENDING), una orden con stock
+     * propio lo devuelve al inventario. El compare-and-set garantiza que
+     * solo una cancelacion gana, asi que el stock se devuelve una vez.
+     * </p>
      * 
      * @param newStatus Nuevo estado de la orden
      * @throws IllegalArgumentException si el estado es null
+     * @throws IllegalStateException    si la transicion no es valida desde el
+     *                                  estado actual
      */
     public void setStatus(Status newStatus) {
         if (newStatus == null) {
             throw new IllegalArgumentException("Status cannot be null");
         }
-        Status oldStatus = orderStatus;
-        this.orderStatus = newStatus;
+        Status oldStatus;
+        do {
+            oldStatus = orderStatus;
+            if (oldStatus == Status.PROCESSING || newStatus == Status.PROCESSING
+                    || !oldStatus.canTransitionTo(newStatus)) {
+                throw new IllegalStateException("Invalid status transition: " + oldStatus + " -> " + newStatus);
+            }
+        } while (!ORDER_STATUS.compareAndSet(this, oldStatus, newStatus));
+        if (newStatus == Status.CANCELED && stockReserved) {
+            for (CartItem item : lineItems) {
+                item.getProduct().incrementStock(item.getQuantity());
+            }
+        }
+        notifyChangeListeners(oldStatus, newStatus);
         notifyObservers("Order status changed from " + oldStatus + " to " + newStatus);
     }
 
@@ -220,9 +559,55 @@ public class Order {
         observers.remove(user);
     }
 
+    /**
+     * Registra un listener para los cambios de estado.
+     * 
+     * @param listener Listener a registrar
+     * @throws IllegalArgumentException si el listener es null
+     */
+    public synchronized void addChangeListener(OrderChangeListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        OrderChangeListener[] current = changeListeners;
+        OrderChangeListener[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = listener;
+        changeListeners = updated;
+    }
+
+    /**
+     * Elimina un listener de cambios de estado.
+     * 
+     * @param listener Listener a eliminar
+     */
+    public synchronized void removeChangeListener(OrderChangeListener listener) {
+        OrderChangeListener[] current = changeListeners;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == listener) {
+                OrderChangeListener[] updated = new OrderChangeListener[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, i);
+                System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                changeListeners = updated.length == 0 ? NO_LISTENERS : updated;
+                return;
+            }
+        }
+    }
+
+    /** Notifica a los listeners una transicion ya aplicada. */
+    private void notifyChangeListeners(Status oldStatus, Status newStatus) {
+        for (OrderChangeListener listener : changeListeners) {
+            listener.onStatusChanged(this, oldStatus, newStatus);
+        }
+    }
+
     /**
      * Notifica a todos los observadores sobre un evento.
      * 
+     * <p>
+     * El evento se entrega de forma asincrona a los observadores suscritos
+     * en este momento, respetando el orden de los eventos de esta orden.
+     * </p>
+     * 
      * @param event Descripcion del evento
      * @throws IllegalArgumentException si el evento es null o vacio
      */
@@ -231,9 +616,34 @@ public class Order {
             throw new IllegalArgumentException("Event cannot be null or empty");
         }
 
-        for (OrderObserver observer : observers) {
-            observer.update(this, event);
+        eventDispatcher.dispatch(this, List.copyOf(observers), event);
+    }
+
+    /**
+     * Notifica el mismo evento a los observadores de varias ordenes. Encola
+     * una tarea por carril de cada despachador en vez de una por orden.
+     * 
+     * @param orders Ordenes que generaron el evento
+     * @param event  Descripcion del evento
+     * @throws IllegalArgumentException si la lista es null o el evento es
+     *                                  null o vacio
+     */
+    public static void notifyObserversInBatch(List<Order> orders, String event) {
+        if (orders == null) {
+            throw new IllegalArgumentException("Orders cannot be null");
         }
+        if (event == null || event.isEmpty()) {
+            throw new IllegalArgumentException("Event cannot be null or empty");
+        }
+        Map<OrderEventDispatcher, List<Order>> byDispatcher = new IdentityHashMap<>();
+        Map<OrderEventDispatcher, List<List<OrderObserver>>> observersByDispatcher = new IdentityHashMap<>();
+        for (Order order : orders) {
+            byDispatcher.computeIfAbsent(order.eventDispatcher, d -> new ArrayList<>()).add(order);
+            observersByDispatcher.computeIfAbsent(order.eventDispatcher, d -> new ArrayList<>())
+                    .add(List.copyOf(order.observers));
+        }
+        byDispatcher.forEach((dispatcher, batch) ->
+                dispatcher.dispatchAll(batch, observersByDispatcher.get(dispatcher), event));
     }
 
     // ==================== BUILDER ====================
@@ -252,7 +662,7 @@ public class Order {
      * Order order = new Order.OrderBuilder()
      *         .setOrderId("ORD-001")
      *         .setUser(user)
-     *         .setItems(items)
+     *         .setLineItems(cart.getLineItems())
      *         .setGiftNote("Feliz cumpleanos!")
      *         .build();
      * }</pre>
@@ -260,11 +670,15 @@ public class Order {
     public static class OrderBuilder {
         String orderId;
         User user;
-        List<Product> items;
-        double totalAmount;
+        List<CartItem> lineItems;
+        Money totalAmount;
         Order.Status orderStatus = Status.PENDING;
         PaymentStrategy paymentMethod;
         String giftNote;
+        OrderEventDispatcher eventDispatcher;
+        PaymentIdempotencyStore idempotencyStore;
+        Instant createdAt;
+        boolean stockReserved;
 
         /**
          * Establece el ID de la orden.
@@ -297,7 +711,8 @@ public class Order {
         }
 
         /**
-         * Establece los items de la orden.
+         * Establece los items de la orden, una entrada por unidad.
+         * Las unidades del mismo SKU se agrupan en una sola linea.
          * 
          * @param items Lista de productos
          * @return this para encadenamiento
@@ -307,7 +722,26 @@ public class Order {
             if (items == null || items.isEmpty()) {
                 throw new IllegalArgumentException("Items cannot be null or empty");
             }
-            this.items = new ArrayList<>(items);
+            Map<String, CartItem> lines = new LinkedHashMap<>();
+            for (Product item : items) {
+                lines.merge(item.getSku(), new CartItem(item, 1), (current, added) -> current.withQuantityDelta(1));
+            }
+            this.lineItems = new ArrayList<>(lines.values());
+            return this;
+        }
+
+        /**
+         * Establece las lineas de la orden (producto y cantidad).
+         * 
+         * @param lineItems Lineas del carrito
+         * @return this para encadenamiento
+         * @throws IllegalArgumentException si las lineas son null o vacias
+         */
+        public OrderBuilder setLineItems(List<CartItem> lineItems) {
+            if (lineItems == null || lineItems.isEmpty()) {
+                throw new IllegalArgumentException("Items cannot be null or empty");
+            }
+            this.lineItems = new ArrayList<>(lineItems);
             return this;
         }
 
@@ -316,8 +750,12 @@ public class Order {
          * 
          * @param orderStatus Estado inicial
          * @return this para encadenamiento
+         * @throws IllegalArgumentException si el estado es null o PROCESSING
          */
         public OrderBuilder setOrderStatus(Order.Status orderStatus) {
+            if (orderStatus == null || orderStatus == Status.PROCESSING) {
+                throw new IllegalArgumentException("Initial status cannot be " + orderStatus);
+            }
             this.orderStatus = orderStatus;
             return this;
         }
@@ -344,36 +782,113 @@ public class Order {
             return this;
         }
 
+        /**
+         * Establece el despachador de eventos (opcional).
+         * Por defecto se usa {@link OrderEventDispatcher#getInstance()}.
+         * 
+         * @param eventDispatcher Despachador de eventos
+         * @return this para encadenamiento
+         */
+        public OrderBuilder setEventDispatcher(OrderEventDispatcher eventDispatcher) {
+            this.eventDispatcher = eventDispatcher;
+            return this;
+        }
+
+        /**
+         * Establece el registro de claves de idempotencia (opcional).
+         * Por defecto se usa {@link PaymentIdempotencyStore#getInstance()}.
+         * 
+         * @param idempotencyStore Registro de claves de los pagos
+         * @return this para encadenamiento
+         */
+        public OrderBuilder setIdempotencyStore(PaymentIdempotencyStore idempotencyStore) {
+            this.idempotencyStore = idempotencyStore;
+            return this;
+        }
+
+        /**
+         * Indica que el stock de las lineas ya se desconto para esta orden
+         * (opcional). Lo usan quienes descuentan el stock por su cuenta,
+         * como un checkout en lote o una orden reconstruida; las lineas con
+         * reservas de un {@link Cart} lo marcan solas en {@link #build()}.
+         * 
+         * @param stockReserved true si la orden debe devolver el stock al
+         *                      cancelarse
+         * @return this para encadenamiento
+         */
+        public OrderBuilder setStockReserved(boolean stockReserved) {
+            this.stockReserved = stockReserved;
+            return this;
+        }
+
+        /**
+         * Establece el instante de creacion (opcional, por defecto el momento
+         * de {@link #build()}). Sirve para reconstruir una orden existente.
+         * 
+         * @param createdAt Instante de creacion
+         * @return this para encadenamiento
+         * @throws IllegalArgumentException si el instante es null
+         */
+        public OrderBuilder setCreatedAt(Instant createdAt) {
+            if (createdAt == null) {
+                throw new IllegalArgumentException("Creation time cannot be null");
+            }
+            this.createdAt = createdAt;
+            return this;
+        }
+
         /**
          * Construye la orden con los parametros configurados.
          * 
+         * <p>
+         * Confirma las reservas de stock de las lineas que vienen de un
+         * {@link Cart}: todas o ninguna. Reconstruir una orden con lineas
+         * ya confirmadas no descuenta el stock otra vez ni la hace duena de
+         * las unidades: solo la orden que confirmo las reservas devuelve el
+         * stock al cancelarse. Para cambiar el pago se usa
+         * {@link Order#setPaymentMethod}.
+         * </p>
+         * 
          * @return Nueva instancia de Order
-         * @throws IllegalStateException si faltan campos obligatorios
+         * @throws IllegalStateException si faltan campos obligatorios o alguna
+         *                               reserva ya vencio o fue liberada
          */
         public Order build() {
-            if (orderId == null || user == null || items == null || items.isEmpty()) {
+            if (orderId == null || user == null || lineItems == null || lineItems.isEmpty()) {
                 throw new IllegalStateException("Cannot create Order, missing required fields");
             }
 
             this.totalAmount = calculateTotal();
 
+            List<StockHold> holds = new ArrayList<>();
+            for (CartItem item : lineItems) {
+                if (item.getHold() != null) {
+                    holds.add(item.getHold());
+                }
+            }
+            boolean owner = StockHold.commitAll(holds);
+            if (owner && !holds.isEmpty() && holds.size() == lineItems.size()) {
+                // Todas las lineas vienen del carrito y esta orden las confirmo
+                this.stockReserved = true;
+            }
+
             return new Order(this);
         }
 
         /**
          * Calcula el total de la orden.
          * 
-         * @return Suma de precios de todos los items
+         * @return Suma de precio por cantidad de cada linea
          * @throws IllegalArgumentException si el total es menor o igual a 0
          */
-        private double calculateTotal() {
-            double totalAmount = 0.0;
+        private Money calculateTotal() {
+            Money totalAmount = Money.ZERO;
 
-            for (Product item : items) {
-                totalAmount += item.getPrice();
+            for (CartItem item : lineItems) {
+                totalAmount = totalAmount.plus(item.getSubtotal());
             }
 
-            if (totalAmount <= 0) {
+            if (!totalAmount.isPositive()) {
                 throw new IllegalArgumentException("Total amount must be greater than zero");
             }
 
@@ -0,0 +1,43 @@
+package org.example.model.order;
+
+/**
+ * Listener para los cambios de estado de una {@link Order}.
+ * 
+ * <p>
+ * A diferencia de {@link OrderObserver}, que recibe los eventos de forma
+ * asincrona, este listener se llama en el mismo hilo que hizo la
+ * transicion, justo despues de aplicarla. Permite que estructuras externas
+ * (por ejemplo, los indices del repositorio o el journal de ordenes) se
+ * mantengan consistentes sin esperar al despachador.
+ * </p>
+ * 
+ * <h2>Patron de Diseno:</h2>
+ * <ul>
+ * <li><b>Tipo:</b> Observer (Behavioral Pattern)</li>
+ * <li><b>Rol:</b> Observer (interfaz)</li>
+ * <li><b>Subject:</b> {@link Order}</li>
+ * </ul>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see Order#addChangeListener(OrderChangeListener)
+ */
+public interface OrderChangeListener {
+
+    /**
+     * Metodo llamado despues de una transicion de estado.
+     * 
+     * <p>
+     * Si dos hilos cambian el estado a la vez, sus notificaciones pueden
+     * llegar en otro orden. Las transiciones que se notifican siempre
+     * avanzan en el orden de {@link Order.Status} (PROCESSING no se
+     * notifica), asi que el estado mas avanzado recibido es el actual.
+     * </p>
+     * 
+     * @param order     Orden modificada
+     * @param oldStatus Estado anterior
+     * @param newStatus Estado nuevo
+     */
+    void onStatusChanged(Order order, Order.Status oldStatus, Order.Status newStatus);
+}
@@ -1,5 +1,7 @@
 package org.example.model.order;
 
+import org.example.output.Output;
+
 /**
  * Representa un usuario del sistema e implementa el patron Observer.
  * 
@@ -63,12 +65,12 @@ public class User implements OrderObserver {
      */
     @Override
     public void update(Order order, String event) {
-        System.out.println("EMAIL sent to " + email);
-        System.out.println("   To: " + name);
-        System.out.println("   Subject: Order Update - " + order.getOrderId());
-        System.out.println("   Message: " + event);
-        System.out.println("   Total: $" + order.getTotalAmount());
-        System.out.println();
+        Output.info(() -> "EMAIL sent to " + email
+                + "\n   To: " + name
+                + "\n   Subject: Order Update - " + order.getOrderId()
+                + "\n   Message: " + event
+                + "\n   Total: $" + order.getTotalAmount()
+                + "\n");
     }
 
     // ==================== GETTERS ====================
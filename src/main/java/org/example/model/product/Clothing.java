@@ -43,4 +43,12 @@ public class Clothing extends Product {
     public String getDetails() {
         return "Clothing [ID: " + getId() + ", Name: " + getName() + ", Price: $" + getPrice() + "]";
     }
+
+    /**
+     * @return "CLOTHING"
+     */
+    @Override
+    public String getType() {
+        return "CLOTHING";
+    }
 }
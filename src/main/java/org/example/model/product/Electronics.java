@@ -43,4 +43,12 @@ public class Electronics extends Product {
     public String getDetails() {
         return "Electronics [ID: " + getId() + ", Name: " + getName() + ", Price: $" + getPrice() + "]";
     }
+
+    /**
+     * @return "ELECTRONICS"
+     */
+    @Override
+    public String getType() {
+        return "ELECTRONICS";
+    }
 }
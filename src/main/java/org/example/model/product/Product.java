@@ -1,5 +1,12 @@
 package org.example.model.product;
 
+import org.example.model.Money;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * Clase abstracta base para todos los productos del sistema.
  * 
@@ -29,15 +36,29 @@ public abstract class Product {
     /** Nombre del producto */
     private String name;
 
-    /** Precio del producto en dolares */
-    private double price;
+    /** Precio del producto en dolares (punto fijo, centavos) */
+    private volatile Money price;
 
-    /** Cantidad disponible en inventario */
-    private int stock;
+    /** Cantidad disponible en inventario (modificada solo via CAS) */
+    private volatile int stock;
 
     /** Categoria del producto */
     private String category;
 
+    /** Listeners notificados cuando cambian los datos del producto */
+    private final List<ProductChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    /** Acceso atomico (compare-and-set) al campo stock */
+    private static final VarHandle STOCK;
+
+    static {
+        try {
+            STOCK = MethodHandles.lookup().findVarHandle(Product.class, "stock", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     /**
      * Constructor para crear un nuevo producto.
      * 
@@ -48,6 +69,19 @@ public abstract class Product {
      * @param category Categoria del producto
      */
     public Product(String id, String name, double price, int stock, String category) {
+        this(id, name, Money.of(price), stock, category);
+    }
+
+    /**
+     * Constructor para subclases que ya tienen el precio exacto.
+     * 
+     * @param id       Identificador unico del producto
+     * @param name     Nombre descriptivo del producto
+     * @param price    Precio exacto
+     * @param stock    Cantidad inicial en inventario
+     * @param category Categoria del producto
+     */
+    protected Product(String id, String name, Money price, int stock, String category) {
         this.id = id;
         this.name = name;
         this.price = price;
@@ -66,6 +100,17 @@ public abstract class Product {
         return id;
     }
 
+    /**
+     * Obtiene el SKU del producto: identifica la variante vendible.
+     * Para un producto simple coincide con el ID; los decoradores le
+     * agregan sus servicios para distinguir la variante en el carrito.
+     * 
+     * @return SKU del producto
+     */
+    public String getSku() {
+        return getId();
+    }
+
     /**
      * Obtiene el stock actual.
      * 
@@ -90,6 +135,16 @@ public abstract class Product {
      * @return Precio en dolares
      */
     public double getPrice() {
+        return getUnitPrice().toDouble();
+    }
+
+    /**
+     * Obtiene el precio unitario exacto del producto.
+     * Los decoradores sobrescriben este metodo para agregar sus costos.
+     * 
+     * @return Precio unitario en punto fijo
+     */
+    public Money getUnitPrice() {
         return price;
     }
 
@@ -101,6 +156,15 @@ public abstract class Product {
      */
     public abstract String getDetails();
 
+    /**
+     * Obtiene el tipo del producto, tal como esta registrado en
+     * {@code FactoryRegistry} (ej: "ELECTRONICS"). Permite volver a crear
+     * el producto con la fabrica correcta al restaurar el catalogo.
+     * 
+     * @return Tipo del producto
+     */
+    public abstract String getType();
+
     /**
      * Obtiene la categoria del producto.
      * 
@@ -117,7 +181,21 @@ public abstract class Product {
      * Usado cuando se remueve un producto del carrito.
      */
     public void incrementStock() {
-        this.stock += 1;
+        incrementStock(1);
+    }
+
+    /**
+     * Incrementa el stock en la cantidad indicada de forma atomica.
+     * 
+     * @param quantity Unidades a devolver al inventario
+     * @throws IllegalArgumentException si la cantidad es menor o igual a 0
+     */
+    public void incrementStock(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+        STOCK.getAndAdd(this, quantity);
+        notifyStockChanged(quantity);
     }
 
     /**
@@ -127,19 +205,192 @@ public abstract class Product {
      * @throws IllegalStateException si el stock es 0
      */
     public void decrementStock() {
-        if (this.stock > 0) {
-            this.stock -= 1;
-        } else {
+        if (!tryDecrement(1)) {
             throw new IllegalStateException("Stock cannot be negative");
         }
     }
 
     /**
-     * Establece un nuevo precio para el producto.
+     * Intenta reservar {@code quantity} unidades en una sola operacion atomica.
+     * 
+     * <p>
+     * Usa un ciclo compare-and-set sin locks: si dos hilos compiten por las
+     * ultimas unidades, solo uno lo logra y el stock nunca queda negativo.
+     * </p>
+     * 
+     * @param quantity Unidades a reservar
+     * @return true si se reservaron todas las unidades, false si no hay
+     *         stock suficiente (en ese caso el stock no cambia)
+     * @throws IllegalArgumentException si la cantidad es menor o igual a 0
+     */
+    public boolean tryDecrement(int quantity) {
+        if (!takeStock(quantity)) {
+            return false;
+        }
+        notifyStockChanged(-quantity);
+        return true;
+    }
+
+    /**
+     * Aparta unidades para una reserva temporal (ej: una linea del carrito).
+     * 
+     * <p>
+     * Descuenta el stock igual que {@link #tryDecrement}, pero los
+     * listeners reciben {@link ProductChangeListener#onStockHeld}: la venta
+     * aun no es definitiva. Las unidades terminan con
+     * {@link #releaseHold} (vuelven al stock) o {@link #commitHold} (la
+     * venta se confirma).
+     * </p>
+     * 
+     * @param quantity Unidades a apartar
+     * @return true si se apartaron todas las unidades, false si no hay
+     *         stock suficiente (en ese caso el stock no cambia)
+     * @throws IllegalArgumentException si la cantidad es menor o igual a 0
+     */
+    public boolean tryHold(int quantity) {
+        if (!takeStock(quantity)) {
+            return false;
+        }
+        notifyStockHeld(quantity);
+        return true;
+    }
+
+    /**
+     * Devuelve al stock unidades apartadas con {@link #tryHold}.
+     * 
+     * @param quantity Unidades a devolver
+     * @throws IllegalArgumentException si la cantidad es menor o igual a 0
+     */
+    public void releaseHold(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+        STOCK.getAndAdd(this, quantity);
+        notifyStockHeld(-quantity);
+    }
+
+    /**
+     * Confirma la venta de unidades apartadas con {@link #tryHold}. El
+     * stock no cambia (ya estaban descontadas); los listeners reciben
+     * {@link ProductChangeListener#onHoldCommitted}.
+     * 
+     * @param quantity Unidades vendidas
+     * @throws IllegalArgumentException si la cantidad es menor o igual a 0
+     */
+    public void commitHold(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+        notifyHoldCommitted(quantity);
+    }
+
+    /** Resta unidades con compare-and-set; el stock nunca queda negativo. */
+    private boolean takeStock(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+        int current;
+        do {
+            current = stock;
+            if (current < quantity) {
+                return false;
+            }
+        } while (!STOCK.compareAndSet(this, current, current - quantity));
+        return true;
+    }
+
+    /**
+     * Establece un nuevo precio para el producto, redondeado al centavo.
      * 
      * @param price Nuevo precio en dolares
      */
     public void setPrice(double price) {
+        setPrice(Money.of(price));
+    }
+
+    /**
+     * Establece un nuevo precio exacto para el producto.
+     * Notifica a los listeners registrados con el precio anterior y el nuevo.
+     * Sincronizado para que los listeners reciban los cambios en orden.
+     * 
+     * @param price Nuevo precio
+     * @throws IllegalArgumentException si el precio es null
+     */
+    public synchronized void setPrice(Money price) {
+        if (price == null) {
+            throw new IllegalArgumentException("Price cannot be null");
+        }
+        Money oldPrice = this.price;
         this.price = price;
+        notifyPriceChanged(oldPrice, price);
+    }
+
+    // ==================== METODOS OBSERVER ====================
+
+    /**
+     * Notifica a los listeners un cambio de precio ya aplicado.
+     * 
+     * @param oldPrice Precio anterior
+     * @param newPrice Precio nuevo
+     */
+    protected final void notifyPriceChanged(Money oldPrice, Money newPrice) {
+        for (ProductChangeListener listener : changeListeners) {
+            listener.onPriceChanged(this, oldPrice, newPrice);
+        }
+    }
+
+    /**
+     * Notifica a los listeners un cambio de stock ya aplicado.
+     * 
+     * @param delta Unidades sumadas (positivo) o restadas (negativo)
+     */
+    protected final void notifyStockChanged(int delta) {
+        for (ProductChangeListener listener : changeListeners) {
+            listener.onStockChanged(this, delta);
+        }
+    }
+
+    /**
+     * Notifica a los listeners unidades apartadas o devueltas por una reserva.
+     * 
+     * @param delta Unidades apartadas (positivo) o devueltas (negativo)
+     */
+    protected final void notifyStockHeld(int delta) {
+        for (ProductChangeListener listener : changeListeners) {
+            listener.onStockHeld(this, delta);
+        }
+    }
+
+    /**
+     * Notifica a los listeners la venta confirmada de unidades apartadas.
+     * 
+     * @param quantity Unidades vendidas
+     */
+    protected final void notifyHoldCommitted(int quantity) {
+        for (ProductChangeListener listener : changeListeners) {
+            listener.onHoldCommitted(this, quantity);
+        }
+    }
+
+    /**
+     * Registra un listener de cambios del producto.
+     * 
+     * @param listener Listener a registrar
+     * @throws IllegalArgumentException si el listener es null
+     */
+    public void addChangeListener(ProductChangeListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Elimina un listener de cambios del producto.
+     * 
+     * @param listener Listener a eliminar
+     */
+    public void removeChangeListener(ProductChangeListener listener) {
+        changeListeners.remove(listener);
     }
 }
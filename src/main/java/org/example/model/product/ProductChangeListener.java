@@ -0,0 +1,81 @@
+package org.example.model.product;
+
+import org.example.model.Money;
+
+/**
+ * Listener para cambios en los datos de un {@link Product}.
+ * 
+ * <p>
+ * Permite que estructuras externas (por ejemplo, los indices del
+ * catalogo) se mantengan consistentes cuando un producto cambia
+ * despues de haber sido registrado.
+ * </p>
+ * 
+ * <h2>Patron de Diseno:</h2>
+ * <ul>
+ * <li><b>Tipo:</b> Observer (Behavioral Pattern)</li>
+ * <li><b>Rol:</b> Observer (interfaz)</li>
+ * <li><b>Subject:</b> {@link Product}</li>
+ * </ul>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see Product#addChangeListener(ProductChangeListener)
+ */
+public interface ProductChangeListener {
+
+    /**
+     * Metodo llamado despues de que el precio del producto cambia.
+     * 
+     * @param product  Producto modificado
+     * @param oldPrice Precio anterior
+     * @param newPrice Precio nuevo
+     */
+    void onPriceChanged(Product product, Money oldPrice, Money newPrice);
+
+    /**
+     * Metodo llamado despues de un cambio atomico de stock.
+     * 
+     * <p>
+     * Se reporta la diferencia y no el valor final: si dos hilos cambian el
+     * stock a la vez, sus notificaciones pueden llegar en otro orden, pero
+     * la suma de las diferencias siempre es correcta.
+     * </p>
+     * 
+     * @param product Producto modificado
+     * @param delta   Unidades sumadas (positivo) o restadas (negativo)
+     */
+    default void onStockChanged(Product product, int delta) {
+    }
+
+    /**
+     * Metodo llamado despues de que una reserva aparta o devuelve unidades
+     * ({@link Product#tryHold}, {@link Product#releaseHold}).
+     * 
+     * <p>
+     * El stock disponible cambio, pero la venta no es definitiva. Por
+     * defecto se trata como un cambio de stock de {@code -delta}; un
+     * listener que persiste el inventario puede ignorarlo y registrar solo
+     * {@link #onHoldCommitted}, asi las unidades apartadas nunca se pierden
+     * si el proceso se reinicia con reservas abiertas.
+     * </p>
+     * 
+     * @param product Producto modificado
+     * @param delta   Unidades apartadas (positivo) o devueltas al stock
+     *                (negativo)
+     */
+    default void onStockHeld(Product product, int delta) {
+        onStockChanged(product, -delta);
+    }
+
+    /**
+     * Metodo llamado cuando se confirma la venta de unidades apartadas
+     * ({@link Product#commitHold}). El stock disponible no cambia.
+     * 
+     * @param product  Producto modificado
+     * @param quantity Unidades vendidas
+     */
+    default void onHoldCommitted(Product product, int quantity) {
+    }
+}
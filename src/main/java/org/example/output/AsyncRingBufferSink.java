@@ -0,0 +1,231 @@
+package org.example.output;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Destino asincrono respaldado por un buffer circular acotado.
+ * 
+ * <p>
+ * Los hilos que generan mensajes solo los copian al buffer; un hilo
+ * escritor dedicado los vacia en lotes y hace una sola escritura a la
+ * consola por lote. Asi el costo de {@code System.out} (sincronizado y
+ * con flush por linea) sale del camino critico.
+ * </p>
+ * 
+ * <h2>Garantias:</h2>
+ * <ul>
+ * <li><b>Sin perdida:</b> si el buffer esta lleno, {@link #write} espera a
+ * que haya espacio (backpressure) en lugar de descartar mensajes.</li>
+ * <li><b>Orden:</b> los mensajes de un mismo hilo se escriben en el orden
+ * en que se generaron.</li>
+ * <li><b>Cierre:</b> despues de {@link #close()} los mensajes se escriben
+ * de forma sincrona, para no perder los que lleguen durante el apagado.</li>
+ * </ul>
+ * 
+ * <h2>Ejemplo de Uso:</h2>
+ * 
+ * <pre>{@code
+ * AsyncRingBufferSink sink = new AsyncRingBufferSink(8192);
+ * Output.setSink(sink);
+ * Output.info("Product added to cart"); // regresa sin esperar a la consola
+ * sink.flush();                          // espera la escritura
+ * }</pre>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+public class AsyncRingBufferSink implements OutputSink {
+
+    /** Nivel de cada posicion del buffer */
+    private final OutputLevel[] levels;
+
+    /** Mensaje de cada posicion del buffer */
+    private final String[] messages;
+
+    /** Flujo para mensajes normales */
+    private final PrintStream out;
+
+    /** Flujo para errores */
+    private final PrintStream err;
+
+    /** Protege el buffer y los contadores */
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition written = lock.newCondition();
+
+    /** Posicion del mensaje mas antiguo */
+    private int head;
+
+    /** Mensajes en el buffer */
+    private int count;
+
+    /** Mensajes aceptados desde la creacion */
+    private long publishedCount;
+
+    /** Mensajes ya escritos en el flujo */
+    private long writtenCount;
+
+    /** true despues de {@link #close()} */
+    private boolean closed;
+
+    /** Hilo que vacia el buffer */
+    private final Thread writer;
+
+    /**
+     * Crea un destino asincrono que escribe en {@code System.out} y
+     * {@code System.err}.
+     * 
+     * @param capacity Numero maximo de mensajes pendientes
+     * @throws IllegalArgumentException si la capacidad es menor a 1
+     */
+    public AsyncRingBufferSink(int capacity) {
+        this(capacity, System.out, System.err);
+    }
+
+    /**
+     * Crea un destino asincrono que escribe en los flujos indicados.
+     * 
+     * @param capacity Numero maximo de mensajes pendientes
+     * @param out      Flujo para mensajes normales
+     * @param err      Flujo para errores
+     * @throws IllegalArgumentException si la capacidad es menor a 1 o algun
+     *                                  flujo es null
+     */
+    public AsyncRingBufferSink(int capacity, PrintStream out, PrintStream err) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        if (out == null || err == null) {
+            throw new IllegalArgumentException("Output streams cannot be null");
+        }
+        this.levels = new OutputLevel[capacity];
+        this.messages = new String[capacity];
+        this.out = out;
+        this.err = err;
+        this.writer = Thread.ofPlatform().daemon().name("output-writer").start(this::runWriter);
+    }
+
+    @Override
+    public void write(OutputLevel level, String message) {
+        lock.lock();
+        try {
+            if (closed) {
+                writeDirect(level, message);
+                return;
+            }
+            while (count == messages.length) {
+                notFull.awaitUninterruptibly();
+                if (closed) {
+                    writeDirect(level, message);
+                    return;
+                }
+            }
+            int tail = (head + count) % messages.length;
+            levels[tail] = level;
+            messages[tail] = message;
+            count++;
+            publishedCount++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Espera a que se escriban los mensajes aceptados hasta ahora.
+     */
+    @Override
+    public void flush() {
+        lock.lock();
+        try {
+            long target = publishedCount;
+            while (writtenCount < target && writer.isAlive()) {
+                written.await(100, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Escribe los mensajes pendientes y detiene el hilo escritor.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signal();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ==================== HILO ESCRITOR ====================
+
+    private void runWriter() {
+        StringBuilder outBatch = new StringBuilder();
+        StringBuilder errBatch = new StringBuilder();
+        while (true) {
+            long batchEnd;
+            lock.lock();
+            try {
+                while (count == 0 && !closed) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (count == 0) {
+                    return;
+                }
+                // Copiar el lote completo y liberar el buffer antes de escribir
+                for (int i = 0; i < count; i++) {
+                    int slot = (head + i) % messages.length;
+                    (levels[slot] == OutputLevel.ERROR ? errBatch : outBatch).append(messages[slot]).append('\n');
+                    levels[slot] = null;
+                    messages[slot] = null;
+                }
+                head = (head + count) % messages.length;
+                count = 0;
+                batchEnd = publishedCount;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            printBatch(out, outBatch);
+            printBatch(err, errBatch);
+
+            lock.lock();
+            try {
+                writtenCount = batchEnd;
+                written.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static void printBatch(PrintStream stream, StringBuilder batch) {
+        if (batch.length() > 0) {
+            stream.print(batch);
+            stream.flush();
+            batch.setLength(0);
+        }
+    }
+
+    private void writeDirect(OutputLevel level, String message) {
+        (level == OutputLevel.ERROR ? err : out).println(message);
+    }
+}
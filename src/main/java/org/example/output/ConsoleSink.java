@@ -0,0 +1,56 @@
+package org.example.output;
+
+import java.io.PrintStream;
+
+/**
+ * Destino sincrono: escribe cada mensaje en la consola en el hilo que
+ * lo genera.
+ * 
+ * <p>
+ * Es el modo por defecto, porque conserva el orden exacto entre los
+ * mensajes y el menu interactivo. Los mensajes {@link OutputLevel#ERROR}
+ * van al flujo de error.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+public class ConsoleSink implements OutputSink {
+
+    /** Flujo para mensajes normales (null = System.out al momento de escribir) */
+    private final PrintStream out;
+
+    /** Flujo para errores (null = System.err al momento de escribir) */
+    private final PrintStream err;
+
+    /**
+     * Crea un destino que escribe en {@code System.out} y {@code System.err}.
+     */
+    public ConsoleSink() {
+        this(null, null);
+    }
+
+    /**
+     * Crea un destino que escribe en los flujos indicados.
+     * 
+     * @param out Flujo para mensajes normales
+     * @param err Flujo para errores
+     */
+    public ConsoleSink(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    @Override
+    public void write(OutputLevel level, String message) {
+        streamFor(level).println(message);
+    }
+
+    private PrintStream streamFor(OutputLevel level) {
+        if (level == OutputLevel.ERROR) {
+            return err != null ? err : System.err;
+        }
+        return out != null ? out : System.out;
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.output;
+
+/**
+ * Destino que descarta todos los mensajes.
+ * 
+ * <p>
+ * Pensado para benchmarks y pruebas de carga: con
+ * {@code -Dshoptech.output=none} {@link Output#isEnabled} regresa false,
+ * asi que los mensajes que se pasan como {@link java.util.function.Supplier}
+ * ni siquiera se construyen. Los que se pasan como {@code String} ya
+ * concatenado solo se descartan.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+public enum NoOpSink implements OutputSink {
+
+    /** Instancia unica */
+    INSTANCE;
+
+    @Override
+    public void write(OutputLevel level, String message) {
+    }
+
+    @Override
+    public boolean isActive() {
+        return false;
+    }
+}
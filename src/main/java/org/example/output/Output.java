@@ -0,0 +1,190 @@
+package org.example.output;
+
+import org.example.config.ConfigurationManager;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Punto de acceso unico a la salida de la aplicacion.
+ * 
+ * <p>
+ * Las clases del dominio (carrito, observadores, estrategias de pago,
+ * contabilidad) escriben sus mensajes aqui en lugar de usar
+ * {@code System.out} directamente. El destino ({@link OutputSink}) y el
+ * nivel minimo se eligen al arrancar, sin cambiar codigo:
+ * </p>
+ * 
+ * <ul>
+ * <li>{@code -Dshoptech.output=console|async|none} (o {@code output.mode}
+ * en {@link ConfigurationManager}). Por defecto {@code console}.</li>
+ * <li>{@code -Dshoptech.output.level=DEBUG|INFO|WARN|ERROR} (o
+ * {@code output.level}). Por defecto {@code INFO}.</li>
+ * <li>{@code output.buffer.capacity}: tamano del buffer del modo
+ * {@code async}.</li>
+ * </ul>
+ * 
+ * <p>
+ * Un mensaje que concatena valores conviene pasarlo como
+ * {@link Supplier}: si el nivel no esta habilitado o el destino no esta
+ * activo (modo {@code none}) no se construye. Un {@code String} ya
+ * concatenado se construye siempre, aunque despues se descarte.
+ * </p>
+ * 
+ * <h2>Ejemplo de Uso:</h2>
+ * 
+ * <pre>{@code
+ * Output.info("Import finished");                 // texto fijo
+ * Output.info(() -> "Product added to cart: " + name); // solo se construye si se escribe
+ * Output.flush();                                   // antes de volver al menu
+ * }</pre>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see OutputSink
+ */
+public final class Output {
+
+    /** Destino actual */
+    private static volatile OutputSink sink;
+
+    /** Nivel minimo que se escribe */
+    private static volatile OutputLevel minLevel;
+
+    static {
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        minLevel = OutputLevel.valueOf(setting("shoptech.output.level", config.getConfig("output.level"))
+                .toUpperCase(Locale.ROOT));
+        String mode = setting("shoptech.output", config.getConfig("output.mode")).toLowerCase(Locale.ROOT);
+        sink = switch (mode) {
+            case "console" -> new ConsoleSink();
+            case "none" -> NoOpSink.INSTANCE;
+            case "async" -> {
+                AsyncRingBufferSink async = new AsyncRingBufferSink(
+                        Integer.parseInt(config.getConfig("output.buffer.capacity")));
+                Runtime.getRuntime().addShutdownHook(new Thread(async::close, "output-shutdown"));
+                yield async;
+            }
+            default -> throw new IllegalStateException("Unknown output mode: " + mode);
+        };
+    }
+
+    private Output() {
+    }
+
+    // ==================== CONFIGURACION ====================
+
+    /**
+     * Reemplaza el destino de los mensajes. El destino anterior se vacia
+     * pero no se cierra.
+     * 
+     * @param newSink Nuevo destino
+     * @return Destino anterior
+     * @throws IllegalArgumentException si el destino es null
+     */
+    public static OutputSink setSink(OutputSink newSink) {
+        if (newSink == null) {
+            throw new IllegalArgumentException("Output sink cannot be null");
+        }
+        OutputSink previous = sink;
+        previous.flush();
+        sink = newSink;
+        return previous;
+    }
+
+    /** @return Destino actual */
+    public static OutputSink getSink() {
+        return sink;
+    }
+
+    /**
+     * @param level Nivel minimo a escribir
+     * @throws IllegalArgumentException si el nivel es null
+     */
+    public static void setLevel(OutputLevel level) {
+        if (level == null) {
+            throw new IllegalArgumentException("Output level cannot be null");
+        }
+        minLevel = level;
+    }
+
+    /** @return Nivel minimo a escribir */
+    public static OutputLevel getLevel() {
+        return minLevel;
+    }
+
+    /**
+     * @param level Nivel a consultar
+     * @return true si un mensaje de ese nivel se escribiria
+     */
+    public static boolean isEnabled(OutputLevel level) {
+        return level.compareTo(minLevel) >= 0 && sink.isActive();
+    }
+
+    // ==================== ESCRITURA ====================
+
+    /**
+     * @param level   Nivel del mensaje
+     * @param message Mensaje
+     */
+    public static void log(OutputLevel level, String message) {
+        if (isEnabled(level)) {
+            sink.write(level, message);
+        }
+    }
+
+    /**
+     * Escribe un mensaje que solo se construye si el nivel esta habilitado.
+     * 
+     * @param level   Nivel del mensaje
+     * @param message Generador del mensaje
+     */
+    public static void log(OutputLevel level, Supplier<String> message) {
+        if (isEnabled(level)) {
+            sink.write(level, message.get());
+        }
+    }
+
+    /** @param message Mensaje de diagnostico */
+    public static void debug(String message) {
+        log(OutputLevel.DEBUG, message);
+    }
+
+    /** @param message Mensaje normal */
+    public static void info(String message) {
+        log(OutputLevel.INFO, message);
+    }
+
+    /** @param message Generador de un mensaje normal (puede ser de varias lineas) */
+    public static void info(Supplier<String> message) {
+        log(OutputLevel.INFO, message);
+    }
+
+    /** @param message Advertencia */
+    public static void warn(String message) {
+        log(OutputLevel.WARN, message);
+    }
+
+    /** @param message Generador de una advertencia */
+    public static void warn(Supplier<String> message) {
+        log(OutputLevel.WARN, message);
+    }
+
+    /** @param message Error */
+    public static void error(String message) {
+        log(OutputLevel.ERROR, message);
+    }
+
+    /**
+     * Espera a que los mensajes generados hasta ahora esten escritos.
+     */
+    public static void flush() {
+        sink.flush();
+    }
+
+    private static String setting(String property, String configured) {
+        String value = System.getProperty(property);
+        return value != null && !value.isBlank() ? value : configured;
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.output;
+
+/**
+ * Niveles de severidad de los mensajes de salida, de menor a mayor.
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see Output
+ */
+public enum OutputLevel {
+    /** Detalle de diagnostico */
+    DEBUG,
+    /** Mensajes normales de la aplicacion */
+    INFO,
+    /** Situaciones inesperadas pero recuperables */
+    WARN,
+    /** Errores */
+    ERROR
+}
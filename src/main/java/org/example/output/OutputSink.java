@@ -0,0 +1,53 @@
+package org.example.output;
+
+/**
+ * Destino de los mensajes de salida de la aplicacion (Patron Strategy).
+ * 
+ * <p>
+ * Permite cambiar como se escriben los mensajes (consola sincrona,
+ * buffer asincrono o descartarlos) sin modificar las clases que los
+ * generan. Cada llamada a {@link #write} es un mensaje completo, que
+ * puede ocupar varias lineas y no se intercala con otros.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see Output
+ * @see ConsoleSink
+ * @see AsyncRingBufferSink
+ * @see NoOpSink
+ */
+public interface OutputSink {
+
+    /**
+     * Escribe un mensaje.
+     * 
+     * @param level   Nivel del mensaje
+     * @param message Mensaje completo (sin salto de linea final)
+     */
+    void write(OutputLevel level, String message);
+
+    /**
+     * Indica si el destino escribe algo. Permite evitar construir
+     * mensajes que se van a descartar.
+     * 
+     * @return true si los mensajes se escriben
+     */
+    default boolean isActive() {
+        return true;
+    }
+
+    /**
+     * Espera a que los mensajes aceptados hasta ahora esten escritos.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Escribe los mensajes pendientes y libera los recursos del destino.
+     */
+    default void close() {
+        flush();
+    }
+}
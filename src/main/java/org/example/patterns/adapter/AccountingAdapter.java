@@ -1,6 +1,7 @@
 package org.example.patterns.adapter;
 
 import org.example.model.order.Order;
+import org.example.output.Output;
 
 /**
  * Adaptador que conecta el sistema moderno con el sistema legacy.
@@ -73,7 +74,7 @@ public class AccountingAdapter implements AccountingService {
         double amount = order.getTotalAmount();
 
         // Mostrar traduccion
-        System.out.println("ADAPTER: Translating logSale() -> registrarVenta()");
+        Output.info("ADAPTER: Translating logSale() -> registrarVenta()");
 
         // Llamar al sistema legacy
         legacyAccountingSystem.registrarVenta(orderId, customerName, amount);
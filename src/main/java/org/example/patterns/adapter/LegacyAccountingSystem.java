@@ -1,6 +1,7 @@
 package org.example.patterns.adapter;
 
 import org.example.model.order.Order;
+import org.example.output.Output;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -56,14 +57,15 @@ public class LegacyAccountingSystem {
         VentaLegacy venta = new VentaLegacy(idOrden, nombreCliente, monto);
         recordedSales.add(venta);
 
-        System.out.println("═══════════════════════════════════════");
-        System.out.println(" SISTEMA LEGACY - Contabilidad");
-        System.out.println("Venta registrada exitosamente");
-        System.out.println("ID Orden: " + idOrden);
-        System.out.println("Cliente: " + nombreCliente);
-        System.out.println("Monto: $" + monto);
-        System.out.println("Total ventas: " + recordedSales.size());
-        System.out.println("═══════════════════════════════════════");
+        int totalVentas = recordedSales.size();
+        Output.info(() -> "═══════════════════════════════════════"
+                + "\n SISTEMA LEGACY - Contabilidad"
+                + "\nVenta registrada exitosamente"
+                + "\nID Orden: " + idOrden
+                + "\nCliente: " + nombreCliente
+                + "\nMonto: $" + monto
+                + "\nTotal ventas: " + totalVentas
+                + "\n═══════════════════════════════════════");
     }
 
     /**
@@ -1,5 +1,6 @@
 package org.example.patterns.decorator;
 
+import org.example.model.Money;
 import org.example.model.product.Product;
 
 /**
@@ -25,7 +26,7 @@ import org.example.model.product.Product;
 public class GiftWrapDecorator extends ProductDecorator {
 
     /** Costo del envoltorio de regalo */
-    private final double GIFT_WRAP_COST = 10.00;
+    private final Money GIFT_WRAP_COST = Money.of(10.00);
 
     /**
      * Crea un decorador de envoltorio para el producto.
@@ -41,8 +42,9 @@ public class GiftWrapDecorator extends ProductDecorator {
      * 
      * @return Precio original + $10.00
      */
-    public double getPrice() {
-        return wrappedProduct.getPrice() + GIFT_WRAP_COST;
+    @Override
+    public Money getUnitPrice() {
+        return wrappedProduct.getUnitPrice().plus(GIFT_WRAP_COST);
     }
 
     /**
@@ -53,4 +55,12 @@ public class GiftWrapDecorator extends ProductDecorator {
     public String getDetails() {
         return wrappedProduct.getDetails() + "Includes gift wrapping.";
     }
+
+    /**
+     * @return Codigo del servicio de envoltorio
+     */
+    @Override
+    protected String getServiceCode() {
+        return "GIFTWRAP";
+    }
 }
@@ -1,5 +1,6 @@
 package org.example.patterns.decorator;
 
+import org.example.model.Money;
 import org.example.model.product.Product;
 
 /**
@@ -52,6 +53,21 @@ public abstract class ProductDecorator extends Product {
         return wrappedProduct.getId();
     }
 
+    /**
+     * @return SKU del producto envuelto mas el codigo de este servicio
+     */
+    @Override
+    public String getSku() {
+        return wrappedProduct.getSku() + "+" + getServiceCode();
+    }
+
+    /**
+     * Codigo corto del servicio agregado por el decorador.
+     * 
+     * @return Codigo del servicio (ej: "WARRANTY")
+     */
+    protected abstract String getServiceCode();
+
     /**
      * @return Stock del producto envuelto
      */
@@ -59,6 +75,58 @@ public abstract class ProductDecorator extends Product {
         return wrappedProduct.getStock();
     }
 
+    /**
+     * Reserva stock sobre el producto envuelto, que es el dueno del inventario.
+     * 
+     * @param quantity Unidades a reservar
+     * @return true si se reservaron todas las unidades
+     */
+    @Override
+    public boolean tryDecrement(int quantity) {
+        return wrappedProduct.tryDecrement(quantity);
+    }
+
+    /**
+     * Devuelve stock al producto envuelto.
+     * 
+     * @param quantity Unidades a devolver
+     */
+    @Override
+    public void incrementStock(int quantity) {
+        wrappedProduct.incrementStock(quantity);
+    }
+
+    /**
+     * Aparta stock del producto envuelto para una reserva.
+     * 
+     * @param quantity Unidades a apartar
+     * @return true si se apartaron todas las unidades
+     */
+    @Override
+    public boolean tryHold(int quantity) {
+        return wrappedProduct.tryHold(quantity);
+    }
+
+    /**
+     * Devuelve stock apartado al producto envuelto.
+     * 
+     * @param quantity Unidades a devolver
+     */
+    @Override
+    public void releaseHold(int quantity) {
+        wrappedProduct.releaseHold(quantity);
+    }
+
+    /**
+     * Confirma la venta de stock apartado del producto envuelto.
+     * 
+     * @param quantity Unidades vendidas
+     */
+    @Override
+    public void commitHold(int quantity) {
+        wrappedProduct.commitHold(quantity);
+    }
+
     /**
      * @return Nombre del producto envuelto
      */
@@ -69,8 +137,9 @@ public abstract class ProductDecorator extends Product {
     /**
      * @return Precio del producto (puede ser modificado por subclases)
      */
-    public double getPrice() {
-        return wrappedProduct.getPrice();
+    @Override
+    public Money getUnitPrice() {
+        return wrappedProduct.getUnitPrice();
     }
 
     /**
@@ -79,4 +148,12 @@ public abstract class ProductDecorator extends Product {
     public String getDetails() {
         return wrappedProduct.getDetails();
     }
+
+    /**
+     * @return Tipo del producto decorado
+     */
+    @Override
+    public String getType() {
+        return wrappedProduct.getType();
+    }
 }
@@ -1,5 +1,6 @@
 package org.example.patterns.decorator;
 
+import org.example.model.Money;
 import org.example.model.product.Product;
 
 /**
@@ -25,7 +26,7 @@ import org.example.model.product.Product;
 public class WarrantyDecorator extends ProductDecorator {
 
     /** Costo de la garantia extendida */
-    private final double WARRANTY_COST = 50.00;
+    private final Money WARRANTY_COST = Money.of(50.00);
 
     /**
      * Crea un decorador de garantia para el producto.
@@ -41,8 +42,9 @@ public class WarrantyDecorator extends ProductDecorator {
      * 
      * @return Precio original + $50.00
      */
-    public double getPrice() {
-        return wrappedProduct.getPrice() + WARRANTY_COST;
+    @Override
+    public Money getUnitPrice() {
+        return wrappedProduct.getUnitPrice().plus(WARRANTY_COST);
     }
 
     /**
@@ -53,4 +55,12 @@ public class WarrantyDecorator extends ProductDecorator {
     public String getDetails() {
         return wrappedProduct.getDetails() + "Includes extended warranty for 2 years.";
     }
+
+    /**
+     * @return Codigo del servicio de garantia
+     */
+    @Override
+    protected String getServiceCode() {
+        return "WARRANTY";
+    }
 }
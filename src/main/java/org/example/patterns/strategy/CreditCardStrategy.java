@@ -1,5 +1,10 @@
 package org.example.patterns.strategy;
 
+import org.example.model.Money;
+import org.example.output.Output;
+
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Estrategia de pago con tarjeta de credito.
  * 
@@ -20,6 +25,11 @@ package org.example.patterns.strategy;
  * <li>Todos los campos requeridos</li>
  * </ul>
  * 
+ * <p>
+ * Con un {@link PaymentGateway}, el cargo se solicita al gateway y
+ * {@link #payAsync(Money)} no bloquea; sin gateway el pago es simulado.
+ * </p>
+ * 
  * @author Marco Vinicio Palazuelos Leon
  * @version 1.0
  * @since 2025
@@ -36,6 +46,9 @@ public class CreditCardStrategy implements PaymentStrategy {
     /** Fecha de expiracion */
     private String dateExpired;
 
+    /** Gateway que procesa los cargos (null = pago simulado) */
+    private final PaymentGateway gateway;
+
     /**
      * Crea una estrategia de pago con tarjeta.
      * 
@@ -45,6 +58,20 @@ public class CreditCardStrategy implements PaymentStrategy {
      * @throws IllegalArgumentException si algun parametro es invalido
      */
     public CreditCardStrategy(String cardNumber, String ownerCard, String dateExpired) {
+        this(cardNumber, ownerCard, dateExpired, null);
+    }
+
+    /**
+     * Crea una estrategia de pago con tarjeta que cobra a traves de un
+     * gateway.
+     * 
+     * @param cardNumber  Numero de tarjeta (16 digitos)
+     * @param ownerCard   Nombre del titular
+     * @param dateExpired Fecha de expiracion (MM/YY)
+     * @param gateway     Gateway de pagos (null = pago simulado)
+     * @throws IllegalArgumentException si algun parametro es invalido
+     */
+    public CreditCardStrategy(String cardNumber, String ownerCard, String dateExpired, PaymentGateway gateway) {
         if (cardNumber == null || ownerCard == null || dateExpired == null) {
             throw new IllegalArgumentException("All parameters must be provided");
         }
@@ -63,17 +90,41 @@ public class CreditCardStrategy implements PaymentStrategy {
         this.cardNumber = cardNumberMasked.toString();
         this.OwnerCard = ownerCard;
         this.dateExpired = dateExpired;
+        this.gateway = gateway;
     }
 
     /**
-     * Procesa el pago con tarjeta de credito.
+     * Procesa el pago con tarjeta de credito. Con gateway, espera su
+     * respuesta.
      * 
      * @param amount Monto a pagar
-     * @return true siempre (simulacion exitosa)
+     * @return true si el cargo se aprobo (siempre sin gateway)
      */
     @Override
-    public boolean pay(double amount) {
-        System.out.println("Paid: " + amount + " using Credit Card.");
+    public boolean pay(Money amount) {
+        if (gateway != null) {
+            return payAsync(amount).join().isApproved();
+        }
+        Output.info(() -> "Paid: " + amount + " using Credit Card.");
         return true;
     }
+
+    /**
+     * Solicita el cargo al gateway sin bloquear.
+     * 
+     * @param amount Monto a pagar
+     * @return Futuro con el resultado del cargo
+     */
+    @Override
+    public CompletableFuture<PaymentResult> payAsync(Money amount) {
+        if (gateway == null) {
+            return PaymentStrategy.super.payAsync(amount);
+        }
+        return gateway.charge("CREDIT_CARD", cardNumber, amount).thenApply(result -> {
+            if (result.isApproved()) {
+                Output.info(() -> "Paid: " + amount + " using Credit Card.");
+            }
+            return result;
+        });
+    }
 }
@@ -1,5 +1,10 @@
 package org.example.patterns.strategy;
 
+import org.example.model.Money;
+import org.example.output.Output;
+
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Estrategia de pago con PayPal.
  * 
@@ -14,6 +19,11 @@ package org.example.patterns.strategy;
  * <li><b>Rol:</b> Concrete Strategy</li>
  * </ul>
  * 
+ * <p>
+ * Con un {@link PaymentGateway}, el cargo se solicita al gateway y
+ * {@link #payAsync(Money)} no bloquea; sin gateway el pago es simulado.
+ * </p>
+ * 
  * @author Marco Vinicio Palazuelos Leon
  * @version 1.0
  * @since 2025
@@ -24,6 +34,9 @@ public class PayPalStrategy implements PaymentStrategy {
     /** Email de la cuenta PayPal */
     String email;
 
+    /** Gateway que procesa los cargos (null = pago simulado) */
+    private final PaymentGateway gateway;
+
     /**
      * Crea una estrategia de pago con PayPal.
      * 
@@ -31,21 +44,56 @@ public class PayPalStrategy implements PaymentStrategy {
      * @throws IllegalArgumentException si el email es invalido
      */
     public PayPalStrategy(String email) {
+        this(email, null);
+    }
+
+    /**
+     * Crea una estrategia de pago con PayPal que cobra a traves de un
+     * gateway.
+     * 
+     * @param email   Email de la cuenta PayPal
+     * @param gateway Gateway de pagos (null = pago simulado)
+     * @throws IllegalArgumentException si el email es invalido
+     */
+    public PayPalStrategy(String email, PaymentGateway gateway) {
         if (email == null || !email.contains("@")) {
             throw new IllegalArgumentException("Invalid email address");
         }
         this.email = email;
+        this.gateway = gateway;
     }
 
     /**
-     * Procesa el pago con PayPal.
+     * Procesa el pago con PayPal. Con gateway, espera su respuesta.
      * 
      * @param amount Monto a pagar
-     * @return true siempre (simulacion exitosa)
+     * @return true si el cargo se aprobo (siempre sin gateway)
      */
     @Override
-    public boolean pay(double amount) {
-        System.out.println("Paid:  " + amount + " using PayPal.");
+    public boolean pay(Money amount) {
+        if (gateway != null) {
+            return payAsync(amount).join().isApproved();
+        }
+        Output.info(() -> "Paid:  " + amount + " using PayPal.");
         return true;
     }
+
+    /**
+     * Solicita el cargo al gateway sin bloquear.
+     * 
+     * @param amount Monto a pagar
+     * @return Futuro con el resultado del cargo
+     */
+    @Override
+    public CompletableFuture<PaymentResult> payAsync(Money amount) {
+        if (gateway == null) {
+            return PaymentStrategy.super.payAsync(amount);
+        }
+        return gateway.charge("PAYPAL", email, amount).thenApply(result -> {
+            if (result.isApproved()) {
+                Output.info(() -> "Paid:  " + amount + " using PayPal.");
+            }
+            return result;
+        });
+    }
 }
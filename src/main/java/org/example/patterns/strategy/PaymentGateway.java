@@ -0,0 +1,32 @@
+package org.example.patterns.strategy;
+
+import org.example.model.Money;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Gateway de pagos externo (procesador de tarjetas, PayPal...).
+ * 
+ * <p>
+ * Las estrategias que cobran a traves de un gateway lo usan desde
+ * {@link PaymentStrategy#payAsync(Money)}: el cargo regresa un futuro y
+ * ningun hilo queda bloqueado mientras el gateway responde.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see SimulatedPaymentGateway
+ */
+public interface PaymentGateway {
+
+    /**
+     * Solicita un cargo.
+     * 
+     * @param method  Metodo de pago (ej: "CREDIT_CARD", "PAYPAL")
+     * @param account Cuenta a cargar (tarjeta enmascarada, email...)
+     * @param amount  Monto a cobrar
+     * @return Futuro con el resultado del cargo
+     */
+    CompletableFuture<PaymentResult> charge(String method, String account, Money amount);
+}
@@ -0,0 +1,93 @@
+package org.example.patterns.strategy;
+
+import org.example.model.Money;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Resultado de un pago asincrono.
+ * 
+ * <p>
+ * Reemplaza al {@code boolean} de {@link PaymentStrategy#pay}: si el pago
+ * falla, {@link #reason()} indica por que (rechazado, fondos
+ * insuficientes, error del gateway...) y {@link #message()} lo describe.
+ * </p>
+ * 
+ * @param amount  Monto cobrado (null si fallo)
+ * @param reason  Motivo de la falla (null si se aprobo)
+ * @param message Detalle de la falla (null si se aprobo)
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see PaymentStrategy#payAsync(Money)
+ */
+public record PaymentResult(Money amount, Reason reason, String message) {
+
+    /** Motivos de falla de un pago */
+    public enum Reason {
+        /** El emisor o el gateway rechazo el cargo */
+        DECLINED,
+        /** No hay saldo o puntos suficientes */
+        INSUFFICIENT_FUNDS,
+        /** El monto o los datos del pago son invalidos */
+        INVALID_REQUEST,
+        /** El gateway no respondio a tiempo */
+        TIMEOUT,
+        /** El gateway o la estrategia fallaron con un error */
+        GATEWAY_ERROR
+    }
+
+    /**
+     * @param amount Monto cobrado
+     * @return Pago aprobado
+     * @throws IllegalArgumentException si el monto es null
+     */
+    public static PaymentResult success(Money amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount cannot be null");
+        }
+        return new PaymentResult(amount, null, null);
+    }
+
+    /**
+     * @param reason  Motivo de la falla
+     * @param message Detalle para el usuario o el log
+     * @return Pago fallido
+     * @throws IllegalArgumentException si el motivo es null
+     */
+    public static PaymentResult failure(Reason reason, String message) {
+        if (reason == null) {
+            throw new IllegalArgumentException("Failure reason cannot be null");
+        }
+        return new PaymentResult(null, reason, message);
+    }
+
+    /**
+     * Convierte la excepcion de un pago en un resultado fallido.
+     * 
+     * @param error Excepcion lanzada o con la que termino el futuro
+     * @return TIMEOUT para {@link TimeoutException}, INVALID_REQUEST para
+     *         {@link IllegalArgumentException} y GATEWAY_ERROR para el resto
+     */
+    public static PaymentResult failure(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof TimeoutException) {
+            return failure(Reason.TIMEOUT, "Payment gateway timed out");
+        }
+        if (cause instanceof IllegalArgumentException) {
+            return failure(Reason.INVALID_REQUEST, cause.getMessage());
+        }
+        return failure(Reason.GATEWAY_ERROR, String.valueOf(cause.getMessage()));
+    }
+
+    /** @return true si el pago se aprobo */
+    public boolean isApproved() {
+        return reason == null;
+    }
+}
@@ -1,5 +1,9 @@
 package org.example.patterns.strategy;
 
+import org.example.model.Money;
+
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Interfaz Strategy para metodos de pago.
  * 
@@ -21,6 +25,13 @@ package org.example.patterns.strategy;
  * <li>{@link PointsStrategy} - Pago con puntos de recompensa</li>
  * </ul>
  * 
+ * <h2>Pagos asincronos:</h2>
+ * <p>
+ * {@link #payAsync(Money)} regresa un futuro con un {@link PaymentResult}
+ * que explica las fallas. Las estrategias que cobran a traves de un
+ * {@link PaymentGateway} no bloquean al hilo que paga.
+ * </p>
+ * 
  * @author Marco Vinicio Palazuelos Leon
  * @version 1.0
  * @since 2025
@@ -33,8 +44,31 @@ public interface PaymentStrategy {
     /**
      * Procesa un pago por el monto especificado.
      * 
-     * @param amount Monto a pagar en dolares
+     * @param amount Monto exacto a pagar
      * @return true si el pago fue exitoso, false si fallo
      */
-    boolean pay(double amount);
+    boolean pay(Money amount);
+
+    /**
+     * Procesa un pago sin bloquear al hilo que lo solicita.
+     * 
+     * <p>
+     * Por defecto ejecuta {@link #pay(Money)} en el hilo actual y convierte
+     * su resultado: {@code false} es DECLINED y una excepcion es
+     * INVALID_REQUEST o GATEWAY_ERROR. Las estrategias con latencia real lo
+     * sobrescriben.
+     * </p>
+     * 
+     * @param amount Monto exacto a pagar
+     * @return Futuro con el resultado; no termina con excepcion
+     */
+    default CompletableFuture<PaymentResult> payAsync(Money amount) {
+        try {
+            return CompletableFuture.completedFuture(pay(amount)
+                    ? PaymentResult.success(amount)
+                    : PaymentResult.failure(PaymentResult.Reason.DECLINED, "Payment declined"));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(PaymentResult.failure(e));
+        }
+    }
 }
@@ -1,5 +1,10 @@
 package org.example.patterns.strategy;
 
+import org.example.model.Money;
+import org.example.output.Output;
+
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Estrategia de pago con puntos de recompensa.
  * 
@@ -51,26 +56,49 @@ public class PointsStrategy implements PaymentStrategy {
      * 
      * @param amount Monto a pagar
      * @return true si hay puntos suficientes, false si no
-     * @throws IllegalArgumentException si el monto es <= 0
+     * @throws IllegalArgumentException si el monto es null o <= 0
      */
     @Override
-    public boolean pay(double amount) {
-        if (amount <= 0) {
+    public boolean pay(Money amount) {
+        if (amount == null || !amount.isPositive()) {
             throw new IllegalArgumentException("Amount must be greater than zero");
         }
+        return redeem(amount).isApproved();
+    }
+
+    /**
+     * Procesa el pago con puntos. Los puntos son locales, asi que el
+     * futuro ya viene completo.
+     * 
+     * @param amount Monto a pagar
+     * @return Futuro con el resultado: INSUFFICIENT_FUNDS si faltan puntos
+     */
+    @Override
+    public CompletableFuture<PaymentResult> payAsync(Money amount) {
+        if (amount == null || !amount.isPositive()) {
+            return CompletableFuture.completedFuture(PaymentResult.failure(PaymentResult.Reason.INVALID_REQUEST,
+                    "Amount must be greater than zero"));
+        }
+        return CompletableFuture.completedFuture(redeem(amount));
+    }
 
-        int pointsNeeded = (int) (amount * 100);
+    /** Descuenta los puntos; sincronizado para pagos concurrentes con la misma cuenta. */
+    private synchronized PaymentResult redeem(Money amount) {
+        // 100 puntos = $1.00, es decir, 1 punto por centavo (conversion exacta)
+        long pointsNeeded = amount.getCents();
 
         if (availablePoints >= pointsNeeded) {
-            System.out.println(
-                    "Paid: " + amount + " using Points. Remaining points: " + (availablePoints - (int) (amount * 100)));
-            availablePoints -= pointsNeeded;
-            return true;
+            availablePoints -= (int) pointsNeeded;
+            int remaining = availablePoints;
+            Output.info(() -> "Paid: " + amount + " using Points. Remaining points: " + remaining);
+            return PaymentResult.success(amount);
         }
-        int missingPoints = pointsNeeded - availablePoints;
+        long missingPoints = pointsNeeded - availablePoints;
 
-        System.out.println("Insufficient points. Available points: " + availablePoints + " Required amount: "
+        int available = availablePoints;
+        Output.warn(() -> "Insufficient points. Available points: " + available + " Required amount: "
                 + pointsNeeded + "Missing points: " + missingPoints);
-        return false;
+        return PaymentResult.failure(PaymentResult.Reason.INSUFFICIENT_FUNDS,
+                "Missing " + missingPoints + " points");
     }
 }
@@ -0,0 +1,104 @@
+package org.example.patterns.strategy;
+
+import org.example.config.ConfigurationManager;
+import org.example.model.Money;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gateway de pagos local que simula la latencia de uno real.
+ * 
+ * <p>
+ * Cada cargo se responde despues de la latencia configurada sin ocupar un
+ * hilo mientras tanto: el futuro se completa desde un temporizador. Asi,
+ * el numero de pagos por segundo depende de cuantos cargos hay en vuelo,
+ * no de cuantos hilos los esperan. Rechaza los cargos mayores al limite
+ * configurado.
+ * </p>
+ * 
+ * <h2>Ejemplo de Uso:</h2>
+ * 
+ * <pre>{@code
+ * PaymentGateway gateway = new SimulatedPaymentGateway(Duration.ofMillis(200), Money.of(10_000));
+ * PaymentStrategy card = new CreditCardStrategy("1234567890123456", "Ana", "12/27", gateway);
+ * order.processPaymentAsync().thenAccept(result -> ...); // regresa de inmediato
+ * }</pre>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see PaymentGateway
+ */
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    /** Instancia compartida (lazy, double-checked locking) */
+    private static volatile SimulatedPaymentGateway instance;
+
+    /** Las respuestas se entregan en hilos virtuales, no en el temporizador */
+    private static final Executor RESPONDERS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Executor delayed;
+    private final Money limit;
+    private final LongAdder charges = new LongAdder();
+
+    /**
+     * @param latency Tiempo de respuesta de cada cargo
+     * @param limit   Monto maximo aprobado por cargo
+     * @throws IllegalArgumentException si la latencia es negativa o algun
+     *                                  parametro es null
+     */
+    public SimulatedPaymentGateway(Duration latency, Money limit) {
+        if (latency == null || latency.isNegative() || limit == null) {
+            throw new IllegalArgumentException("Latency must be non-negative and limit cannot be null");
+        }
+        this.delayed = CompletableFuture.delayedExecutor(latency.toNanos(), TimeUnit.NANOSECONDS, RESPONDERS);
+        this.limit = limit;
+    }
+
+    /**
+     * Obtiene el gateway compartido de la aplicacion, configurado con
+     * {@code payments.gateway.latency.millis} y
+     * {@code payments.gateway.limit} de {@link ConfigurationManager}.
+     * 
+     * @return Instancia compartida
+     */
+    public static SimulatedPaymentGateway getInstance() {
+        if (instance == null) {
+            synchronized (SimulatedPaymentGateway.class) {
+                if (instance == null) {
+                    ConfigurationManager config = ConfigurationManager.getInstance();
+                    instance = new SimulatedPaymentGateway(
+                            Duration.ofMillis(Long.parseLong(config.getConfig("payments.gateway.latency.millis"))),
+                            Money.of(Double.parseDouble(config.getConfig("payments.gateway.limit"))));
+                }
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> charge(String method, String account, Money amount) {
+        if (amount == null || !amount.isPositive()) {
+            return CompletableFuture.completedFuture(PaymentResult.failure(PaymentResult.Reason.INVALID_REQUEST,
+                    "Amount must be greater than zero"));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            charges.increment();
+            if (amount.compareTo(limit) > 0) {
+                return PaymentResult.failure(PaymentResult.Reason.DECLINED,
+                        method + " charge of " + amount + " exceeds the limit of " + limit + " for " + account);
+            }
+            return PaymentResult.success(amount);
+        }, delayed);
+    }
+
+    /** @return Cargos respondidos desde que se creo el gateway */
+    public long getCharges() {
+        return charges.sum();
+    }
+}
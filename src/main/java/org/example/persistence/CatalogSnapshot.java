@@ -0,0 +1,112 @@
+package org.example.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot compacto del catalogo: el estado de todos los productos hasta
+ * una secuencia del journal.
+ * 
+ * <h2>Formato:</h2>
+ * 
+ * <pre>
+ * int  MAGIC, int VERSION
+ * long ultima secuencia incluida
+ * int  numero de productos
+ * {@link ProductRecord} x N
+ * long CRC32 de todo lo anterior
+ * </pre>
+ * 
+ * <p>
+ * Se escribe en un archivo temporal, se sincroniza y se renombra de forma
+ * atomica: una caida a mitad de la escritura deja el snapshot anterior
+ * intacto.
+ * </p>
+ * 
+ * @param lastSeq  Ultima secuencia del journal incluida
+ * @param products Productos en orden de alta
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see CatalogStore
+ */
+record CatalogSnapshot(long lastSeq, List<ProductRecord> products) {
+
+    /** "SHTC" */
+    private static final int MAGIC = 0x53485443;
+    private static final int VERSION = 1;
+
+    /**
+     * Escribe un snapshot de forma atomica.
+     * 
+     * @param file     Archivo destino
+     * @param lastSeq  Ultima secuencia incluida
+     * @param products Productos a guardar
+     * @throws IOException si falla la escritura
+     */
+    static void write(Path file, long lastSeq, Collection<ProductRecord> products) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(lastSeq);
+            out.writeInt(products.size());
+            for (ProductRecord product : products) {
+                product.writeTo(out);
+            }
+            out.writeLong(crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Journal.syncDirectory(file.getParent());
+    }
+
+    /**
+     * Lee un snapshot y verifica su integridad.
+     * 
+     * @param file Archivo del snapshot
+     * @return Snapshot leido
+     * @throws IOException si el archivo no se puede leer
+     * @throws IllegalStateException si el archivo esta corrupto
+     */
+    static CatalogSnapshot read(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16), crc))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IllegalStateException("Not a catalog snapshot: " + file);
+            }
+            long lastSeq = in.readLong();
+            int count = in.readInt();
+            List<ProductRecord> products = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                products.add(ProductRecord.readFrom(in));
+            }
+            long expected = crc.getValue();
+            if (in.readLong() != expected) {
+                throw new IllegalStateException("Corrupt catalog snapshot: " + file);
+            }
+            return new CatalogSnapshot(lastSeq, products);
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package org.example.persistence;
+
+import org.example.catalog.ProductCatalog;
+import org.example.model.Money;
+import org.example.model.product.Product;
+import org.example.model.product.ProductChangeListener;
+import org.example.output.Output;
+import org.example.patterns.factory.FactoryRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Catalogo durable: un {@link ProductCatalog} cuyas mutaciones se
+ * registran en un journal en disco.
+ * 
+ * <p>
+ * Las altas de productos, los cambios de precio y los cambios de stock se
+ * agregan a un {@link Journal} con group commit. Cada cierto numero
+ * de registros se guarda un {@link CatalogSnapshot} compacto y se borran
+ * los segmentos que cubre. Al arrancar, {@link #open} carga el snapshot y
+ * reproduce solo la cola del journal, en lugar de volver a sembrar datos.
+ * </p>
+ * 
+ * <h2>Consistencia:</h2>
+ * <ul>
+ * <li>El stock se registra como diferencias ({@code -3}, {@code +1}): las
+ * diferencias de hilos concurrentes se pueden registrar en cualquier orden
+ * y la suma es la misma.</li>
+ * <li>Las reservas de stock de los carritos ({@link Product#tryHold}) no
+ * se registran hasta confirmarse ({@link Product#commitHold}): el journal
+ * guarda el stock que habria si todas las reservas abiertas se
+ * devolvieran. Un reinicio con carritos abiertos no pierde unidades.</li>
+ * <li>El snapshot no lee los productos vivos, sino una imagen del estado
+ * que se actualiza con cada registro bajo el mismo lock. Asi el snapshot
+ * corresponde exactamente a una secuencia del journal, aunque haya
+ * cambios de stock en curso.</li>
+ * <li>Los cambios de precio y stock llegan como listener, cuando el
+ * producto ya cambio. Por eso el listener nunca lanza ni espera el fsync:
+ * si el journal falla, el error se registra en {@link #getFailure()} y el
+ * catalogo deja de escribir. Con {@code awaitDurable} activo, las altas
+ * regresan despues de su fsync y {@link #commit()} espera el de los
+ * cambios acumulados (ej: al terminar un checkout).</li>
+ * </ul>
+ * 
+ * <h2>Ejemplo de Uso:</h2>
+ * 
+ * <pre>{@code
+ * CatalogStore store = CatalogStore.open(Path.of("data"), registry, true, 100_000);
+ * store.addProduct(registry.createProduct("ELECTRONICS", "E001", "Laptop", 1500.0, 10, "Computers"));
+ * store.getCatalog().getProduct("E001").tryDecrement(1); // se registra en el journal
+ * store.commit(); // espera el fsync del cambio de stock
+ * store.close();
+ * }</pre>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see Journal
+ * @see CatalogSnapshot
+ */
+public class CatalogStore implements ProductChangeListener, AutoCloseable {
+
+    private static final String SNAPSHOT_FILE = "catalog.snapshot";
+
+    private final Path directory;
+    private final ProductCatalog catalog;
+    private final Journal<JournalEntry> journal;
+
+    /** true: las altas y {@link #commit()} esperan el fsync */
+    private final boolean awaitDurable;
+
+    /** Registros entre snapshots automaticos (0 = desactivado) */
+    private final long snapshotEvery;
+
+    /** Serializa las escrituras al journal y protege la imagen */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Estado persistido de cada producto, en orden de alta */
+    private final Map<String, ProductRecord> image;
+
+    /** Registros desde el ultimo snapshot (se escribe bajo el lock) */
+    private volatile long recordsSinceSnapshot;
+
+    /** Serializa los snapshots */
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    /** Evita snapshots simultaneos */
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+
+    private volatile boolean closed;
+
+    /** Primer error al registrar un cambio ya aplicado (null si no hubo) */
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    private CatalogStore(Path directory, Map<String, ProductRecord> image, long lastSeq, boolean awaitDurable,
+            long snapshotEvery, FactoryRegistry registry) throws IOException {
+        this.directory = directory;
+        this.image = image;
+        this.awaitDurable = awaitDurable;
+        this.snapshotEvery = snapshotEvery;
+        this.catalog = new ProductCatalog();
+        for (ProductRecord record : image.values()) {
+            Product product = record.toProduct(registry);
+            catalog.addProduct(product);
+            product.addChangeListener(this);
+        }
+        this.journal = new Journal<>(directory, lastSeq + 1, JournalEntry.CODEC, "catalog-journal-sync");
+    }
+
+    /**
+     * Abre (o crea) un catalogo durable en un directorio.
+     * 
+     * @param directory     Directorio de datos
+     * @param registry      Fabricas para volver a crear los productos
+     * @param awaitDurable  true para que las altas y {@link #commit()} esperen el fsync
+     * @param snapshotEvery Registros entre snapshots automaticos (0 = nunca)
+     * @return Catalogo restaurado desde el snapshot y la cola del journal
+     * @throws UncheckedIOException si los archivos no se pueden leer
+     * @throws IllegalArgumentException si algun parametro es invalido
+     */
+    public static CatalogStore open(Path directory, FactoryRegistry registry, boolean awaitDurable,
+            long snapshotEvery) {
+        if (directory == null || registry == null) {
+            throw new IllegalArgumentException("Directory and registry cannot be null");
+        }
+        if (snapshotEvery < 0) {
+            throw new IllegalArgumentException("Snapshot interval cannot be negative");
+        }
+        try {
+            Files.createDirectories(directory);
+            Map<String, ProductRecord> image = new LinkedHashMap<>();
+            long lastSeq = 0;
+            Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+            if (Files.exists(snapshotFile)) {
+                CatalogSnapshot snapshot = CatalogSnapshot.read(snapshotFile);
+                for (ProductRecord record : snapshot.products()) {
+                    image.put(record.id(), record);
+                }
+                lastSeq = snapshot.lastSeq();
+            }
+            lastSeq = Journal.replay(directory, lastSeq, JournalEntry.CODEC,
+                    entry -> {
+                        ProductRecord updated = entry.applyTo(image.get(entry.productId()));
+                        if (updated != null) {
+                            image.put(updated.id(), updated);
+                        }
+                    });
+            return new CatalogStore(directory, image, lastSeq, awaitDurable, snapshotEvery, registry);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open catalog store: " + directory, e);
+        }
+    }
+
+    /**
+     * Obtiene el catalogo en memoria. Las consultas van directo al catalogo;
+     * las altas deben hacerse con {@link #addProduct} para registrarse.
+     * 
+     * @return Catalogo restaurado
+     */
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * Da de alta un producto y lo registra en el journal.
+     * 
+     * <p>
+     * El producto no debe estar en uso por otros hilos antes del alta:
+     * sus cambios se registran a partir de este momento.
+     * </p>
+     * 
+     * @param product Producto a agregar
+     * @throws IllegalArgumentException si el producto es invalido o su ID ya existe
+     * @throws UncheckedIOException si no se puede escribir el journal
+     */
+    public void addProduct(Product product) {
+        if (product == null) {
+            throw new IllegalArgumentException("Product cannot be null");
+        }
+        long seq;
+        lock.lock();
+        try {
+            if (catalog.containsProduct(product.getId())) {
+                throw new IllegalArgumentException("Duplicate product ID: " + product.getId());
+            }
+            // Los cambios posteriores esperan este lock y quedan despues del alta
+            product.addChangeListener(this);
+            ProductRecord record = ProductRecord.of(product);
+            try {
+                catalog.addProduct(product);
+                seq = append(new JournalEntry.ProductAdded(record));
+            } catch (RuntimeException e) {
+                product.removeChangeListener(this);
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+        afterAppend(seq);
+    }
+
+    /**
+     * Da de alta varios productos con una sola espera de durabilidad.
+     * 
+     * <p>
+     * Todas las altas se escriben bajo un mismo lock y se confirman con un
+     * solo fsync, en lugar de uno por producto. Los productos cuyo ID ya
+     * existe (en el catalogo o antes en el mismo lote) no se agregan.
+     * </p>
+     * 
+     * @param products Productos a agregar
+     * @return Productos rechazados por ID duplicado
+     * @throws IllegalArgumentException si algun producto o ID es null
+     * @throws UncheckedIOException si no se puede escribir el journal
+     */
+    public List<Product> addProducts(List<Product> products) {
+        List<Product> duplicates = new ArrayList<>();
+        long lastSeq = -1;
+        lock.lock();
+        try {
+            for (Product product : products) {
+                if (product == null || product.getId() == null) {
+                    throw new IllegalArgumentException("Product and its ID cannot be null");
+                }
+                if (catalog.containsProduct(product.getId())) {
+                    duplicates.add(product);
+                    continue;
+                }
+                product.addChangeListener(this);
+                ProductRecord record = ProductRecord.of(product);
+                try {
+                    catalog.addProduct(product);
+                    lastSeq = append(new JournalEntry.ProductAdded(record));
+                } catch (RuntimeException e) {
+                    product.removeChangeListener(this);
+                    throw e;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (lastSeq >= 0) {
+            afterAppend(lastSeq);
+        }
+        return duplicates;
+    }
+
+    @Override
+    public void onPriceChanged(Product product, Money oldPrice, Money newPrice) {
+        record(new JournalEntry.PriceChanged(product.getId(), newPrice.getCents()));
+    }
+
+    @Override
+    public void onStockChanged(Product product, int delta) {
+        record(new JournalEntry.StockChanged(product.getId(), delta));
+    }
+
+    /**
+     * Las unidades apartadas por una reserva no se registran: el stock del
+     * journal las sigue contando hasta que la venta se confirma. Si el
+     * proceso se reinicia con reservas abiertas, vuelven al stock.
+     */
+    @Override
+    public void onStockHeld(Product product, int delta) {
+    }
+
+    @Override
+    public void onHoldCommitted(Product product, int quantity) {
+        record(new JournalEntry.StockChanged(product.getId(), -quantity));
+    }
+
+    /**
+     * Confirma los cambios de precio y stock registrados hasta ahora. Con
+     * {@code awaitDurable} activo espera el fsync que los incluye; se llama
+     * al terminar una operacion (checkout, lote) en lugar de esperar en cada
+     * cambio.
+     * 
+     * @throws IllegalStateException si un cambio anterior no se pudo registrar
+     * @throws UncheckedIOException si el fsync fallo
+     */
+    public void commit() {
+        RuntimeException failed = failure.get();
+        if (failed != null) {
+            throw new IllegalStateException("Catalog journal failed; recent changes were not recorded", failed);
+        }
+        if (!awaitDurable) {
+            return;
+        }
+        long seq;
+        lock.lock();
+        try {
+            seq = journal.nextSeq() - 1;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            journal.awaitDurable(seq);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Catalog journal is not durable", e);
+        }
+    }
+
+    /**
+     * Obtiene el error que detuvo el journal. Desde ese momento los cambios
+     * de precio y stock siguen aplicandose en memoria, pero ya no se
+     * registran.
+     * 
+     * @return Primer error al registrar un cambio, o null si no hubo
+     */
+    public RuntimeException getFailure() {
+        return failure.get();
+    }
+
+    /**
+     * Guarda un snapshot con el estado actual y borra los segmentos del
+     * journal que cubre.
+     * 
+     * @throws UncheckedIOException si no se puede escribir el snapshot
+     * @throws IllegalStateException si el catalogo esta cerrado
+     */
+    public void snapshot() {
+        snapshotLock.lock();
+        try {
+            List<ProductRecord> products;
+            long lastSeq;
+            lock.lock();
+            try {
+                if (closed) {
+                    throw new IllegalStateException("Catalog store is closed");
+                }
+                // Todo lo anterior queda en segmentos cerrados; la copia de la
+                // imagen corresponde exactamente a lastSeq
+                lastSeq = journal.rotate();
+                products = new ArrayList<>(image.values());
+                recordsSinceSnapshot = 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot rotate catalog journal", e);
+            } finally {
+                lock.unlock();
+            }
+            // La escritura no bloquea a los demas escritores
+            CatalogSnapshot.write(directory.resolve(SNAPSHOT_FILE), lastSeq, products);
+            journal.deleteOldSegments();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write catalog snapshot", e);
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Sincroniza el journal y lo cierra. Las altas posteriores al cierre
+     * lanzan {@link IllegalStateException}; los cambios de precio y stock ya
+     * no se registran y quedan como falla (ver {@link #getFailure()}).
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            journal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close catalog journal", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ==================== JOURNAL ====================
+
+    /**
+     * Registra un cambio que el producto ya aplico. No lanza: quien hizo el
+     * cambio no puede deshacerlo, asi que un error se guarda como falla
+     * del catalogo en lugar de propagarse.
+     */
+    private void record(JournalEntry entry) {
+        if (failure.get() != null) {
+            return;
+        }
+        lock.lock();
+        try {
+            append(entry);
+        } catch (RuntimeException e) {
+            if (failure.compareAndSet(null, e)) {
+                Output.error("Catalog journal failed, changes are no longer recorded: " + e.getMessage());
+            }
+            return;
+        } finally {
+            lock.unlock();
+        }
+        maybeSnapshot();
+    }
+
+    /** Escribe la entrada y actualiza la imagen. Requiere el lock. */
+    private long append(JournalEntry entry) {
+        if (closed) {
+            throw new IllegalStateException("Catalog store is closed");
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Catalog journal failed", failure.get());
+        }
+        try {
+            long seq = journal.append(entry);
+            ProductRecord updated = entry.applyTo(image.get(entry.productId()));
+            if (updated != null) {
+                image.put(updated.id(), updated);
+            }
+            recordsSinceSnapshot++;
+            return seq;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to catalog journal", e);
+        }
+    }
+
+    /** Espera la durabilidad y dispara el snapshot periodico. Fuera del lock. */
+    private void afterAppend(long seq) {
+        if (awaitDurable) {
+            try {
+                journal.awaitDurable(seq);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Catalog journal is not durable", e);
+            }
+        }
+        maybeSnapshot();
+    }
+
+    /** Dispara el snapshot periodico en otro hilo si toca. */
+    private void maybeSnapshot() {
+        if (snapshotEvery > 0 && recordsSinceSnapshot >= snapshotEvery
+                && snapshotRunning.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("catalog-snapshot").start(() -> {
+                try {
+                    snapshot();
+                } catch (RuntimeException e) {
+                    Output.error("Catalog snapshot failed: " + e.getMessage());
+                } finally {
+                    snapshotRunning.set(false);
+                }
+            });
+        }
+    }
+}
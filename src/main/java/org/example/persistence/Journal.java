@@ -0,0 +1,489 @@
+package org.example.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Journal de escritura anticipada (write-ahead log) en un directorio.
+ * 
+ * <p>
+ * Cada mutacion se agrega al final del segmento actual con un numero de
+ * secuencia creciente. Los segmentos se llaman {@code journal-<seq>.log},
+ * donde {@code <seq>} es la secuencia de su primer registro. El formato
+ * de cada entrada lo define un {@link Codec}: el catalogo registra
+ * {@link JournalEntry} y las ordenes {@link OrderEvent}.
+ * </p>
+ * 
+ * <h2>Formato de registro:</h2>
+ * 
+ * <pre>
+ * int  longitud del payload
+ * int  CRC32 del payload
+ * long secuencia  |  entrada ({@link Codec})   &lt;- payload
+ * </pre>
+ * 
+ * <p>
+ * Un registro incompleto o con CRC invalido marca el final del segmento:
+ * es una escritura interrumpida por una caida y nunca se confirmo como
+ * durable.
+ * </p>
+ * 
+ * <h2>Group commit:</h2>
+ * <p>
+ * {@link #append} solo codifica el registro en un buffer en memoria. Un
+ * hilo dedicado toma todo el buffer, lo escribe con una sola llamada,
+ * hace {@code fsync} y despierta a los que esperan en
+ * {@link #awaitDurable}. Mientras un lote se escribe, los registros nuevos
+ * se acumulan y se confirman juntos en el siguiente: con muchos
+ * escritores, un solo {@code fsync} cubre cientos de registros. Si el
+ * buffer supera {@link #MAX_PENDING_BYTES}, {@link #append} espera.
+ * </p>
+ * 
+ * <p>
+ * Las escrituras ({@link #append}, {@link #rotate}) no son seguras entre
+ * hilos: el llamador las serializa ({@link CatalogStore} usa su lock).
+ * {@link #awaitDurable} si se puede llamar desde cualquier hilo.
+ * </p>
+ * 
+ * @param <E> Tipo de las entradas
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see CatalogStore
+ * @see OrderStore
+ */
+final class Journal<E> implements AutoCloseable {
+
+    /**
+     * Codificacion binaria de las entradas de un journal.
+     * 
+     * @param <E> Tipo de las entradas
+     */
+    interface Codec<E> {
+
+        void write(E entry, DataOutput out) throws IOException;
+
+        E read(DataInput in) throws IOException;
+    }
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /** Longitud maxima aceptada para un payload al leer */
+    private static final int MAX_PAYLOAD_BYTES = 1 << 20;
+
+    /** Bytes pendientes de escribir a partir de los cuales {@link #append} espera */
+    static final int MAX_PENDING_BYTES = 8 << 20;
+
+    private final Path directory;
+    private final Codec<E> codec;
+
+    /** Segmento en escritura */
+    private FileChannel channel;
+
+    /** Secuencia del primer registro del segmento actual */
+    private long segmentFirstSeq;
+
+    /** Secuencia del siguiente registro */
+    private long nextSeq;
+
+    /** Buffer reutilizable para codificar cada registro */
+    private final ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+    private final DataOutputStream payloadOut = new DataOutputStream(payload);
+    private final CRC32 crc = new CRC32();
+
+    /** Protege el buffer pendiente y el estado de sincronizacion */
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition pendingSync = syncLock.newCondition();
+    private final Condition synced = syncLock.newCondition();
+    private final Condition notFull = syncLock.newCondition();
+
+    /** Registros codificados que aun no se escriben al segmento */
+    private ByteBuffer pending = ByteBuffer.allocate(64 << 10);
+
+    /** Buffer que se intercambia con {@link #pending} en cada lote */
+    private ByteBuffer spare = ByteBuffer.allocate(64 << 10);
+
+    /** Serializa las escrituras al segmento (lote y rotacion) */
+    private final ReentrantLock ioLock = new ReentrantLock();
+
+    /** Ultima secuencia agregada al buffer pendiente */
+    private long writtenSeq;
+
+    /** Ultima secuencia confirmada con fsync */
+    private long syncedSeq;
+
+    /** Error del ultimo fsync; el journal deja de aceptar escrituras */
+    private IOException failure;
+
+    private boolean closed;
+
+    /** Hilo que ejecuta los fsync agrupados */
+    private final Thread syncer;
+
+    /**
+     * Abre un segmento nuevo para escribir a partir de {@code firstSeq}.
+     * 
+     * @param directory Directorio del journal
+     * @param firstSeq  Secuencia del primer registro a escribir
+     * @param codec     Codificacion de las entradas
+     * @param name      Nombre del hilo de fsync
+     * @throws IOException si no se puede crear el segmento
+     */
+    Journal(Path directory, long firstSeq, Codec<E> codec, String name) throws IOException {
+        this.directory = directory;
+        this.codec = codec;
+        this.nextSeq = firstSeq;
+        this.writtenSeq = firstSeq - 1;
+        this.syncedSeq = firstSeq - 1;
+        this.segmentFirstSeq = firstSeq;
+        this.channel = openSegment(firstSeq);
+        this.syncer = Thread.ofPlatform().daemon().name(name).start(this::runSyncer);
+    }
+
+    // ==================== ESCRITURA ====================
+
+    /**
+     * Agrega una entrada al final del journal.
+     * El registro aun no es durable; ver {@link #awaitDurable}.
+     * 
+     * @param entry Mutacion a registrar
+     * @return Secuencia asignada
+     * @throws IOException si falla la escritura o un fsync anterior
+     */
+    long append(E entry) throws IOException {
+        checkWritable();
+        long seq = nextSeq;
+        payload.reset();
+        payloadOut.writeLong(seq);
+        codec.write(entry, payloadOut);
+        byte[] bytes = payload.toByteArray();
+        crc.reset();
+        crc.update(bytes);
+
+        syncLock.lock();
+        try {
+            while (pending.position() >= MAX_PENDING_BYTES && failure == null) {
+                notFull.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw new IOException("Journal sync failed", failure);
+            }
+            if (pending.remaining() < 8 + bytes.length) {
+                pending = grow(pending, 8 + bytes.length);
+            }
+            pending.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+            nextSeq++;
+            writtenSeq = seq;
+            pendingSync.signal();
+        } finally {
+            syncLock.unlock();
+        }
+        return seq;
+    }
+
+    /**
+     * Espera a que el registro {@code seq} este confirmado en disco.
+     * 
+     * @param seq Secuencia devuelta por {@link #append}
+     * @throws IOException si el fsync fallo o el journal se cerro antes
+     */
+    void awaitDurable(long seq) throws IOException {
+        syncLock.lock();
+        try {
+            while (syncedSeq < seq && failure == null && syncer.isAlive()) {
+                synced.awaitUninterruptibly();
+            }
+            if (syncedSeq < seq) {
+                throw failure != null ? new IOException("Journal sync failed", failure)
+                        : new IOException("Journal closed before record " + seq + " was synced");
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Cierra el segmento actual (con fsync) y empieza uno nuevo.
+     * Los registros escritos hasta ahora quedan en segmentos anteriores.
+     * 
+     * @return Secuencia del ultimo registro antes de la rotacion
+     * @throws IOException si no se puede sincronizar o crear el segmento
+     */
+    long rotate() throws IOException {
+        checkWritable();
+        long lastSeq = nextSeq - 1;
+        if (nextSeq == segmentFirstSeq) {
+            return lastSeq; // segmento vacio: no hay nada que rotar
+        }
+        ioLock.lock();
+        try {
+            // Escribir lo pendiente al segmento actual antes de cerrarlo
+            writeBatch(takePending());
+            channel.force(false);
+            channel.close();
+            channel = openSegment(nextSeq);
+            segmentFirstSeq = nextSeq;
+        } finally {
+            ioLock.unlock();
+        }
+        markSynced(lastSeq);
+        return lastSeq;
+    }
+
+    /**
+     * Borra los segmentos anteriores al actual. Solo es seguro despues de
+     * guardar un snapshot que cubra sus registros.
+     * 
+     * @throws IOException si no se puede listar o borrar un segmento
+     */
+    void deleteOldSegments() throws IOException {
+        String current = segmentName(segmentFirstSeq);
+        for (Path segment : segments(directory)) {
+            if (segment.getFileName().toString().compareTo(current) < 0) {
+                Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    /** @return Secuencia del siguiente registro */
+    long nextSeq() {
+        return nextSeq;
+    }
+
+    /**
+     * Sincroniza lo pendiente, detiene el hilo de fsync y cierra el segmento.
+     */
+    @Override
+    public void close() throws IOException {
+        syncLock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            pendingSync.signal();
+        } finally {
+            syncLock.unlock();
+        }
+        try {
+            syncer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    // ==================== LECTURA ====================
+
+    /**
+     * Reproduce en orden los registros posteriores a {@code afterSeq}.
+     * 
+     * @param directory Directorio del journal
+     * @param afterSeq  Ultima secuencia ya aplicada (la del snapshot)
+     * @param codec     Codificacion de las entradas
+     * @param apply     Accion para cada entrada
+     * @return Ultima secuencia aplicada
+     * @throws IOException si no se puede leer un segmento
+     */
+    static <E> long replay(Path directory, long afterSeq, Codec<E> codec, Consumer<? super E> apply)
+            throws IOException {
+        long lastSeq = afterSeq;
+        for (Path segment : segments(directory)) {
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(Files.newInputStream(segment), 1 << 16))) {
+                byte[] bytes;
+                while ((bytes = readPayload(in)) != null) {
+                    DataInputStream record = new DataInputStream(new ByteArrayInputStream(bytes));
+                    long seq = record.readLong();
+                    if (seq > lastSeq) {
+                        apply.accept(codec.read(record));
+                        lastSeq = seq;
+                    }
+                }
+            }
+        }
+        return lastSeq;
+    }
+
+    /**
+     * @return Payload del siguiente registro, o null al final del segmento
+     *         o en un registro incompleto o corrupto
+     */
+    private static byte[] readPayload(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length <= 0 || length > MAX_PAYLOAD_BYTES) {
+                return null;
+            }
+            int checksum = in.readInt();
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            return (int) crc.getValue() == checksum ? bytes : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    // ==================== SEGMENTOS ====================
+
+    private FileChannel openSegment(long firstSeq) throws IOException {
+        // Un segmento con el mismo nombre no tiene registros validos (si los
+        // tuviera, la secuencia ya habria avanzado al reproducirlo)
+        FileChannel segment = FileChannel.open(directory.resolve(segmentName(firstSeq)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        syncDirectory(directory);
+        return segment;
+    }
+
+    private static String segmentName(long firstSeq) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, firstSeq, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * @return Segmentos del directorio, del mas antiguo al mas reciente
+     */
+    private static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    /**
+     * Hace durable la creacion o el renombrado de archivos del directorio.
+     * No todos los sistemas permiten abrir un directorio; ahi se omite.
+     */
+    static void syncDirectory(Path directory) {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // No soportado en este sistema de archivos
+        }
+    }
+
+    // ==================== GROUP COMMIT ====================
+
+    private void checkWritable() throws IOException {
+        syncLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed: " + directory);
+            }
+            if (failure != null) {
+                throw new IOException("Journal sync failed", failure);
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void runSyncer() {
+        while (true) {
+            syncLock.lock();
+            try {
+                while (writtenSeq == syncedSeq && !closed) {
+                    pendingSync.awaitUninterruptibly();
+                }
+                if (writtenSeq == syncedSeq) {
+                    return;
+                }
+            } finally {
+                syncLock.unlock();
+            }
+
+            long target;
+            ioLock.lock();
+            try {
+                // Tomar el lote dentro de ioLock conserva el orden frente a rotate()
+                syncLock.lock();
+                try {
+                    target = writtenSeq;
+                } finally {
+                    syncLock.unlock();
+                }
+                writeBatch(takePending());
+                channel.force(false);
+            } catch (IOException e) {
+                syncLock.lock();
+                try {
+                    failure = e;
+                    synced.signalAll();
+                    notFull.signalAll();
+                } finally {
+                    syncLock.unlock();
+                }
+                return;
+            } finally {
+                ioLock.unlock();
+            }
+            markSynced(target);
+        }
+    }
+
+    /**
+     * Intercambia el buffer pendiente por el de repuesto.
+     * 
+     * @return Lote listo para escribir (en modo lectura)
+     */
+    private ByteBuffer takePending() {
+        syncLock.lock();
+        try {
+            ByteBuffer batch = pending;
+            spare.clear();
+            pending = spare;
+            spare = batch;
+            notFull.signalAll();
+            return batch.flip();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /** Escribe un lote al segmento actual. Requiere ioLock. */
+    private void writeBatch(ByteBuffer batch) throws IOException {
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+    }
+
+    private void markSynced(long seq) {
+        syncLock.lock();
+        try {
+            syncedSeq = Math.max(syncedSeq, seq);
+            synced.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer, int needed) {
+        int capacity = Math.max(buffer.capacity() * 2, buffer.position() + needed);
+        ByteBuffer larger = ByteBuffer.allocate(capacity);
+        return larger.put(buffer.flip());
+    }
+}
@@ -0,0 +1,115 @@
+package org.example.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Mutacion del catalogo registrada en el journal.
+ * 
+ * <p>
+ * Cada entrada sabe aplicarse sobre el estado persistido
+ * ({@link ProductRecord}); reproducir las entradas en orden sobre el
+ * ultimo snapshot reconstruye el catalogo.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see Journal
+ */
+sealed interface JournalEntry {
+
+    byte PRODUCT_ADDED = 1;
+    byte PRICE_CHANGED = 2;
+    byte STOCK_CHANGED = 3;
+
+    /** Codificacion de las entradas en el {@link Journal} del catalogo */
+    Journal.Codec<JournalEntry> CODEC = new Journal.Codec<>() {
+        @Override
+        public void write(JournalEntry entry, DataOutput out) throws IOException {
+            entry.writeTo(out);
+        }
+
+        @Override
+        public JournalEntry read(DataInput in) throws IOException {
+            return readFrom(in);
+        }
+    };
+
+    /** @return ID del producto afectado */
+    String productId();
+
+    /**
+     * Alta de un producto con su estado inicial.
+     * 
+     * @param product Estado del producto al darse de alta
+     */
+    record ProductAdded(ProductRecord product) implements JournalEntry {
+        @Override
+        public String productId() {
+            return product.id();
+        }
+    }
+
+    /**
+     * Cambio de precio.
+     * 
+     * @param productId  ID del producto
+     * @param priceCents Precio nuevo en centavos
+     */
+    record PriceChanged(String productId, long priceCents) implements JournalEntry {
+    }
+
+    /**
+     * Cambio de stock expresado como diferencia.
+     * 
+     * @param productId ID del producto
+     * @param delta     Unidades sumadas (positivo) o restadas (negativo)
+     */
+    record StockChanged(String productId, int delta) implements JournalEntry {
+    }
+
+    /**
+     * Aplica la entrada sobre el estado actual del producto.
+     * 
+     * @param current Estado actual (null si el producto no existe)
+     * @return Estado nuevo (null si la entrada no aplica)
+     */
+    default ProductRecord applyTo(ProductRecord current) {
+        return switch (this) {
+            case ProductAdded added -> added.product();
+            case PriceChanged price -> current == null ? null : current.withPriceCents(price.priceCents());
+            case StockChanged stock -> current == null ? null : current.withStockDelta(stock.delta());
+        };
+    }
+
+    default void writeTo(DataOutput out) throws IOException {
+        switch (this) {
+            case ProductAdded added -> {
+                out.writeByte(PRODUCT_ADDED);
+                added.product().writeTo(out);
+            }
+            case PriceChanged price -> {
+                out.writeByte(PRICE_CHANGED);
+                out.writeUTF(price.productId());
+                out.writeLong(price.priceCents());
+            }
+            case StockChanged stock -> {
+                out.writeByte(STOCK_CHANGED);
+                out.writeUTF(stock.productId());
+                out.writeInt(stock.delta());
+            }
+        }
+    }
+
+    static JournalEntry readFrom(DataInput in) throws IOException {
+        byte kind = in.readByte();
+        return switch (kind) {
+            case PRODUCT_ADDED -> new ProductAdded(ProductRecord.readFrom(in));
+            case PRICE_CHANGED -> new PriceChanged(in.readUTF(), in.readLong());
+            case STOCK_CHANGED -> new StockChanged(in.readUTF(), in.readInt());
+            default -> throw new IOException("Unknown journal entry type: " + kind);
+        };
+    }
+}
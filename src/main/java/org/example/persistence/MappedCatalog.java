@@ -0,0 +1,257 @@
+package org.example.persistence;
+
+import org.example.model.product.Product;
+import org.example.patterns.factory.FactoryRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Catalogo de solo lectura sobre un archivo mapeado en memoria.
+ * 
+ * <p>
+ * Abrir el archivo solo mapea y valida el encabezado: no lee los
+ * registros ni crea objetos, asi que abrir un catalogo de millones de
+ * productos toma milisegundos. Cada {@link Product} se crea con
+ * {@link FactoryRegistry} la primera vez que se pide y se reutiliza
+ * despues. El formato lo describe {@link MappedCatalogWriter}.
+ * </p>
+ * 
+ * <h2>Busqueda por ID:</h2>
+ * <p>
+ * El archivo incluye un indice de registros ordenado por los bytes UTF-8
+ * del ID. {@link #getProduct(String)} hace una busqueda binaria
+ * comparando bytes directamente en el archivo mapeado: O(log n) y sin
+ * crear strings intermedios.
+ * </p>
+ * 
+ * <p>
+ * Es seguro para multiples hilos: solo usa lecturas absolutas del buffer
+ * y cada producto se publica con compare-and-set, de modo que dos hilos
+ * que lo piden a la vez reciben la misma instancia.
+ * </p>
+ * 
+ * <h2>Ejemplo de Uso:</h2>
+ * 
+ * <pre>{@code
+ * MappedCatalogWriter.write(Path.of("catalog.bin"), products);
+ * MappedCatalog catalog = MappedCatalog.open(Path.of("catalog.bin"), registry);
+ * Product laptop = catalog.getProduct("E001"); // se crea aqui
+ * }</pre>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see MappedCatalogWriter
+ */
+public final class MappedCatalog {
+
+    /** "SHTM" */
+    static final int MAGIC = 0x5348544D;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int RECORD_BYTES = 32;
+
+    private final MappedByteBuffer buffer;
+    private final FactoryRegistry registry;
+    private final int count;
+    private final int recordsOffset;
+    private final int idIndexOffset;
+    private final int stringsOffset;
+
+    /** Productos ya creados, por numero de registro */
+    private final AtomicReferenceArray<Product> materialized;
+
+    private final AtomicInteger materializedCount = new AtomicInteger();
+
+    private MappedCatalog(MappedByteBuffer buffer, FactoryRegistry registry, Path file) {
+        this.buffer = buffer;
+        this.registry = registry;
+        long size = buffer.capacity();
+        if (size < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                || buffer.getInt(12) != RECORD_BYTES) {
+            throw new IllegalStateException("Not a mapped catalog file: " + file);
+        }
+        this.count = buffer.getInt(8);
+        long records = buffer.getLong(16);
+        long idIndex = buffer.getLong(24);
+        long strings = buffer.getLong(32);
+        long stringsLength = buffer.getLong(40);
+        if (count < 0 || records != HEADER_BYTES || idIndex != records + (long) count * RECORD_BYTES
+                || strings != idIndex + (long) count * Integer.BYTES || strings + stringsLength != size) {
+            throw new IllegalStateException("Corrupt mapped catalog file: " + file);
+        }
+        this.recordsOffset = (int) records;
+        this.idIndexOffset = (int) idIndex;
+        this.stringsOffset = (int) strings;
+        this.materialized = new AtomicReferenceArray<>(count);
+    }
+
+    /**
+     * Abre un archivo de catalogo.
+     * 
+     * @param file     Archivo escrito por {@link MappedCatalogWriter}
+     * @param registry Fabricas para crear los productos
+     * @return Catalogo mapeado
+     * @throws UncheckedIOException si el archivo no se puede abrir
+     * @throws IllegalStateException si el archivo no tiene el formato esperado
+     */
+    public static MappedCatalog open(Path file, FactoryRegistry registry) {
+        if (file == null || registry == null) {
+            throw new IllegalArgumentException("File and registry cannot be null");
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Mapped catalog file exceeds 2 GB: " + file);
+            }
+            // El mapeo sigue siendo valido despues de cerrar el canal
+            return new MappedCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), registry, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open catalog file: " + file, e);
+        }
+    }
+
+    /** @return Numero de productos del archivo */
+    public int size() {
+        return count;
+    }
+
+    /** @return Productos creados hasta ahora */
+    public int materializedCount() {
+        return materializedCount.get();
+    }
+
+    /**
+     * Busca un producto por ID, creandolo si es la primera vez.
+     * 
+     * @param id Identificador del producto
+     * @return Producto, o null si no existe
+     */
+    public Product getProduct(String id) {
+        int record = findRecord(id);
+        return record < 0 ? null : getProduct(record);
+    }
+
+    /**
+     * @param id Identificador del producto
+     * @return true si el archivo contiene el producto (no lo crea)
+     */
+    public boolean containsProduct(String id) {
+        return findRecord(id) >= 0;
+    }
+
+    /**
+     * Obtiene el producto de un registro, creandolo si es la primera vez.
+     * 
+     * @param record Numero de registro (orden de alta)
+     * @return Producto
+     * @throws IndexOutOfBoundsException si el registro no existe
+     */
+    public Product getProduct(int record) {
+        Product product = materialized.get(record);
+        if (product != null) {
+            return product;
+        }
+        int base = recordsOffset + record * RECORD_BYTES;
+        Product created = registry.createProduct(string(buffer.getInt(base)), string(buffer.getInt(base + 4)),
+                string(buffer.getInt(base + 8)), buffer.getLong(base + 16) / 100.0, buffer.getInt(base + 24),
+                string(buffer.getInt(base + 12)));
+        Product winner = materialized.compareAndExchange(record, null, created);
+        if (winner != null) {
+            return winner;
+        }
+        materializedCount.incrementAndGet();
+        return created;
+    }
+
+    /**
+     * Vista de todos los productos en orden de alta. Cada producto se crea
+     * al leerlo de la vista.
+     * 
+     * @return Lista de solo lectura
+     */
+    public List<Product> getAllProducts() {
+        return new LazyView();
+    }
+
+    // ==================== ARCHIVO ====================
+
+    /**
+     * Busqueda binaria sobre el indice por ID.
+     * 
+     * @return Numero de registro, o -1 si no existe
+     */
+    private int findRecord(String id) {
+        if (id == null) {
+            return -1;
+        }
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int record = buffer.getInt(idIndexOffset + mid * Integer.BYTES);
+            int cmp = compareId(record, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return record;
+            }
+        }
+        return -1;
+    }
+
+    /** Compara el ID de un registro con la llave, byte a byte sin signo */
+    private int compareId(int record, byte[] key) {
+        int ref = stringsOffset + buffer.getInt(recordsOffset + record * RECORD_BYTES + 4);
+        int length = buffer.getInt(ref);
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.compareUnsigned(buffer.get(ref + 4 + i), key[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private String string(int ref) {
+        if (ref < 0) {
+            return null;
+        }
+        int offset = stringsOffset + ref;
+        byte[] bytes = new byte[buffer.getInt(offset)];
+        buffer.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Vista perezosa sobre los registros.
+     */
+    private final class LazyView extends AbstractList<Product> implements RandomAccess {
+        @Override
+        public Product get(int index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+            }
+            return getProduct(index);
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package org.example.persistence;
+
+import org.example.model.product.Product;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Escribe un catalogo en el formato binario que lee {@link MappedCatalog}.
+ * 
+ * <h2>Formato (big-endian):</h2>
+ * 
+ * <pre>
+ * Encabezado ({@value MappedCatalog#HEADER_BYTES} bytes)
+ *   int  MAGIC ("SHTM"), int VERSION, int count, int RECORD_BYTES
+ *   long recordsOffset, long idIndexOffset, long stringsOffset, long stringsLength
+ * Registros: count x {@value MappedCatalog#RECORD_BYTES} bytes, en orden de alta
+ *   int typeRef, int idRef, int nameRef, int categoryRef, long priceCents, int stock, int (reservado)
+ * Indice por ID: count x int (numero de registro), ordenado por los bytes UTF-8 del ID
+ * Tabla de strings: [int longitud][bytes UTF-8] ...
+ * </pre>
+ * 
+ * <p>
+ * Los campos de texto son referencias (desplazamientos) a una tabla de
+ * strings sin repetidos: tipos y categorias se guardan una sola vez. El
+ * archivo se escribe en un temporal y se renombra de forma atomica.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see MappedCatalog
+ */
+public final class MappedCatalogWriter {
+
+    private MappedCatalogWriter() {
+    }
+
+    /**
+     * Escribe los productos en un archivo de catalogo.
+     * 
+     * @param file     Archivo destino
+     * @param products Productos en el orden en que se deben listar
+     * @throws IllegalArgumentException si hay IDs nulos o duplicados
+     * @throws UncheckedIOException si falla la escritura
+     */
+    public static void write(Path file, Collection<? extends Product> products) {
+        if (file == null || products == null) {
+            throw new IllegalArgumentException("File and products cannot be null");
+        }
+        int count = products.size();
+        StringTable strings = new StringTable();
+        int[] records = new int[count * 4];
+        long[] prices = new long[count];
+        int[] stocks = new int[count];
+        byte[][] ids = new byte[count][];
+
+        int i = 0;
+        for (Product product : products) {
+            if (product == null || product.getId() == null) {
+                throw new IllegalArgumentException("Products and their IDs cannot be null");
+            }
+            records[i * 4] = strings.ref(product.getType());
+            records[i * 4 + 1] = strings.ref(product.getId());
+            records[i * 4 + 2] = strings.ref(product.getName());
+            records[i * 4 + 3] = strings.ref(product.getCategory());
+            prices[i] = product.getUnitPrice().getCents();
+            stocks[i] = product.getStock();
+            ids[i] = product.getId().getBytes(StandardCharsets.UTF_8);
+            i++;
+        }
+
+        // Indice por ID: numeros de registro ordenados por los bytes del ID
+        Integer[] order = new Integer[count];
+        for (int r = 0; r < count; r++) {
+            order[r] = r;
+        }
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(ids[a], ids[b]));
+        for (int r = 1; r < count; r++) {
+            if (Arrays.equals(ids[order[r - 1]], ids[order[r]])) {
+                throw new IllegalArgumentException("Duplicate product ID: "
+                        + new String(ids[order[r]], StandardCharsets.UTF_8));
+            }
+        }
+
+        long recordsOffset = MappedCatalog.HEADER_BYTES;
+        long idIndexOffset = recordsOffset + (long) count * MappedCatalog.RECORD_BYTES;
+        long stringsOffset = idIndexOffset + (long) count * Integer.BYTES;
+        long totalBytes = stringsOffset + strings.size();
+        if (totalBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Catalog file would exceed 2 GB: " + totalBytes + " bytes");
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MappedCatalog.MAGIC);
+            out.writeInt(MappedCatalog.VERSION);
+            out.writeInt(count);
+            out.writeInt(MappedCatalog.RECORD_BYTES);
+            out.writeLong(recordsOffset);
+            out.writeLong(idIndexOffset);
+            out.writeLong(stringsOffset);
+            out.writeLong(strings.size());
+            for (int pad = 48; pad < MappedCatalog.HEADER_BYTES; pad++) {
+                out.writeByte(0);
+            }
+            for (int r = 0; r < count; r++) {
+                out.writeInt(records[r * 4]);
+                out.writeInt(records[r * 4 + 1]);
+                out.writeInt(records[r * 4 + 2]);
+                out.writeInt(records[r * 4 + 3]);
+                out.writeLong(prices[r]);
+                out.writeInt(stocks[r]);
+                out.writeInt(0);
+            }
+            for (int r = 0; r < count; r++) {
+                out.writeInt(order[r]);
+            }
+            strings.writeTo(out);
+            out.flush();
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write catalog file: " + file, e);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write catalog file: " + file, e);
+        }
+    }
+
+    /**
+     * Tabla de strings sin repetidos. Cada string se referencia por su
+     * desplazamiento dentro de la tabla; null se guarda como -1.
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> offsets = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        int ref(String value) {
+            if (value == null) {
+                return -1;
+            }
+            Integer offset = offsets.get(value);
+            if (offset == null) {
+                offset = bytes.size();
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                try {
+                    out.writeInt(utf8.length);
+                    out.write(utf8);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // ByteArrayOutputStream no falla
+                }
+                offsets.put(value, offset);
+            }
+            return offset;
+        }
+
+        int size() {
+            return bytes.size();
+        }
+
+        void writeTo(DataOutputStream target) throws IOException {
+            bytes.writeTo(target);
+        }
+    }
+}
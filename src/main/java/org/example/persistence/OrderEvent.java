@@ -0,0 +1,102 @@
+package org.example.persistence;
+
+import org.example.model.order.Order;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Evento del ciclo de vida de una orden registrado en el journal de
+ * ordenes.
+ * 
+ * <p>
+ * Cada evento sabe aplicarse sobre el estado persistido
+ * ({@link OrderRecord}); reproducir los eventos sobre el ultimo snapshot
+ * reconstruye las ordenes. Los eventos de una orden siempre van a la misma
+ * particion.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see OrderStore
+ */
+sealed interface OrderEvent {
+
+    byte ORDER_CREATED = 1;
+    byte STATUS_CHANGED = 2;
+
+    /** Codificacion de los eventos en el {@link Journal} de ordenes */
+    Journal.Codec<OrderEvent> CODEC = new Journal.Codec<>() {
+        @Override
+        public void write(OrderEvent event, DataOutput out) throws IOException {
+            event.writeTo(out);
+        }
+
+        @Override
+        public OrderEvent read(DataInput in) throws IOException {
+            return readFrom(in);
+        }
+    };
+
+    /** @return ID de la orden afectada */
+    String orderId();
+
+    /**
+     * Creacion (o reemplazo) de una orden con su estado inicial.
+     * 
+     * @param order Estado de la orden al guardarse
+     */
+    record OrderCreated(OrderRecord order) implements OrderEvent {
+        @Override
+        public String orderId() {
+            return order.orderId();
+        }
+    }
+
+    /**
+     * Transicion de estado.
+     * 
+     * @param orderId ID de la orden
+     * @param status  Estado nuevo
+     */
+    record StatusChanged(String orderId, Order.Status status) implements OrderEvent {
+    }
+
+    /**
+     * Aplica el evento sobre el estado actual de la orden.
+     * 
+     * @param current Estado actual (null si la orden no existe)
+     * @return Estado nuevo (null si el evento no aplica)
+     */
+    default OrderRecord applyTo(OrderRecord current) {
+        return switch (this) {
+            case OrderCreated created -> created.order();
+            case StatusChanged changed -> current == null ? null : current.advanceTo(changed.status());
+        };
+    }
+
+    default void writeTo(DataOutput out) throws IOException {
+        switch (this) {
+            case OrderCreated created -> {
+                out.writeByte(ORDER_CREATED);
+                created.order().writeTo(out);
+            }
+            case StatusChanged changed -> {
+                out.writeByte(STATUS_CHANGED);
+                out.writeUTF(changed.orderId());
+                out.writeUTF(changed.status().name());
+            }
+        }
+    }
+
+    static OrderEvent readFrom(DataInput in) throws IOException {
+        byte kind = in.readByte();
+        return switch (kind) {
+            case ORDER_CREATED -> new OrderCreated(OrderRecord.readFrom(in));
+            case STATUS_CHANGED -> new StatusChanged(in.readUTF(), Order.Status.valueOf(in.readUTF()));
+            default -> throw new IOException("Unknown order event type: " + kind);
+        };
+    }
+}
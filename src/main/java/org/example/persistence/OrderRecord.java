@@ -0,0 +1,157 @@
+package org.example.persistence;
+
+import org.example.model.Money;
+import org.example.model.order.CartItem;
+import org.example.model.order.Order;
+import org.example.model.order.User;
+import org.example.model.product.Product;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Estado persistido de una orden: lo necesario para volver a crearla.
+ * 
+ * <p>
+ * Las lineas guardan el ID del producto y el precio unitario pactado; el
+ * producto se vuelve a buscar en el catalogo al reconstruir la orden.
+ * El metodo de pago no se guarda.
+ * </p>
+ * 
+ * @param orderId       ID de la orden
+ * @param createdAt     Instante de creacion en milisegundos desde 1970
+ * @param userId        ID del usuario
+ * @param userName      Nombre del usuario
+ * @param userEmail     Email del usuario
+ * @param userAddress   Direccion de envio
+ * @param giftNote      Nota de regalo (puede ser null)
+ * @param status        Estado de la orden (nunca PROCESSING)
+ * @param stockReserved true si la orden desconto el stock de sus lineas
+ * @param lines         Lineas de la orden
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see OrderStore
+ */
+record OrderRecord(String orderId, long createdAt, int userId, String userName, String userEmail,
+        String userAddress, String giftNote, Order.Status status, boolean stockReserved, List<Line> lines) {
+
+    /**
+     * Linea persistida de una orden.
+     * 
+     * @param productId      ID del producto
+     * @param quantity       Unidades
+     * @param unitPriceCents Precio unitario pactado en centavos
+     */
+    record Line(String productId, int quantity, long unitPriceCents) {
+    }
+
+    /**
+     * @param order Orden a persistir
+     * @return Estado actual de la orden (PROCESSING se guarda como PENDING)
+     */
+    static OrderRecord of(Order order) {
+        User user = order.getUser();
+        List<Line> lines = new ArrayList<>(order.getLineItems().size());
+        for (CartItem item : order.getLineItems()) {
+            lines.add(new Line(item.getProduct().getId(), item.getQuantity(), item.getUnitPrice().getCents()));
+        }
+        Order.Status status = order.getOrderStatus() == Order.Status.PROCESSING
+                ? Order.Status.PENDING : order.getOrderStatus();
+        return new OrderRecord(order.getOrderId(), order.getCreatedAt().toEpochMilli(), user.getId(),
+                user.getName(), user.getEmail(), user.getShippingAddress(), order.getGiftNote(), status,
+                order.isStockReserved(), List.copyOf(lines));
+    }
+
+    /**
+     * Avanza el estado si el nuevo esta mas adelante en {@link Order.Status}.
+     * Las transiciones notificadas solo avanzan, asi que aplicarlas en
+     * cualquier orden deja el mismo estado final.
+     * 
+     * @param next Estado de una transicion
+     * @return Copia con el estado mas avanzado
+     */
+    OrderRecord advanceTo(Order.Status next) {
+        if (next.ordinal() <= status.ordinal()) {
+            return this;
+        }
+        return new OrderRecord(orderId, createdAt, userId, userName, userEmail, userAddress, giftNote, next,
+                stockReserved, lines);
+    }
+
+    /**
+     * Vuelve a crear la orden con el estado guardado.
+     * 
+     * @param products Busqueda de productos por ID
+     * @param users    Usuarios ya creados por ID (se comparten entre ordenes)
+     * @return Orden nueva, o null si algun producto ya no existe
+     */
+    Order toOrder(Function<String, Product> products, Map<Integer, User> users) {
+        List<CartItem> items = new ArrayList<>(lines.size());
+        for (Line line : lines) {
+            Product product = products.apply(line.productId());
+            if (product == null) {
+                return null;
+            }
+            items.add(new CartItem(product, line.quantity(), Money.ofCents(line.unitPriceCents())));
+        }
+        User user = users.computeIfAbsent(userId, id -> new User(id, userName, userEmail, userAddress));
+        Order.OrderBuilder builder = new Order.OrderBuilder()
+                .setOrderId(orderId)
+                .setUser(user)
+                .setLineItems(items)
+                .setOrderStatus(status)
+                .setStockReserved(stockReserved)
+                .setCreatedAt(Instant.ofEpochMilli(createdAt));
+        if (giftNote != null) {
+            builder.setGiftNote(giftNote);
+        }
+        return builder.build();
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(orderId);
+        out.writeLong(createdAt);
+        out.writeInt(userId);
+        out.writeUTF(userName);
+        out.writeUTF(userEmail);
+        out.writeUTF(userAddress);
+        out.writeBoolean(giftNote != null);
+        if (giftNote != null) {
+            out.writeUTF(giftNote);
+        }
+        out.writeUTF(status.name());
+        out.writeBoolean(stockReserved);
+        out.writeInt(lines.size());
+        for (Line line : lines) {
+            out.writeUTF(line.productId());
+            out.writeInt(line.quantity());
+            out.writeLong(line.unitPriceCents());
+        }
+    }
+
+    static OrderRecord readFrom(DataInput in) throws IOException {
+        String orderId = in.readUTF();
+        long createdAt = in.readLong();
+        int userId = in.readInt();
+        String userName = in.readUTF();
+        String userEmail = in.readUTF();
+        String userAddress = in.readUTF();
+        String giftNote = in.readBoolean() ? in.readUTF() : null;
+        Order.Status status = Order.Status.valueOf(in.readUTF());
+        boolean stockReserved = in.readBoolean();
+        int count = in.readInt();
+        List<Line> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add(new Line(in.readUTF(), in.readInt(), in.readLong()));
+        }
+        return new OrderRecord(orderId, createdAt, userId, userName, userEmail, userAddress, giftNote, status,
+                stockReserved, List.copyOf(lines));
+    }
+}
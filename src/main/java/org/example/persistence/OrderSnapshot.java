@@ -0,0 +1,114 @@
+package org.example.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot compacto de una particion del journal de ordenes: el estado de
+ * sus ordenes hasta una secuencia.
+ * 
+ * <h2>Formato:</h2>
+ * 
+ * <pre>
+ * int  MAGIC, int VERSION
+ * long ultima secuencia incluida
+ * int  numero de ordenes
+ * {@link OrderRecord} x N
+ * long CRC32 de todo lo anterior
+ * </pre>
+ * 
+ * <p>
+ * Se escribe en un archivo temporal, se sincroniza y se renombra de forma
+ * atomica: una caida a mitad de la escritura deja el snapshot anterior
+ * intacto.
+ * </p>
+ * 
+ * @param lastSeq Ultima secuencia del journal incluida
+ * @param orders  Ordenes en orden de registro
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see OrderStore
+ */
+record OrderSnapshot(long lastSeq, List<OrderRecord> orders) {
+
+    /** "SHTO" */
+    private static final int MAGIC = 0x5348544F;
+    private static final int VERSION = 2;
+
+    /**
+     * Escribe un snapshot de forma atomica.
+     * 
+     * @param file    Archivo destino
+     * @param lastSeq Ultima secuencia incluida
+     * @param orders  Ordenes a guardar
+     * @throws IOException si falla la escritura
+     */
+    static void write(Path file, long lastSeq, Collection<OrderRecord> orders) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(lastSeq);
+            out.writeInt(orders.size());
+            for (OrderRecord order : orders) {
+                order.writeTo(out);
+            }
+            out.writeLong(crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Journal.syncDirectory(file.getParent());
+    }
+
+    /**
+     * Lee un snapshot y verifica su integridad.
+     * 
+     * @param file Archivo del snapshot
+     * @return Snapshot leido
+     * @throws IOException si el archivo no se puede leer
+     * @throws IllegalStateException si el archivo esta corrupto
+     */
+    static OrderSnapshot read(Path file) throws IOException {
+        // Un solo CRC sobre el arreglo completo en vez de uno por byte leido
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < Long.BYTES) {
+            throw new IllegalStateException("Not an order snapshot: " + file);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - Long.BYTES);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IllegalStateException("Not an order snapshot: " + file);
+        }
+        long lastSeq = in.readLong();
+        int count = in.readInt();
+        List<OrderRecord> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(OrderRecord.readFrom(in));
+        }
+        if (in.readLong() != crc.getValue() || in.available() != 0) {
+            throw new IllegalStateException("Corrupt order snapshot: " + file);
+        }
+        return new OrderSnapshot(lastSeq, orders);
+    }
+}
@@ -0,0 +1,521 @@
+package org.example.persistence;
+
+import org.example.model.order.Order;
+import org.example.model.order.OrderChangeListener;
+import org.example.model.order.User;
+import org.example.model.product.Product;
+import org.example.output.Output;
+import org.example.service.OrderRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Historial durable de ordenes: cada creacion y cada cambio de estado se
+ * registra como evento en un journal en disco, y al arrancar se
+ * reconstruye el {@link OrderRepository} reproduciendo los eventos.
+ * 
+ * <h2>Particiones:</h2>
+ * <p>
+ * El journal se divide en particiones por hash del ID de la orden, cada
+ * una en su propio directorio con su {@link Journal}, su snapshot y su
+ * lock. Todos los eventos de una orden caen en la misma particion, asi que
+ * al arrancar las particiones se reproducen en paralelo (hasta un hilo por
+ * nucleo) y los escritores de ordenes distintas rara vez compiten.
+ * </p>
+ * 
+ * <h2>Snapshots:</h2>
+ * <p>
+ * Cada {@code snapshotEvery} eventos de una particion se guarda un
+ * {@link OrderSnapshot} con el estado de sus ordenes y se borran los
+ * segmentos que cubre. Al arrancar solo se reproduce la cola posterior al
+ * snapshot, asi que el tiempo de arranque depende del numero de ordenes y
+ * no de la historia completa de eventos.
+ * </p>
+ * 
+ * <h2>Consistencia:</h2>
+ * <ul>
+ * <li>Las transiciones se reciben como {@link OrderChangeListener}, en el
+ * hilo que las hizo. Solo avanzan en el orden de {@link Order.Status}, y
+ * al reproducirlas se conserva el estado mas avanzado: dos transiciones
+ * concurrentes de una orden pueden registrarse en cualquier orden.</li>
+ * <li>El snapshot no lee las ordenes vivas, sino una imagen que se
+ * actualiza con cada evento bajo el lock de la particion.</li>
+ * <li>Con {@code awaitDurable} activo, cada evento regresa despues del
+ * fsync que lo incluye.</li>
+ * <li>Un cambio de estado llega cuando la transicion ya ocurrio (ej: la
+ * orden ya se cobro), asi que el listener nunca lanza: si el journal
+ * falla, el error queda en {@link #getFailure()} y el historial deja de
+ * registrar eventos.</li>
+ * </ul>
+ * 
+ * <h2>Ejemplo de Uso:</h2>
+ * 
+ * <pre>{@code
+ * OrderStore orders = OrderStore.open(Path.of("data/orders"), 4, repository,
+ *         store::getProduct, true, 100_000);
+ * orders.save(order);                 // ORDER_CREATED
+ * order.processPayment();            // STATUS_CHANGED
+ * orders.close();
+ * }</pre>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see OrderEvent
+ * @see OrderSnapshot
+ */
+public class OrderStore implements OrderChangeListener, AutoCloseable {
+
+    private static final String SNAPSHOT_FILE = "orders.snapshot";
+    private static final String PARTITION_PREFIX = "partition-";
+
+    /**
+     * Resultado de la reconstruccion al abrir el historial.
+     * 
+     * @param partitions     Particiones reproducidas en paralelo
+     * @param snapshotOrders Ordenes leidas de los snapshots
+     * @param journalEvents  Eventos reproducidos despues de los snapshots
+     * @param orders         Ordenes reconstruidas en el repositorio
+     * @param skipped        Ordenes omitidas porque un producto ya no existe
+     * @param nanos          Duracion total (lectura, reconstruccion y carga)
+     */
+    public record ReplayStats(int partitions, long snapshotOrders, long journalEvents, int orders, int skipped,
+            long nanos) {
+
+        /** @return Eventos del journal reproducidos por segundo */
+        public double eventsPerSecond() {
+            return nanos == 0 ? 0 : journalEvents * 1e9 / nanos;
+        }
+    }
+
+    private final OrderRepository repository;
+    private final Partition[] partitions;
+
+    /** true: cada evento espera su fsync */
+    private final boolean awaitDurable;
+
+    /** Eventos de una particion entre snapshots automaticos (0 = desactivado) */
+    private final long snapshotEvery;
+
+    /** Se asigna una vez en {@link #open}, antes de publicar el historial */
+    private ReplayStats replayStats;
+
+    private volatile boolean closed;
+
+    /** Primer error al registrar una transicion ya hecha (null si no hubo) */
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    private OrderStore(OrderRepository repository, Partition[] partitions, boolean awaitDurable,
+            long snapshotEvery) {
+        this.repository = repository;
+        this.partitions = partitions;
+        this.awaitDurable = awaitDurable;
+        this.snapshotEvery = snapshotEvery;
+    }
+
+    /**
+     * Abre (o crea) el historial de ordenes y carga en el repositorio las
+     * ordenes reconstruidas.
+     * 
+     * @param directory     Directorio de datos
+     * @param partitions    Numero de particiones (debe coincidir con el de
+     *                      un historial existente)
+     * @param repository    Repositorio a llenar y mantener
+     * @param products      Busqueda de productos por ID para las lineas
+     * @param awaitDurable  true para que cada evento espere su fsync
+     * @param snapshotEvery Eventos por particion entre snapshots (0 = nunca)
+     * @return Historial abierto
+     * @throws IllegalArgumentException si algun parametro es invalido
+     * @throws IllegalStateException    si el historial tiene otro numero de
+     *                                  particiones o un snapshot esta corrupto
+     * @throws UncheckedIOException     si los archivos no se pueden leer
+     */
+    public static OrderStore open(Path directory, int partitions, OrderRepository repository,
+            Function<String, Product> products, boolean awaitDurable, long snapshotEvery) {
+        if (directory == null || repository == null || products == null) {
+            throw new IllegalArgumentException("Directory, repository and products cannot be null");
+        }
+        if (partitions < 1 || partitions > 1024) {
+            throw new IllegalArgumentException("Partitions must be between 1 and 1024");
+        }
+        if (snapshotEvery < 0) {
+            throw new IllegalArgumentException("Snapshot interval cannot be negative");
+        }
+        long begin = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            int existing = countPartitions(directory);
+            if (existing > 0 && existing != partitions) {
+                throw new IllegalStateException("Order store has " + existing + " partitions, requested "
+                        + partitions);
+            }
+
+            // Las particiones se leen y se reconstruyen en paralelo
+            Map<Integer, User> users = new ConcurrentHashMap<>();
+            List<Future<Replayed>> futures = new ArrayList<>(partitions);
+            ExecutorService pool = Executors.newFixedThreadPool(
+                    Math.min(partitions, Runtime.getRuntime().availableProcessors()));
+            try {
+                for (int i = 0; i < partitions; i++) {
+                    Path partitionDir = directory.resolve(partitionName(i));
+                    futures.add(pool.submit(() -> replay(partitionDir, products, users)));
+                }
+                Replayed[] replayed = new Replayed[partitions];
+                for (int i = 0; i < partitions; i++) {
+                    replayed[i] = await(futures.get(i));
+                }
+
+                Partition[] opened = new Partition[partitions];
+                long snapshotOrders = 0;
+                long journalEvents = 0;
+                int skipped = 0;
+                for (int i = 0; i < partitions; i++) {
+                    opened[i] = new Partition(directory.resolve(partitionName(i)), replayed[i].image(),
+                            replayed[i].lastSeq(), i);
+                    snapshotOrders += replayed[i].snapshotOrders();
+                    journalEvents += replayed[i].journalEvents();
+                    skipped += replayed[i].skipped();
+                }
+                // En orden de creacion el repositorio agrega al final de cada indice
+                List<Order> orders = new ArrayList<>();
+                for (Replayed partition : replayed) {
+                    orders.addAll(partition.orders());
+                }
+                orders.sort(Comparator.comparing(Order::getCreatedAt));
+                OrderStore store = new OrderStore(repository, opened, awaitDurable, snapshotEvery);
+                for (Order order : orders) {
+                    order.addChangeListener(store);
+                    repository.save(order);
+                }
+                store.replayStats = new ReplayStats(partitions, snapshotOrders, journalEvents, orders.size(),
+                        skipped, System.nanoTime() - begin);
+                return store;
+            } finally {
+                pool.shutdownNow();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open order store: " + directory, e);
+        }
+    }
+
+    /**
+     * Registra una orden (nueva o reconstruida con el mismo ID) y la guarda
+     * en el repositorio. Sus cambios de estado se registran a partir de
+     * este momento.
+     * 
+     * @param order Orden a guardar
+     * @throws IllegalArgumentException si la orden es null
+     * @throws IllegalStateException    si el historial esta cerrado o fallo
+     * @throws UncheckedIOException     si no se puede escribir el journal
+     */
+    public void save(Order order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order cannot be null");
+        }
+        Partition partition = partitionOf(order.getOrderId());
+        long seq;
+        partition.lock.lock();
+        try {
+            Order previous = repository.findById(order.getOrderId());
+            if (previous == order) {
+                return;
+            }
+            if (previous != null) {
+                previous.removeChangeListener(this);
+            }
+            // Los cambios posteriores esperan este lock y quedan despues de la creacion
+            order.addChangeListener(this);
+            try {
+                seq = append(partition, new OrderEvent.OrderCreated(OrderRecord.of(order)));
+            } catch (RuntimeException e) {
+                order.removeChangeListener(this);
+                throw e;
+            }
+            repository.save(order);
+        } finally {
+            partition.lock.unlock();
+        }
+        afterAppend(partition, seq);
+    }
+
+    /**
+     * Registra una transicion que la orden ya hizo. No lanza: la orden no
+     * puede deshacerla (el pago ya se cobro), asi que un error se guarda
+     * como falla del historial en lugar de llegar a quien hizo el cambio.
+     */
+    @Override
+    public void onStatusChanged(Order order, Order.Status oldStatus, Order.Status newStatus) {
+        if (failure.get() != null) {
+            return;
+        }
+        Partition partition = partitionOf(order.getOrderId());
+        try {
+            long seq;
+            partition.lock.lock();
+            try {
+                seq = append(partition, new OrderEvent.StatusChanged(order.getOrderId(), newStatus));
+            } finally {
+                partition.lock.unlock();
+            }
+            afterAppend(partition, seq);
+        } catch (RuntimeException e) {
+            if (failure.compareAndSet(null, e)) {
+                Output.error("Order journal failed, status changes are no longer recorded: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Obtiene el error que detuvo el historial. Desde ese momento las
+     * ordenes siguen cambiando de estado en memoria, pero sus eventos ya no
+     * se registran.
+     * 
+     * @return Primer error al registrar una transicion, o null si no hubo
+     */
+    public RuntimeException getFailure() {
+        return failure.get();
+    }
+
+    /** @return Resultado de la reconstruccion al abrir */
+    public ReplayStats getReplayStats() {
+        return replayStats;
+    }
+
+    /**
+     * Guarda un snapshot de cada particion y borra los segmentos que cubre.
+     * 
+     * @throws UncheckedIOException  si no se puede escribir un snapshot
+     * @throws IllegalStateException si el historial esta cerrado
+     */
+    public void snapshot() {
+        for (Partition partition : partitions) {
+            snapshot(partition);
+        }
+    }
+
+    /**
+     * Sincroniza los journals y los cierra. Las ordenes guardadas despues
+     * del cierre lanzan {@link IllegalStateException}; sus cambios de estado
+     * ya no se registran y quedan como falla (ver {@link #getFailure()}).
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Partition partition : partitions) {
+            partition.lock.lock();
+            try {
+                partition.journal.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot close order journal", e);
+            } finally {
+                partition.lock.unlock();
+            }
+        }
+    }
+
+    // ==================== JOURNAL ====================
+
+    private Partition partitionOf(String orderId) {
+        return partitions[Math.floorMod(orderId.hashCode(), partitions.length)];
+    }
+
+    /** Escribe el evento y actualiza la imagen. Requiere el lock de la particion. */
+    private long append(Partition partition, OrderEvent event) {
+        if (closed) {
+            throw new IllegalStateException("Order store is closed");
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Order journal failed", failure.get());
+        }
+        try {
+            long seq = partition.journal.append(event);
+            OrderRecord updated = event.applyTo(partition.image.get(event.orderId()));
+            if (updated != null) {
+                partition.image.put(updated.orderId(), updated);
+            }
+            partition.recordsSinceSnapshot++;
+            return seq;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot append to order journal", e);
+        }
+    }
+
+    /** Espera la durabilidad y dispara el snapshot periodico. Fuera del lock. */
+    private void afterAppend(Partition partition, long seq) {
+        if (awaitDurable) {
+            try {
+                partition.journal.awaitDurable(seq);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Order journal is not durable", e);
+            }
+        }
+        if (snapshotEvery > 0 && partition.recordsSinceSnapshot >= snapshotEvery
+                && partition.snapshotRunning.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("order-snapshot-" + partition.index).start(() -> {
+                try {
+                    snapshot(partition);
+                } catch (RuntimeException e) {
+                    Output.error("Order snapshot failed: " + e.getMessage());
+                } finally {
+                    partition.snapshotRunning.set(false);
+                }
+            });
+        }
+    }
+
+    private void snapshot(Partition partition) {
+        partition.snapshotLock.lock();
+        try {
+            List<OrderRecord> orders;
+            long lastSeq;
+            partition.lock.lock();
+            try {
+                if (closed) {
+                    throw new IllegalStateException("Order store is closed");
+                }
+                // Todo lo anterior queda en segmentos cerrados; la copia de la
+                // imagen corresponde exactamente a lastSeq
+                lastSeq = partition.journal.rotate();
+                orders = new ArrayList<>(partition.image.values());
+                partition.recordsSinceSnapshot = 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot rotate order journal", e);
+            } finally {
+                partition.lock.unlock();
+            }
+            OrderSnapshot.write(partition.directory.resolve(SNAPSHOT_FILE), lastSeq, orders);
+            partition.journal.deleteOldSegments();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write order snapshot", e);
+        } finally {
+            partition.snapshotLock.unlock();
+        }
+    }
+
+    // ==================== REPRODUCCION ====================
+
+    /**
+     * Estado de una particion despues de reproducirla.
+     */
+    private record Replayed(Map<String, OrderRecord> image, long lastSeq, int snapshotOrders, long journalEvents,
+            List<Order> orders, int skipped) {
+    }
+
+    /** Lee el snapshot y la cola del journal de una particion y reconstruye sus ordenes. */
+    private static Replayed replay(Path directory, Function<String, Product> products, Map<Integer, User> users)
+            throws IOException {
+        Files.createDirectories(directory);
+        Map<String, OrderRecord> image = new LinkedHashMap<>();
+        long lastSeq = 0;
+        int snapshotOrders = 0;
+        Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshotFile)) {
+            OrderSnapshot snapshot = OrderSnapshot.read(snapshotFile);
+            for (OrderRecord record : snapshot.orders()) {
+                image.put(record.orderId(), record);
+            }
+            lastSeq = snapshot.lastSeq();
+            snapshotOrders = snapshot.orders().size();
+        }
+        long[] events = new long[1];
+        lastSeq = Journal.replay(directory, lastSeq, OrderEvent.CODEC, event -> {
+            events[0]++;
+            OrderRecord updated = event.applyTo(image.get(event.orderId()));
+            if (updated != null) {
+                image.put(updated.orderId(), updated);
+            }
+        });
+        List<Order> orders = new ArrayList<>(image.size());
+        int skipped = 0;
+        for (OrderRecord record : image.values()) {
+            Order order = record.toOrder(products, users);
+            if (order == null) {
+                skipped++;
+            } else {
+                orders.add(order);
+            }
+        }
+        return new Replayed(image, lastSeq, snapshotOrders, events[0], orders, skipped);
+    }
+
+    private static Replayed await(Future<Replayed> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while replaying orders", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Order replay failed", cause);
+        }
+    }
+
+    private static String partitionName(int index) {
+        return String.format("%s%04d", PARTITION_PREFIX, index);
+    }
+
+    private static int countPartitions(Path directory) throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PARTITION_PREFIX + "*")) {
+            for (Path path : stream) {
+                if (Files.isDirectory(path)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /** Journal, imagen y locks de una particion */
+    private static final class Partition {
+        final Path directory;
+        final int index;
+        final Journal<OrderEvent> journal;
+
+        /** Serializa las escrituras al journal y protege la imagen */
+        final ReentrantLock lock = new ReentrantLock();
+
+        /** Estado persistido de cada orden, en orden de registro */
+        final Map<String, OrderRecord> image;
+
+        /** Eventos desde el ultimo snapshot (se escribe bajo el lock) */
+        volatile long recordsSinceSnapshot;
+
+        /** Serializa los snapshots */
+        final ReentrantLock snapshotLock = new ReentrantLock();
+
+        /** Evita snapshots simultaneos */
+        final AtomicBoolean snapshotRunning = new AtomicBoolean();
+
+        Partition(Path directory, Map<String, OrderRecord> image, long lastSeq, int index) throws IOException {
+            this.directory = directory;
+            this.image = image;
+            this.index = index;
+            this.journal = new Journal<>(directory, lastSeq + 1, OrderEvent.CODEC, "order-journal-sync-" + index);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.persistence;
+
+import org.example.model.product.Product;
+import org.example.patterns.factory.FactoryRegistry;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Estado persistido de un producto del catalogo.
+ * 
+ * <p>
+ * Es la forma en que un producto se guarda en el journal y en los
+ * snapshots: solo datos, con el precio en centavos exactos.
+ * </p>
+ * 
+ * @param type       Tipo registrado en {@link FactoryRegistry}
+ * @param id         Identificador unico
+ * @param name       Nombre
+ * @param category   Categoria
+ * @param priceCents Precio en centavos
+ * @param stock      Unidades en inventario
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+record ProductRecord(String type, String id, String name, String category, long priceCents, int stock) {
+
+    /**
+     * @param product Producto a persistir
+     * @return Estado actual del producto
+     */
+    static ProductRecord of(Product product) {
+        return new ProductRecord(product.getType(), product.getId(), product.getName(), product.getCategory(),
+                product.getUnitPrice().getCents(), product.getStock());
+    }
+
+    /**
+     * @param cents Nuevo precio en centavos
+     * @return Copia con el precio cambiado
+     */
+    ProductRecord withPriceCents(long cents) {
+        return new ProductRecord(type, id, name, category, cents, stock);
+    }
+
+    /**
+     * @param delta Unidades a sumar o restar
+     * @return Copia con el stock ajustado
+     */
+    ProductRecord withStockDelta(int delta) {
+        return new ProductRecord(type, id, name, category, priceCents, stock + delta);
+    }
+
+    /**
+     * Vuelve a crear el producto con la fabrica de su tipo.
+     * 
+     * @param registry Registro de fabricas
+     * @return Producto nuevo con este estado
+     */
+    Product toProduct(FactoryRegistry registry) {
+        // cents / 100.0 vuelve al mismo centavo: Money.of redondea a 2 decimales
+        return registry.createProduct(type, id, name, priceCents / 100.0, stock, category);
+    }
+
+    void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(type);
+        out.writeUTF(id);
+        out.writeUTF(name);
+        out.writeUTF(category);
+        out.writeLong(priceCents);
+        out.writeInt(stock);
+    }
+
+    static ProductRecord readFrom(DataInput in) throws IOException {
+        return new ProductRecord(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readLong(),
+                in.readInt());
+    }
+}
@@ -0,0 +1,292 @@
+package org.example.service;
+
+import org.example.model.order.CartItem;
+import org.example.model.order.Order;
+import org.example.model.order.User;
+import org.example.model.product.Product;
+import org.example.patterns.strategy.PaymentStrategy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checkout en lote: crea y cobra muchas ordenes en una sola pasada.
+ * 
+ * <p>
+ * Pensado para clientes B2B que envian cientos de ordenes a la vez. Cada
+ * solicitud recibe su propio {@link Result}: una orden invalida, sin stock
+ * o con el pago rechazado no afecta a las demas.
+ * </p>
+ * 
+ * <h2>Pasos:</h2>
+ * <ol>
+ * <li><b>Validacion:</b> usuario y lineas presentes, sin reservas de un
+ * carrito (esas se confirman con {@link Order.OrderBuilder#build()}).</li>
+ * <li><b>Stock por SKU:</b> se suma la demanda de todo el lote y se
+ * descuenta con un solo {@link Product#tryDecrement} por SKU. Si no
+ * alcanza, se toma lo que haya y se reparte en el orden del lote: una
+ * orden recibe todas sus lineas o ninguna.</li>
+ * <li><b>Ordenes y pagos:</b> se construye cada orden (duena de sus
+ * unidades: las devuelve si se cancela) y, si trae metodo de pago, se
+ * cobra con {@link Order#tryProcessPayment()}.</li>
+ * <li><b>Cierre:</b> las unidades que no se usaron vuelven con un solo
+ * {@link Product#incrementStock(int)} por SKU y los eventos de pago se
+ * publican juntos con {@link Order#notifyObserversInBatch}.</li>
+ * </ol>
+ * 
+ * <p>
+ * Asi, un lote de N ordenes sobre K SKUs genera K notificaciones de stock
+ * (y K entradas en el journal del catalogo) en vez de una por linea, y una
+ * tarea por carril del despachador en vez de una por orden.
+ * </p>
+ * 
+ * <h2>Ejemplo de Uso:</h2>
+ * 
+ * <pre>{@code
+ * BatchCheckout checkout = new BatchCheckout(OrderIdGenerator.getInstance(),
+ *         OrderEventDispatcher.getInstance());
+ * List<BatchCheckout.Result> results = checkout.checkout(List.of(
+ *         new BatchCheckout.Request(user, List.of(new CartItem(laptop, 5)), payment, null)));
+ * for (BatchCheckout.Result result : results) {
+ *     if (result.isSuccess()) {
+ *         repository.save(result.order());
+ *     }
+ * }
+ * }</pre>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see Order.OrderBuilder
+ */
+public final class BatchCheckout {
+
+    /** Resultado de una solicitud del lote */
+    public enum Outcome {
+        /** Orden creada y pagada */
+        PAID,
+        /** Orden creada sin metodo de pago (queda PENDING) */
+        CREATED,
+        /** Solicitud invalida; no se creo la orden */
+        INVALID,
+        /** No hubo stock para todas las lineas; no se creo la orden */
+        OUT_OF_STOCK,
+        /** El pago fue rechazado o fallo; el stock se devolvio */
+        PAYMENT_FAILED
+    }
+
+    /**
+     * Una orden del lote.
+     * 
+     * @param user          Usuario de la orden
+     * @param lines         Lineas (producto, cantidad y precio)
+     * @param paymentMethod Estrategia de pago (null = la orden queda PENDING)
+     * @param giftNote      Nota de regalo (puede ser null)
+     */
+    public record Request(User user, List<CartItem> lines, PaymentStrategy paymentMethod, String giftNote) {
+    }
+
+    /**
+     * Resultado de una solicitud.
+     * 
+     * @param index   Posicion de la solicitud en el lote
+     * @param outcome Resultado
+     * @param order   Orden creada (null si no se creo)
+     * @param message Motivo del rechazo (null si se creo)
+     */
+    public record Result(int index, Outcome outcome, Order order, String message) {
+
+        /** @return true si la orden se creo (PAID o CREATED) */
+        public boolean isSuccess() {
+            return outcome == Outcome.PAID || outcome == Outcome.CREATED;
+        }
+    }
+
+    /** Demanda y unidades descontadas de un SKU */
+    private static final class Demand {
+        final Product product;
+        long requested;
+        int granted;
+        int used;
+
+        Demand(Product product) {
+            this.product = product;
+        }
+    }
+
+    private final OrderIdGenerator ids;
+    private final OrderEventDispatcher eventDispatcher;
+
+    /**
+     * @param ids             Generador de IDs de las ordenes
+     * @param eventDispatcher Despachador de eventos de las ordenes
+     * @throws IllegalArgumentException si algun parametro es null
+     */
+    public BatchCheckout(OrderIdGenerator ids, OrderEventDispatcher eventDispatcher) {
+        if (ids == null || eventDispatcher == null) {
+            throw new IllegalArgumentException("ID generator and event dispatcher cannot be null");
+        }
+        this.ids = ids;
+        this.eventDispatcher = eventDispatcher;
+    }
+
+    /**
+     * Procesa un lote de solicitudes.
+     * 
+     * @param requests Solicitudes del lote
+     * @return Un resultado por solicitud, en el mismo orden
+     * @throws IllegalArgumentException si la lista es null
+     */
+    public List<Result> checkout(List<Request> requests) {
+        if (requests == null) {
+            throw new IllegalArgumentException("Requests cannot be null");
+        }
+        Result[] results = new Result[requests.size()];
+
+        // 1. Validar y sumar la demanda de cada SKU
+        Map<String, Demand> demands = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            String problem = validate(requests.get(i));
+            if (problem != null) {
+                results[i] = new Result(i, Outcome.INVALID, null, problem);
+                continue;
+            }
+            for (CartItem line : requests.get(i).lines()) {
+                demands.computeIfAbsent(line.getSku(), sku -> new Demand(line.getProduct())).requested +=
+                        line.getQuantity();
+            }
+        }
+
+        // 2. Un descuento por SKU (o lo que haya si no alcanza)
+        for (Demand demand : demands.values()) {
+            demand.granted = take(demand.product, demand.requested);
+        }
+
+        // 3. Repartir en orden del lote, construir y cobrar
+        List<Order> paid = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            Request request = requests.get(i);
+            if (!allocate(request, demands)) {
+                results[i] = new Result(i, Outcome.OUT_OF_STOCK, null, "Insufficient stock");
+                continue;
+            }
+            results[i] = place(i, request, demands, paid);
+        }
+
+        // 4. Devolver lo que sobro y publicar los pagos juntos
+        for (Demand demand : demands.values()) {
+            int unused = demand.granted - demand.used;
+            if (unused > 0) {
+                demand.product.incrementStock(unused);
+            }
+        }
+        if (!paid.isEmpty()) {
+            Order.notifyObserversInBatch(paid, Order.PAID_EVENT);
+        }
+        return List.of(results);
+    }
+
+    /** @return Motivo por el que la solicitud es invalida, o null */
+    private static String validate(Request request) {
+        if (request == null || request.user() == null) {
+            return "User cannot be null";
+        }
+        if (request.lines() == null || request.lines().isEmpty()) {
+            return "Items cannot be null or empty";
+        }
+        for (CartItem line : request.lines()) {
+            if (line == null) {
+                return "Line cannot be null";
+            }
+            if (line.getHold() != null) {
+                return "Line already holds reserved stock: " + line.getSku();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Descuenta la demanda completa o, si no alcanza, todas las unidades
+     * disponibles en ese momento.
+     * 
+     * @return Unidades descontadas
+     */
+    private static int take(Product product, long requested) {
+        int wanted = (int) Math.min(requested, Integer.MAX_VALUE);
+        if (product.tryDecrement(wanted)) {
+            return wanted;
+        }
+        while (true) {
+            int available = Math.min(product.getStock(), wanted);
+            if (available <= 0) {
+                return 0;
+            }
+            if (product.tryDecrement(available)) {
+                return available;
+            }
+        }
+    }
+
+    /** Asigna las unidades de todas las lineas de la solicitud, o ninguna. */
+    private static boolean allocate(Request request, Map<String, Demand> demands) {
+        Map<String, Integer> needed = new HashMap<>();
+        for (CartItem line : request.lines()) {
+            needed.merge(line.getSku(), line.getQuantity(), Integer::sum);
+        }
+        for (Map.Entry<String, Integer> entry : needed.entrySet()) {
+            Demand demand = demands.get(entry.getKey());
+            if (demand.granted - demand.used < entry.getValue()) {
+                return false;
+            }
+        }
+        needed.forEach((sku, units) -> demands.get(sku).used += units);
+        return true;
+    }
+
+    /** Construye y cobra la orden; si falla, libera sus unidades asignadas. */
+    private Result place(int index, Request request, Map<String, Demand> demands, List<Order> paid) {
+        Order order;
+        try {
+            Order.OrderBuilder builder = new Order.OrderBuilder()
+                    .setOrderId(ids.nextOrderId())
+                    .setUser(request.user())
+                    .setLineItems(request.lines())
+                    .setPaymentMethod(request.paymentMethod())
+                    .setEventDispatcher(eventDispatcher)
+                    .setStockReserved(true);
+            if (request.giftNote() != null) {
+                builder.setGiftNote(request.giftNote());
+            }
+            order = builder.build();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            release(request, demands);
+            return new Result(index, Outcome.INVALID, null, e.getMessage());
+        }
+        if (request.paymentMethod() == null) {
+            return new Result(index, Outcome.CREATED, order, null);
+        }
+        try {
+            if (order.tryProcessPayment()) {
+                paid.add(order);
+                return new Result(index, Outcome.PAID, order, null);
+            }
+            release(request, demands);
+            return new Result(index, Outcome.PAYMENT_FAILED, null, "Payment failed for order: " + order.getOrderId());
+        } catch (RuntimeException e) {
+            release(request, demands);
+            return new Result(index, Outcome.PAYMENT_FAILED, null, e.getMessage());
+        }
+    }
+
+    private static void release(Request request, Map<String, Demand> demands) {
+        for (CartItem line : request.lines()) {
+            demands.get(line.getSku()).used -= line.getQuantity();
+        }
+    }
+}
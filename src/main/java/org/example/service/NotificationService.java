@@ -2,6 +2,7 @@ package org.example.service;
 
 import org.example.model.order.Order;
 import org.example.model.order.OrderObserver;
+import org.example.output.Output;
 
 public class NotificationService implements OrderObserver {
     private String serviceName;
@@ -12,13 +13,13 @@ public class NotificationService implements OrderObserver {
 
     @Override
     public void update(Order order, String event) {
-        System.out.println("═══════════════════════════════════════");
-        System.out.println("📨 [" + serviceName + "] System Notification");
-        System.out.println("Order ID: " + order.getOrderId());
-        System.out.println("Event: " + event);
-        System.out.println("Customer: " + order.getUser().getName());
-        System.out.println("Total: $" + order.getTotalAmount());
-        System.out.println("═══════════════════════════════════════");
+        Output.info(() -> "═══════════════════════════════════════"
+                + "\n📨 [" + serviceName + "] System Notification"
+                + "\nOrder ID: " + order.getOrderId()
+                + "\nEvent: " + event
+                + "\nCustomer: " + order.getUser().getName()
+                + "\nTotal: $" + order.getTotalAmount()
+                + "\n═══════════════════════════════════════");
     }
 }
 
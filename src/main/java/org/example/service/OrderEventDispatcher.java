@@ -0,0 +1,338 @@
+package org.example.service;
+
+import org.example.config.ConfigurationManager;
+import org.example.model.order.Order;
+import org.example.model.order.OrderObserver;
+import org.example.output.Output;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Despachador asincrono de eventos de ordenes hacia sus observadores.
+ * 
+ * <p>
+ * {@link Order#setStatus} solo encola el evento; la entrega a cada
+ * {@link OrderObserver} la hace un conjunto fijo de "carriles", cada uno
+ * atendido por un hilo virtual. Asi la latencia del pago no depende del
+ * numero ni de la velocidad de los observadores.
+ * </p>
+ * 
+ * <h2>Garantias:</h2>
+ * <ul>
+ * <li><b>Orden por orden:</b> todos los eventos de una misma orden van al
+ * mismo carril y se entregan en el orden en que se publicaron.</li>
+ * <li><b>Backpressure:</b> cada carril tiene una cola acotada; si esta llena,
+ * {@link #dispatch} bloquea al publicador hasta que haya espacio.</li>
+ * <li><b>Aislamiento:</b> si un observador lanza una excepcion (o un
+ * {@link Error}), se reporta, el resto de los observadores recibe el evento
+ * y el carril sigue entregando.</li>
+ * <li><b>Cierre:</b> un evento que {@link #dispatch} acepta se entrega
+ * aunque {@link #shutdown()} ocurra al mismo tiempo; los publicadores
+ * posteriores reciben {@link IllegalStateException}.</li>
+ * </ul>
+ * 
+ * <h2>Ejemplo de Uso:</h2>
+ * 
+ * <pre>{@code
+ * OrderEventDispatcher dispatcher = OrderEventDispatcher.getInstance();
+ * order.setStatus(Order.Status.SHIPPED); // encola y regresa
+ * dispatcher.drain(5, TimeUnit.SECONDS);  // espera la entrega
+ * }</pre>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see Order
+ * @see OrderObserver
+ */
+public class OrderEventDispatcher {
+
+    /** Instancia compartida (lazy, double-checked locking) */
+    private static volatile OrderEventDispatcher instance;
+
+    /** Marca de fin para los hilos de cada carril */
+    private static final Runnable STOP = () -> {
+    };
+
+    /** Colas acotadas, una por carril */
+    private final BlockingQueue<Runnable>[] lanes;
+
+    /** Hilo virtual que atiende cada carril */
+    private final Thread[] workers;
+
+    /** false despues de {@link #shutdown()} */
+    private volatile boolean accepting = true;
+
+    /** Publicadores que ya vieron {@link #accepting} y aun no terminan de encolar */
+    private final AtomicInteger publishing = new AtomicInteger();
+
+    /** {@link #shutdown()} espera aqui a que terminen los publicadores en curso */
+    private final ReentrantLock shutdownLock = new ReentrantLock();
+    private final Condition published = shutdownLock.newCondition();
+
+    /**
+     * Crea un despachador con sus carriles en ejecucion.
+     * 
+     * @param laneCount     Numero de carriles (hilos virtuales)
+     * @param queueCapacity Capacidad de la cola de cada carril
+     * @throws IllegalArgumentException si algun parametro es menor a 1
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public OrderEventDispatcher(int laneCount, int queueCapacity) {
+        if (laneCount < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Lane count and queue capacity must be at least 1");
+        }
+        this.lanes = new BlockingQueue[laneCount];
+        this.workers = new Thread[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            BlockingQueue<Runnable> lane = new ArrayBlockingQueue<>(queueCapacity);
+            lanes[i] = lane;
+            workers[i] = Thread.ofVirtual().name("order-events-" + i).start(() -> runLane(lane));
+        }
+    }
+
+    /**
+     * Obtiene el despachador compartido de la aplicacion.
+     * 
+     * <p>
+     * Se configura con {@code events.lanes} y {@code events.queue.capacity}
+     * de {@link ConfigurationManager} y registra un shutdown hook que
+     * entrega los eventos pendientes antes de que termine la JVM.
+     * </p>
+     * 
+     * @return Instancia compartida
+     */
+    public static OrderEventDispatcher getInstance() {
+        if (instance == null) {
+            synchronized (OrderEventDispatcher.class) {
+                if (instance == null) {
+                    ConfigurationManager config = ConfigurationManager.getInstance();
+                    OrderEventDispatcher dispatcher = new OrderEventDispatcher(
+                            Integer.parseInt(config.getConfig("events.lanes")),
+                            Integer.parseInt(config.getConfig("events.queue.capacity")));
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                        dispatcher.shutdown();
+                        dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+                    }, "order-events-shutdown"));
+                    instance = dispatcher;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Encola un evento para entregarlo a los observadores de la orden.
+     * 
+     * @param order     Orden que genero el evento
+     * @param observers Observadores a notificar (se debe pasar una copia)
+     * @param event     Descripcion del evento
+     * @throws IllegalStateException si el despachador ya fue detenido o el
+     *                               hilo es interrumpido mientras espera espacio
+     */
+    public void dispatch(Order order, List<OrderObserver> observers, String event) {
+        beginPublish();
+        try {
+            laneFor(order.getOrderId()).put(() -> deliver(order, observers, event));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while enqueuing event for order: " + order.getOrderId(), e);
+        } finally {
+            endPublish();
+        }
+    }
+
+    /**
+     * Encola el mismo evento para varias ordenes con una sola tarea por
+     * carril, en vez de una por orden. Cada orden conserva su carril, asi
+     * que sus eventos siguen llegando en orden.
+     * 
+     * @param orders    Ordenes que generaron el evento
+     * @param observers Observadores de cada orden (misma posicion que en
+     *                  {@code orders}, se deben pasar copias)
+     * @param event     Descripcion del evento
+     * @throws IllegalArgumentException si las listas tienen distinto tamano
+     * @throws IllegalStateException    si el despachador ya fue detenido o el
+     *                                  hilo es interrumpido mientras espera espacio
+     */
+    public void dispatchAll(List<Order> orders, List<List<OrderObserver>> observers, String event) {
+        if (orders.size() != observers.size()) {
+            throw new IllegalArgumentException("Orders and observers must have the same size");
+        }
+        int[][] byLane = new int[lanes.length][];
+        int[] counts = new int[lanes.length];
+        for (int i = 0; i < orders.size(); i++) {
+            int lane = laneIndex(orders.get(i).getOrderId());
+            if (byLane[lane] == null) {
+                byLane[lane] = new int[orders.size()];
+            }
+            byLane[lane][counts[lane]++] = i;
+        }
+        beginPublish();
+        try {
+            for (int lane = 0; lane < lanes.length; lane++) {
+                if (counts[lane] == 0) {
+                    continue;
+                }
+                int[] indexes = byLane[lane];
+                int count = counts[lane];
+                lanes[lane].put(() -> {
+                    for (int i = 0; i < count; i++) {
+                        deliver(orders.get(indexes[i]), observers.get(indexes[i]), event);
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while enqueuing batch events", e);
+        } finally {
+            endPublish();
+        }
+    }
+
+    /**
+     * Espera a que se entreguen todos los eventos encolados hasta ahora.
+     * 
+     * @param timeout Tiempo maximo de espera
+     * @param unit    Unidad del tiempo
+     * @return true si todos los eventos se entregaron a tiempo
+     */
+    public boolean drain(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        CountDownLatch drained = new CountDownLatch(lanes.length);
+        try {
+            for (BlockingQueue<Runnable> lane : lanes) {
+                // Una cola llena (o ya detenida) no puede bloquear mas alla del plazo
+                if (!lane.offer(drained::countDown, deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    return false;
+                }
+            }
+            return drained.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Deja de aceptar eventos. Los eventos ya encolados (y los que se estan
+     * encolando en este momento) se siguen entregando.
+     */
+    public void shutdown() {
+        shutdownLock.lock();
+        try {
+            if (!accepting) {
+                return;
+            }
+            accepting = false;
+            // STOP debe quedar detras de todo evento aceptado; los carriles
+            // siguen atendiendo, asi que un publicador bloqueado termina
+            while (publishing.get() > 0) {
+                published.awaitUninterruptibly();
+            }
+        } finally {
+            shutdownLock.unlock();
+        }
+        for (BlockingQueue<Runnable> lane : lanes) {
+            try {
+                lane.put(STOP);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Espera a que los carriles terminen despues de {@link #shutdown()}.
+     * 
+     * @param timeout Tiempo maximo de espera
+     * @param unit    Unidad del tiempo
+     * @return true si todos los carriles terminaron
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        try {
+            for (Thread worker : workers) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || !worker.join(Duration.ofNanos(remaining))) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // ==================== CARRILES ====================
+
+    /**
+     * Registra al publicador antes de encolar.
+     * 
+     * @throws IllegalStateException si el despachador ya fue detenido
+     */
+    private void beginPublish() {
+        publishing.incrementAndGet();
+        if (!accepting) {
+            endPublish();
+            throw new IllegalStateException("Order event dispatcher is shut down");
+        }
+    }
+
+    /** Avisa a {@link #shutdown()} cuando sale el ultimo publicador. */
+    private void endPublish() {
+        if (publishing.decrementAndGet() == 0 && !accepting) {
+            shutdownLock.lock();
+            try {
+                published.signalAll();
+            } finally {
+                shutdownLock.unlock();
+            }
+        }
+    }
+
+    private BlockingQueue<Runnable> laneFor(String orderId) {
+        return lanes[laneIndex(orderId)];
+    }
+
+    private int laneIndex(String orderId) {
+        int hash = orderId == null ? 0 : orderId.hashCode();
+        return Math.floorMod(hash, lanes.length);
+    }
+
+    private static void runLane(BlockingQueue<Runnable> lane) {
+        try {
+            while (true) {
+                Runnable task = lane.take();
+                if (task == STOP) {
+                    return;
+                }
+                task.run();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void deliver(Order order, List<OrderObserver> observers, String event) {
+        for (OrderObserver observer : observers) {
+            try {
+                observer.update(order, event);
+            } catch (Throwable e) {
+                // Tambien un Error: si escapa, el hilo del carril muere y su cola
+                // llena deja bloqueados a los publicadores para siempre
+                Output.error("Observer failed for order " + order.getOrderId() + ": " + e);
+            }
+        }
+    }
+}
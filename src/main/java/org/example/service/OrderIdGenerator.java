@@ -0,0 +1,221 @@
+package org.example.service;
+
+import org.example.config.ConfigurationManager;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de IDs de orden unicos de 64 bits al estilo Snowflake.
+ * 
+ * <p>
+ * Cada ID combina el instante de creacion, el nodo que lo genero y un
+ * contador, asi que dos nodos con distinto {@code nodeId} nunca generan el
+ * mismo ID y los IDs de un nodo crecen con el tiempo. Reemplaza a
+ * {@code "ORD-" + System.currentTimeMillis()}, que repetia el ID cuando
+ * dos ordenes se creaban en el mismo milisegundo.
+ * </p>
+ * 
+ * <h2>Formato (bit 63 a bit 0):</h2>
+ * <ul>
+ * <li><b>1 bit:</b> siempre 0, el ID es positivo.</li>
+ * <li><b>41 bits:</b> milisegundos desde {@link #EPOCH} (alcanza ~69
+ * anos).</li>
+ * <li><b>10 bits:</b> nodo, de 0 a {@value #MAX_NODE_ID}.</li>
+ * <li><b>12 bits:</b> secuencia dentro del milisegundo (4,096 IDs).</li>
+ * </ul>
+ * 
+ * <h2>Sin locks:</h2>
+ * <p>
+ * El ultimo instante y la secuencia viven juntos en un {@link AtomicLong}
+ * y cada ID es un compare-and-set: el siguiente valor es el mayor entre el
+ * anterior + 1 y el reloj actual. Si en un milisegundo se piden mas de
+ * 4,096 IDs, la secuencia desborda hacia el milisegundo siguiente (el
+ * generador se adelanta al reloj en vez de esperar) y, si el reloj del
+ * sistema retrocede, se sigue desde el ultimo valor. En ambos casos no
+ * hay repetidos.
+ * </p>
+ * 
+ * <h2>Texto:</h2>
+ * <p>
+ * {@link #format} codifica el ID como {@code "ORD-"} mas 13 caracteres
+ * base 32 (alfabeto de Crockford, sin I, L, O ni U). El ancho es fijo,
+ * asi que el orden alfabetico de los textos es el mismo que el de los IDs.
+ * </p>
+ * 
+ * <h2>Ejemplo de Uso:</h2>
+ * 
+ * <pre>{@code
+ * OrderIdGenerator ids = OrderIdGenerator.getInstance();
+ * Order order = new Order.OrderBuilder()
+ *         .setOrderId(ids.nextOrderId()) // ej: "ORD-00FK3Q8ZC4000"
+ *         ...
+ *         .build();
+ * long id = OrderIdGenerator.parse(order.getOrderId());
+ * }</pre>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+public final class OrderIdGenerator {
+
+    /** Origen del reloj de los IDs: 2025-01-01T00:00:00Z */
+    public static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+
+    /** Nodo maximo permitido */
+    public static final int MAX_NODE_ID = 1023;
+
+    /** Prefijo de la forma de texto */
+    public static final String PREFIX = "ORD-";
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final int NODE_BITS = 10;
+    private static final int TIMESTAMP_BITS = 41;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int TEXT_LENGTH = 13;
+
+    /** Instancia compartida (lazy, double-checked locking) */
+    private static volatile OrderIdGenerator instance;
+
+    private final long epochMillis = EPOCH.toEpochMilli();
+    private final long nodeBits;
+
+    /** Milisegundo (desde EPOCH) y secuencia del ultimo ID: {@code millis << 12 | secuencia} */
+    private final AtomicLong last = new AtomicLong();
+
+    /**
+     * Crea un generador para un nodo.
+     * 
+     * @param nodeId Nodo, unico entre los procesos que crean ordenes
+     * @throws IllegalArgumentException si el nodo no esta entre 0 y
+     *                                  {@value #MAX_NODE_ID}
+     */
+    public OrderIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    /**
+     * Obtiene el generador compartido de la aplicacion. El nodo se toma de
+     * la propiedad del sistema {@code shoptech.node.id} o, si no existe, de
+     * {@code orders.node.id} en {@link ConfigurationManager}.
+     * 
+     * @return Instancia compartida
+     */
+    public static OrderIdGenerator getInstance() {
+        if (instance == null) {
+            synchronized (OrderIdGenerator.class) {
+                if (instance == null) {
+                    String node = System.getProperty("shoptech.node.id",
+                            ConfigurationManager.getInstance().getConfig("orders.node.id"));
+                    instance = new OrderIdGenerator(Integer.parseInt(node.trim()));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Genera el siguiente ID. Seguro para varios hilos y sin bloqueo.
+     * 
+     * @return ID positivo, mayor que todos los anteriores de este generador
+     * @throws IllegalStateException si el reloj supera el rango de 41 bits
+     */
+    public long nextId() {
+        long now = (System.currentTimeMillis() - epochMillis) << SEQUENCE_BITS;
+        long stamp = last.accumulateAndGet(now, (previous, clock) -> Math.max(previous + 1, clock));
+        if (stamp >>> (TIMESTAMP_BITS + SEQUENCE_BITS) != 0) {
+            throw new IllegalStateException("Order ID clock exhausted");
+        }
+        return (stamp & ~SEQUENCE_MASK) << NODE_BITS | nodeBits | (stamp & SEQUENCE_MASK);
+    }
+
+    /**
+     * Genera el siguiente ID en forma de texto para
+     * {@code Order.OrderBuilder.setOrderId}.
+     * 
+     * @return ID codificado (ej: "ORD-00FK3Q8ZC4000")
+     */
+    public String nextOrderId() {
+        return format(nextId());
+    }
+
+    /** @return Nodo de este generador */
+    public int getNodeId() {
+        return (int) (nodeBits >>> SEQUENCE_BITS);
+    }
+
+    // ==================== CODIFICACION ====================
+
+    /**
+     * Codifica un ID como texto de ancho fijo.
+     * 
+     * @param id ID generado (no negativo)
+     * @return {@code "ORD-"} mas 13 caracteres base 32
+     * @throws IllegalArgumentException si el ID es negativo
+     */
+    public static String format(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Order ID cannot be negative");
+        }
+        char[] text = new char[PREFIX.length() + TEXT_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), text, 0);
+        for (int i = text.length - 1; i >= PREFIX.length(); i--) {
+            text[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(text);
+    }
+
+    /**
+     * Decodifica un ID generado por {@link #format}. Acepta minusculas.
+     * 
+     * @param text ID en forma de texto
+     * @return ID numerico
+     * @throws IllegalArgumentException si el texto no tiene el formato
+     */
+    public static long parse(String text) {
+        if (text == null || text.length() != PREFIX.length() + TEXT_LENGTH || !text.startsWith(PREFIX)) {
+            throw new IllegalArgumentException("Invalid order ID: " + text);
+        }
+        long id = 0;
+        for (int i = PREFIX.length(); i < text.length(); i++) {
+            int digit = digit(text.charAt(i));
+            if (digit < 0 || (i == PREFIX.length() && digit > 7)) {
+                throw new IllegalArgumentException("Invalid order ID: " + text);
+            }
+            id = id << 5 | digit;
+        }
+        return id;
+    }
+
+    /** @return Instante de creacion codificado en el ID (precision de ms) */
+    public static Instant timestampOf(long id) {
+        return EPOCH.plusMillis(id >>> (NODE_BITS + SEQUENCE_BITS));
+    }
+
+    /** @return Nodo que genero el ID */
+    public static int nodeOf(long id) {
+        return (int) (id >>> SEQUENCE_BITS) & MAX_NODE_ID;
+    }
+
+    /** @return Secuencia del ID dentro de su milisegundo */
+    public static int sequenceOf(long id) {
+        return (int) (id & SEQUENCE_MASK);
+    }
+
+    private static int digit(char c) {
+        char upper = Character.toUpperCase(c);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == upper) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
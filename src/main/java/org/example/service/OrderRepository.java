@@ -0,0 +1,485 @@
+package org.example.service;
+
+import org.example.model.order.Order;
+import org.example.model.order.OrderChangeListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Historial de ordenes en memoria con indices por usuario, estado y
+ * fecha de creacion.
+ * 
+ * <p>
+ * Cada orden guardada ocupa una posicion fija y los indices solo guardan
+ * esa posicion como {@code int}. La fecha de creacion y el estado indexado
+ * viven en arreglos primitivos paralelos, asi que el costo de los indices
+ * es de unas decenas de bytes por orden, sin objetos por entrada.
+ * </p>
+ * 
+ * <h2>Indices:</h2>
+ * <ul>
+ * <li><b>Por ID:</b> tabla hash de direccionamiento abierto.</li>
+ * <li><b>Por usuario:</b> posiciones de cada usuario ordenadas por fecha;
+ * las ultimas N se leen desde el final.</li>
+ * <li><b>Por estado y fecha:</b> por cada estado, cubetas de un minuto en
+ * un {@link TreeMap}. Las ordenes de un estado creadas antes de un
+ * instante son las de las cubetas anteriores mas parte de una sola
+ * cubeta, y salir de un estado se quita en O(1).</li>
+ * </ul>
+ * 
+ * <h2>Cambios de estado:</h2>
+ * <p>
+ * El repositorio se registra como {@link OrderChangeListener} en cada
+ * orden guardada y la mueve de cubeta en el mismo hilo que hizo la
+ * transicion. Como el estado cambia un instante antes de que llegue la
+ * notificacion, una consulta por estado confirma el estado actual de cada
+ * orden: nunca devuelve una orden que ya salio del estado.
+ * {@link Order.Status#PROCESSING} se indexa como PENDING.
+ * </p>
+ * 
+ * <h2>Ejemplo de Uso:</h2>
+ * 
+ * <pre>{@code
+ * OrderRepository repository = OrderRepository.getInstance();
+ * repository.save(order);
+ * List<Order> stale = repository.findByStatusCreatedBefore(Order.Status.PENDING,
+ *         Instant.now().minus(Duration.ofMinutes(15)));
+ * List<Order> recent = repository.findRecentByUser(user.getId(), 20);
+ * }</pre>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ */
+public final class OrderRepository {
+
+    /** Duracion de una cubeta del indice por fecha */
+    private static final long BUCKET_MILLIS = 60_000;
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private static final Order.Status[] STATUSES = Order.Status.values();
+
+    /** Instancia compartida (lazy, double-checked locking) */
+    private static volatile OrderRepository instance;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** Mueve la orden de cubeta cuando cambia su estado */
+    private final OrderChangeListener statusListener = (order, oldStatus, newStatus) -> reindex(order);
+
+    // Columnas por posicion
+
+    private Order[] orders = new Order[INITIAL_CAPACITY];
+    private long[] createdAt = new long[INITIAL_CAPACITY];
+    /** Ordinal del estado con el que la orden esta indexada */
+    private byte[] indexedStatus = new byte[INITIAL_CAPACITY];
+    /** Posicion de la orden dentro de su cubeta de estado */
+    private int[] bucketPosition = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /** Posicion + 1 de cada orden por hash de su ID (0 = libre) */
+    private int[] idTable = new int[INITIAL_CAPACITY * 2];
+
+    private final Map<Integer, UserOrders> byUser = new HashMap<>();
+
+    /** Estado -> minuto de creacion -> posiciones */
+    private final Map<Order.Status, TreeMap<Long, Bucket>> byStatus = new EnumMap<>(Order.Status.class);
+
+    /**
+     * Crea un repositorio vacio.
+     */
+    public OrderRepository() {
+        for (Order.Status status : STATUSES) {
+            byStatus.put(status, new TreeMap<>());
+        }
+    }
+
+    /**
+     * Obtiene el repositorio compartido de la aplicacion.
+     * 
+     * @return Instancia compartida
+     */
+    public static OrderRepository getInstance() {
+        if (instance == null) {
+            synchronized (OrderRepository.class) {
+                if (instance == null) {
+                    instance = new OrderRepository();
+                }
+            }
+        }
+        return instance;
+    }
+
+    // ==================== ESCRITURA ====================
+
+    /**
+     * Guarda una orden. Si ya existe una orden con el mismo ID (ej: se
+     * reconstruyo para cambiar el metodo de pago), la nueva la reemplaza.
+     * 
+     * @param order Orden a guardar
+     * @throws IllegalArgumentException si la orden es null
+     */
+    public void save(Order order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order cannot be null");
+        }
+        lock.writeLock().lock();
+        try {
+            int slot = find(order.getOrderId());
+            if (slot >= 0) {
+                Order old = orders[slot];
+                if (old == order) {
+                    return;
+                }
+                unindex(slot);
+                old.removeChangeListener(statusListener);
+            } else {
+                slot = append(order.getOrderId());
+            }
+            // Se registra antes de leer el estado: un cambio posterior
+            // espera este lock para reindexar
+            order.addChangeListener(statusListener);
+            orders[slot] = order;
+            createdAt[slot] = order.getCreatedAt().toEpochMilli();
+            indexedStatus[slot] = (byte) indexed(order.getOrderStatus()).ordinal();
+            byUser.computeIfAbsent(order.getUser().getId(), id -> new UserOrders()).add(slot);
+            bucketAdd(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Mueve la orden a la cubeta de su estado actual. */
+    private void reindex(Order order) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(order.getOrderId());
+            if (slot < 0 || orders[slot] != order) {
+                return;
+            }
+            int status = indexed(order.getOrderStatus()).ordinal();
+            if (status != indexedStatus[slot]) {
+                bucketRemove(slot);
+                indexedStatus[slot] = (byte) status;
+                bucketAdd(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== CONSULTAS ====================
+
+    /**
+     * Busca una orden por su ID.
+     * 
+     * @param orderId ID de la orden
+     * @return La orden, o null si no existe
+     */
+    public Order findById(String orderId) {
+        if (orderId == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int slot = find(orderId);
+            return slot < 0 ? null : orders[slot];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene las ordenes mas recientes de un usuario.
+     * 
+     * @param userId ID del usuario ({@code User.getId()})
+     * @param limit  Numero maximo de ordenes
+     * @return Ordenes de la mas nueva a la mas antigua
+     * @throws IllegalArgumentException si el limite es menor a 1
+     */
+    public List<Order> findRecentByUser(int userId, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be greater than zero");
+        }
+        lock.readLock().lock();
+        try {
+            UserOrders user = byUser.get(userId);
+            if (user == null) {
+                return List.of();
+            }
+            List<Order> result = new ArrayList<>(Math.min(limit, user.size));
+            for (int i = user.size - 1; i >= 0 && result.size() < limit; i--) {
+                result.add(orders[user.slots[i]]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene las ordenes de un estado creadas antes de un instante (ej:
+     * PENDING de hace mas de 15 minutos).
+     * 
+     * @param status Estado buscado
+     * @param before Limite exclusivo de la fecha de creacion
+     * @return Ordenes de la mas antigua a la mas nueva
+     * @throws IllegalArgumentException si algun parametro es null o el estado
+     *                                  es PROCESSING (se indexa como PENDING)
+     */
+    public List<Order> findByStatusCreatedBefore(Order.Status status, Instant before) {
+        if (status == null || before == null) {
+            throw new IllegalArgumentException("Status and instant cannot be null");
+        }
+        if (status == Order.Status.PROCESSING) {
+            throw new IllegalArgumentException("PROCESSING orders are indexed as PENDING");
+        }
+        long to = before.toEpochMilli();
+        lock.readLock().lock();
+        try {
+            List<Order> result = new ArrayList<>();
+            for (Map.Entry<Long, Bucket> entry : byStatus.get(status)
+                    .headMap(Math.floorDiv(to, BUCKET_MILLIS), true).entrySet()) {
+                collectMinute(entry.getKey(), List.of(entry.getValue()), Long.MIN_VALUE, to, status, result);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Obtiene las ordenes creadas en un intervalo, en cualquier estado.
+     * 
+     * @param from Inicio inclusivo
+     * @param to   Fin exclusivo
+     * @return Ordenes de la mas antigua a la mas nueva
+     * @throws IllegalArgumentException si algun instante es null
+     */
+    public List<Order> findCreatedBetween(Instant from, Instant to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Instants cannot be null");
+        }
+        long start = from.toEpochMilli();
+        long end = to.toEpochMilli();
+        if (start >= end) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            // Se recorre minuto a minuto para devolver todo en orden
+            TreeMap<Long, List<Bucket>> minutes = new TreeMap<>();
+            for (TreeMap<Long, Bucket> buckets : byStatus.values()) {
+                buckets.subMap(Math.floorDiv(start, BUCKET_MILLIS), true, Math.floorDiv(end - 1, BUCKET_MILLIS), true)
+                        .forEach((minute, bucket) -> minutes.computeIfAbsent(minute, m -> new ArrayList<>()).add(bucket));
+            }
+            List<Order> result = new ArrayList<>();
+            for (Map.Entry<Long, List<Bucket>> minute : minutes.entrySet()) {
+                collectMinute(minute.getKey(), minute.getValue(), start, end, null, result);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cuenta las ordenes indexadas con un estado. Una transicion en curso
+     * se cuenta en cuanto termina de notificarse.
+     * 
+     * @param status Estado (PROCESSING cuenta como PENDING)
+     * @return Numero de ordenes
+     */
+    public int countByStatus(Order.Status status) {
+        lock.readLock().lock();
+        try {
+            int count = 0;
+            for (Bucket bucket : byStatus.get(indexed(status)).values()) {
+                count += bucket.size;
+            }
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** @return Numero de ordenes guardadas */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * Agrega las ordenes de un minuto dentro de [from, to), ordenadas por
+     * fecha. Dentro de un minuto la fecha cabe en 16 bits, asi que se ordena
+     * un {@code long[]} de (milisegundo del minuto, posicion).
+     */
+    private void collectMinute(long minute, List<Bucket> buckets, long from, long to, Order.Status status,
+                               List<Order> result) {
+        long base = minute * BUCKET_MILLIS;
+        int total = 0;
+        for (Bucket bucket : buckets) {
+            total += bucket.size;
+        }
+        long[] keys = new long[total];
+        int count = 0;
+        for (Bucket bucket : buckets) {
+            for (int i = 0; i < bucket.size; i++) {
+                int slot = bucket.slots[i];
+                long time = createdAt[slot];
+                if (time >= from && time < to
+                        && (status == null || indexed(orders[slot].getOrderStatus()) == status)) {
+                    keys[count++] = (time - base) << 32 | slot;
+                }
+            }
+        }
+        Arrays.sort(keys, 0, count);
+        for (int i = 0; i < count; i++) {
+            result.add(orders[(int) keys[i]]);
+        }
+    }
+
+    private static Order.Status indexed(Order.Status status) {
+        return status == Order.Status.PROCESSING ? Order.Status.PENDING : status;
+    }
+
+    private void bucketAdd(int slot) {
+        long minute = Math.floorDiv(createdAt[slot], BUCKET_MILLIS);
+        Bucket bucket = byStatus.get(STATUSES[indexedStatus[slot]]).computeIfAbsent(minute, m -> new Bucket());
+        bucketPosition[slot] = bucket.size;
+        bucket.add(slot);
+    }
+
+    /** Quita la posicion de su cubeta en O(1): la ultima ocupa su lugar. */
+    private void bucketRemove(int slot) {
+        TreeMap<Long, Bucket> buckets = byStatus.get(STATUSES[indexedStatus[slot]]);
+        long minute = Math.floorDiv(createdAt[slot], BUCKET_MILLIS);
+        Bucket bucket = buckets.get(minute);
+        int position = bucketPosition[slot];
+        int last = bucket.slots[--bucket.size];
+        bucket.slots[position] = last;
+        bucketPosition[last] = position;
+        if (bucket.size == 0) {
+            buckets.remove(minute);
+        }
+    }
+
+    private void unindex(int slot) {
+        bucketRemove(slot);
+        byUser.get(orders[slot].getUser().getId()).remove(slot);
+    }
+
+    /** @return Posicion de la orden con ese ID, o -1 */
+    private int find(String orderId) {
+        int mask = idTable.length - 1;
+        for (int i = spread(orderId.hashCode()) & mask; ; i = (i + 1) & mask) {
+            int entry = idTable[i];
+            if (entry == 0) {
+                return -1;
+            }
+            if (orders[entry - 1].getOrderId().equals(orderId)) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /** Reserva la siguiente posicion y la registra en la tabla de IDs. */
+    private int append(String orderId) {
+        if (size == orders.length) {
+            int capacity = orders.length * 2;
+            orders = Arrays.copyOf(orders, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            indexedStatus = Arrays.copyOf(indexedStatus, capacity);
+            bucketPosition = Arrays.copyOf(bucketPosition, capacity);
+        }
+        if ((size + 1) * 2 > idTable.length) {
+            rehash(idTable.length * 2);
+        }
+        int slot = size++;
+        insertId(orderId, slot);
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        idTable = new int[capacity];
+        for (int slot = 0; slot < size; slot++) {
+            insertId(orders[slot].getOrderId(), slot);
+        }
+    }
+
+    private void insertId(String orderId, int slot) {
+        int mask = idTable.length - 1;
+        int i = spread(orderId.hashCode()) & mask;
+        while (idTable[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        idTable[i] = slot + 1;
+    }
+
+    /**
+     * Mezcla el hash antes de usar sus bits bajos: los IDs secuenciales
+     * (ej: "ORD-...01", "ORD-...02") tienen hashes casi consecutivos que,
+     * con sondeo lineal, formarian un solo bloque ocupado.
+     */
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** Posiciones de un estado creadas en un mismo minuto (sin orden) */
+    private static final class Bucket {
+        int[] slots = new int[4];
+        int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+    }
+
+    /** Posiciones de un usuario ordenadas por fecha de creacion */
+    private final class UserOrders {
+        int[] slots = new int[2];
+        int size;
+
+        /** Inserta desde el final: las ordenes casi siempre llegan en orden */
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            int i = size++;
+            while (i > 0 && createdAt[slots[i - 1]] > createdAt[slot]) {
+                slots[i] = slots[i - 1];
+                i--;
+            }
+            slots[i] = slot;
+        }
+
+        void remove(int slot) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (slots[i] == slot) {
+                    System.arraycopy(slots, i + 1, slots, i, size - i - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package org.example.service;
+
+import org.example.config.ConfigurationManager;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Registro en memoria de claves de idempotencia para los pagos.
+ * 
+ * <p>
+ * Si un cliente reintenta un pago despues de un timeout con la misma
+ * clave, {@link #execute} devuelve el resultado guardado (o vuelve a
+ * lanzar la misma excepcion) sin invocar otra vez al
+ * {@link org.example.patterns.strategy.PaymentStrategy}: el cliente no
+ * paga dos veces. Si el primer intento sigue en curso, el reintento
+ * espera su resultado.
+ * </p>
+ * 
+ * <p>
+ * Solo se guarda el resultado de un pago que llego a invocarse. Si el
+ * intento falla antes (ej: la orden no esta PENDING), la clave se libera y
+ * un reintento vuelve a intentarlo.
+ * </p>
+ * 
+ * <h2>Memoria acotada:</h2>
+ * <p>
+ * Las claves viven en un {@link ConcurrentHashMap} (busqueda O(1)) y en
+ * una cola en orden de llegada. Como todas las claves tienen el mismo TTL,
+ * la cabeza de la cola es siempre la proxima en vencer: cada registro
+ * saca de la cabeza las claves vencidas y, si se supera
+ * {@code maxKeys}, las mas antiguas aunque no hayan vencido. El costo es
+ * O(1) amortizado por clave, sin recorrer el mapa ni usar un hilo
+ * aparte. Con la carga maxima, {@code maxKeys} acota la ventana de
+ * reintentos por debajo del TTL; una clave que sale del registro se trata
+ * como nueva.
+ * </p>
+ * 
+ * <p>
+ * Un pago en curso nunca sale del registro, ni por {@code maxKeys} ni por
+ * el TTL: un reintento lo cobraria otra vez. El TTL cuenta solo para las
+ * claves con resultado. Si {@code maxKeys} se supera solo con pagos en
+ * curso, la clave nueva se rechaza con {@link IllegalStateException}
+ * antes de cobrar.
+ * </p>
+ * 
+ * <h2>Ejemplo de Uso:</h2>
+ * 
+ * <pre>{@code
+ * // El cliente genera la clave una vez y la repite en cada reintento
+ * order.processPayment("pay-7f3a9c");
+ * order.processPayment("pay-7f3a9c"); // timeout y reintento: no cobra otra vez
+ * }</pre>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see org.example.model.order.Order#processPayment(String)
+ */
+public final class PaymentIdempotencyStore {
+
+    /** Instancia compartida (lazy, double-checked locking) */
+    private static volatile PaymentIdempotencyStore instance;
+
+    /** Resultado de una clave: el del primer intento */
+    private static final class Entry {
+        final String key;
+        final String requestId;
+        final long createdNanos;
+        final CompletableFuture<Boolean> outcome = new CompletableFuture<>();
+
+        Entry(String key, String requestId, long createdNanos) {
+            this.key = key;
+            this.requestId = requestId;
+            this.createdNanos = createdNanos;
+        }
+    }
+
+    private final long ttlNanos;
+    private final int maxKeys;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /** Claves en orden de llegada (= orden de vencimiento) */
+    private final ConcurrentLinkedQueue<Entry> arrivals = new ConcurrentLinkedQueue<>();
+
+    /** Un solo hilo a la vez saca claves de la cola; los demas no esperan */
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final LongAdder replays = new LongAdder();
+
+    /**
+     * @param ttl     Tiempo que se recuerda cada clave
+     * @param maxKeys Numero maximo de claves en memoria
+     * @throws IllegalArgumentException si el TTL no es positivo o maxKeys es
+     *                                  menor a 1
+     */
+    public PaymentIdempotencyStore(Duration ttl, int maxKeys) {
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("TTL must be positive");
+        }
+        if (maxKeys < 1) {
+            throw new IllegalArgumentException("Max keys must be at least 1");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Obtiene el registro compartido de la aplicacion, configurado con
+     * {@code payments.idempotency.ttl.seconds} y
+     * {@code payments.idempotency.max.keys} de {@link ConfigurationManager}.
+     * 
+     * @return Instancia compartida
+     */
+    public static PaymentIdempotencyStore getInstance() {
+        if (instance == null) {
+            synchronized (PaymentIdempotencyStore.class) {
+                if (instance == null) {
+                    ConfigurationManager config = ConfigurationManager.getInstance();
+                    instance = new PaymentIdempotencyStore(
+                            Duration.ofSeconds(Long.parseLong(config.getConfig("payments.idempotency.ttl.seconds"))),
+                            Integer.parseInt(config.getConfig("payments.idempotency.max.keys")));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Ejecuta el pago una sola vez por clave.
+     * 
+     * @param key       Clave de idempotencia del cliente
+     * @param requestId Solicitud a la que pertenece la clave (ej: ID de la
+     *                  orden)
+     * @param payment   Pago a ejecutar si la clave es nueva
+     * @return Resultado del pago, el guardado si la clave ya se uso
+     * @throws IllegalArgumentException si la clave o la solicitud son null o
+     *                                  vacias, o la clave ya se uso para otra
+     *                                  solicitud
+     * @throws RuntimeException         la excepcion del primer intento, si
+     *                                  fallo con una excepcion
+     */
+    public boolean execute(String key, String requestId, BooleanSupplier payment) {
+        return execute(key, requestId, () -> {
+        }, payment);
+    }
+
+    /**
+     * Ejecuta el pago una sola vez por clave, con una validacion previa
+     * cuyo fallo no se guarda.
+     * 
+     * <p>
+     * {@code begin} corre una vez por clave nueva, antes del pago (ej:
+     * revisar el estado de la orden y pasarla a PROCESSING). Si lanza, el
+     * pago no se invoco: la clave se libera y la excepcion llega a quien
+     * espera este intento, pero un reintento posterior vuelve a empezar.
+     * </p>
+     * 
+     * @param key       Clave de idempotencia del cliente
+     * @param requestId Solicitud a la que pertenece la clave (ej: ID de la
+     *                  orden)
+     * @param begin     Validacion previa al pago
+     * @param payment   Pago a ejecutar si la clave es nueva
+     * @return Resultado del pago, el guardado si la clave ya se uso
+     * @throws IllegalArgumentException si la clave o la solicitud son null o
+     *                                  vacias, o la clave ya se uso para otra
+     *                                  solicitud
+     * @throws IllegalStateException    si el registro esta lleno de pagos en
+     *                                  curso
+     * @throws RuntimeException         la excepcion de {@code begin}, o la
+     *                                  del primer pago si fallo con una
+     *                                  excepcion
+     */
+    public boolean execute(String key, String requestId, Runnable begin, BooleanSupplier payment) {
+        if (key == null || key.isBlank()) {
+            throw new IllegalArgumentException("Idempotency key cannot be null or empty");
+        }
+        if (requestId == null || requestId.isEmpty() || begin == null || payment == null) {
+            throw new IllegalArgumentException("Request ID and payment cannot be null");
+        }
+        long now = System.nanoTime();
+        Entry fresh = new Entry(key, requestId, now);
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, fresh);
+            if (existing == null) {
+                arrivals.offer(fresh);
+                if (!evict(now)) {
+                    forget(fresh, new IllegalStateException("Too many payments in flight"));
+                }
+                try {
+                    begin.run();
+                } catch (RuntimeException e) {
+                    forget(fresh, e);
+                }
+                return run(fresh, payment);
+            }
+            if (isExpired(existing, now) && existing.outcome.isDone()) {
+                entries.remove(key, existing);
+                continue;
+            }
+            // Un pago en curso no vence aunque pase el TTL: el reintento lo espera
+            if (!existing.requestId.equals(requestId)) {
+                throw new IllegalArgumentException("Idempotency key already used for another request: " + key);
+            }
+            replays.increment();
+            return await(existing);
+        }
+    }
+
+    /** @return Claves en memoria */
+    public int size() {
+        return entries.size();
+    }
+
+    /** @return Reintentos respondidos con un resultado guardado */
+    public long replayedRequests() {
+        return replays.sum();
+    }
+
+    // ==================== CLAVES ====================
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdNanos >= ttlNanos;
+    }
+
+    /**
+     * Libera una clave cuyo pago no se invoco y avisa a quien la espera.
+     * 
+     * @throws RuntimeException siempre, la causa recibida
+     */
+    private void forget(Entry entry, RuntimeException cause) {
+        entries.remove(entry.key, entry);
+        entry.outcome.completeExceptionally(cause);
+        throw cause;
+    }
+
+    private static boolean run(Entry entry, BooleanSupplier payment) {
+        try {
+            boolean paid = payment.getAsBoolean();
+            entry.outcome.complete(paid);
+            return paid;
+        } catch (Throwable e) {
+            // Los reintentos que esperan reciben la misma falla
+            entry.outcome.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static boolean await(Entry entry) {
+        try {
+            return entry.outcome.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Saca de la cabeza las claves vencidas y las que exceden maxKeys. Si
+     * se excede maxKeys se espera el lock; si no, la limpieza la hace quien
+     * ya lo tenga.
+     * 
+     * @return false si maxKeys se sigue excediendo con pagos en curso
+     */
+    private boolean evict(long now) {
+        if (entries.size() > maxKeys) {
+            evictionLock.lock();
+        } else if (!evictionLock.tryLock()) {
+            return true;
+        }
+        try {
+            int inFlight = 0;
+            Entry head;
+            while ((head = arrivals.peek()) != null && (isExpired(head, now) || entries.size() > maxKeys)) {
+                arrivals.poll();
+                if (!head.outcome.isDone() && entries.get(head.key) == head) {
+                    // Un pago en curso se conserva: va al final de la cola
+                    arrivals.offer(head);
+                    if (++inFlight > entries.size()) {
+                        // Ya se revisaron todas: lo que queda esta en curso
+                        return entries.size() <= maxKeys;
+                    }
+                    continue;
+                }
+                // Si la clave ya se reemplazo por una nueva, no se toca
+                entries.remove(head.key, head);
+            }
+            return true;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+}
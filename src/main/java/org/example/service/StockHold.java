@@ -0,0 +1,248 @@
+package org.example.service;
+
+import org.example.model.product.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reserva temporal de unidades de un producto (ej: una linea del carrito).
+ * 
+ * <p>
+ * Al crearse, la reserva aparta las unidades del stock con
+ * {@link Product#tryHold}: nadie mas puede venderlas mientras la
+ * reserva esta vigente. Termina de una de tres formas:
+ * </p>
+ * <ul>
+ * <li><b>Confirmada</b> ({@link #commitAll}): la compra se concreto y las
+ * unidades quedan descontadas ({@link Product#commitHold}).</li>
+ * <li><b>Liberada</b> ({@link #release}): el usuario quito las unidades
+ * del carrito y vuelven al stock.</li>
+ * <li><b>Vencida</b>: nadie la confirmo a tiempo y el
+ * {@link StockReservations} devuelve las unidades al stock.</li>
+ * </ul>
+ * 
+ * <p>
+ * Un catalogo durable solo registra las unidades al confirmarse la
+ * reserva: si el proceso se reinicia con reservas abiertas, sus unidades
+ * vuelven al stock al reproducir el journal.
+ * </p>
+ * 
+ * <p>
+ * Las transiciones se hacen bajo el monitor de la reserva, asi que un
+ * vencimiento que compite con una confirmacion tiene un solo ganador y
+ * las unidades nunca se devuelven dos veces.
+ * </p>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see StockReservations
+ */
+public final class StockHold {
+
+    /**
+     * Estados de una reserva.
+     */
+    public enum State {
+        /** Unidades apartadas, pendiente de confirmar */
+        HELD,
+        /** Compra confirmada: las unidades quedan descontadas */
+        COMMITTED,
+        /** Unidades devueltas por el usuario */
+        RELEASED,
+        /** Unidades devueltas por vencimiento */
+        EXPIRED
+    }
+
+    private final Product product;
+    private final long deadlineNanos;
+
+    private int quantity;
+    private State state = State.HELD;
+
+    /** true mientras {@link #commitAll} confirma el grupo de esta reserva */
+    private boolean committing;
+
+    // Campos de la rueda de tiempo, solo los usa su hilo
+
+    /** Siguiente reserva en la bandeja de entrada o en la ranura */
+    StockHold next;
+
+    /** Vueltas completas de la rueda que faltan para vencer */
+    long remainingRounds;
+
+    StockHold(Product product, int quantity, long deadlineNanos) {
+        this.product = product;
+        this.quantity = quantity;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /** @return Producto reservado */
+    public Product getProduct() {
+        return product;
+    }
+
+    /** @return Unidades apartadas actualmente */
+    public synchronized int getQuantity() {
+        return quantity;
+    }
+
+    /** @return Estado actual */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /** @return Instante de vencimiento segun {@link System#nanoTime()} */
+    public long getDeadlineNanos() {
+        return deadlineNanos;
+    }
+
+    /**
+     * Aparta mas unidades en la misma reserva; el vencimiento no cambia.
+     * 
+     * @param units Unidades a agregar
+     * @return true si se apartaron; false si la reserva ya no esta vigente
+     *         o se esta confirmando
+     * @throws IllegalArgumentException si las unidades son menores o iguales
+     *                                  a 0 o no hay stock suficiente
+     */
+    public synchronized boolean extend(int units) {
+        if (units <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+        if (state != State.HELD || committing) {
+            return false;
+        }
+        if (!product.tryHold(units)) {
+            throw new IllegalArgumentException("Insufficient stock for " + product.getName()
+                    + ": requested " + units + ", available " + product.getStock());
+        }
+        quantity += units;
+        return true;
+    }
+
+    /**
+     * Devuelve unidades al stock. Si se devuelven todas, la reserva queda
+     * {@link State#RELEASED}.
+     * 
+     * @param units Unidades a devolver
+     * @return true si se devolvieron; false si la reserva ya vencio (las
+     *         unidades ya estaban de vuelta en el stock)
+     * @throws IllegalArgumentException si las unidades no estan entre 1 y la
+     *                                  cantidad apartada
+     * @throws IllegalStateException    si la reserva ya fue confirmada o se
+     *                                  esta confirmando
+     */
+    public synchronized boolean release(int units) {
+        if (state == State.EXPIRED || state == State.RELEASED) {
+            return false;
+        }
+        if (state == State.COMMITTED || committing) {
+            throw new IllegalStateException("Reservation already committed for " + product.getName());
+        }
+        if (units <= 0 || units > quantity) {
+            throw new IllegalArgumentException("Quantity must be between 1 and " + quantity);
+        }
+        product.releaseHold(units);
+        quantity -= units;
+        if (quantity == 0) {
+            state = State.RELEASED;
+        }
+        return true;
+    }
+
+    /**
+     * Devuelve todas las unidades si la reserva sigue vigente; una reserva
+     * confirmada o vencida no cambia.
+     * 
+     * @return true si se devolvieron unidades
+     */
+    public synchronized boolean releaseIfHeld() {
+        if (state != State.HELD || committing) {
+            return false;
+        }
+        state = State.RELEASED;
+        product.releaseHold(quantity);
+        return true;
+    }
+
+    /**
+     * Devuelve las unidades si la reserva sigue vigente. Lo llama la rueda
+     * de tiempo.
+     * 
+     * @return true si la reserva vencio en esta llamada; false si ya
+     *         termino o se esta confirmando
+     */
+    synchronized boolean expire() {
+        if (state != State.HELD || committing) {
+            return false;
+        }
+        state = State.EXPIRED;
+        product.releaseHold(quantity);
+        return true;
+    }
+
+    /**
+     * @return true si la reserva ya no puede cambiar (la rueda la descarta)
+     */
+    synchronized boolean isDone() {
+        return state != State.HELD;
+    }
+
+    /**
+     * Confirma un grupo de reservas: todas o ninguna. Las reservas ya
+     * confirmadas se aceptan sin descontar otra vez; el resultado dice si
+     * esta llamada confirmo todo el grupo, es decir, si quien confirma es
+     * el dueno de las unidades.
+     * 
+     * <p>
+     * Se confirma en dos fases sin anidar monitores: primero se marca cada
+     * reserva vigente como "confirmando" (la rueda no la vence mientras
+     * tanto) y, si todas se pudieron marcar, se confirman. Si alguna ya no
+     * esta vigente se quitan las marcas.
+     * </p>
+     * 
+     * @param holds Reservas a confirmar
+     * @return true si todas las reservas estaban vigentes y esta llamada las
+     *         confirmo; false si alguna ya estaba confirmada
+     * @throws IllegalStateException si alguna vencio o fue liberada; en ese
+     *                               caso ninguna cambia
+     */
+    public static boolean commitAll(List<StockHold> holds) {
+        List<StockHold> marked = new ArrayList<>(holds.size());
+        for (StockHold hold : holds) {
+            State current = hold.markCommitting();
+            if (current == State.HELD) {
+                marked.add(hold);
+            } else if (current != State.COMMITTED) {
+                for (StockHold undo : marked) {
+                    undo.unmarkCommitting();
+                }
+                throw new IllegalStateException("Reservation " + current + " for " + hold.product.getName());
+            }
+        }
+        for (StockHold hold : marked) {
+            hold.finishCommit();
+        }
+        return marked.size() == holds.size();
+    }
+
+    /** @return Estado al marcar; solo se marca si es {@link State#HELD} */
+    private synchronized State markCommitting() {
+        if (state == State.HELD) {
+            committing = true;
+        }
+        return state;
+    }
+
+    private synchronized void unmarkCommitting() {
+        committing = false;
+    }
+
+    private synchronized void finishCommit() {
+        state = State.COMMITTED;
+        committing = false;
+        product.commitHold(quantity);
+    }
+}
@@ -0,0 +1,265 @@
+package org.example.service;
+
+import org.example.config.ConfigurationManager;
+import org.example.model.product.Product;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reservas de stock con vencimiento para los carritos.
+ * 
+ * <p>
+ * {@link #reserve} aparta unidades en una {@link StockHold} que vence
+ * despues del TTL configurado. Si nadie la confirma (checkout) ni la
+ * libera, un solo hilo devuelve las unidades al stock: un carrito
+ * abandonado ya no bloquea el inventario para siempre.
+ * </p>
+ * 
+ * <h2>Rueda de tiempo:</h2>
+ * <p>
+ * Los vencimientos se agrupan en una rueda de {@code wheelSize} ranuras
+ * de un tick cada una (hashed timing wheel). En cada tick el hilo de la
+ * rueda visita una sola ranura y vence las reservas cuyo turno llego; las
+ * que vencen despues de una vuelta completa esperan con un contador de
+ * vueltas. Agregar una reserva cuesta O(1) y cada reserva se visita una
+ * vez por vuelta, sin recorrer todas las reservas ni crear un hilo o una
+ * tarea por reserva.
+ * </p>
+ * 
+ * <p>
+ * Las reservas nuevas se apilan en una bandeja de entrada sin locks
+ * (compare-and-set) y solo el hilo de la rueda las pasa a su ranura, asi
+ * que la rueda no necesita sincronizacion. Las reservas confirmadas o
+ * liberadas no se quitan de la rueda: se descartan cuando pasa su ranura.
+ * </p>
+ * 
+ * <h2>Ejemplo de Uso:</h2>
+ * 
+ * <pre>{@code
+ * StockReservations reservations = StockReservations.getInstance();
+ * StockHold hold = reservations.reserve(laptop, 2); // stock - 2
+ * StockHold.commitAll(List.of(hold));               // compra confirmada
+ * // sin commitAll, las 2 unidades vuelven al stock al vencer
+ * }</pre>
+ * 
+ * @author Marco Vinicio Palazuelos Leon
+ * @version 1.0
+ * @since 2025
+ * @see StockHold
+ */
+public final class StockReservations {
+
+    /** Instancia compartida (lazy, double-checked locking) */
+    private static volatile StockReservations instance;
+
+    private final long ttlNanos;
+    private final long tickNanos;
+    private final int mask;
+
+    /** Ranuras de la rueda: listas enlazadas por {@link StockHold#next} (solo el hilo de la rueda) */
+    private final StockHold[] wheel;
+
+    /** Reservas nuevas aun no asignadas a una ranura */
+    private final AtomicReference<StockHold> inbox = new AtomicReference<>();
+
+    /** Reservas que la rueda aun no descarta */
+    private final LongAdder pending = new LongAdder();
+
+    private final LongAdder expired = new LongAdder();
+
+    private final long startNanos = System.nanoTime();
+
+    private final Thread worker;
+
+    private volatile boolean running = true;
+
+    /**
+     * Crea el servicio con su rueda de tiempo en ejecucion.
+     * 
+     * @param ttl       Vigencia de cada reserva
+     * @param tick      Duracion de una ranura (precision del vencimiento)
+     * @param wheelSize Numero de ranuras (se redondea a potencia de 2)
+     * @throws IllegalArgumentException si alguna duracion no es positiva o
+     *                                  wheelSize es menor a 1
+     */
+    public StockReservations(Duration ttl, Duration tick, int wheelSize) {
+        if (ttl == null || tick == null || ttl.isNegative() || ttl.isZero() || tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("TTL and tick must be positive");
+        }
+        if (wheelSize < 1 || wheelSize > 1 << 24) {
+            throw new IllegalArgumentException("Wheel size must be between 1 and " + (1 << 24));
+        }
+        int slots = Integer.highestOneBit(wheelSize) == wheelSize ? wheelSize : Integer.highestOneBit(wheelSize) << 1;
+        this.ttlNanos = ttl.toNanos();
+        this.tickNanos = tick.toNanos();
+        this.mask = slots - 1;
+        this.wheel = new StockHold[slots];
+        this.worker = Thread.ofVirtual().name("stock-reservations").start(this::runWheel);
+    }
+
+    /**
+     * Obtiene el servicio compartido de la aplicacion, configurado con
+     * {@code reservations.ttl.seconds}, {@code reservations.tick.millis} y
+     * {@code reservations.wheel.size} de {@link ConfigurationManager}.
+     * 
+     * @return Instancia compartida
+     */
+    public static StockReservations getInstance() {
+        if (instance == null) {
+            synchronized (StockReservations.class) {
+                if (instance == null) {
+                    ConfigurationManager config = ConfigurationManager.getInstance();
+                    instance = new StockReservations(
+                            Duration.ofSeconds(Long.parseLong(config.getConfig("reservations.ttl.seconds"))),
+                            Duration.ofMillis(Long.parseLong(config.getConfig("reservations.tick.millis"))),
+                            Integer.parseInt(config.getConfig("reservations.wheel.size")));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Aparta unidades de un producto hasta que venza el TTL.
+     * 
+     * @param product  Producto a reservar
+     * @param quantity Unidades a apartar
+     * @return Reserva vigente
+     * @throws IllegalArgumentException si el producto es null, la cantidad es
+     *                                  menor o igual a 0 o no hay stock suficiente
+     * @throws IllegalStateException    si el servicio ya fue detenido
+     */
+    public StockHold reserve(Product product, int quantity) {
+        if (product == null) {
+            throw new IllegalArgumentException("Product cannot be null");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be greater than zero");
+        }
+        if (!running) {
+            throw new IllegalStateException("Stock reservations are shut down");
+        }
+        if (!product.tryHold(quantity)) {
+            throw new IllegalArgumentException("Insufficient stock for " + product.getName()
+                    + ": requested " + quantity + ", available " + product.getStock());
+        }
+        StockHold hold = new StockHold(product, quantity, System.nanoTime() + ttlNanos);
+        pending.increment();
+        StockHold head;
+        do {
+            head = inbox.get();
+            hold.next = head;
+        } while (!inbox.compareAndSet(head, hold));
+        return hold;
+    }
+
+    /** @return Vigencia de cada reserva */
+    public Duration getTtl() {
+        return Duration.ofNanos(ttlNanos);
+    }
+
+    /**
+     * @return Reservas que la rueda aun tiene registradas (incluye las
+     *         confirmadas o liberadas que todavia no se descartan)
+     */
+    public long pendingHolds() {
+        return pending.sum();
+    }
+
+    /** @return Reservas vencidas por la rueda desde que inicio */
+    public long expiredHolds() {
+        return expired.sum();
+    }
+
+    /**
+     * Detiene la rueda. Las reservas vigentes ya no vencen.
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Espera a que el hilo de la rueda termine despues de {@link #shutdown()}.
+     * 
+     * @param timeout Tiempo maximo de espera
+     * @param unit    Unidad del tiempo
+     * @return true si el hilo termino
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+        try {
+            return worker.join(Duration.ofNanos(unit.toNanos(timeout)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // ==================== RUEDA ====================
+
+    private void runWheel() {
+        long tick = 0;
+        while (running) {
+            long wait = startNanos + (tick + 1) * tickNanos - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            // Si el hilo se atrasa, recupera los ticks pendientes uno por uno
+            transferInbox(tick);
+            expireSlot(tick);
+            tick++;
+        }
+    }
+
+    /**
+     * Pasa las reservas nuevas a su ranura. La ranura del tick {@code t}
+     * se visita al terminar ese tick, asi que una reserva va al primer
+     * tick que termina despues de su vencimiento (o al actual).
+     */
+    private void transferInbox(long currentTick) {
+        StockHold hold = inbox.getAndSet(null);
+        while (hold != null) {
+            StockHold next = hold.next;
+            long expiryTick = Math.max(currentTick,
+                    Math.ceilDiv(hold.getDeadlineNanos() - startNanos, tickNanos) - 1);
+            hold.remainingRounds = (expiryTick - currentTick) / wheel.length;
+            int slot = (int) (expiryTick & mask);
+            hold.next = wheel[slot];
+            wheel[slot] = hold;
+            hold = next;
+        }
+    }
+
+    /** Vence las reservas de la ranura cuyo turno llego y descarta las terminadas. */
+    private void expireSlot(long tick) {
+        int slot = (int) (tick & mask);
+        StockHold kept = null;
+        StockHold hold = wheel[slot];
+        while (hold != null) {
+            StockHold next = hold.next;
+            hold.next = null;
+            if (hold.isDone()) {
+                pending.decrement();
+            } else if (hold.remainingRounds > 0) {
+                hold.remainingRounds--;
+                hold.next = kept;
+                kept = hold;
+            } else if (hold.expire()) {
+                expired.increment();
+                pending.decrement();
+            } else {
+                // Se esta confirmando: si la confirmacion se revierte, vence
+                // en la siguiente vuelta
+                hold.next = kept;
+                kept = hold;
+            }
+            hold = next;
+        }
+        wheel[slot] = kept;
+    }
+}